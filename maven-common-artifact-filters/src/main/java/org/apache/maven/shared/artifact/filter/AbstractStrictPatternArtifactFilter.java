@@ -21,11 +21,7 @@ package org.apache.maven.shared.artifact.filter;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
-import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
-import org.apache.maven.artifact.versioning.VersionRange;
 
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -53,9 +49,9 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
     // fields -----------------------------------------------------------------
 
     /**
-     * The list of artifact patterns to match, as described above.
+     * The artifact patterns to match, as described above, compiled and indexed.
      */
-    private final List patterns;
+    private final ArtifactPatternIndex patterns;
 
     /**
      * Whether this filter should include or exclude artifacts that match the patterns.
@@ -76,7 +72,7 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
      */
     public AbstractStrictPatternArtifactFilter( List patterns, boolean include )
     {
-        this.patterns = patterns;
+        this.patterns = new ArtifactPatternIndex( patterns );
         this.include = include;
     }
 
@@ -86,34 +82,6 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
      * @see org.apache.maven.artifact.resolver.filter.ArtifactFilter#include(org.apache.maven.artifact.Artifact)
      */
     public boolean include( Artifact artifact )
-    {
-        boolean matched = false;
-
-        for ( Iterator i = patterns.iterator(); i.hasNext() & !matched; )
-        {
-            String pattern = (String) i.next();
-
-            if ( include( artifact, pattern ) )
-            {
-                matched = true;
-            }
-        }
-
-        return include ? matched : !matched;
-    }
-
-    // private methods --------------------------------------------------------
-
-    /**
-     * Gets whether the specified artifact matches the specified pattern.
-     * 
-     * @param artifact
-     *            the artifact to check
-     * @param pattern
-     *            the pattern to match, as defined above
-     * @return <code>true</code> if the specified artifact is matched by the specified pattern
-     */
-    private boolean include( Artifact artifact, String pattern )
     {
         String[] tokens = new String[] {
             artifact.getGroupId(),
@@ -122,78 +90,8 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
             artifact.getBaseVersion()
         };
 
-        String[] patternTokens = pattern.split( ":" );
-
-        // fail immediately if pattern tokens outnumber tokens to match
-        boolean matched = ( patternTokens.length <= tokens.length );
-
-        for ( int i = 0; matched && i < patternTokens.length; i++ )
-        {
-            matched = matches( tokens[i], patternTokens[i] );
-        }
+        boolean matched = patterns.indexOf( tokens, false ) >= 0;
 
-        return matched;
-    }
-
-    /**
-     * Gets whether the specified token matches the specified pattern segment.
-     * 
-     * @param token
-     *            the token to check
-     * @param pattern
-     *            the pattern segment to match, as defined above
-     * @return <code>true</code> if the specified token is matched by the specified pattern segment
-     */
-    private boolean matches( String token, String pattern )
-    {
-        boolean matches;
-
-        // support full wildcard and implied wildcard
-        if ( "*".equals( pattern ) || pattern.length() == 0 )
-        {
-            matches = true;
-        }
-        // support contains wildcard
-        else if ( pattern.startsWith( "*" ) && pattern.endsWith( "*" ) )
-        {
-            String contains = pattern.substring( 1, pattern.length() - 1 );
-
-            matches = ( token.indexOf( contains ) != -1 );
-        }
-        // support leading wildcard
-        else if ( pattern.startsWith( "*" ) )
-        {
-            String suffix = pattern.substring( 1, pattern.length() );
-
-            matches = token.endsWith( suffix );
-        }
-        // support trailing wildcard
-        else if ( pattern.endsWith( "*" ) )
-        {
-            String prefix = pattern.substring( 0, pattern.length() - 1 );
-
-            matches = token.startsWith( prefix );
-        }
-        // support versions range 
-        else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ))
-        {
-        	matches = isVersionIncludedInRange(token, pattern);
-        }
-        // support exact match
-        else
-        {
-            matches = token.equals( pattern );
-        }
-
-        return matches;
+        return include ? matched : !matched;
     }
-    
-    private boolean isVersionIncludedInRange(final String version, final String range) {
-    	try {
-			return VersionRange.createFromVersionSpec(range).containsVersion(new DefaultArtifactVersion(version));
-		} catch (InvalidVersionSpecificationException e) {
-			return false;
-		}
-	}
-
 }
@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.artifact.filter;
+
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * An artifact pattern, such as <code>groupId:artifactId:*</code>, compiled once into a matcher for each of its
+ * segments, so matching an artifact no longer splits the pattern nor parses its version ranges.
+ * <p>
+ * Each segment supports the full <code>*</code> wildcard, an empty segment being an implied one, the leading, trailing
+ * and contains wildcards, the version ranges and the exact match.
+ * </p>
+ *
+ * @version $Id$
+ */
+final class ArtifactPattern
+{
+    // constants --------------------------------------------------------------
+
+    private static final SegmentMatcher ANY = new SegmentMatcher()
+    {
+        public boolean matches( final String token )
+        {
+            return true;
+        }
+    };
+
+    private static final SegmentMatcher NONE = new SegmentMatcher()
+    {
+        public boolean matches( final String token )
+        {
+            return false;
+        }
+    };
+
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The pattern as given.
+     */
+    private final String pattern;
+
+    /**
+     * The matchers of the segments of the pattern, in order.
+     */
+    private final SegmentMatcher[] segments;
+
+    /**
+     * Whether the first segment is the full wildcard, in which case the pattern may also match the last tokens.
+     */
+    private final boolean leadingWildcard;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Compiles the specified pattern.
+     *
+     * @param pattern
+     *            the pattern, its segments being separated by colons
+     */
+    public ArtifactPattern( final String pattern )
+    {
+        this.pattern = pattern;
+
+        final String[] patternTokens = pattern.split( ":" );
+
+        segments = new SegmentMatcher[patternTokens.length];
+        for ( int i = 0; i < patternTokens.length; i++ )
+        {
+            segments[i] = compileSegment( patternTokens[i] );
+        }
+
+        leadingWildcard = patternTokens.length > 0 && "*".equals( patternTokens[0] );
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Gets the pattern this was compiled from.
+     *
+     * @return the pattern
+     */
+    public String getPattern()
+    {
+        return pattern;
+    }
+
+    /**
+     * Gets the number of segments of the pattern.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount()
+    {
+        return segments.length;
+    }
+
+    /**
+     * Gets whether the specified tokens are matched by the pattern, each token against the segment at the same
+     * position.
+     *
+     * @param tokens
+     *            the tokens to check
+     * @return <code>true</code> if the tokens are matched by the pattern
+     */
+    public boolean matches( final String[] tokens )
+    {
+        // fail immediately if pattern tokens outnumber tokens to match
+        boolean matched = ( segments.length <= tokens.length );
+
+        for ( int i = 0; matched && i < segments.length; i++ )
+        {
+            matched = segments[i].matches( tokens[i] );
+        }
+
+        return matched;
+    }
+
+    /**
+     * Gets whether the specified tokens are matched by the pattern, either from the first token or, in the case of a
+     * starting <code>*</code> like <code>*:jar:*</code>, against the last tokens.
+     *
+     * @param tokens
+     *            the tokens to check
+     * @return <code>true</code> if the tokens are matched by the pattern
+     */
+    public boolean matchesWithLeadingWildcard( final String[] tokens )
+    {
+        if ( matches( tokens ) )
+        {
+            return true;
+        }
+
+        if ( !leadingWildcard || segments.length >= tokens.length )
+        {
+            return false;
+        }
+
+        final int offset = tokens.length - segments.length;
+
+        boolean matched = true;
+        for ( int i = 0; matched && i < segments.length; i++ )
+        {
+            matched = segments[i].matches( tokens[i + offset] );
+        }
+
+        return matched;
+    }
+
+    /**
+     * Gets the literal a token must be equal to for the specified segment to match it.
+     *
+     * @param index
+     *            the index of the segment
+     * @return the literal, or <code>null</code> if the segment is not an exact match
+     */
+    public String getExactSegment( final int index )
+    {
+        return segments[index] instanceof ExactMatcher ? ( (ExactMatcher) segments[index] ).value : null;
+    }
+
+    /**
+     * Gets the literal a token must start with for the specified segment to match it.
+     *
+     * @param index
+     *            the index of the segment
+     * @return the literal, or <code>null</code> if the segment does not have a trailing wildcard only
+     */
+    public String getPrefixSegment( final int index )
+    {
+        return segments[index] instanceof PrefixMatcher ? ( (PrefixMatcher) segments[index] ).prefix : null;
+    }
+
+    public String toString()
+    {
+        return pattern;
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Compiles a pattern segment into the matcher of its kind.
+     *
+     * @param segment
+     *            the pattern segment
+     * @return the matcher of the segment
+     */
+    private static SegmentMatcher compileSegment( final String segment )
+    {
+        // support full wildcard and implied wildcard
+        if ( "*".equals( segment ) || segment.length() == 0 )
+        {
+            return ANY;
+        }
+        // support contains wildcard
+        else if ( segment.startsWith( "*" ) && segment.endsWith( "*" ) )
+        {
+            return new ContainsMatcher( segment.substring( 1, segment.length() - 1 ) );
+        }
+        // support leading wildcard
+        else if ( segment.startsWith( "*" ) )
+        {
+            return new SuffixMatcher( segment.substring( 1 ) );
+        }
+        // support trailing wildcard
+        else if ( segment.endsWith( "*" ) )
+        {
+            return new PrefixMatcher( segment.substring( 0, segment.length() - 1 ) );
+        }
+        // support versions range
+        else if ( segment.startsWith( "[" ) || segment.startsWith( "(" ) )
+        {
+            try
+            {
+                return new RangeMatcher( VersionRange.createFromVersionSpec( segment ) );
+            }
+            catch ( final InvalidVersionSpecificationException e )
+            {
+                return NONE;
+            }
+        }
+        // support exact match
+        else
+        {
+            return new ExactMatcher( segment );
+        }
+    }
+
+    // inner classes ----------------------------------------------------------
+
+    /**
+     * Matches a single token against a pattern segment.
+     */
+    private interface SegmentMatcher
+    {
+        boolean matches( String token );
+    }
+
+    private static final class ExactMatcher implements SegmentMatcher
+    {
+        private final String value;
+
+        ExactMatcher( final String value )
+        {
+            this.value = value;
+        }
+
+        public boolean matches( final String token )
+        {
+            return token.equals( value );
+        }
+    }
+
+    private static final class PrefixMatcher implements SegmentMatcher
+    {
+        private final String prefix;
+
+        PrefixMatcher( final String prefix )
+        {
+            this.prefix = prefix;
+        }
+
+        public boolean matches( final String token )
+        {
+            return token.startsWith( prefix );
+        }
+    }
+
+    private static final class SuffixMatcher implements SegmentMatcher
+    {
+        private final String suffix;
+
+        SuffixMatcher( final String suffix )
+        {
+            this.suffix = suffix;
+        }
+
+        public boolean matches( final String token )
+        {
+            return token.endsWith( suffix );
+        }
+    }
+
+    private static final class ContainsMatcher implements SegmentMatcher
+    {
+        private final String contains;
+
+        ContainsMatcher( final String contains )
+        {
+            this.contains = contains;
+        }
+
+        public boolean matches( final String token )
+        {
+            return token.indexOf( contains ) != -1;
+        }
+    }
+
+    private static final class RangeMatcher implements SegmentMatcher
+    {
+        private final VersionRange range;
+
+        RangeMatcher( final VersionRange range )
+        {
+            this.range = range;
+        }
+
+        public boolean matches( final String token )
+        {
+            return range.containsVersion( new DefaultArtifactVersion( token ) );
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.artifact.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered list of compiled artifact patterns, indexed on their first segments so that finding the first pattern
+ * matching an artifact only checks the patterns which may match it, however many patterns there are.
+ * <p>
+ * The patterns whose group id segment is an exact match are in a hash index, by group id then by artifact id when that
+ * segment is an exact match too. The patterns whose group id segment only has a trailing wildcard are in a trie of
+ * their literal prefixes. The other patterns, such as <code>*:artifactId</code>, are always checked.
+ * </p>
+ *
+ * @version $Id$
+ */
+final class ArtifactPatternIndex
+{
+    // constants --------------------------------------------------------------
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The compiled patterns, in order.
+     */
+    private final ArtifactPattern[] patterns;
+
+    /**
+     * The group id to the {@link GroupPatterns} of the patterns whose group id segment is an exact match.
+     */
+    private final Map groupPatterns = new HashMap();
+
+    /**
+     * The trie of the patterns whose group id segment has a trailing wildcard.
+     */
+    private final PrefixNode prefixPatterns = new PrefixNode();
+
+    /**
+     * The indices of the patterns which are not indexed.
+     */
+    private final int[] otherPatterns;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Compiles and indexes the specified patterns.
+     *
+     * @param patterns
+     *            the list of artifact patterns, as strings
+     */
+    public ArtifactPatternIndex( final List patterns )
+    {
+        this.patterns = new ArtifactPattern[patterns.size()];
+
+        final List others = new ArrayList();
+        for ( int i = 0; i < this.patterns.length; i++ )
+        {
+            final ArtifactPattern pattern = new ArtifactPattern( (String) patterns.get( i ) );
+            this.patterns[i] = pattern;
+
+            final String groupId = pattern.getSegmentCount() > 0 ? pattern.getExactSegment( 0 ) : null;
+            final String groupIdPrefix = pattern.getSegmentCount() > 0 ? pattern.getPrefixSegment( 0 ) : null;
+
+            if ( groupId != null )
+            {
+                GroupPatterns group = (GroupPatterns) groupPatterns.get( groupId );
+                if ( group == null )
+                {
+                    group = new GroupPatterns();
+                    groupPatterns.put( groupId, group );
+                }
+
+                final String artifactId = pattern.getSegmentCount() > 1 ? pattern.getExactSegment( 1 ) : null;
+                if ( artifactId != null )
+                {
+                    group.artifactPatterns.put( artifactId, add( (int[]) group.artifactPatterns.get( artifactId ), i ) );
+                }
+                else
+                {
+                    group.patterns = add( group.patterns, i );
+                }
+            }
+            else if ( groupIdPrefix != null )
+            {
+                prefixPatterns.add( groupIdPrefix, i );
+            }
+            else
+            {
+                others.add( new Integer( i ) );
+            }
+        }
+
+        otherPatterns = new int[others.size()];
+        for ( int i = 0; i < otherPatterns.length; i++ )
+        {
+            otherPatterns[i] = ( (Integer) others.get( i ) ).intValue();
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Gets the number of patterns.
+     *
+     * @return the number of patterns
+     */
+    public int size()
+    {
+        return patterns.length;
+    }
+
+    /**
+     * Gets a pattern.
+     *
+     * @param index
+     *            the index of the pattern, in the order given
+     * @return the compiled pattern
+     */
+    public ArtifactPattern get( final int index )
+    {
+        return patterns[index];
+    }
+
+    /**
+     * Finds the first pattern, in the order given, matching the specified tokens.
+     *
+     * @param tokens
+     *            the tokens to match, starting with the group id then the artifact id
+     * @param leadingWildcard
+     *            <code>true</code> to match with {@link ArtifactPattern#matchesWithLeadingWildcard(String[])},
+     *            <code>false</code> with {@link ArtifactPattern#matches(String[])}
+     * @return the index of the first matching pattern, or <code>-1</code> if none matches
+     */
+    public int indexOf( final String[] tokens, final boolean leadingWildcard )
+    {
+        if ( patterns.length == 0 )
+        {
+            return -1;
+        }
+
+        int[] candidates = otherPatterns;
+
+        if ( tokens.length > 0 && tokens[0] != null )
+        {
+            final GroupPatterns group = (GroupPatterns) groupPatterns.get( tokens[0] );
+            if ( group != null )
+            {
+                candidates = merge( candidates, group.patterns );
+
+                if ( tokens.length > 1 && tokens[1] != null )
+                {
+                    candidates = merge( candidates, (int[]) group.artifactPatterns.get( tokens[1] ) );
+                }
+            }
+
+            candidates = prefixPatterns.collect( tokens[0], candidates );
+        }
+
+        for ( int i = 0; i < candidates.length; i++ )
+        {
+            final ArtifactPattern pattern = patterns[candidates[i]];
+
+            if ( leadingWildcard ? pattern.matchesWithLeadingWildcard( tokens ) : pattern.matches( tokens ) )
+            {
+                return candidates[i];
+            }
+        }
+
+        return -1;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private static int[] add( final int[] indices, final int index )
+    {
+        if ( indices == null )
+        {
+            return new int[] { index };
+        }
+
+        final int[] added = new int[indices.length + 1];
+        System.arraycopy( indices, 0, added, 0, indices.length );
+        added[indices.length] = index;
+        return added;
+    }
+
+    /**
+     * Merges two ascending lists of distinct pattern indices.
+     */
+    private static int[] merge( final int[] a, final int[] b )
+    {
+        if ( b == null || b.length == 0 )
+        {
+            return a;
+        }
+        if ( a.length == 0 )
+        {
+            return b;
+        }
+
+        final int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while ( i < a.length && j < b.length )
+        {
+            merged[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while ( i < a.length )
+        {
+            merged[k++] = a[i++];
+        }
+        while ( j < b.length )
+        {
+            merged[k++] = b[j++];
+        }
+        return merged;
+    }
+
+    // inner classes ----------------------------------------------------------
+
+    /**
+     * The patterns of an exact group id.
+     */
+    private static final class GroupPatterns
+    {
+        /**
+         * The patterns whose artifact id segment is not an exact match.
+         */
+        private int[] patterns = NO_PATTERNS;
+
+        /**
+         * The artifact id to the patterns whose artifact id segment is an exact match.
+         */
+        private final Map artifactPatterns = new HashMap();
+    }
+
+    /**
+     * A node of the trie of the literal prefixes, holding the patterns whose prefix ends here.
+     */
+    private static final class PrefixNode
+    {
+        private char[] keys = new char[0];
+
+        private PrefixNode[] children = new PrefixNode[0];
+
+        private int[] patterns = NO_PATTERNS;
+
+        void add( final String prefix, final int index )
+        {
+            PrefixNode node = this;
+            for ( int i = 0; i < prefix.length(); i++ )
+            {
+                node = node.getOrCreateChild( prefix.charAt( i ) );
+            }
+            node.patterns = ArtifactPatternIndex.add( node.patterns, index );
+        }
+
+        /**
+         * Adds the patterns of all the prefixes of the specified token to the candidates.
+         */
+        int[] collect( final String token, final int[] candidates )
+        {
+            int[] collected = merge( candidates, patterns );
+
+            PrefixNode node = this;
+            for ( int i = 0; node != null && i < token.length(); i++ )
+            {
+                node = node.getChild( token.charAt( i ) );
+                if ( node != null )
+                {
+                    collected = merge( collected, node.patterns );
+                }
+            }
+            return collected;
+        }
+
+        private PrefixNode getChild( final char key )
+        {
+            final int i = Arrays.binarySearch( keys, key );
+
+            return i >= 0 ? children[i] : null;
+        }
+
+        private PrefixNode getOrCreateChild( final char key )
+        {
+            int i = Arrays.binarySearch( keys, key );
+            if ( i >= 0 )
+            {
+                return children[i];
+            }
+
+            // keep the keys sorted
+            i = -i - 1;
+
+            final char[] newKeys = new char[keys.length + 1];
+            System.arraycopy( keys, 0, newKeys, 0, i );
+            System.arraycopy( keys, i, newKeys, i + 1, keys.length - i );
+            newKeys[i] = key;
+
+            final PrefixNode[] newChildren = new PrefixNode[children.length + 1];
+            System.arraycopy( children, 0, newChildren, 0, i );
+            System.arraycopy( children, i, newChildren, i + 1, children.length - i );
+            newChildren[i] = new PrefixNode();
+
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[i];
+        }
+    }
+}
@@ -21,9 +21,6 @@ package org.apache.maven.shared.artifact.filter;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
-import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
-import org.apache.maven.artifact.versioning.VersionRange;
 import org.codehaus.plexus.logging.Logger;
 
 import java.util.ArrayList;
@@ -44,12 +41,24 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
 
     private final List negativePatterns;
 
+    private final ArtifactPatternIndex positiveMatchers;
+
+    private final ArtifactPatternIndex negativeMatchers;
+
     private final boolean actTransitively;
 
     private final Set patternsTriggered = new HashSet();
 
     private final List filteredArtifactIds = new ArrayList();
 
+    /**
+     * The artifact being matched by {@link #patternMatches(Artifact)}, and its tokens once computed, shared by the
+     * positive and negative patterns.
+     */
+    private Artifact matchedArtifact;
+
+    private TokenizedArtifact matchedTokens;
+
     public PatternIncludesArtifactFilter( final List patterns )
     {
         this( patterns, false );
@@ -79,6 +88,8 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
 
         positivePatterns = pos;
         negativePatterns = neg;
+        positiveMatchers = new ArtifactPatternIndex( pos );
+        negativeMatchers = new ArtifactPatternIndex( neg );
     }
 
     public boolean include( final Artifact artifact )
@@ -95,7 +106,16 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
 
     protected boolean patternMatches( final Artifact artifact )
     {
-        return ( positiveMatch( artifact ) == Boolean.TRUE ) || ( negativeMatch( artifact ) == Boolean.FALSE );
+        matchedArtifact = artifact;
+        try
+        {
+            return ( positiveMatch( artifact ) == Boolean.TRUE ) || ( negativeMatch( artifact ) == Boolean.FALSE );
+        }
+        finally
+        {
+            matchedArtifact = null;
+            matchedTokens = null;
+        }
     }
 
     protected void addFilteredArtifactId( final String artifactId )
@@ -105,59 +125,74 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
 
     private Boolean negativeMatch( final Artifact artifact )
     {
-        if ( ( negativePatterns == null ) || negativePatterns.isEmpty() )
+        if ( negativeMatchers.size() == 0 )
         {
             return null;
         }
         else
         {
-            return Boolean.valueOf( match( artifact, negativePatterns ) );
+            return Boolean.valueOf( match( tokenize( artifact ), negativeMatchers ) );
         }
     }
 
     protected Boolean positiveMatch( final Artifact artifact )
     {
-        if ( ( positivePatterns == null ) || positivePatterns.isEmpty() )
+        if ( positiveMatchers.size() == 0 )
         {
             return null;
         }
         else
         {
-            return Boolean.valueOf( match( artifact, positivePatterns ) );
+            return Boolean.valueOf( match( tokenize( artifact ), positiveMatchers ) );
         }
     }
 
-    private boolean match( final Artifact artifact, final List patterns )
+    /**
+     * Split the IDs of an artifact into their tokens, only once while it is matched by
+     * {@link #patternMatches(Artifact)}.
+     */
+    private TokenizedArtifact tokenize( final Artifact artifact )
     {
-        final String shortId = ArtifactUtils.versionlessKey( artifact );
-        final String id = artifact.getDependencyConflictId();
-        final String wholeId = artifact.getId();
+        if ( artifact != matchedArtifact )
+        {
+            return new TokenizedArtifact( artifact );
+        }
+
+        if ( matchedTokens == null )
+        {
+            matchedTokens = new TokenizedArtifact( artifact );
+        }
+        return matchedTokens;
+    }
 
-        if ( matchAgainst( wholeId, patterns, false ) )
+    private boolean match( final TokenizedArtifact artifact, final ArtifactPatternIndex patterns )
+    {
+        if ( matchAgainst( artifact.wholeId, artifact.wholeIdTokens, patterns, false ) )
         {
             return true;
         }
 
-        if ( matchAgainst( id, patterns, false ) )
+        if ( matchAgainst( artifact.id, artifact.idTokens, patterns, false ) )
         {
             return true;
         }
 
-        if ( matchAgainst( shortId, patterns, false ) )
+        if ( matchAgainst( artifact.shortId, artifact.shortIdTokens, patterns, false ) )
         {
             return true;
         }
 
         if ( actTransitively )
         {
-            final List depTrail = artifact.getDependencyTrail();
+            final String[] depTrail = artifact.getDependencyTrail();
 
-            if ( ( depTrail != null ) && depTrail.size() > 1 )
+            if ( depTrail.length > 1 )
             {
-                for ( final Iterator iterator = depTrail.iterator(); iterator.hasNext(); )
+                final String[][] depTrailTokens = artifact.getDependencyTrailTokens();
+
+                for ( int i = 0; i < depTrail.length; i++ )
                 {
-                    final String trailItem = (String) iterator.next();
-                    if ( matchAgainst( trailItem, patterns, true ) )
+                    if ( matchAgainst( depTrail[i], depTrailTokens[i], patterns, true ) )
                     {
                         return true;
                     }
@@ -168,114 +203,32 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
         return false;
     }
 
-    private boolean matchAgainst( final String value, final List patterns, final boolean regionMatch )
+    private boolean matchAgainst( final String value, final String[] tokens, final ArtifactPatternIndex patterns,
+                                  final boolean regionMatch )
     {
-        for ( final Iterator iterator = patterns.iterator(); iterator.hasNext(); )
+        if ( !regionMatch )
         {
-            final String pattern = (String) iterator.next();
-
-            final String[] patternTokens = pattern.split( ":" );
-            final String[] tokens = value.split( ":" );
-
-            // fail immediately if pattern tokens outnumber tokens to match
-            boolean matched = ( patternTokens.length <= tokens.length );
-
-            for ( int i = 0; matched && i < patternTokens.length; i++ )
-            {
-                matched = matches( tokens[i], patternTokens[i] );
-            }
-
-            // // case of starting '*' like '*:jar:*'
-            if ( !matched && patternTokens.length < tokens.length && patternTokens.length > 0
-                            && "*".equals( patternTokens[0] ) )
-            {
-                matched = true;
-                for ( int i = 0; matched && i < patternTokens.length; i++ )
-                {
-                    matched = matches( tokens[i + ( tokens.length - patternTokens.length )], patternTokens[i] );
-                }
-            }
-
-            if ( matched )
+            // only the patterns which may match the tokens are checked
+            final int index = patterns.indexOf( tokens, true );
+            if ( index >= 0 )
             {
-                patternsTriggered.add( pattern );
+                patternsTriggered.add( patterns.get( index ).getPattern() );
                 return true;
             }
+            return false;
+        }
+
+        for ( int i = 0; i < patterns.size(); i++ )
+        {
+            final ArtifactPattern pattern = patterns.get( i );
 
-            if ( regionMatch && value.indexOf( pattern ) > -1 )
+            if ( pattern.matchesWithLeadingWildcard( tokens ) || ( value.indexOf( pattern.getPattern() ) > -1 ) )
             {
-                patternsTriggered.add( pattern );
+                patternsTriggered.add( pattern.getPattern() );
                 return true;
             }
-
         }
         return false;
-
-    }
-
-    /**
-     * Gets whether the specified token matches the specified pattern segment.
-     * 
-     * @param token
-     *            the token to check
-     * @param pattern
-     *            the pattern segment to match, as defined above
-     * @return <code>true</code> if the specified token is matched by the specified pattern segment
-     */
-    private boolean matches( final String token, final String pattern )
-    {
-        boolean matches;
-
-        // support full wildcard and implied wildcard
-        if ( "*".equals( pattern ) || pattern.length() == 0 )
-        {
-            matches = true;
-        }
-        // support contains wildcard
-        else if ( pattern.startsWith( "*" ) && pattern.endsWith( "*" ) )
-        {
-            final String contains = pattern.substring( 1, pattern.length() - 1 );
-
-            matches = ( token.indexOf( contains ) != -1 );
-        }
-        // support leading wildcard
-        else if ( pattern.startsWith( "*" ) )
-        {
-            final String suffix = pattern.substring( 1, pattern.length() );
-
-            matches = token.endsWith( suffix );
-        }
-        // support trailing wildcard
-        else if ( pattern.endsWith( "*" ) )
-        {
-            final String prefix = pattern.substring( 0, pattern.length() - 1 );
-
-            matches = token.startsWith( prefix );
-        }
-        // support versions range
-        else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ) )
-        {
-            matches = isVersionIncludedInRange( token, pattern );
-        }
-        // support exact match
-        else
-        {
-            matches = token.equals( pattern );
-        }
-
-        return matches;
-    }
-
-    private boolean isVersionIncludedInRange( final String version, final String range )
-    {
-        try
-        {
-            return VersionRange.createFromVersionSpec( range ).containsVersion( new DefaultArtifactVersion( version ) );
-        }
-        catch ( final InvalidVersionSpecificationException e )
-        {
-            return false;
-        }
     }
 
     public void reportMissedCriteria( final Logger logger )
@@ -369,4 +322,65 @@ public class PatternIncludesArtifactFilter implements ArtifactFilter, Statistics
         return false;
     }
 
+    /**
+     * The IDs an artifact is matched against, each split into its tokens only once for all the patterns.
+     */
+    private static final class TokenizedArtifact
+    {
+        private final Artifact artifact;
+
+        private final String wholeId;
+
+        private final String[] wholeIdTokens;
+
+        private final String id;
+
+        private final String[] idTokens;
+
+        private final String shortId;
+
+        private final String[] shortIdTokens;
+
+        private String[] depTrail;
+
+        private String[][] depTrailTokens;
+
+        TokenizedArtifact( final Artifact artifact )
+        {
+            this.artifact = artifact;
+
+            wholeId = artifact.getId();
+            wholeIdTokens = wholeId.split( ":" );
+            id = artifact.getDependencyConflictId();
+            idTokens = id.split( ":" );
+            shortId = ArtifactUtils.versionlessKey( artifact );
+            shortIdTokens = shortId.split( ":" );
+        }
+
+        String[] getDependencyTrail()
+        {
+            if ( depTrail == null )
+            {
+                final List trail = artifact.getDependencyTrail();
+
+                depTrail = trail == null ? new String[0] : (String[]) trail.toArray( new String[trail.size()] );
+            }
+            return depTrail;
+        }
+
+        String[][] getDependencyTrailTokens()
+        {
+            if ( depTrailTokens == null )
+            {
+                final String[] trail = getDependencyTrail();
+
+                depTrailTokens = new String[trail.length][];
+                for ( int i = 0; i < trail.length; i++ )
+                {
+                    depTrailTokens[i] = trail[i].split( ":" );
+                }
+            }
+            return depTrailTokens;
+        }
+    }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -36,6 +37,7 @@ import org.codehaus.plexus.util.StringUtils;
  */
 public abstract class AbstractArtifactFeatureFilter
     extends AbstractArtifactsFilter
+    implements CompilableArtifactsFilter
 {
     /** The list of types or classifiers to include */
     private List includes;
@@ -59,93 +61,110 @@ public abstract class AbstractArtifactFeatureFilter
      */
     public Set filter( Set artifacts )
     {
-        Set results = artifacts;
-
-        if ( this.includes != null && !this.includes.isEmpty() )
+        if ( !hasFeatures( this.includes ) && !hasFeatures( this.excludes ) )
         {
-            results = filterIncludes( results, this.includes );
+            return artifacts;
         }
 
-        if ( this.excludes != null && !this.excludes.isEmpty() )
+        ArtifactFilter filter = compile();
+
+        Set result = new HashSet();
+        Iterator iter = artifacts.iterator();
+        while ( iter.hasNext() )
         {
-            results = filterExcludes( results, this.excludes );
+            Artifact artifact = (Artifact) iter.next();
+            if ( filter.include( artifact ) )
+            {
+                result.add( artifact );
+            }
         }
-
-        return results;
+        return result;
     }
 
     /**
-     * Processes the dependencies list and includes the dependencies that match a filter in the list.
+     * Compiles the includes and excludes into a predicate: an artifact is kept if its feature matches one of the
+     * includes, if any, and none of the excludes. Unless {@link #compareFeatures(String, String)} is overridden, the
+     * features are looked up in hash sets instead of being compared to each include and exclude.
      * 
-     * @param depends List of dependencies.
-     * @param includes List of types or classifiers to include.
-     * @return a set of filtered artifacts.
+     * @return the predicate
      */
-    private Set filterIncludes( Set artifacts, List theIncludes )
+    public ArtifactFilter compile()
     {
-        Set result = new HashSet();
+        final List theIncludes = hasFeatures( this.includes ) ? this.includes : null;
+        final List theExcludes = hasFeatures( this.excludes ) ? this.excludes : null;
 
-        Iterator includeIter = theIncludes.iterator();
-        while ( includeIter.hasNext() )
+        if ( isCompareFeaturesOverridden() )
         {
-            String include = (String) includeIter.next();
-            Iterator iter = artifacts.iterator();
-            while ( iter.hasNext() )
+            return new ArtifactFilter()
             {
-                Artifact artifact = (Artifact) iter.next();
-
-                // if the classifier or type of the artifact
-                // matches the feature
-                // to include, add to the
-                // results
-                if ( compareFeatures( getArtifactFeature( artifact ), include ) )
+                public boolean include( Artifact artifact )
                 {
-                    result.add( artifact );
+                    String artifactFeature = getArtifactFeature( artifact );
+
+                    return ( theIncludes == null || matchesFeature( artifactFeature, theIncludes ) )
+                        && ( theExcludes == null || !matchesFeature( artifactFeature, theExcludes ) );
                 }
-            }
+            };
         }
-        return result;
+
+        final Set includeSet = theIncludes != null ? new HashSet( theIncludes ) : null;
+        final Set excludeSet = theExcludes != null ? new HashSet( theExcludes ) : null;
+
+        return new ArtifactFilter()
+        {
+            public boolean include( Artifact artifact )
+            {
+                String artifactFeature = getArtifactFeature( artifact );
+
+                return ( includeSet == null || includeSet.contains( artifactFeature ) )
+                    && ( excludeSet == null || !excludeSet.contains( artifactFeature ) );
+            }
+        };
+    }
+
+    private static boolean hasFeatures( List features )
+    {
+        return features != null && !features.isEmpty();
     }
 
     /**
-     * Processes the dependencies list and excludes the dependencies that match a filter in the list.
+     * Gets whether the feature of an artifact matches one of the specified types or classifiers.
      * 
-     * @param depends List of dependencies.
-     * @param excludes List of types or classifiers to exclude.
-     * @return a set of filtered artifacts.
+     * @param artifactFeature the feature of the artifact
+     * @param features List of types or classifiers
+     * @return true if one of the features matches
      */
-    private Set filterExcludes( Set artifacts, List theExcludes )
+    private boolean matchesFeature( String artifactFeature, List features )
     {
-        Set result = new HashSet();
-
-        Iterator iter = artifacts.iterator();
+        Iterator iter = features.iterator();
         while ( iter.hasNext() )
         {
-            boolean exclude = false;
-            Artifact artifact = (Artifact) iter.next();
-            String artifactFeature = getArtifactFeature( artifact );
-
-            // look through all types or classifiers. If no
-            // matches are found
-            // then it can be added to the results.
-            Iterator excludeIter = theExcludes.iterator();
-            while ( excludeIter.hasNext() )
+            if ( compareFeatures( artifactFeature, (String) iter.next() ) )
             {
-                String excludeFeature = (String) excludeIter.next();
-                if ( compareFeatures( artifactFeature, excludeFeature ) )
-                {
-                    exclude = true;
-                    break;
-                }
+                return true;
             }
+        }
+        return false;
+    }
 
-            if ( !exclude )
+    /**
+     * @return true if a subclass customizes the feature comparison, so features cannot be looked up by equality.
+     */
+    private boolean isCompareFeaturesOverridden()
+    {
+        for ( Class clazz = getClass(); clazz != AbstractArtifactFeatureFilter.class; clazz = clazz.getSuperclass() )
+        {
+            try
             {
-                result.add( artifact );
+                clazz.getDeclaredMethod( "compareFeatures", new Class[] { String.class, String.class } );
+                return true;
+            }
+            catch ( NoSuchMethodException e )
+            {
+                // not overridden by this class
             }
         }
-
-        return result;
+        return false;
     }
 
     /**
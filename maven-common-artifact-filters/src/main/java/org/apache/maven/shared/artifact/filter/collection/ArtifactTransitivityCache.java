@@ -0,0 +1,159 @@
+package org.apache.maven.shared.artifact.filter.collection;
+
+/* 
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A size-bounded cache of the transitive dependencies of artifacts, so the POM of an artifact is only read and modeled
+ * once however many {@link ArtifactTransitivityFilter}s are created for it. An artifact, given by its
+ * <code>groupId:artifactId:version</code>, maps to the <code>groupId:artifactId</code> keys of its transitive
+ * dependencies. The least recently used artifacts are evicted once the cache is full.
+ * <p>
+ * A cache is meant to be shared by the filters of a build, and is thread safe.
+ * </p>
+ * 
+ * @version $Id$
+ */
+public class ArtifactTransitivityCache
+{
+    /**
+     * The default maximum number of artifacts cached.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final int maxSize;
+
+    /**
+     * The artifact key to the unmodifiable set of the keys of its transitive dependencies, in access order.
+     */
+    private final Map entries;
+
+    private int hits;
+
+    private int misses;
+
+    public ArtifactTransitivityCache()
+    {
+        this( DEFAULT_MAX_SIZE );
+    }
+
+    /**
+     * @param maxSize the maximum number of artifacts cached.
+     */
+    public ArtifactTransitivityCache( int maxSize )
+    {
+        if ( maxSize < 1 )
+        {
+            throw new IllegalArgumentException( "The maximum size must be positive: " + maxSize );
+        }
+        this.maxSize = maxSize;
+
+        entries = new LinkedHashMap( 16, 0.75f, true )
+        {
+            protected boolean removeEldestEntry( Map.Entry eldest )
+            {
+                return size() > ArtifactTransitivityCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the transitive dependencies of an artifact.
+     * 
+     * @param groupId the group id of the artifact.
+     * @param artifactId the artifact id of the artifact.
+     * @param version the version of the artifact.
+     * @return the unmodifiable set of the <code>groupId:artifactId</code> keys of its transitive dependencies, or
+     *         null if the artifact is not cached.
+     */
+    public synchronized Set get( String groupId, String artifactId, String version )
+    {
+        Set keys = (Set) entries.get( getKey( groupId, artifactId, version ) );
+        if ( keys != null )
+        {
+            hits++;
+        }
+        else
+        {
+            misses++;
+        }
+        return keys;
+    }
+
+    /**
+     * Caches the transitive dependencies of an artifact.
+     * 
+     * @param groupId the group id of the artifact.
+     * @param artifactId the artifact id of the artifact.
+     * @param version the version of the artifact.
+     * @param transitiveKeys the <code>groupId:artifactId</code> keys of its transitive dependencies.
+     * @return the unmodifiable set of the keys cached.
+     */
+    public synchronized Set put( String groupId, String artifactId, String version, Set transitiveKeys )
+    {
+        Set keys = Collections.unmodifiableSet( new HashSet( transitiveKeys ) );
+        entries.put( getKey( groupId, artifactId, version ), keys );
+        return keys;
+    }
+
+    /**
+     * Removes all the artifacts from the cache, such as when their POMs may have changed.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public int getMaxSize()
+    {
+        return this.maxSize;
+    }
+
+    /**
+     * @return the number of lookups which found the artifact.
+     */
+    public synchronized int getHits()
+    {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of lookups which did not find the artifact.
+     */
+    public synchronized int getMisses()
+    {
+        return this.misses;
+    }
+
+    private static String getKey( String groupId, String artifactId, String version )
+    {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+}
@@ -26,8 +26,10 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.artifact.factory.ArtifactFactory;
 import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.project.MavenProject;
@@ -37,16 +39,30 @@ import org.apache.maven.project.artifact.InvalidDependencyVersionException;
 
 /**
  * This filter will exclude everything that is not a dependency of the selected artifact.
+ * <p>
+ * Building the filter reads and models the POM of the selected artifact. When many filters are built, for example one
+ * per dependency, an {@link ArtifactTransitivityCache} shared by the filters avoids doing so again for the same
+ * artifact.
+ * </p>
  * 
  * @author <a href="mailto:brianf@apache.org">Brian Fox</a>
  * @version $Id$
  */
 public class ArtifactTransitivityFilter
     extends AbstractArtifactsFilter
+    implements CompilableArtifactsFilter
 {
 
+    /**
+     * The transitive artifacts, if the POM was modeled by this filter rather than found in the cache.
+     */
     Collection transitiveArtifacts;
 
+    /**
+     * The <code>groupId:artifactId</code> keys of the transitive artifacts.
+     */
+    Set transitiveKeys;
+
     ArtifactFactory factory;
 
     ArtifactRepository local;
@@ -56,35 +72,63 @@ public class ArtifactTransitivityFilter
     public ArtifactTransitivityFilter( Artifact artifact, ArtifactFactory factory, ArtifactRepository local,
                                        List remote, MavenProjectBuilder builder )
         throws ProjectBuildingException, InvalidDependencyVersionException
+    {
+        this( artifact, factory, local, remote, builder, null );
+    }
+
+    /**
+     * @param cache the cache of the transitive dependencies shared with other filters, or null to always read the POM.
+     */
+    public ArtifactTransitivityFilter( Artifact artifact, ArtifactFactory factory, ArtifactRepository local,
+                                       List remote, MavenProjectBuilder builder, ArtifactTransitivityCache cache )
+        throws ProjectBuildingException, InvalidDependencyVersionException
     {
         this.factory = factory;
         this.local = local;
         this.remote = remote;
 
-        Artifact rootArtifactPom =
-            factory.createArtifact( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), "", "pom" );
-
-        MavenProject rootArtifactProject = builder.buildFromRepository( rootArtifactPom, remote, local );
-
-        // load all the artifacts.
-        transitiveArtifacts =
-            rootArtifactProject.createArtifacts( this.factory, Artifact.SCOPE_TEST,
-                                                 new ScopeArtifactFilter( Artifact.SCOPE_TEST ) );
-
+        loadTransitiveKeys( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), builder, cache );
     }
 
     public ArtifactTransitivityFilter( Dependency dependency, ArtifactFactory factory, ArtifactRepository local,
                                        List remote, MavenProjectBuilder builder )
         throws ProjectBuildingException, InvalidDependencyVersionException
     {
+        this( dependency, factory, local, remote, builder, null );
+    }
 
+    /**
+     * @param cache the cache of the transitive dependencies shared with other filters, or null to always read the POM.
+     */
+    public ArtifactTransitivityFilter( Dependency dependency, ArtifactFactory factory, ArtifactRepository local,
+                                       List remote, MavenProjectBuilder builder, ArtifactTransitivityCache cache )
+        throws ProjectBuildingException, InvalidDependencyVersionException
+    {
         this.factory = factory;
         this.local = local;
         this.remote = remote;
 
-        Artifact rootArtifactPom =
-            factory.createArtifact( dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), "",
-                                    "pom" );
+        loadTransitiveKeys( dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), builder,
+                            cache );
+    }
+
+    /**
+     * Gets the keys of the transitive artifacts from the cache, or reads the POM of the root artifact.
+     */
+    private void loadTransitiveKeys( String groupId, String artifactId, String version, MavenProjectBuilder builder,
+                                     ArtifactTransitivityCache cache )
+        throws ProjectBuildingException, InvalidDependencyVersionException
+    {
+        if ( cache != null )
+        {
+            transitiveKeys = cache.get( groupId, artifactId, version );
+            if ( transitiveKeys != null )
+            {
+                return;
+            }
+        }
+
+        Artifact rootArtifactPom = factory.createArtifact( groupId, artifactId, version, "", "pom" );
 
         MavenProject rootArtifactProject = builder.buildFromRepository( rootArtifactPom, remote, local );
 
@@ -93,6 +137,17 @@ public class ArtifactTransitivityFilter
             rootArtifactProject.createArtifacts( this.factory, Artifact.SCOPE_TEST,
                                                  new ScopeArtifactFilter( Artifact.SCOPE_TEST ) );
 
+        transitiveKeys = new HashSet();
+        Iterator iterator = transitiveArtifacts.iterator();
+        while ( iterator.hasNext() )
+        {
+            transitiveKeys.add( ArtifactUtils.versionlessKey( (Artifact) iterator.next() ) );
+        }
+
+        if ( cache != null )
+        {
+            transitiveKeys = cache.put( groupId, artifactId, version, transitiveKeys );
+        }
     }
 
     public Set filter( Set artifacts )
@@ -111,6 +166,17 @@ public class ArtifactTransitivityFilter
         return result;
     }
 
+    public ArtifactFilter compile()
+    {
+        return new ArtifactFilter()
+        {
+            public boolean include( Artifact artifact )
+            {
+                return artifactIsATransitiveDependency( artifact );
+            }
+        };
+    }
+
     /**
      * Compares the artifact to the list of dependencies to see if it is directly included by this project
      * 
@@ -119,18 +185,6 @@ public class ArtifactTransitivityFilter
      */
     public boolean artifactIsATransitiveDependency( Artifact artifact )
     {
-        boolean result = false;
-        Iterator iterator = transitiveArtifacts.iterator();
-        while ( iterator.hasNext() )
-        {
-            Artifact trans = (Artifact) iterator.next();
-            if ( trans.getGroupId().equals( artifact.getGroupId() ) &&
-                trans.getArtifactId().equals( artifact.getArtifactId() ) )
-            {
-                result = true;
-                break;
-            }
-        }
-        return result;
+        return transitiveKeys.contains( ArtifactUtils.versionlessKey( artifact ) );
     }
 }
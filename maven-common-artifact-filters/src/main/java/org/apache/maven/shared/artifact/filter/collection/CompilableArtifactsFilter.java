@@ -0,0 +1,43 @@
+package org.apache.maven.shared.artifact.filter.collection;
+
+/* 
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+
+/**
+ * An artifacts filter deciding on each artifact independently of the others, so it can be compiled into a per-artifact
+ * predicate. {@link FilterArtifacts} chains the predicates of consecutive such filters to filter the artifacts in a
+ * single pass, instead of building a new set for each filter.
+ * 
+ * @version $Id$
+ */
+public interface CompilableArtifactsFilter
+    extends ArtifactsFilter
+{
+    /**
+     * Compiles the current configuration of this filter into a predicate including exactly the artifacts kept by
+     * {@link ArtifactsFilter#filter(java.util.Set)}.
+     * 
+     * @return the predicate
+     * @throws ArtifactFilterException if the configuration is invalid, as thrown by the filtering
+     */
+    ArtifactFilter compile()
+        throws ArtifactFilterException;
+}
@@ -24,9 +24,14 @@ package org.apache.maven.shared.artifact.filter.collection;
  */
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+
 /**
  * @author <a href="mailto:brianf@apache.org">Brian Fox</a>
  * @version $Id$
@@ -77,15 +82,48 @@ public class FilterArtifacts
         }
     }
 
+    /**
+     * Applies the filters in order. The consecutive filters which are {@link CompilableArtifactsFilter}s are compiled
+     * into a chain of predicates, evaluated for each artifact in a single pass building one result set, instead of
+     * building a new set for each filter. A filter whose class overrides {@link ArtifactsFilter#filter(Set)} without
+     * also overriding {@link CompilableArtifactsFilter#compile()} is not compiled, its <code>filter</code> method is
+     * called instead.
+     * 
+     * @param artifacts the set of artifacts to filter.
+     * @return the filtered artifacts.
+     * @throws ArtifactFilterException if a filter fails
+     */
     public Set filter( Set artifacts )
         throws ArtifactFilterException
     {
+        List compilableFilters = new ArrayList();
+        List chain = new ArrayList();
+
         // apply filters
         Iterator filterIterator = filters.iterator();
         while ( filterIterator.hasNext() )
         {
             // log(artifacts,log);
             ArtifactsFilter filter = (ArtifactsFilter) filterIterator.next();
+
+            if ( isCompilable( filter ) )
+            {
+                try
+                {
+                    chain.add( ( (CompilableArtifactsFilter) filter ).compile() );
+                    compilableFilters.add( filter );
+                }
+                catch ( NullPointerException e )
+                {
+                    // don't do anything, just skip this.
+                }
+                continue;
+            }
+
+            artifacts = filter( artifacts, compilableFilters, chain );
+            compilableFilters.clear();
+            chain.clear();
+
             try
             {
                 artifacts = filter.filter( artifacts );
@@ -97,7 +135,95 @@ public class FilterArtifacts
             }
         }
 
-        return artifacts;
+        return filter( artifacts, compilableFilters, chain );
+    }
+
+    /**
+     * Tells whether a filter can be compiled, that is it is a {@link CompilableArtifactsFilter} and its
+     * <code>filter</code> method is not overridden below the class compiling it.
+     * 
+     * @param filter the filter.
+     * @return true if the compiled filter includes the same artifacts as its <code>filter</code> method
+     */
+    private static boolean isCompilable( ArtifactsFilter filter )
+    {
+        if ( !( filter instanceof CompilableArtifactsFilter ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            Class filterClass = filter.getClass().getMethod( "filter", new Class[] { Set.class } ).getDeclaringClass();
+            Class compileClass = filter.getClass().getMethod( "compile", new Class[0] ).getDeclaringClass();
+            return filterClass.isAssignableFrom( compileClass );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Evaluates a chain of compiled filters on each artifact.
+     * 
+     * @param artifacts the set of artifacts to filter.
+     * @param compilableFilters the filters the chain was compiled from.
+     * @param chain the compiled filters, as {@link ArtifactFilter}s.
+     * @return the artifacts included by all the filters, or the given set if the chain is empty.
+     * @throws ArtifactFilterException if a filter fails
+     */
+    private Set filter( Set artifacts, List compilableFilters, List chain )
+        throws ArtifactFilterException
+    {
+        if ( chain.isEmpty() )
+        {
+            return artifacts;
+        }
+
+        ArtifactFilter[] predicates = (ArtifactFilter[]) chain.toArray( new ArtifactFilter[chain.size()] );
+
+        Set result = new HashSet();
+        try
+        {
+            Iterator iter = artifacts.iterator();
+            while ( iter.hasNext() )
+            {
+                Artifact artifact = (Artifact) iter.next();
+
+                boolean include = true;
+                for ( int i = 0; include && i < predicates.length; i++ )
+                {
+                    include = predicates[i].include( artifact );
+                }
+
+                if ( include )
+                {
+                    result.add( artifact );
+                }
+            }
+        }
+        catch ( NullPointerException e )
+        {
+            // apply the filters one by one, so only the failing one is skipped
+            result = artifacts;
+
+            Iterator filterIterator = compilableFilters.iterator();
+            while ( filterIterator.hasNext() )
+            {
+                ArtifactsFilter filter = (ArtifactsFilter) filterIterator.next();
+                try
+                {
+                    result = filter.filter( result );
+                }
+                catch ( NullPointerException npe )
+                {
+                    // don't do anything, just skip this.
+                    continue;
+                }
+            }
+        }
+        return result;
     }
 
     /**
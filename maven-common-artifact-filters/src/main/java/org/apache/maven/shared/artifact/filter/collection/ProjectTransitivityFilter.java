@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 
 /**
  * @author <a href="mailto:brianf@apache.org">Brian Fox</a>
@@ -31,6 +32,7 @@ import org.apache.maven.artifact.Artifact;
  */
 public class ProjectTransitivityFilter
     extends AbstractArtifactsFilter
+    implements CompilableArtifactsFilter
 {
 
     private boolean excludeTransitive;
@@ -52,12 +54,14 @@ public class ProjectTransitivityFilter
 
         if ( excludeTransitive )
         {
+            ArtifactFilter filter = compile();
+
             result = new HashSet();
             Iterator iterator = artifacts.iterator();
             while ( iterator.hasNext() )
             {
                 Artifact artifact = (Artifact) iterator.next();
-                if ( artifactIsADirectDependency( artifact ) )
+                if ( filter.include( artifact ) )
                 {
                     result.add( artifact );
                 }
@@ -66,6 +70,47 @@ public class ProjectTransitivityFilter
         return result;
     }
 
+    /**
+     * Compiles this filter into a predicate, looking up the direct dependencies in a hash set. If a subclass overrides
+     * {@link #artifactIsADirectDependency(Artifact)}, the predicate calls it instead.
+     * 
+     * @return the predicate
+     */
+    public ArtifactFilter compile()
+    {
+        if ( !excludeTransitive )
+        {
+            return new ArtifactFilter()
+            {
+                public boolean include( Artifact artifact )
+                {
+                    return true;
+                }
+            };
+        }
+
+        if ( isArtifactIsADirectDependencyOverridden() )
+        {
+            return new ArtifactFilter()
+            {
+                public boolean include( Artifact artifact )
+                {
+                    return artifactIsADirectDependency( artifact );
+                }
+            };
+        }
+
+        final Set dependencies = new HashSet( this.directDependencies );
+
+        return new ArtifactFilter()
+        {
+            public boolean include( Artifact artifact )
+            {
+                return dependencies.contains( artifact );
+            }
+        };
+    }
+
     /**
      * Compares the artifact to the list of dependencies to see if it is directly included by this project
      * 
@@ -88,6 +133,29 @@ public class ProjectTransitivityFilter
         return result;
     }
 
+    /**
+     * Tells whether a subclass overrides {@link #artifactIsADirectDependency(Artifact)}, in which case the direct
+     * dependencies cannot be looked up in a hash set.
+     * 
+     * @return true if the comparison is overridden
+     */
+    private boolean isArtifactIsADirectDependencyOverridden()
+    {
+        for ( Class clazz = getClass(); clazz != ProjectTransitivityFilter.class; clazz = clazz.getSuperclass() )
+        {
+            try
+            {
+                clazz.getDeclaredMethod( "artifactIsADirectDependency", new Class[] { Artifact.class } );
+                return true;
+            }
+            catch ( NoSuchMethodException e )
+            {
+                // not overridden by this class
+            }
+        }
+        return false;
+    }
+
     /**
      * @return Returns the excludeTransitive.
      */
@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -33,6 +34,7 @@ import org.codehaus.plexus.util.StringUtils;
  */
 public class ScopeFilter
     extends AbstractArtifactsFilter
+    implements CompilableArtifactsFilter
 {
 
     private String includeScope;
@@ -58,8 +60,35 @@ public class ScopeFilter
     public Set filter( Set artifacts)
         throws ArtifactFilterException
     {
-        Set results = artifacts;
+        if ( StringUtils.isEmpty( includeScope ) && StringUtils.isEmpty( excludeScope ) )
+        {
+            return artifacts;
+        }
 
+        ArtifactFilter filter = compile();
+
+        Set results = new HashSet();
+        Iterator iter = artifacts.iterator();
+        while ( iter.hasNext() )
+        {
+            Artifact artifact = (Artifact) iter.next();
+            if ( filter.include( artifact ) )
+            {
+                results.add( artifact );
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Compiles the scope to include or exclude into a predicate. Excludes are ignored if Includes are used.
+     * 
+     * @return the predicate
+     * @throws ArtifactFilterException if the scope is invalid, or the test scope is excluded
+     */
+    public ArtifactFilter compile()
+        throws ArtifactFilterException
+    {
         if ( StringUtils.isNotEmpty( includeScope ) )
         {
             if ( !Artifact.SCOPE_COMPILE.equals( includeScope ) && !Artifact.SCOPE_TEST.equals( includeScope )
@@ -69,25 +98,13 @@ public class ScopeFilter
                 throw new ArtifactFilterException( "Invalid Scope in includeScope: " + includeScope );
             }
 
-            results = new HashSet();
-
             if ( Artifact.SCOPE_PROVIDED.equals( includeScope ) || Artifact.SCOPE_SYSTEM.equals( includeScope ) )
             {
-                results = includeSingleScope( artifacts, includeScope );
+                return new SingleScopeFilter( includeScope, true );
             }
             else
             {
-                ScopeArtifactFilter saf = new ScopeArtifactFilter( includeScope );
-
-                Iterator iter = artifacts.iterator();
-                while ( iter.hasNext() )
-                {
-                    Artifact artifact = (Artifact) iter.next();
-                    if ( saf.include( artifact ) )
-                    {
-                        results.add( artifact );
-                    }
-                }
+                return new ScopeArtifactFilter( includeScope );
             }
         }
         else if ( StringUtils.isNotEmpty( excludeScope ) )
@@ -98,7 +115,6 @@ public class ScopeFilter
             {
                 throw new ArtifactFilterException( "Invalid Scope in excludeScope: " + excludeScope );
             }
-            results = new HashSet();
             // plexus ScopeArtifactFilter doesn't handle the provided scope so
             // we
             // need special handling for it.
@@ -108,55 +124,29 @@ public class ScopeFilter
             }
             else if ( !Artifact.SCOPE_PROVIDED.equals( excludeScope ) && !Artifact.SCOPE_SYSTEM.equals( excludeScope ) )
             {
-                ScopeArtifactFilter saf = new ScopeArtifactFilter( excludeScope );
+                final ScopeArtifactFilter saf = new ScopeArtifactFilter( excludeScope );
 
-                Iterator iter = artifacts.iterator();
-                while ( iter.hasNext() )
+                return new ArtifactFilter()
                 {
-                    Artifact artifact = (Artifact) iter.next();
-                    if ( !saf.include( artifact ) )
+                    public boolean include( Artifact artifact )
                     {
-                        results.add( artifact );
+                        return !saf.include( artifact );
                     }
-                }
+                };
             }
             else
             {
-                results = excludeSingleScope( artifacts, excludeScope );
+                return new SingleScopeFilter( excludeScope, false );
             }
         }
 
-        return results;
-    }
-
-    private Set includeSingleScope( Set artifacts, String scope )
-    {
-        HashSet results = new HashSet();
-        Iterator iter = artifacts.iterator();
-        while ( iter.hasNext() )
-        {
-            Artifact artifact = (Artifact) iter.next();
-            if ( scope.equals( artifact.getScope() ) )
-            {
-                results.add( artifact );
-            }
-        }
-        return results;
-    }
-
-    private Set excludeSingleScope( Set artifacts, String scope )
-    {
-        HashSet results = new HashSet();
-        Iterator iter = artifacts.iterator();
-        while ( iter.hasNext() )
+        return new ArtifactFilter()
         {
-            Artifact artifact = (Artifact) iter.next();
-            if ( !scope.equals( artifact.getScope() ) )
+            public boolean include( Artifact artifact )
             {
-                results.add( artifact );
+                return true;
             }
-        }
-        return results;
+        };
     }
 
     /**
@@ -193,4 +183,26 @@ public class ScopeFilter
         this.excludeScope = excludeScope;
     }
 
+    /**
+     * Includes or excludes the artifacts of a single scope, as the provided and system scopes are not handled by
+     * ScopeArtifactFilter.
+     */
+    private static class SingleScopeFilter
+        implements ArtifactFilter
+    {
+        private final String scope;
+
+        private final boolean include;
+
+        SingleScopeFilter( String scope, boolean include )
+        {
+            this.scope = scope;
+            this.include = include;
+        }
+
+        public boolean include( Artifact artifact )
+        {
+            return scope.equals( artifact.getScope() ) == include;
+        }
+    }
 }
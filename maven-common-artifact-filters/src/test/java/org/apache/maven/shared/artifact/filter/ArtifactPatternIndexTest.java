@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.artifact.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests <code>ArtifactPatternIndex</code>.
+ *
+ * @version $Id$
+ */
+public class ArtifactPatternIndexTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testEmpty()
+    {
+        ArtifactPatternIndex index = new ArtifactPatternIndex( Collections.EMPTY_LIST );
+
+        assertEquals( 0, index.size() );
+        assertEquals( -1, indexOf( index, "group:artifact:jar:1.0" ) );
+    }
+
+    public void testFirstMatchInOrderAcrossIndexedPatterns()
+    {
+        ArtifactPatternIndex index = createIndex( new String[] {
+            "*:other",
+            "org.apache.maven:maven-core",
+            "org.apache.*",
+            "org.apache.maven",
+            "*:maven-core",
+            "org.*"
+        } );
+
+        assertEquals( 6, index.size() );
+        assertEquals( "org.apache.*", index.get( 2 ).getPattern() );
+
+        assertEquals( 1, indexOf( index, "org.apache.maven:maven-core:jar:2.0" ) );
+        assertEquals( 2, indexOf( index, "org.apache.maven:maven-project:jar:2.0" ) );
+        assertEquals( 4, indexOf( index, "com.example:maven-core:jar:2.0" ) );
+        assertEquals( 5, indexOf( index, "org.codehaus:plexus:jar:1.0" ) );
+        assertEquals( 0, indexOf( index, "com.example:other:jar:1.0" ) );
+        assertEquals( -1, indexOf( index, "com.example:plexus:jar:1.0" ) );
+    }
+
+    public void testPrefixesOfEachOther()
+    {
+        ArtifactPatternIndex index = createIndex( new String[] { "org.apache.maven.*", "org.*", "org.apache.*:x" } );
+
+        assertEquals( 0, indexOf( index, "org.apache.maven.shared:a:jar:1.0" ) );
+        assertEquals( 1, indexOf( index, "org.apache:a:jar:1.0" ) );
+        assertEquals( 1, indexOf( index, "org.apache:x:jar:1.0" ) );
+        assertEquals( -1, indexOf( index, "or:a:jar:1.0" ) );
+    }
+
+    public void testLeadingWildcard()
+    {
+        ArtifactPatternIndex index = createIndex( new String[] { "group:artifact:war", "*:jar:1.0" } );
+        String[] tokens = "group:artifact:jar:1.0".split( ":" );
+
+        assertEquals( -1, index.indexOf( tokens, false ) );
+        assertEquals( 1, index.indexOf( tokens, true ) );
+    }
+
+    public void testManyExactPatterns()
+    {
+        List patterns = new ArrayList();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            patterns.add( "org.example" + ( i % 100 ) + ":artifact" + i );
+        }
+        patterns.add( "org.example7:*" );
+
+        ArtifactPatternIndex index = new ArtifactPatternIndex( patterns );
+
+        assertEquals( 1234, indexOf( index, "org.example34:artifact1234:jar:1.0" ) );
+        assertEquals( 10000, indexOf( index, "org.example7:artifact1234:jar:1.0" ) );
+        assertEquals( -1, indexOf( index, "org.example34:artifact1235:jar:1.0" ) );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private ArtifactPatternIndex createIndex( String[] patterns )
+    {
+        return new ArtifactPatternIndex( Arrays.asList( patterns ) );
+    }
+
+    private int indexOf( ArtifactPatternIndex index, String id )
+    {
+        return index.indexOf( id.split( ":" ), false );
+    }
+}
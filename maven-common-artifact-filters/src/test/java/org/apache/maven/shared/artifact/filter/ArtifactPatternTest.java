@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.artifact.filter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests <code>ArtifactPattern</code>.
+ *
+ * @version $Id$
+ */
+public class ArtifactPatternTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testExact()
+    {
+        assertMatches( "group:artifact", "group:artifact:jar:1.0" );
+        assertNotMatches( "group:artifact", "group:other:jar:1.0" );
+        assertNotMatches( "group:artifact:jar:1.0:extra", "group:artifact:jar:1.0" );
+    }
+
+    public void testWildcards()
+    {
+        assertMatches( "*:artifact", "group:artifact:jar:1.0" );
+        assertMatches( ":artifact", "group:artifact:jar:1.0" );
+        assertMatches( "gr*", "group:artifact:jar:1.0" );
+        assertMatches( "*oup", "group:artifact:jar:1.0" );
+        assertMatches( "*rou*", "group:artifact:jar:1.0" );
+        assertMatches( ":::*-SNAPSHOT", "group:artifact:jar:1.0-SNAPSHOT" );
+        assertNotMatches( "*rup*", "group:artifact:jar:1.0" );
+        assertNotMatches( "ro*", "group:artifact:jar:1.0" );
+        assertNotMatches( "*rou", "group:artifact:jar:1.0" );
+    }
+
+    public void testVersionRange()
+    {
+        assertMatches( ":::[1.0,2.0)", "group:artifact:jar:1.5" );
+        assertNotMatches( ":::[1.0,2.0)", "group:artifact:jar:2.0" );
+        assertMatches( ":::(,1.0]", "group:artifact:jar:1.0" );
+
+        // an invalid range matches nothing
+        assertNotMatches( ":::[1.0", "group:artifact:jar:1.0" );
+    }
+
+    public void testLeadingWildcardMatchesLastTokens()
+    {
+        ArtifactPattern pattern = new ArtifactPattern( "*:jar:1.0" );
+        String[] tokens = "group:artifact:jar:1.0".split( ":" );
+
+        assertFalse( pattern.matches( tokens ) );
+        assertTrue( pattern.matchesWithLeadingWildcard( tokens ) );
+
+        assertFalse( new ArtifactPattern( "group:jar:1.0" ).matchesWithLeadingWildcard( tokens ) );
+    }
+
+    public void testSegmentCount()
+    {
+        assertEquals( 2, new ArtifactPattern( "group:artifact" ).getSegmentCount() );
+        // trailing empty segments are dropped, as by String.split
+        assertEquals( 2, new ArtifactPattern( "group:artifact::" ).getSegmentCount() );
+        assertEquals( 0, new ArtifactPattern( ":" ).getSegmentCount() );
+        assertEquals( "group:artifact::", new ArtifactPattern( "group:artifact::" ).getPattern() );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private void assertMatches( String pattern, String id )
+    {
+        assertTrue( pattern + " should match " + id, new ArtifactPattern( pattern ).matches( id.split( ":" ) ) );
+    }
+
+    private void assertNotMatches( String pattern, String id )
+    {
+        assertFalse( pattern + " should not match " + id, new ArtifactPattern( pattern ).matches( id.split( ":" ) ) );
+    }
+}
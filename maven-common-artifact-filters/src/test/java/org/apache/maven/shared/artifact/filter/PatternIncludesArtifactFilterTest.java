@@ -18,8 +18,13 @@
  */
 package org.apache.maven.shared.artifact.filter;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.versioning.VersionRange;
 
+import java.util.Collections;
 import java.util.List;
 
 import junit.framework.TestCase;
@@ -106,6 +111,24 @@ public class PatternIncludesArtifactFilterTest extends TestCase
         tck.testShouldIncludeTransitiveDependencyWhenWildcardMatchesButDoesntMatchParent( false );
     }
 
+    public void testShouldConsultOverriddenPositiveMatch()
+    {
+        final Artifact artifact =
+            new DefaultArtifact( "group", "artifact", VersionRange.createFromVersion( "1.0" ), null, "jar", null,
+                                 new DefaultArtifactHandler() );
+
+        final PatternIncludesArtifactFilter filter =
+            new PatternIncludesArtifactFilter( Collections.singletonList( "other:artifact" ) )
+            {
+                protected Boolean positiveMatch( final Artifact candidate )
+                {
+                    return candidate == artifact ? Boolean.TRUE : super.positiveMatch( candidate );
+                }
+            };
+
+        assertTrue( filter.include( artifact ) );
+    }
+
     // See comment in TCK.
     // public void testShouldIncludeDirectDependencyWhenInvertedWildcardMatchesButDoesntMatchTransitiveChild()
     // {
@@ -0,0 +1,131 @@
+package org.apache.maven.shared.artifact.filter.collection;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.testing.ArtifactStubFactory;
+
+/**
+ * @version $Id$
+ */
+public class TestArtifactTransitivityCache
+    extends TestCase
+{
+    public void testGetAndPut()
+    {
+        ArtifactTransitivityCache cache = new ArtifactTransitivityCache();
+        assertEquals( ArtifactTransitivityCache.DEFAULT_MAX_SIZE, cache.getMaxSize() );
+
+        assertNull( cache.get( "g", "a", "1.0" ) );
+        assertEquals( 0, cache.getHits() );
+        assertEquals( 1, cache.getMisses() );
+
+        Set keys = new HashSet();
+        keys.add( "g:b" );
+        Set cached = cache.put( "g", "a", "1.0", keys );
+        assertEquals( keys, cached );
+
+        assertSame( cached, cache.get( "g", "a", "1.0" ) );
+        assertNull( cache.get( "g", "a", "2.0" ) );
+        assertEquals( 1, cache.getHits() );
+        assertEquals( 2, cache.getMisses() );
+
+        // the cached keys do not change with the given set
+        keys.add( "g:c" );
+        assertEquals( 1, cached.size() );
+        try
+        {
+            cached.add( "g:c" );
+            fail( "The cached keys should be unmodifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+
+        cache.clear();
+        assertEquals( 0, cache.size() );
+        assertNull( cache.get( "g", "a", "1.0" ) );
+    }
+
+    public void testLeastRecentlyUsedEviction()
+    {
+        ArtifactTransitivityCache cache = new ArtifactTransitivityCache( 2 );
+
+        cache.put( "g", "a", "1.0", new HashSet() );
+        cache.put( "g", "b", "1.0", new HashSet() );
+        assertNotNull( cache.get( "g", "a", "1.0" ) );
+
+        cache.put( "g", "c", "1.0", new HashSet() );
+        assertEquals( 2, cache.size() );
+        assertNotNull( cache.get( "g", "a", "1.0" ) );
+        assertNull( cache.get( "g", "b", "1.0" ) );
+        assertNotNull( cache.get( "g", "c", "1.0" ) );
+    }
+
+    public void testInvalidMaxSize()
+    {
+        try
+        {
+            new ArtifactTransitivityCache( 0 );
+            fail( "A cache should hold at least one artifact" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // expected
+        }
+    }
+
+    public void testFilterUsesCachedDependencies()
+        throws Exception
+    {
+        ArtifactStubFactory fact = new ArtifactStubFactory( null, false );
+        Set artifacts = fact.getMixedArtifacts();
+
+        Set keys = new HashSet();
+        Artifact transitive = (Artifact) artifacts.iterator().next();
+        keys.add( transitive.getGroupId() + ":" + transitive.getArtifactId() );
+
+        ArtifactTransitivityCache cache = new ArtifactTransitivityCache();
+        cache.put( "g", "root", "1.0", keys );
+
+        // the POM is not read, so no project builder is needed
+        Artifact root = fact.createArtifact( "g", "root", "1.0" );
+        ArtifactTransitivityFilter filter = new ArtifactTransitivityFilter( root, null, null, null, null, cache );
+        assertEquals( 1, cache.getHits() );
+
+        Set result = filter.filter( artifacts );
+        assertFalse( result.isEmpty() );
+
+        Iterator iter = result.iterator();
+        while ( iter.hasNext() )
+        {
+            Artifact artifact = (Artifact) iter.next();
+            assertEquals( transitive.getGroupId(), artifact.getGroupId() );
+            assertEquals( transitive.getArtifactId(), artifact.getArtifactId() );
+        }
+    }
+}
@@ -25,6 +25,7 @@ package org.apache.maven.shared.artifact.filter.collection;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -128,4 +129,80 @@ public class TestFilterArtifacts
         assertEquals( 2, results.size() );
     }
 
+    public void testCompiledFiltersMatchSequentialFiltering()
+        throws IOException, ArtifactFilterException
+    {
+        File outputFolder = new File( "target/filters/" );
+        FileUtils.deleteDirectory( outputFolder );
+        ArtifactStubFactory fact = new ArtifactStubFactory( outputFolder, false );
+        Set artifacts = fact.getMixedArtifacts();
+
+        ArrayList filters = new ArrayList();
+        filters.add( new ScopeFilter( "runtime", "" ) );
+        filters.add( new TypeFilter( "", "war" ) );
+        // a filter which cannot be compiled, between compiled ones
+        filters.add( new AbstractArtifactsFilter()
+        {
+            public Set filter( Set set )
+            {
+                Set result = new HashSet( set );
+                if ( !result.isEmpty() )
+                {
+                    result.remove( result.iterator().next() );
+                }
+                return result;
+            }
+        } );
+        filters.add( new ClassifierFilter( "", "one" ) );
+        filters.add( new ProjectTransitivityFilter( artifacts, true ) );
+
+        Set expected = artifacts;
+        for ( int i = 0; i < filters.size(); i++ )
+        {
+            expected = ( (ArtifactsFilter) filters.get( i ) ).filter( expected );
+        }
+
+        FilterArtifacts fa = new FilterArtifacts();
+        fa.setFilters( filters );
+
+        assertEquals( expected, fa.filter( artifacts ) );
+    }
+
+    public void testCompiledFilterFailureIsSkipped()
+        throws IOException, ArtifactFilterException
+    {
+        File outputFolder = new File( "target/filters/" );
+        FileUtils.deleteDirectory( outputFolder );
+        ArtifactStubFactory fact = new ArtifactStubFactory( outputFolder, false );
+        Set artifacts = fact.getScopedArtifacts();
+
+        FilterArtifacts fa = new FilterArtifacts();
+        fa.addFilter( new ScopeFilter( "provided", "" ) );
+        // fails when compiled, so is skipped
+        fa.addFilter( new ProjectTransitivityFilter( null, true ) );
+
+        assertEquals( new ScopeFilter( "provided", "" ).filter( artifacts ), fa.filter( artifacts ) );
+    }
+
+    public void testOverriddenFilterIsCalled()
+        throws IOException, ArtifactFilterException
+    {
+        File outputFolder = new File( "target/filters/" );
+        FileUtils.deleteDirectory( outputFolder );
+        ArtifactStubFactory fact = new ArtifactStubFactory( outputFolder, false );
+        Set artifacts = fact.getScopedArtifacts();
+
+        FilterArtifacts fa = new FilterArtifacts();
+        fa.addFilter( new ScopeFilter( "runtime", "" ) );
+        // overrides filter but not compile, so is not compiled
+        fa.addFilter( new ScopeFilter( "", "" )
+        {
+            public Set filter( Set set )
+            {
+                return Collections.EMPTY_SET;
+            }
+        } );
+
+        assertTrue( fa.filter( artifacts ).isEmpty() );
+    }
 }
@@ -92,4 +92,19 @@ public class TestProjectTransitivityFilter
         assertEquals( 4, result.size() );
     }
 
+    public void testOverriddenArtifactIsADirectDependency()
+    {
+        ProjectTransitivityFilter filter = new ProjectTransitivityFilter( directArtifacts, true )
+        {
+            public boolean artifactIsADirectDependency( Artifact artifact )
+            {
+                return artifact.getArtifactId().equals( "release" );
+            }
+        };
+
+        Set result = filter.filter( artifacts );
+
+        assertEquals( 1, result.size() );
+        assertEquals( "release", ( (Artifact) result.iterator().next() ).getArtifactId() );
+    }
 }
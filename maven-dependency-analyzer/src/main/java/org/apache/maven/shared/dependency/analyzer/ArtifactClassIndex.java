@@ -0,0 +1,543 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * An on-disk index of the classes contained in jar files, so the jars of the local repository are only scanned once
+ * across modules and builds.
+ * <p>
+ * A jar is looked up by its absolute path, size, last modification date and a checksum of its central directory, so
+ * a jar rewritten in place, like a snapshot, is scanned again. The class names are stored grouped by package. When
+ * the index holds more than its maximum number of jars, the least recently used ones are evicted on {@link #store()},
+ * as are the jars which no longer exist.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ArtifactClassIndex
+{
+    // constants --------------------------------------------------------------
+
+    /**
+     * The default maximum number of jars kept in the index.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The size of the end of a jar which is checksummed, large enough to contain the central directory of most jars.
+     */
+    private static final int CHECKSUM_SIZE = 64 * 1024;
+
+    /**
+     * The default resolution of the last use dates of the jars, so that a build which only finds indexed jars writes
+     * the index at most once per jar and per hour.
+     */
+    private static final long DEFAULT_USAGE_RESOLUTION = 60 * 60 * 1000;
+
+    // fields -----------------------------------------------------------------
+
+    private final File indexFile;
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private long usageResolution = DEFAULT_USAGE_RESOLUTION;
+
+    /**
+     * Jar absolute path to {@link Entry}.
+     */
+    private final Map entries = new HashMap();
+
+    private boolean loaded;
+
+    private boolean modified;
+
+    private long hitCount;
+
+    private long missCount;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * @param indexFile the file the index is stored in, read on first use if it exists
+     */
+    public ArtifactClassIndex( File indexFile )
+    {
+        this.indexFile = indexFile;
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Returns the classes of a jar from the index, scanning the jar with <code>classAnalyzer</code> if it is not
+     * indexed yet or changed since it was.
+     *
+     * @param jar the jar file
+     * @param classAnalyzer the analyzer used to list the classes of the jar
+     * @return the set of class names, which must not be modified
+     * @throws IOException if the jar cannot be read
+     */
+    public Set getClasses( File jar, ClassAnalyzer classAnalyzer )
+        throws IOException
+    {
+        String path = jar.getAbsolutePath();
+        long length = jar.length();
+        long lastModified = jar.lastModified();
+        long checksum = checksum( jar );
+
+        synchronized ( this )
+        {
+            load();
+
+            Entry entry = (Entry) entries.get( path );
+            if ( entry != null && entry.length == length && entry.lastModified == lastModified
+                && entry.checksum == checksum )
+            {
+                hitCount++;
+
+                // the last use is written so the jars in use are not evicted, if not already recent enough
+                long now = System.currentTimeMillis();
+                if ( now - entry.lastUsed >= usageResolution )
+                {
+                    entry.lastUsed = now;
+                    modified = true;
+                }
+                return entry.classes;
+            }
+            missCount++;
+        }
+
+        Set classes = Collections.unmodifiableSet( classAnalyzer.analyze( jar.toURI().toURL() ) );
+
+        Entry entry = new Entry( length, lastModified, checksum, classes );
+        entry.lastUsed = System.currentTimeMillis();
+
+        synchronized ( this )
+        {
+            entries.put( path, entry );
+            modified = true;
+        }
+
+        return classes;
+    }
+
+    /**
+     * Indexes all the given jars and stores the index, so the analysis of the projects of a reactor only does
+     * lookups.
+     *
+     * @param jars the {@link File}s of the jars to index, other files are ignored
+     * @param classAnalyzer the analyzer used to list the classes of the jars which are not indexed yet
+     * @throws IOException if a jar cannot be read, or the index cannot be stored
+     */
+    public void warm( Set jars, ClassAnalyzer classAnalyzer )
+        throws IOException
+    {
+        for ( Iterator iterator = jars.iterator(); iterator.hasNext(); )
+        {
+            File jar = (File) iterator.next();
+
+            if ( jar.isFile() && jar.getName().endsWith( ".jar" ) )
+            {
+                getClasses( jar, classAnalyzer );
+            }
+        }
+
+        store();
+    }
+
+    /**
+     * Writes the index if it changed since it was loaded, after evicting the jars which no longer exist and the
+     * least recently used ones above the maximum number of entries. The index is written to a temporary file which
+     * then replaces it, so it is never left truncated.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        if ( !modified )
+        {
+            return;
+        }
+
+        evict();
+
+        File temporaryFile = createTemporaryFile( indexFile );
+
+        DataOutputStream out =
+            new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temporaryFile ) ) );
+        try
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeInt( entries.size() );
+
+            for ( Iterator iterator = entries.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry mapEntry = (Map.Entry) iterator.next();
+                Entry entry = (Entry) mapEntry.getValue();
+
+                out.writeUTF( (String) mapEntry.getKey() );
+                out.writeLong( entry.length );
+                out.writeLong( entry.lastModified );
+                out.writeLong( entry.checksum );
+                out.writeLong( entry.lastUsed );
+                writeClasses( out, entry.classes );
+            }
+
+            out.close();
+            replace( temporaryFile, indexFile );
+        }
+        finally
+        {
+            IOUtil.close( out );
+            temporaryFile.delete();
+        }
+
+        modified = false;
+    }
+
+    public synchronized int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    public synchronized void setMaxEntries( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    public File getIndexFile()
+    {
+        return indexFile;
+    }
+
+    /**
+     * @param usageResolution the minimum time in milliseconds between two writes of the last use of a jar
+     */
+    synchronized void setUsageResolution( long usageResolution )
+    {
+        this.usageResolution = usageResolution;
+    }
+
+    /**
+     * @return the number of jars found in the index
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of jars which had to be scanned
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private void load()
+    {
+        if ( loaded )
+        {
+            return;
+        }
+        loaded = true;
+
+        if ( !indexFile.isFile() )
+        {
+            return;
+        }
+
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( indexFile ) ) );
+
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return;
+            }
+
+            // every count is bounded by the size of the file, so a corrupted one can't allocate more
+            long limit = indexFile.length();
+            int count = readCount( in, limit );
+            for ( int i = 0; i < count; i++ )
+            {
+                String path = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                long checksum = in.readLong();
+                long lastUsed = in.readLong();
+                Set classes = readClasses( in, limit );
+
+                Entry entry = new Entry( length, lastModified, checksum, classes );
+                entry.lastUsed = lastUsed;
+                entries.put( path, entry );
+            }
+        }
+        catch ( IOException exception )
+        {
+            // a corrupted index is an empty one
+            entries.clear();
+        }
+        catch ( RuntimeException exception )
+        {
+            // a corrupted index is an empty one
+            entries.clear();
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private void evict()
+    {
+        for ( Iterator iterator = entries.keySet().iterator(); iterator.hasNext(); )
+        {
+            String path = (String) iterator.next();
+
+            if ( !new File( path ).isFile() )
+            {
+                iterator.remove();
+            }
+        }
+
+        if ( entries.size() > maxEntries )
+        {
+            List sorted = new ArrayList( entries.entrySet() );
+            Collections.sort( sorted, new Comparator()
+            {
+                public int compare( Object o1, Object o2 )
+                {
+                    long lastUsed1 = ( (Entry) ( (Map.Entry) o1 ).getValue() ).lastUsed;
+                    long lastUsed2 = ( (Entry) ( (Map.Entry) o2 ).getValue() ).lastUsed;
+
+                    return lastUsed1 < lastUsed2 ? -1 : ( lastUsed1 == lastUsed2 ? 0 : 1 );
+                }
+            } );
+
+            List evicted = new ArrayList();
+            for ( int i = 0; i < sorted.size() - maxEntries; i++ )
+            {
+                evicted.add( ( (Map.Entry) sorted.get( i ) ).getKey() );
+            }
+            entries.keySet().removeAll( evicted );
+        }
+    }
+
+    /**
+     * Writes the class names grouped by package: each package name is written once, followed by the simple names of
+     * its classes. Also used by {@link ClassDependencyCache}.
+     */
+    static void writeClasses( DataOutputStream out, Set classes )
+        throws IOException
+    {
+        Map packages = new TreeMap();
+
+        for ( Iterator iterator = classes.iterator(); iterator.hasNext(); )
+        {
+            String className = (String) iterator.next();
+
+            int index = className.lastIndexOf( '.' );
+            String packageName = index < 0 ? "" : className.substring( 0, index );
+
+            List simpleNames = (List) packages.get( packageName );
+            if ( simpleNames == null )
+            {
+                simpleNames = new ArrayList();
+                packages.put( packageName, simpleNames );
+            }
+            simpleNames.add( className.substring( index + 1 ) );
+        }
+
+        out.writeInt( packages.size() );
+
+        for ( Iterator iterator = packages.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry mapEntry = (Map.Entry) iterator.next();
+            List simpleNames = (List) mapEntry.getValue();
+
+            out.writeUTF( (String) mapEntry.getKey() );
+            out.writeInt( simpleNames.size() );
+
+            for ( int i = 0; i < simpleNames.size(); i++ )
+            {
+                out.writeUTF( (String) simpleNames.get( i ) );
+            }
+        }
+    }
+
+    /**
+     * Reads the class names written by {@link #writeClasses(DataOutputStream, Set)}.
+     *
+     * @param limit the size of the file, bounding the counts read
+     */
+    static Set readClasses( DataInputStream in, long limit )
+        throws IOException
+    {
+        Set classes = new HashSet();
+
+        int packageCount = readCount( in, limit );
+        for ( int i = 0; i < packageCount; i++ )
+        {
+            String packageName = in.readUTF();
+            String prefix = packageName.length() == 0 ? "" : packageName + '.';
+
+            int classCount = readCount( in, limit );
+            for ( int j = 0; j < classCount; j++ )
+            {
+                classes.add( prefix + in.readUTF() );
+            }
+        }
+
+        return Collections.unmodifiableSet( classes );
+    }
+
+    /**
+     * Reads a count, checking it against <code>limit</code> so that a corrupted file cannot allocate more than its size.
+     * Also used by {@link ClassDependencyCache}.
+     *
+     * @param limit the maximum count, each counted item taking at least one byte of the file
+     * @return a count read from <code>in</code>
+     * @throws IOException if the count is negative or larger than <code>limit</code>
+     */
+    static int readCount( DataInputStream in, long limit )
+        throws IOException
+    {
+        int count = in.readInt();
+        if ( count < 0 || count > limit )
+        {
+            throw new IOException( "Corrupted file: invalid count " + count );
+        }
+        return count;
+    }
+
+    /**
+     * Creates an empty file next to <code>file</code>, which is written and then replaces it. Also used by
+     * {@link ClassDependencyCache}.
+     */
+    static File createTemporaryFile( File file )
+        throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if ( !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        return File.createTempFile( file.getName(), ".tmp", parent );
+    }
+
+    /**
+     * Renames <code>temporaryFile</code> to <code>file</code>, replacing it. A concurrent reader sees either the
+     * previous file or the new one.
+     */
+    static void replace( File temporaryFile, File file )
+        throws IOException
+    {
+        if ( temporaryFile.renameTo( file ) )
+        {
+            return;
+        }
+
+        // some platforms cannot rename over an existing file
+        file.delete();
+        if ( !temporaryFile.renameTo( file ) )
+        {
+            throw new IOException( "Cannot rename " + temporaryFile + " to " + file );
+        }
+    }
+
+    /**
+     * Checksums the end of the jar, where the central directory lists the names and CRCs of all the entries.
+     */
+    private static long checksum( File jar )
+        throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile( jar, "r" );
+        try
+        {
+            long length = file.length();
+            int size = (int) Math.min( length, CHECKSUM_SIZE );
+            byte[] buffer = new byte[size];
+
+            file.seek( length - size );
+            file.readFully( buffer );
+
+            CRC32 crc = new CRC32();
+            crc.update( buffer );
+            return crc.getValue();
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    // private classes --------------------------------------------------------
+
+    private static final class Entry
+    {
+        final long length;
+
+        final long lastModified;
+
+        final long checksum;
+
+        final Set classes;
+
+        long lastUsed;
+
+        Entry( long length, long lastModified, long checksum, Set classes )
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.classes = classes;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs an analysis over many URLs with several threads. Each URL is a task taken by the next idle thread, the
+ * directories and largest jars first so a big one does not finish last; every task has its own result, merged by the
+ * caller once all the tasks are done. A failed task does not stop the others, so the failure reported is always the
+ * one of the first failed URL, whatever the number of threads.
+ *
+ * @version $Id$
+ */
+public final class BatchAnalysisUtils
+{
+    // constructors -----------------------------------------------------------
+
+    private BatchAnalysisUtils()
+    {
+        // private constructor for utility class
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Analyzes each URL with <code>analysis</code>, on <code>threadCount</code> threads.
+     *
+     * @param urls the {@link URL}s to analyze
+     * @param threadCount the maximum number of threads, <code>1</code> to analyze the URLs on the calling thread
+     * @param analysis the analysis of a single URL
+     * @return the result of the analysis of each URL, in the order of <code>urls</code>
+     * @throws IOException the failure of the first URL which cannot be analyzed, in the order of <code>urls</code>
+     */
+    public static Set[] analyze( final List urls, int threadCount, final UrlAnalysis analysis )
+        throws IOException
+    {
+        final Set[] results = new Set[urls.size()];
+
+        if ( threadCount <= 1 || urls.size() <= 1 )
+        {
+            for ( int i = 0; i < results.length; i++ )
+            {
+                results[i] = analysis.analyze( (URL) urls.get( i ) );
+            }
+
+            return results;
+        }
+
+        final Integer[] order = largestFirst( urls );
+        final Throwable[] failures = new Throwable[results.length];
+        // next task index, and whether the calling thread was interrupted
+        final int[] state = { 0, 0 };
+
+        Runnable worker = new Runnable()
+        {
+            public void run()
+            {
+                while ( true )
+                {
+                    int index;
+                    synchronized ( state )
+                    {
+                        if ( state[0] >= order.length || state[1] != 0 )
+                        {
+                            return;
+                        }
+                        index = order[state[0]++].intValue();
+                    }
+
+                    try
+                    {
+                        results[index] = analysis.analyze( (URL) urls.get( index ) );
+                    }
+                    catch ( Throwable throwable )
+                    {
+                        synchronized ( state )
+                        {
+                            failures[index] = throwable;
+                        }
+                    }
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[Math.min( threadCount, results.length ) - 1];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread( worker, "dependency-analyzer-" + ( i + 1 ) );
+            threads[i].setDaemon( true );
+            threads[i].start();
+        }
+
+        // the calling thread works too
+        worker.run();
+
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            try
+            {
+                threads[i].join();
+            }
+            catch ( InterruptedException exception )
+            {
+                synchronized ( state )
+                {
+                    state[1] = 1;
+                }
+                Thread.currentThread().interrupt();
+                IOException ioException = new IOException( "Interrupted while analyzing " + urls );
+                ioException.initCause( exception );
+                throw ioException;
+            }
+        }
+
+        synchronized ( state )
+        {
+            for ( int i = 0; i < failures.length; i++ )
+            {
+                Throwable failure = failures[i];
+
+                if ( failure instanceof IOException )
+                {
+                    throw (IOException) failure;
+                }
+                else if ( failure instanceof RuntimeException )
+                {
+                    throw (RuntimeException) failure;
+                }
+                else if ( failure instanceof Error )
+                {
+                    throw (Error) failure;
+                }
+            }
+        }
+
+        return results;
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * @return the indexes of the URLs, the directories and largest files first
+     */
+    private static Integer[] largestFirst( List urls )
+    {
+        final long[] sizes = new long[urls.size()];
+        Integer[] order = new Integer[urls.size()];
+
+        for ( int i = 0; i < order.length; i++ )
+        {
+            order[i] = new Integer( i );
+
+            URL url = (URL) urls.get( i );
+            if ( url.getProtocol().equalsIgnoreCase( "file" ) )
+            {
+                try
+                {
+                    File file = new File( new URI( url.toString() ) );
+
+                    // a directory of classes is usually more work than any jar
+                    sizes[i] = file.isDirectory() ? Long.MAX_VALUE : file.length();
+                }
+                catch ( Exception exception )
+                {
+                    // unknown size
+                }
+            }
+        }
+
+        Arrays.sort( order, new Comparator()
+        {
+            public int compare( Object o1, Object o2 )
+            {
+                long size1 = sizes[( (Integer) o1 ).intValue()];
+                long size2 = sizes[( (Integer) o2 ).intValue()];
+
+                return size1 > size2 ? -1 : ( size1 == size2 ? 0 : 1 );
+            }
+        } );
+
+        return order;
+    }
+
+    // public classes ---------------------------------------------------------
+
+    /**
+     * The analysis of a single URL, called concurrently for different URLs.
+     */
+    public interface UrlAnalysis
+    {
+        Set analyze( URL url )
+            throws IOException;
+    }
+}
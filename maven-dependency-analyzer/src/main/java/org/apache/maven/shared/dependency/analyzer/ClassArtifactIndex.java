@@ -0,0 +1,166 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The inverse of an artifact to class names map: finds the artifact containing a class with a single lookup.
+ * <p>
+ * When several artifacts contain the same class, the first one in the iteration order of the map wins, like on a
+ * class path. Building the index also collects these duplicate classes, and the packages split between several
+ * artifacts.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ClassArtifactIndex
+{
+    // fields -----------------------------------------------------------------
+
+    /**
+     * Class name to the first artifact containing it.
+     */
+    private final Map classArtifacts;
+
+    /**
+     * Class name to the {@link Set} of all the artifacts containing it, for the classes found in several artifacts.
+     */
+    private final Map duplicateClasses = new LinkedHashMap();
+
+    /**
+     * Package name to the {@link Set} of the artifacts containing its classes, for the packages found in several
+     * artifacts.
+     */
+    private final Map splitPackages = new LinkedHashMap();
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * @param artifactClassMap the artifacts to the {@link Set}s of the names of the classes they contain
+     */
+    public ClassArtifactIndex( Map artifactClassMap )
+    {
+        int size = 0;
+        for ( Iterator iterator = artifactClassMap.values().iterator(); iterator.hasNext(); )
+        {
+            size += ( (Set) iterator.next() ).size();
+        }
+
+        classArtifacts = new HashMap( Math.max( 16, (int) ( size / 0.75f ) + 1 ) );
+
+        // package name to the first artifact containing it
+        Map packageArtifacts = new HashMap();
+
+        for ( Iterator iterator = artifactClassMap.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            Object artifact = entry.getKey();
+
+            String lastPackageName = null;
+
+            for ( Iterator classIterator = ( (Set) entry.getValue() ).iterator(); classIterator.hasNext(); )
+            {
+                String className = (String) classIterator.next();
+
+                Object previous = classArtifacts.put( className, artifact );
+                if ( previous != null && previous != artifact )
+                {
+                    // first one wins
+                    classArtifacts.put( className, previous );
+                    addTo( duplicateClasses, className, previous, artifact );
+                }
+
+                String packageName = getPackageName( className );
+                if ( packageName.equals( lastPackageName ) )
+                {
+                    continue;
+                }
+                lastPackageName = packageName;
+
+                Object packageArtifact = packageArtifacts.get( packageName );
+                if ( packageArtifact == null )
+                {
+                    packageArtifacts.put( packageName, artifact );
+                }
+                else if ( packageArtifact != artifact )
+                {
+                    addTo( splitPackages, packageName, packageArtifact, artifact );
+                }
+            }
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * @param className the fully qualified name of a class
+     * @return the first artifact containing the class, or <code>null</code> if none does
+     */
+    public Object getArtifact( String className )
+    {
+        return classArtifacts.get( className );
+    }
+
+    /**
+     * @return the class names found in several artifacts, to the {@link Set}s of these artifacts
+     */
+    public Map getDuplicateClasses()
+    {
+        return Collections.unmodifiableMap( duplicateClasses );
+    }
+
+    /**
+     * @return the package names found in several artifacts, to the {@link Set}s of these artifacts
+     */
+    public Map getSplitPackages()
+    {
+        return Collections.unmodifiableMap( splitPackages );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private static void addTo( Map map, String key, Object first, Object artifact )
+    {
+        Set artifacts = (Set) map.get( key );
+
+        if ( artifacts == null )
+        {
+            artifacts = new LinkedHashSet();
+            artifacts.add( first );
+            map.put( key, artifacts );
+        }
+
+        artifacts.add( artifact );
+    }
+
+    private static String getPackageName( String className )
+    {
+        int index = className.lastIndexOf( '.' );
+
+        return index < 0 ? "" : className.substring( 0, index );
+    }
+}
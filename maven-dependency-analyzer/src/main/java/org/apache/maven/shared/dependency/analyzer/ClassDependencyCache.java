@@ -0,0 +1,378 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * An on-disk cache of the classes referenced by each class file of the output directories of the projects, so an
+ * incremental build only analyzes the class files which changed since the previous one.
+ * <p>
+ * A class file is looked up by its path, size and last modification date. The class files which no longer exist are
+ * dropped from the cache when their directory is analyzed, and the directories which no longer exist are dropped on
+ * {@link #store()}. The cache is tied to the class and configuration of the analyzer it was filled by, it is cleared
+ * when another one is used.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ClassDependencyCache
+{
+    // constants --------------------------------------------------------------
+
+    private static final int FORMAT_VERSION = 2;
+
+    // fields -----------------------------------------------------------------
+
+    private final File cacheFile;
+
+    /**
+     * Directory absolute path to the {@link Map} of the class file paths, relative to the directory, to {@link Entry}.
+     */
+    private final Map directories = new HashMap();
+
+    /**
+     * The class and configuration of the analyzer the cached classes were collected by, <code>null</code> if none.
+     */
+    private String analyzerKey;
+
+    private boolean loaded;
+
+    private boolean modified;
+
+    private long hitCount;
+
+    private long missCount;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * @param cacheFile the file the cache is stored in, read on first use if it exists
+     */
+    public ClassDependencyCache( File cacheFile )
+    {
+        this.cacheFile = cacheFile;
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Returns the classes referenced by the class files of a directory, analyzing with
+     * <code>dependencyAnalyzer</code> only the class files which are not cached yet or changed since they were.
+     *
+     * @param directory the directory of class files
+     * @param dependencyAnalyzer the analyzer of the changed class files
+     * @return the {@link Set} of the names of the referenced classes
+     * @throws IOException if a class file cannot be read
+     */
+    public Set getDependencies( File directory, ClassFileDependencyAnalyzer dependencyAnalyzer )
+        throws IOException
+    {
+        String directoryPath = directory.getAbsolutePath();
+        String key = dependencyAnalyzer.getClass().getName() + ':' + dependencyAnalyzer.getConfiguration();
+
+        if ( !directory.isDirectory() )
+        {
+            synchronized ( this )
+            {
+                load( key );
+
+                if ( directories.remove( directoryPath ) != null )
+                {
+                    modified = true;
+                }
+            }
+
+            return Collections.EMPTY_SET;
+        }
+
+        String[] paths = ClassFileVisitorUtils.getClassPaths( directory );
+
+        // the entries of the class files which still exist, the others are dropped
+        Map entries = new HashMap( Math.max( 16, (int) ( paths.length / 0.75f ) + 1 ) );
+        List changedPaths = new ArrayList();
+
+        synchronized ( this )
+        {
+            load( key );
+
+            Map cachedEntries = (Map) directories.get( directoryPath );
+            if ( cachedEntries == null )
+            {
+                cachedEntries = Collections.EMPTY_MAP;
+            }
+
+            for ( int i = 0; i < paths.length; i++ )
+            {
+                File file = new File( directory, paths[i] );
+                long length = file.length();
+                long lastModified = file.lastModified();
+
+                Entry entry = (Entry) cachedEntries.get( paths[i] );
+                if ( entry != null && entry.length == length && entry.lastModified == lastModified )
+                {
+                    hitCount++;
+                    entries.put( paths[i], entry );
+                }
+                else
+                {
+                    missCount++;
+                    entries.put( paths[i], new Entry( length, lastModified, null ) );
+                    changedPaths.add( paths[i] );
+                }
+            }
+
+            if ( !changedPaths.isEmpty() || entries.size() != cachedEntries.size() )
+            {
+                modified = true;
+            }
+        }
+
+        if ( !changedPaths.isEmpty() )
+        {
+            Map dependencies =
+                dependencyAnalyzer.analyze( directory, (String[]) changedPaths.toArray( new String[0] ) );
+
+            for ( Iterator iterator = changedPaths.iterator(); iterator.hasNext(); )
+            {
+                String path = (String) iterator.next();
+                Set classes = (Set) dependencies.get( ClassFileVisitorUtils.getClassName( path ) );
+
+                Entry entry = (Entry) entries.get( path );
+                entry.classes = classes == null ? Collections.EMPTY_SET : Collections.unmodifiableSet( classes );
+            }
+        }
+
+        synchronized ( this )
+        {
+            directories.put( directoryPath, entries );
+        }
+
+        Set dependencies = new HashSet();
+
+        for ( Iterator iterator = entries.values().iterator(); iterator.hasNext(); )
+        {
+            dependencies.addAll( ( (Entry) iterator.next() ).classes );
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Writes the cache if it changed since it was loaded, after dropping the directories which no longer exist. The
+     * cache is written to a temporary file which then replaces it, so it is never left truncated.
+     *
+     * @throws IOException if the cache cannot be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        if ( !modified )
+        {
+            return;
+        }
+
+        for ( Iterator iterator = directories.keySet().iterator(); iterator.hasNext(); )
+        {
+            if ( !new File( (String) iterator.next() ).isDirectory() )
+            {
+                iterator.remove();
+            }
+        }
+
+        File temporaryFile = ArtifactClassIndex.createTemporaryFile( cacheFile );
+
+        DataOutputStream out =
+            new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temporaryFile ) ) );
+        try
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeUTF( analyzerKey );
+            out.writeInt( directories.size() );
+
+            for ( Iterator iterator = directories.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry directoryEntry = (Map.Entry) iterator.next();
+                Map entries = (Map) directoryEntry.getValue();
+
+                out.writeUTF( (String) directoryEntry.getKey() );
+                out.writeInt( entries.size() );
+
+                for ( Iterator entryIterator = entries.entrySet().iterator(); entryIterator.hasNext(); )
+                {
+                    Map.Entry mapEntry = (Map.Entry) entryIterator.next();
+                    Entry entry = (Entry) mapEntry.getValue();
+
+                    out.writeUTF( (String) mapEntry.getKey() );
+                    out.writeLong( entry.length );
+                    out.writeLong( entry.lastModified );
+                    ArtifactClassIndex.writeClasses( out, entry.classes );
+                }
+            }
+
+            out.close();
+            ArtifactClassIndex.replace( temporaryFile, cacheFile );
+        }
+        finally
+        {
+            IOUtil.close( out );
+            temporaryFile.delete();
+        }
+
+        modified = false;
+    }
+
+    public File getCacheFile()
+    {
+        return cacheFile;
+    }
+
+    /**
+     * @return the number of class files found in the cache
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of class files which had to be analyzed
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Reads the cache on first use, then clears it if it was not filled by the analyzer described by <code>key</code>.
+     *
+     * @param key the class and configuration of the analyzer
+     */
+    private void load( String key )
+    {
+        if ( !loaded )
+        {
+            loaded = true;
+            read();
+        }
+
+        if ( !key.equals( analyzerKey ) )
+        {
+            directories.clear();
+            analyzerKey = key;
+            modified = true;
+        }
+    }
+
+    private void read()
+    {
+        if ( !cacheFile.isFile() )
+        {
+            return;
+        }
+
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( cacheFile ) ) );
+
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return;
+            }
+
+            analyzerKey = in.readUTF();
+
+            // every count is bounded by the size of the file, so a corrupted one can't allocate more
+            long limit = cacheFile.length();
+            int directoryCount = ArtifactClassIndex.readCount( in, limit );
+            for ( int i = 0; i < directoryCount; i++ )
+            {
+                String directoryPath = in.readUTF();
+                int count = ArtifactClassIndex.readCount( in, limit );
+
+                Map entries = new HashMap( Math.max( 16, (int) ( count / 0.75f ) + 1 ) );
+                for ( int j = 0; j < count; j++ )
+                {
+                    String path = in.readUTF();
+                    long length = in.readLong();
+                    long lastModified = in.readLong();
+                    Set classes = Collections.unmodifiableSet( ArtifactClassIndex.readClasses( in, limit ) );
+
+                    entries.put( path, new Entry( length, lastModified, classes ) );
+                }
+                directories.put( directoryPath, entries );
+            }
+        }
+        catch ( IOException exception )
+        {
+            // a corrupted cache is an empty one
+            directories.clear();
+            analyzerKey = null;
+        }
+        catch ( RuntimeException exception )
+        {
+            // a corrupted cache is an empty one
+            directories.clear();
+            analyzerKey = null;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    // private classes --------------------------------------------------------
+
+    private static final class Entry
+    {
+        final long length;
+
+        final long lastModified;
+
+        Set classes;
+
+        Entry( long length, long lastModified, Set classes )
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.classes = classes;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A dependency analyzer which can also analyze the class files of a directory one by one, so that the results of the
+ * unchanged class files can be cached by a {@link ClassDependencyCache}.
+ * 
+ * @version $Id$
+ */
+public interface ClassFileDependencyAnalyzer
+    extends DependencyAnalyzer
+{
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Collects the classes referenced by each of some class files of a directory.
+     * 
+     * @param directory the directory containing the class files
+     * @param paths the paths of the class files, relative to <code>directory</code> and separated by <code>/</code>
+     * @return the names of the analyzed classes to the {@link Set}s of the classes they reference
+     * @throws IOException if a class file cannot be read
+     */
+    Map analyze( File directory, String[] paths )
+        throws IOException;
+
+    /**
+     * Describes the configuration of the analyzer which the referenced classes depend on, so that the classes cached
+     * with another configuration are analyzed again.
+     * 
+     * @return the configuration of the analyzer, never <code>null</code>
+     */
+    String getConfiguration();
+}
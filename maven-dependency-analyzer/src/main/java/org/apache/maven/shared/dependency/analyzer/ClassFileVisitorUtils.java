@@ -26,8 +26,11 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Enumeration;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.codehaus.plexus.util.DirectoryScanner;
 
@@ -54,10 +57,25 @@ public final class ClassFileVisitorUtils
 
     public static void accept( URL url, ClassFileVisitor visitor )
         throws IOException
+    {
+        accept( url, visitor, false );
+    }
+
+    /**
+     * Visits the class files of a jar or a directory.
+     * 
+     * @param url the URL of the jar or directory
+     * @param visitor the visitor of the class files
+     * @param verifyJars whether the entries of a jar are all read and their CRC checked, rather than listed from the
+     *            central directory of the jar and only read if the visitor reads them
+     * @throws IOException if the class files cannot be read, or a verified jar is corrupted
+     */
+    public static void accept( URL url, ClassFileVisitor visitor, boolean verifyJars )
+        throws IOException
     {
         if ( url.getPath().endsWith( ".jar" ) )
         {
-            acceptJar( url, visitor );
+            acceptJar( url, visitor, verifyJars );
         }
         else if ( url.getProtocol().equalsIgnoreCase( "file" ) )
         {
@@ -87,11 +105,90 @@ public final class ClassFileVisitorUtils
         }
     }
 
+    /**
+     * Lists the class files of a directory.
+     * 
+     * @param directory the directory to scan
+     * @return the paths of the class files, relative to <code>directory</code> and separated by <code>/</code>
+     */
+    public static String[] getClassPaths( File directory )
+    {
+        if ( !directory.isDirectory() )
+            throw new IllegalArgumentException( "File is not a directory" );
+
+        DirectoryScanner scanner = new DirectoryScanner();
+
+        scanner.setBasedir( directory );
+        scanner.setIncludes( CLASS_INCLUDES );
+
+        scanner.scan();
+
+        String[] paths = scanner.getIncludedFiles();
+
+        for ( int i = 0; i < paths.length; i++ )
+        {
+            paths[i] = paths[i].replace( File.separatorChar, '/' );
+        }
+
+        return paths;
+    }
+
+    /**
+     * Visits some of the class files of a directory, like the ones which changed since they were last visited.
+     * 
+     * @param directory the directory containing the class files
+     * @param paths the paths of the class files to visit, as returned by {@link #getClassPaths(File)}
+     * @param visitor the visitor
+     * @throws IOException if a class file cannot be read
+     */
+    public static void acceptDirectory( File directory, String[] paths, ClassFileVisitor visitor )
+        throws IOException
+    {
+        for ( int i = 0; i < paths.length; i++ )
+        {
+            String path = paths[i];
+
+            File file = new File( directory, path );
+            FileInputStream in = new FileInputStream( file );
+
+            try
+            {
+                visitClass( path, in, visitor );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * @param path the path of a class file, separated by <code>/</code>
+     * @return the name of the class stored in the file
+     */
+    public static String getClassName( String path )
+    {
+        if ( !path.endsWith( ".class" ) )
+            throw new IllegalArgumentException( "Path is not a class" );
+
+        String className = path.substring( 0, path.length() - 6 );
+
+        return className.replace( '/', '.' );
+    }
+
     // private methods --------------------------------------------------------
 
-    private static void acceptJar( URL url, ClassFileVisitor visitor )
+    private static void acceptJar( URL url, ClassFileVisitor visitor, boolean verifyJars )
         throws IOException
     {
+        File file = verifyJars ? null : toFile( url );
+
+        if ( file != null && file.isFile() )
+        {
+            acceptJarFile( file, visitor );
+            return;
+        }
+
         JarInputStream in = new JarInputStream( url.openStream() );
 
         JarEntry entry = null;
@@ -107,43 +204,144 @@ public final class ClassFileVisitorUtils
         in.close();
     }
 
-    private static void acceptDirectory( File directory, ClassFileVisitor visitor )
+    /**
+     * Lists the classes from the central directory of the jar, the entries are only inflated if the visitor reads
+     * them.
+     */
+    private static void acceptJarFile( File file, ClassFileVisitor visitor )
         throws IOException
     {
-        if ( !directory.isDirectory() )
-            throw new IllegalArgumentException( "File is not a directory" );
-
-        DirectoryScanner scanner = new DirectoryScanner();
+        ZipFile zipFile = new ZipFile( file );
 
-        scanner.setBasedir( directory );
-        scanner.setIncludes( CLASS_INCLUDES );
-
-        scanner.scan();
+        try
+        {
+            for ( Enumeration entries = zipFile.entries(); entries.hasMoreElements(); )
+            {
+                ZipEntry entry = (ZipEntry) entries.nextElement();
+                String name = entry.getName();
 
-        String[] paths = scanner.getIncludedFiles();
+                if ( name.endsWith( ".class" ) )
+                {
+                    ZipEntryInputStream in = new ZipEntryInputStream( zipFile, entry );
 
-        for ( int i = 0; i < paths.length; i++ )
+                    try
+                    {
+                        visitClass( name, in, visitor );
+                    }
+                    finally
+                    {
+                        in.close();
+                    }
+                }
+            }
+        }
+        finally
         {
-            String path = paths[i].replace( File.separatorChar, '/' );
-
-            File file = new File( directory, path );
-            FileInputStream in = new FileInputStream( file );
+            zipFile.close();
+        }
+    }
 
-            visitClass( path, in, visitor );
+    private static File toFile( URL url )
+    {
+        if ( !url.getProtocol().equalsIgnoreCase( "file" ) )
+        {
+            return null;
+        }
 
-            in.close();
+        try
+        {
+            return new File( new URI( url.toString() ) );
+        }
+        catch ( URISyntaxException exception )
+        {
+            return null;
+        }
+        catch ( IllegalArgumentException exception )
+        {
+            return null;
         }
     }
 
+    private static void acceptDirectory( File directory, ClassFileVisitor visitor )
+        throws IOException
+    {
+        acceptDirectory( directory, getClassPaths( directory ), visitor );
+    }
+
     private static void visitClass( String path, InputStream in, ClassFileVisitor visitor )
     {
-        if ( !path.endsWith( ".class" ) )
-            throw new IllegalArgumentException( "Path is not a class" );
+        visitor.visitClass( getClassName( path ), in );
+    }
 
-        String className = path.substring( 0, path.length() - 6 );
+    // private classes --------------------------------------------------------
 
-        className = className.replace( '/', '.' );
+    /**
+     * Opens the entry on the first access, so a visitor only interested in the class names does not pay for the
+     * decompression of the entries.
+     */
+    private static final class ZipEntryInputStream
+        extends InputStream
+    {
+        private final ZipFile zipFile;
+
+        private final ZipEntry entry;
+
+        private InputStream in;
+
+        private boolean closed;
+
+        ZipEntryInputStream( ZipFile zipFile, ZipEntry entry )
+        {
+            this.zipFile = zipFile;
+            this.entry = entry;
+        }
+
+        private InputStream getInputStream()
+            throws IOException
+        {
+            if ( closed )
+            {
+                throw new IOException( "Stream closed" );
+            }
+            if ( in == null )
+            {
+                in = zipFile.getInputStream( entry );
+            }
+            return in;
+        }
+
+        public int read()
+            throws IOException
+        {
+            return getInputStream().read();
+        }
+
+        public int read( byte[] b, int off, int len )
+            throws IOException
+        {
+            return getInputStream().read( b, off, len );
+        }
+
+        public long skip( long n )
+            throws IOException
+        {
+            return getInputStream().skip( n );
+        }
 
-        visitor.visitClass( className, in );
+        public int available()
+            throws IOException
+        {
+            return getInputStream().available();
+        }
+
+        public void close()
+            throws IOException
+        {
+            closed = true;
+            if ( in != null )
+            {
+                in.close();
+            }
+        }
     }
 }
@@ -21,6 +21,9 @@ package org.apache.maven.shared.dependency.analyzer;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipException;
 
@@ -34,6 +37,16 @@ import java.util.zip.ZipException;
 public class DefaultClassAnalyzer
     implements ClassAnalyzer
 {
+    // fields -----------------------------------------------------------------
+
+    /**
+     * Read all the entries of the jars and check their CRC, so that a corrupted jar is reported. Otherwise the class
+     * names are listed from the central directory of the jars, without decompressing the entries.
+     * 
+     * @plexus.configuration default-value="false"
+     */
+    private boolean verifyJars;
+
     // ClassAnalyzer methods --------------------------------------------------
 
     /*
@@ -46,7 +59,7 @@ public class DefaultClassAnalyzer
 
         try
         {
-            ClassFileVisitorUtils.accept( url, visitor );
+            ClassFileVisitorUtils.accept( url, visitor, verifyJars );
         }
         catch( ZipException e )
         {
@@ -59,4 +72,47 @@ public class DefaultClassAnalyzer
 
         return visitor.getClasses();
     }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Lists the classes of many jars or directories concurrently.
+     * 
+     * @param urls the {@link URL}s of the jars or directories
+     * @param threadCount the maximum number of threads, <code>1</code> to analyze the URLs on the calling thread
+     * @return a {@link Map} of each URL to the {@link Set} of its class names, in the order of <code>urls</code>
+     * @throws IOException if a URL cannot be analyzed
+     * @see BatchAnalysisUtils#analyze(List, int, BatchAnalysisUtils.UrlAnalysis)
+     */
+    public Map analyze( List urls, int threadCount )
+        throws IOException
+    {
+        Set[] classes = BatchAnalysisUtils.analyze( urls, threadCount, new BatchAnalysisUtils.UrlAnalysis()
+        {
+            public Set analyze( URL url )
+                throws IOException
+            {
+                return DefaultClassAnalyzer.this.analyze( url );
+            }
+        } );
+
+        Map urlClasses = new LinkedHashMap();
+
+        for ( int i = 0; i < classes.length; i++ )
+        {
+            urlClasses.put( urls.get( i ), classes[i] );
+        }
+
+        return urlClasses;
+    }
+
+    public boolean isVerifyJars()
+    {
+        return verifyJars;
+    }
+
+    public void setVerifyJars( boolean verifyJars )
+    {
+        this.verifyJars = verifyJars;
+    }
 }
@@ -22,11 +22,14 @@ package org.apache.maven.shared.dependency.analyzer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -59,6 +62,35 @@ public class DefaultProjectDependencyAnalyzer
      */
     private DependencyAnalyzer dependencyAnalyzer;
 
+    /**
+     * The file of the index of the classes contained in the dependency jars, shared by the analyses of all the
+     * projects. The jars are scanned on every analysis when not set.
+     * 
+     * @plexus.configuration
+     */
+    private File classIndexFile;
+
+    private ArtifactClassIndex artifactClassIndex;
+
+    /**
+     * The file of the cache of the classes referenced by each class file of the output directories, so only the
+     * class files changed since the previous analysis are analyzed again. All the class files are analyzed on every
+     * analysis when not set.
+     * 
+     * @plexus.configuration
+     */
+    private File classDependencyCacheFile;
+
+    private ClassDependencyCache classDependencyCache;
+
+    /**
+     * The number of threads scanning the dependency jars and the project classes, <code>1</code> to scan them on the
+     * calling thread.
+     * 
+     * @plexus.configuration default-value="1"
+     */
+    private int threadCount = 1;
+
     // ProjectDependencyAnalyzer methods --------------------------------------
 
     /*
@@ -75,7 +107,9 @@ public class DefaultProjectDependencyAnalyzer
 
             Set declaredArtifacts = buildDeclaredArtifacts( project );
             
-            Set usedArtifacts = buildUsedArtifacts( artifactClassMap, dependencyClasses );
+            ClassArtifactIndex classArtifactIndex = new ClassArtifactIndex( artifactClassMap );
+
+            Set usedArtifacts = buildUsedArtifacts( artifactClassMap, classArtifactIndex, dependencyClasses );
             
             Set usedDeclaredArtifacts = new LinkedHashSet( declaredArtifacts );
             usedDeclaredArtifacts.retainAll( usedArtifacts );
@@ -87,12 +121,103 @@ public class DefaultProjectDependencyAnalyzer
             unusedDeclaredArtifacts = removeAll( unusedDeclaredArtifacts, usedArtifacts );
 
             return new ProjectDependencyAnalysis( usedDeclaredArtifacts, usedUndeclaredArtifacts,
-                                                  unusedDeclaredArtifacts );
+                                                  unusedDeclaredArtifacts, classArtifactIndex.getDuplicateClasses(),
+                                                  classArtifactIndex.getSplitPackages() );
         }
         catch ( IOException exception )
         {
             throw new ProjectDependencyAnalyzerException( "Cannot analyze dependencies", exception );
         }
+        finally
+        {
+            storeArtifactClassIndex();
+            storeClassDependencyCache();
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Indexes the classes of the dependency jars of all the given projects, so their analyses only do lookups.
+     * 
+     * @param projects the {@link MavenProject}s of the reactor
+     * @throws ProjectDependencyAnalyzerException if a jar cannot be read or the index cannot be stored
+     */
+    public void warmArtifactClassIndex( List projects )
+        throws ProjectDependencyAnalyzerException
+    {
+        ArtifactClassIndex index = getArtifactClassIndex();
+
+        if ( index == null )
+        {
+            return;
+        }
+
+        Set jars = new LinkedHashSet();
+
+        for ( Iterator iterator = projects.iterator(); iterator.hasNext(); )
+        {
+            MavenProject project = (MavenProject) iterator.next();
+
+            for ( Iterator artifactIterator = project.getArtifacts().iterator(); artifactIterator.hasNext(); )
+            {
+                File file = ( (Artifact) artifactIterator.next() ).getFile();
+
+                if ( file != null )
+                {
+                    jars.add( file );
+                }
+            }
+        }
+
+        try
+        {
+            index.warm( jars, classAnalyzer );
+        }
+        catch ( IOException exception )
+        {
+            throw new ProjectDependencyAnalyzerException( "Cannot index dependency classes", exception );
+        }
+    }
+
+    public synchronized ArtifactClassIndex getArtifactClassIndex()
+    {
+        if ( artifactClassIndex == null && classIndexFile != null )
+        {
+            artifactClassIndex = new ArtifactClassIndex( classIndexFile );
+        }
+
+        return artifactClassIndex;
+    }
+
+    public synchronized void setArtifactClassIndex( ArtifactClassIndex artifactClassIndex )
+    {
+        this.artifactClassIndex = artifactClassIndex;
+    }
+
+    public synchronized ClassDependencyCache getClassDependencyCache()
+    {
+        if ( classDependencyCache == null && classDependencyCacheFile != null )
+        {
+            classDependencyCache = new ClassDependencyCache( classDependencyCacheFile );
+        }
+
+        return classDependencyCache;
+    }
+
+    public synchronized void setClassDependencyCache( ClassDependencyCache classDependencyCache )
+    {
+        this.classDependencyCache = classDependencyCache;
+    }
+
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    public void setThreadCount( int threadCount )
+    {
+        this.threadCount = Math.max( 1, threadCount );
     }
 
     /**
@@ -108,22 +233,18 @@ public class DefaultProjectDependencyAnalyzer
      */
     private Set removeAll( Set start, Set remove )
     {
+        Set removeConflictIds = new HashSet( remove.size() * 2 );
+        for ( Iterator iter = remove.iterator(); iter.hasNext(); )
+        {
+            removeConflictIds.add( ( (Artifact) iter.next() ).getDependencyConflictId() );
+        }
+
         Set results = new LinkedHashSet( start.size() );
         Iterator iter = start.iterator();
         while ( iter.hasNext() )
         {
             Artifact artifact = (Artifact) iter.next();
-            Iterator iter2 = remove.iterator();
-            boolean found = false;
-            while ( iter2.hasNext() )
-            {
-                Artifact artifact2 = (Artifact) iter2.next();
-                if ( artifact.getDependencyConflictId().equals( artifact2.getDependencyConflictId() ) )
-                {
-                    found = true;
-                }
-            }
-            if ( !found )
+            if ( !removeConflictIds.contains( artifact.getDependencyConflictId() ) )
             {
                 results.add( artifact );
             }
@@ -136,10 +257,13 @@ public class DefaultProjectDependencyAnalyzer
     private Map buildArtifactClassMap( MavenProject project )
         throws IOException
     {
-        Map artifactClassMap = new LinkedHashMap();
-
         Set dependencyArtifacts = project.getArtifacts();
 
+        List artifacts = new ArrayList();
+        List urls = new ArrayList();
+        // URL to jar file
+        final Map files = new HashMap();
+
         for ( Iterator iterator = dependencyArtifacts.iterator(); iterator.hasNext(); )
         {
             Artifact artifact = (Artifact) iterator.next();
@@ -150,35 +274,112 @@ public class DefaultProjectDependencyAnalyzer
             {
                 URL url = file.toURL();
 
-                Set classes = classAnalyzer.analyze( url );
+                artifacts.add( artifact );
+                urls.add( url );
+                files.put( url.toString(), file );
+            }
+        }
+
+        final ArtifactClassIndex index = getArtifactClassIndex();
 
-                artifactClassMap.put( artifact, classes );
+        Set[] classes = BatchAnalysisUtils.analyze( urls, threadCount, new BatchAnalysisUtils.UrlAnalysis()
+        {
+            public Set analyze( URL url )
+                throws IOException
+            {
+                if ( index != null )
+                {
+                    return index.getClasses( (File) files.get( url.toString() ), classAnalyzer );
+                }
+                return classAnalyzer.analyze( url );
             }
+        } );
+
+        Map artifactClassMap = new LinkedHashMap();
+
+        for ( int i = 0; i < classes.length; i++ )
+        {
+            artifactClassMap.put( artifacts.get( i ), classes[i] );
         }
 
         return artifactClassMap;
     }
 
+    private void storeArtifactClassIndex()
+    {
+        ArtifactClassIndex index = getArtifactClassIndex();
+
+        if ( index != null )
+        {
+            try
+            {
+                index.store();
+            }
+            catch ( IOException exception )
+            {
+                // the index is only a cache, the jars will be scanned again next time
+            }
+        }
+    }
+
+    private void storeClassDependencyCache()
+    {
+        ClassDependencyCache cache = getClassDependencyCache();
+
+        if ( cache != null )
+        {
+            try
+            {
+                cache.store();
+            }
+            catch ( IOException exception )
+            {
+                // the cache is only a cache, the class files will be analyzed again next time
+            }
+        }
+    }
+
     protected Set buildDependencyClasses( MavenProject project , Map artifactClassMap )
         throws IOException
     {
-        Set dependencyClasses = new HashSet();
+        List urls = new ArrayList();
         
         String outputDirectory = project.getBuild().getOutputDirectory();
-        dependencyClasses.addAll( buildDependencyClasses( outputDirectory ) );
+        urls.add( new File( outputDirectory ).toURI().toURL() );
         
         String testOutputDirectory = project.getBuild().getTestOutputDirectory();
-        dependencyClasses.addAll( buildDependencyClasses( testOutputDirectory ) );
+        urls.add( new File( testOutputDirectory ).toURI().toURL() );
 
-        return dependencyClasses;
-    }
-    
-    private Set buildDependencyClasses( String path )
-        throws IOException
-    {
-        URL url = new File( path ).toURI().toURL();
+        final ClassDependencyCache cache = getClassDependencyCache();
 
-        return dependencyAnalyzer.analyze( url );
+        // URL to directory
+        final Map directories = new HashMap();
+        directories.put( urls.get( 0 ).toString(), new File( outputDirectory ) );
+        directories.put( urls.get( 1 ).toString(), new File( testOutputDirectory ) );
+
+        Set[] dependencies = BatchAnalysisUtils.analyze( urls, threadCount, new BatchAnalysisUtils.UrlAnalysis()
+        {
+            public Set analyze( URL url )
+                throws IOException
+            {
+                if ( cache != null && dependencyAnalyzer instanceof ClassFileDependencyAnalyzer )
+                {
+                    // only the changed class files of each directory are analyzed
+                    return cache.getDependencies( (File) directories.get( url.toString() ),
+                                                  (ClassFileDependencyAnalyzer) dependencyAnalyzer );
+                }
+                return dependencyAnalyzer.analyze( url );
+            }
+        } );
+
+        Set dependencyClasses = new HashSet();
+
+        for ( int i = 0; i < dependencies.length; i++ )
+        {
+            dependencyClasses.addAll( dependencies[i] );
+        }
+
+        return dependencyClasses;
     }
     
     private Set buildDeclaredArtifacts( MavenProject project )
@@ -193,15 +394,27 @@ public class DefaultProjectDependencyAnalyzer
         return declaredArtifacts;
     }
     
-    private Set buildUsedArtifacts( Map artifactClassMap, Set dependencyClasses )
+    private Set buildUsedArtifacts( Map artifactClassMap, ClassArtifactIndex classArtifactIndex,
+                                    Set dependencyClasses )
     {
         Set usedArtifacts = new HashSet();
 
+        // a subclass overriding the lookup keeps being consulted for each class
+        boolean overridden = overridesFindArtifactForClassName();
+
         for ( Iterator dependencyIterator = dependencyClasses.iterator(); dependencyIterator.hasNext(); )
         {
             String className = (String) dependencyIterator.next();
 
-            Artifact artifact = findArtifactForClassName( artifactClassMap, className );
+            Artifact artifact;
+            if ( overridden )
+            {
+                artifact = findArtifactForClassName( artifactClassMap, className );
+            }
+            else
+            {
+                artifact = (Artifact) classArtifactIndex.getArtifact( className );
+            }
 
             if ( artifact != null )
             {
@@ -212,6 +425,14 @@ public class DefaultProjectDependencyAnalyzer
         return usedArtifacts;
     }
 
+    /**
+     * Finds the artifact containing a class. The analysis looks the classes up in a {@link ClassArtifactIndex} built
+     * once for all the classes, and only calls this method when a subclass overrides it.
+     * 
+     * @param artifactClassMap the artifacts to the {@link Set}s of the names of the classes they contain
+     * @param className the name of the class
+     * @return the first artifact containing the class, or <code>null</code> if none does
+     */
     protected Artifact findArtifactForClassName( Map artifactClassMap, String className )
     {
         for ( Iterator artifactIterator = artifactClassMap.keySet().iterator(); artifactIterator.hasNext(); )
@@ -228,4 +449,23 @@ public class DefaultProjectDependencyAnalyzer
 
         return null;
     }
+
+    private boolean overridesFindArtifactForClassName()
+    {
+        for ( Class type = getClass(); type != DefaultProjectDependencyAnalyzer.class; type = type.getSuperclass() )
+        {
+            try
+            {
+                type.getDeclaredMethod( "findArtifactForClassName", new Class[] { Map.class, String.class } );
+
+                return true;
+            }
+            catch ( NoSuchMethodException exception )
+            {
+                // not overridden by this class
+            }
+        }
+
+        return false;
+    }
 }
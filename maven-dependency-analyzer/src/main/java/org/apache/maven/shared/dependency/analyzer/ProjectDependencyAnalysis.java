@@ -20,7 +20,9 @@ package org.apache.maven.shared.dependency.analyzer;
  */
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -39,6 +41,10 @@ public class ProjectDependencyAnalysis
 
     private final Set unusedDeclaredArtifacts;
 
+    private final Map duplicateClasses;
+
+    private final Map splitPackages;
+
     // constructors -----------------------------------------------------------
     
     public ProjectDependencyAnalysis()
@@ -48,10 +54,22 @@ public class ProjectDependencyAnalysis
 
     public ProjectDependencyAnalysis( Set usedDeclaredArtifacts, Set usedUndeclaredArtifacts,
                                       Set unusedDeclaredArtifacts )
+    {
+        this( usedDeclaredArtifacts, usedUndeclaredArtifacts, unusedDeclaredArtifacts, null, null );
+    }
+
+    /**
+     * @param duplicateClasses the class names found in several artifacts, to the {@link Set}s of these artifacts
+     * @param splitPackages the package names found in several artifacts, to the {@link Set}s of these artifacts
+     */
+    public ProjectDependencyAnalysis( Set usedDeclaredArtifacts, Set usedUndeclaredArtifacts,
+                                      Set unusedDeclaredArtifacts, Map duplicateClasses, Map splitPackages )
     {
         this.usedDeclaredArtifacts = safeCopy(usedDeclaredArtifacts);
         this.usedUndeclaredArtifacts = safeCopy(usedUndeclaredArtifacts);
         this.unusedDeclaredArtifacts = safeCopy(unusedDeclaredArtifacts);
+        this.duplicateClasses = safeCopy( duplicateClasses );
+        this.splitPackages = safeCopy( splitPackages );
     }
 
     // public methods ---------------------------------------------------------
@@ -70,6 +88,28 @@ public class ProjectDependencyAnalysis
     {
         return unusedDeclaredArtifacts;
     }
+
+    /**
+     * Classes found in several dependency artifacts, only the first one on the class path is used. These are
+     * diagnostics, they are not part of the equality of analyses.
+     * 
+     * @return the class names to the {@link Set}s of the artifacts containing them
+     */
+    public Map getDuplicateClasses()
+    {
+        return duplicateClasses;
+    }
+
+    /**
+     * Packages whose classes are spread over several dependency artifacts. These are diagnostics, they are not part of
+     * the equality of analyses.
+     * 
+     * @return the package names to the {@link Set}s of the artifacts containing them
+     */
+    public Map getSplitPackages()
+    {
+        return splitPackages;
+    }
     
     // Object methods ---------------------------------------------------------
     
@@ -154,4 +194,9 @@ public class ProjectDependencyAnalysis
     {
         return ( set == null ) ? Collections.EMPTY_SET : Collections.unmodifiableSet( new LinkedHashSet( set ) );
     }
+
+    private Map safeCopy( Map map )
+    {
+        return ( map == null ) ? Collections.EMPTY_MAP : Collections.unmodifiableMap( new LinkedHashMap( map ) );
+    }
 }
@@ -19,12 +19,20 @@ package org.apache.maven.shared.dependency.analyzer.asm;
  * under the License.
  */
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.maven.shared.dependency.analyzer.BatchAnalysisUtils;
+import org.apache.maven.shared.dependency.analyzer.ClassFileDependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ClassFileVisitor;
 import org.apache.maven.shared.dependency.analyzer.ClassFileVisitorUtils;
-import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 
 /**
  * ASMDependencyAnalyzer 
@@ -34,8 +42,18 @@ import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
  * @plexus.component role="org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer"
  */
 public class ASMDependencyAnalyzer
-    implements DependencyAnalyzer
+    implements ClassFileDependencyAnalyzer
 {
+    // fields -----------------------------------------------------------------
+
+    /**
+     * Only collect the classes referenced by the signatures of the classes, fields and methods, without reading the
+     * method bodies.
+     * 
+     * @plexus.configuration default-value="false"
+     */
+    private boolean signaturesOnly;
+
     // DependencyAnalyzer methods ---------------------------------------------
 
     /*
@@ -44,7 +62,97 @@ public class ASMDependencyAnalyzer
     public Set analyze( URL url )
         throws IOException
     {
-        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
+        return analyze( url, new ClassNamePool() );
+    }
+
+    // ClassFileDependencyAnalyzer methods ------------------------------------
+
+    /*
+     * @see org.apache.maven.shared.dependency.analyzer.ClassFileDependencyAnalyzer#analyze(java.io.File,
+     *      java.lang.String[])
+     */
+    public Map analyze( File directory, String[] paths )
+        throws IOException
+    {
+        final ClassNamePool classNamePool = new ClassNamePool();
+        final Map dependencies = new HashMap();
+
+        ClassFileVisitorUtils.acceptDirectory( directory, paths, new ClassFileVisitor()
+        {
+            public void visitClass( String className, InputStream in )
+            {
+                DependencyClassFileVisitor visitor = new DependencyClassFileVisitor( classNamePool, signaturesOnly );
+
+                visitor.visitClass( className, in );
+
+                dependencies.put( className, visitor.getDependencies() );
+            }
+        } );
+
+        return dependencies;
+    }
+
+    /*
+     * @see org.apache.maven.shared.dependency.analyzer.ClassFileDependencyAnalyzer#getConfiguration()
+     */
+    public String getConfiguration()
+    {
+        return "signaturesOnly=" + signaturesOnly;
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Collects the classes referenced by many jars or directories concurrently, the class names being shared by all
+     * the URLs.
+     * 
+     * @param urls the {@link URL}s of the jars or directories
+     * @param threadCount the maximum number of threads, <code>1</code> to analyze the URLs on the calling thread
+     * @return the {@link Set} of the classes referenced by all the URLs
+     * @throws IOException if a URL cannot be analyzed
+     * @see BatchAnalysisUtils#analyze(List, int, BatchAnalysisUtils.UrlAnalysis)
+     */
+    public Set analyze( List urls, int threadCount )
+        throws IOException
+    {
+        // the class names are shared by all the URLs, each URL gets its own set, merged once all are analyzed
+        final ClassNamePool classNamePool = new ClassNamePool();
+
+        Set[] dependencies = BatchAnalysisUtils.analyze( urls, threadCount, new BatchAnalysisUtils.UrlAnalysis()
+        {
+            public Set analyze( URL url )
+                throws IOException
+            {
+                return ASMDependencyAnalyzer.this.analyze( url, classNamePool );
+            }
+        } );
+
+        Set allDependencies = new HashSet();
+
+        for ( int i = 0; i < dependencies.length; i++ )
+        {
+            allDependencies.addAll( dependencies[i] );
+        }
+
+        return allDependencies;
+    }
+
+    public boolean isSignaturesOnly()
+    {
+        return signaturesOnly;
+    }
+
+    public void setSignaturesOnly( boolean signaturesOnly )
+    {
+        this.signaturesOnly = signaturesOnly;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private Set analyze( URL url, ClassNamePool classNamePool )
+        throws IOException
+    {
+        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor( classNamePool, signaturesOnly );
 
         ClassFileVisitorUtils.accept( url, visitor );
 
@@ -0,0 +1,118 @@
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A symbol table of the class names found in class files: each internal name, like <code>java/lang/Object</code>, is
+ * converted to a class name once, and all the visitors sharing the pool get the same class name instance.
+ * <p>
+ * The pool is safe for use by several threads; it is split in stripes, each guarded by its own lock.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ClassNamePool
+{
+    // constants --------------------------------------------------------------
+
+    private static final int STRIPES = 16;
+
+    // fields -----------------------------------------------------------------
+
+    /**
+     * Internal name to class name, per stripe.
+     */
+    private final Map[] stripes = new Map[STRIPES];
+
+    // constructors -----------------------------------------------------------
+
+    public ClassNamePool()
+    {
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            stripes[i] = new HashMap();
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * @param internalName an internal name, or the descriptor of an array of objects like
+     *            <code>[Ljava/lang/Object;</code>
+     * @return the shared class name, like <code>java.lang.Object</code>
+     */
+    public String getClassName( String internalName )
+    {
+        Map stripe = stripes[( internalName.hashCode() & 0x7fffffff ) % STRIPES];
+
+        synchronized ( stripe )
+        {
+            String className = (String) stripe.get( internalName );
+
+            if ( className == null )
+            {
+                className = toClassName( internalName );
+                stripe.put( internalName, className );
+            }
+
+            return className;
+        }
+    }
+
+    /**
+     * @return the number of distinct internal names in the pool
+     */
+    public int size()
+    {
+        int size = 0;
+
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            synchronized ( stripes[i] )
+            {
+                size += stripes[i].size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Converts an internal name without pooling it.
+     *
+     * @param internalName an internal name, or the descriptor of an array of objects like
+     *            <code>[Ljava/lang/Object;</code>
+     * @return the class name, like <code>java.lang.Object</code>
+     */
+    public static String toClassName( String internalName )
+    {
+        String name = internalName;
+
+        // decode arrays
+        if ( name.startsWith( "[L" ) && name.endsWith( ";" ) )
+            name = name.substring( 2, name.length() - 1 );
+
+        // decode internal representation
+        return name.replace( '/', '.' );
+    }
+}
@@ -40,11 +40,31 @@ public class DependencyClassFileVisitor
 
     private final Set dependencies;
 
+    /**
+     * Adds the dependencies of every visited class straight to {@link #dependencies}.
+     */
+    private final DependencyVisitor visitor;
+
+    private final int parsingOptions;
+
     // constructors -----------------------------------------------------------
 
     public DependencyClassFileVisitor()
+    {
+        this( new ClassNamePool(), false );
+    }
+
+    /**
+     * @param classNamePool the pool converting the internal names, which can be shared by visitors running on other
+     *            threads
+     * @param signaturesOnly <code>true</code> to only collect the classes referenced by the signatures of the
+     *            classes, fields and methods, skipping the method bodies
+     */
+    public DependencyClassFileVisitor( ClassNamePool classNamePool, boolean signaturesOnly )
     {
         dependencies = new HashSet();
+        visitor = new DependencyVisitor( dependencies, classNamePool );
+        parsingOptions = signaturesOnly ? ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG : 0;
     }
 
     // ClassFileVisitor methods -----------------------------------------------
@@ -58,11 +78,8 @@ public class DependencyClassFileVisitor
         try
         {
             ClassReader reader = new ClassReader( in );
-            DependencyVisitor visitor = new DependencyVisitor();
-
-            reader.accept( visitor, 0 );
 
-            dependencies.addAll( visitor.getClasses() );
+            reader.accept( visitor, parsingOptions );
         }
         catch ( IOException exception )
         {
@@ -45,11 +45,25 @@ public class DependencyVisitor
 
     private final Set classes;
 
+    private final ClassNamePool classNamePool;
+
     // constructors -----------------------------------------------------------
 
     public DependencyVisitor()
     {
-        classes = new HashSet();
+        this( new HashSet(), null );
+    }
+
+    /**
+     * Creates a visitor which can be reused for many classes, adding their dependencies to the same set.
+     * 
+     * @param classes the set receiving the names of the referenced classes
+     * @param classNamePool the pool converting the internal names, <code>null</code> to convert each of them
+     */
+    public DependencyVisitor( Set classes, ClassNamePool classNamePool )
+    {
+        this.classes = classes;
+        this.classNamePool = classNamePool;
     }
 
     // ClassVisitor methods ---------------------------------------------------
@@ -528,19 +542,15 @@ public class DependencyVisitor
 
     // private methods --------------------------------------------------------
 
-    private void addName( String name )
+    private void addName( final String name )
     {
         if ( name == null )
             return;
 
-        // decode arrays
-        if ( name.startsWith( "[L" ) && name.endsWith( ";" ) )
-            name = name.substring( 2, name.length() - 1 );
-
-        // decode internal representation
-        name = name.replace( '/', '.' );
-
-        classes.add( name );
+        if ( classNamePool != null )
+            classes.add( classNamePool.getClassName( name ) );
+        else
+            classes.add( ClassNamePool.toClassName( name ) );
     }
 
     private void addNames( final String[] names )
@@ -576,7 +586,7 @@ public class DependencyVisitor
                 break;
 
             case Type.OBJECT:
-                addName( t.getClassName().replace( '.', '/' ) );
+                addName( t.getInternalName() );
                 break;
         }
     }
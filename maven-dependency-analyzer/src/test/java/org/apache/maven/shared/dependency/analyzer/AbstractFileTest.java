@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -87,4 +88,39 @@ public abstract class AbstractFileTest extends MockObjectTestCase
 
         out.write( bytes, 0, bytes.length );
     }
+
+    /**
+     * Replaces the count written after the UTF string <code>marker</code> in <code>file</code> by a count larger than
+     * the file.
+     */
+    protected void corruptCount( File file, String marker ) throws IOException
+    {
+        RandomAccessFile out = new RandomAccessFile( file, "rw" );
+        try
+        {
+            byte[] data = new byte[(int) out.length()];
+            out.readFully( data );
+
+            byte[] bytes = marker.getBytes( "UTF-8" );
+            for ( int i = 0; i + bytes.length <= data.length; i++ )
+            {
+                int j = 0;
+                while ( j < bytes.length && data[i + j] == bytes[j] )
+                {
+                    j++;
+                }
+                if ( j == bytes.length )
+                {
+                    out.seek( i + j );
+                    out.writeInt( Integer.MAX_VALUE );
+                    return;
+                }
+            }
+            fail( "Cannot find " + marker + " in " + file );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
 }
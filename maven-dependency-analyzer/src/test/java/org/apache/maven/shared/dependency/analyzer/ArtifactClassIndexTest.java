@@ -0,0 +1,225 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests <code>ArtifactClassIndex</code>.
+ *
+ * @version $Id$
+ * @see ArtifactClassIndex
+ */
+public class ArtifactClassIndexTest
+    extends AbstractFileTest
+{
+    // tests ------------------------------------------------------------------
+
+    public void testGetClassesFromStoredIndex()
+        throws IOException
+    {
+        File jar = createJar( new String[] { "a/b/c.class", "a/b/d.class", "x.class" } );
+        File indexFile = createIndexFile();
+
+        Set expectedClasses = new HashSet();
+        expectedClasses.add( "a.b.c" );
+        expectedClasses.add( "a.b.d" );
+        expectedClasses.add( "x" );
+
+        ArtifactClassIndex index = new ArtifactClassIndex( indexFile );
+        assertEquals( expectedClasses, index.getClasses( jar, new DefaultClassAnalyzer() ) );
+        assertEquals( 1, index.getMissCount() );
+        index.store();
+
+        index = new ArtifactClassIndex( indexFile );
+        assertEquals( expectedClasses, index.getClasses( jar, new DefaultClassAnalyzer() ) );
+        assertEquals( 0, index.getMissCount() );
+        assertEquals( 1, index.getHitCount() );
+    }
+
+    public void testGetClassesFromCorruptedIndex()
+        throws IOException
+    {
+        File jar = createJar( new String[] { "a/b/c.class", "a/b/d.class" } );
+        File indexFile = createIndexFile();
+
+        ArtifactClassIndex index = new ArtifactClassIndex( indexFile );
+        index.getClasses( jar, new DefaultClassAnalyzer() );
+        index.store();
+
+        // replace the number of classes of the package by a count larger than the file
+        corruptCount( indexFile, "\u0000\u0003a.b" );
+
+        // the corrupted index is an empty one
+        index = new ArtifactClassIndex( indexFile );
+        Set expectedClasses = new HashSet();
+        expectedClasses.add( "a.b.c" );
+        expectedClasses.add( "a.b.d" );
+        assertEquals( expectedClasses, index.getClasses( jar, new DefaultClassAnalyzer() ) );
+        assertEquals( 1, index.getMissCount() );
+    }
+
+    public void testGetClassesOfChangedJar()
+        throws IOException
+    {
+        File jar = createJar( new String[] { "a/b/c.class" } );
+        File indexFile = createIndexFile();
+
+        ArtifactClassIndex index = new ArtifactClassIndex( indexFile );
+        index.getClasses( jar, new DefaultClassAnalyzer() );
+        index.store();
+
+        writeJar( jar, new String[] { "a/b/c.class", "a/b/d.class" } );
+
+        Set expectedClasses = new HashSet();
+        expectedClasses.add( "a.b.c" );
+        expectedClasses.add( "a.b.d" );
+
+        index = new ArtifactClassIndex( indexFile );
+        assertEquals( expectedClasses, index.getClasses( jar, new DefaultClassAnalyzer() ) );
+        assertEquals( 1, index.getMissCount() );
+    }
+
+    public void testWarmAndEvict()
+        throws IOException
+    {
+        File jar1 = createJar( new String[] { "a/b/c.class" } );
+        File jar2 = createJar( new String[] { "x/y/z.class" } );
+        File jar3 = createJar( new String[] { "u/v/w.class" } );
+        File indexFile = createIndexFile();
+
+        Set jars = new LinkedHashSet();
+        jars.add( jar1 );
+        jars.add( jar2 );
+        jars.add( jar3 );
+
+        ArtifactClassIndex index = new ArtifactClassIndex( indexFile );
+        index.warm( jars, new DefaultClassAnalyzer() );
+        assertEquals( 3, index.getMissCount() );
+
+        // deleted jars are evicted, as are the least recently used ones above the maximum
+        jar3.delete();
+        sleep();
+        index = new ArtifactClassIndex( indexFile );
+        index.setMaxEntries( 2 );
+        index.getClasses( jar2, new DefaultClassAnalyzer() );
+        index.getClasses( createJar( new String[] { "p/q.class" } ), new DefaultClassAnalyzer() );
+        index.store();
+
+        index = new ArtifactClassIndex( indexFile );
+        index.getClasses( jar2, new DefaultClassAnalyzer() );
+        assertEquals( 0, index.getMissCount() );
+        index.getClasses( jar1, new DefaultClassAnalyzer() );
+        assertEquals( 1, index.getMissCount() );
+    }
+
+    public void testStoreLastUseOfIndexedJars()
+        throws IOException
+    {
+        File jar1 = createJar( new String[] { "a/b/c.class" } );
+        File jar2 = createJar( new String[] { "x/y/z.class" } );
+        File indexFile = createIndexFile();
+
+        Set jars = new LinkedHashSet();
+        jars.add( jar1 );
+        jars.add( jar2 );
+
+        ArtifactClassIndex index = new ArtifactClassIndex( indexFile );
+        index.warm( jars, new DefaultClassAnalyzer() );
+
+        // a build only finding indexed jars still stores their last use
+        sleep();
+        index = new ArtifactClassIndex( indexFile );
+        index.setUsageResolution( 0 );
+        index.getClasses( jar1, new DefaultClassAnalyzer() );
+        assertEquals( 0, index.getMissCount() );
+        index.store();
+
+        // so the least recently used jar is jar2
+        sleep();
+        index = new ArtifactClassIndex( indexFile );
+        index.setMaxEntries( 2 );
+        index.getClasses( createJar( new String[] { "p/q.class" } ), new DefaultClassAnalyzer() );
+        index.store();
+
+        index = new ArtifactClassIndex( indexFile );
+        index.getClasses( jar1, new DefaultClassAnalyzer() );
+        assertEquals( 0, index.getMissCount() );
+        index.getClasses( jar2, new DefaultClassAnalyzer() );
+        assertEquals( 1, index.getMissCount() );
+
+        // the temporary files the index is written to do not remain
+        String[] names = indexFile.getParentFile().list();
+        for ( int i = 0; i < names.length; i++ )
+        {
+            assertFalse( names[i], names[i].startsWith( indexFile.getName() ) && names[i].endsWith( ".tmp" ) );
+        }
+    }
+
+    // private methods --------------------------------------------------------
+
+    private File createJar( String[] paths )
+        throws IOException
+    {
+        File file = createJar();
+        writeJar( file, paths );
+
+        return file;
+    }
+
+    private void writeJar( File file, String[] paths )
+        throws IOException
+    {
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        for ( int i = 0; i < paths.length; i++ )
+        {
+            writeEntry( out, paths[i], "class " + paths[i] );
+        }
+        out.close();
+    }
+
+    private void sleep()
+    {
+        try
+        {
+            Thread.sleep( 20 );
+        }
+        catch ( InterruptedException exception )
+        {
+            // ignore
+        }
+    }
+
+    private File createIndexFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "index", ".bin" );
+        file.delete();
+        file.deleteOnExit();
+
+        return file;
+    }
+}
@@ -0,0 +1,166 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests <code>BatchAnalysisUtils</code>.
+ *
+ * @version $Id$
+ * @see BatchAnalysisUtils
+ */
+public class BatchAnalysisUtilsTest
+    extends AbstractFileTest
+{
+    // tests ------------------------------------------------------------------
+
+    public void testAnalyzeKeepsOrder()
+        throws IOException
+    {
+        List urls = new ArrayList();
+        for ( int i = 0; i < 50; i++ )
+        {
+            urls.add( new URL( "http://localhost/" + i ) );
+        }
+
+        Set[] results = BatchAnalysisUtils.analyze( urls, 4, new BatchAnalysisUtils.UrlAnalysis()
+        {
+            public Set analyze( URL url )
+            {
+                return Collections.singleton( url.getPath() );
+            }
+        } );
+
+        assertEquals( 50, results.length );
+        for ( int i = 0; i < results.length; i++ )
+        {
+            assertEquals( Collections.singleton( "/" + i ), results[i] );
+        }
+    }
+
+    public void testAnalyzeRethrowsFailure()
+        throws IOException
+    {
+        List urls = new ArrayList();
+        for ( int i = 0; i < 50; i++ )
+        {
+            urls.add( new URL( "http://localhost/" + i ) );
+        }
+
+        try
+        {
+            BatchAnalysisUtils.analyze( urls, 4, new BatchAnalysisUtils.UrlAnalysis()
+            {
+                public Set analyze( URL url )
+                    throws IOException
+                {
+                    if ( url.getPath().equals( "/10" ) )
+                    {
+                        throw new IOException( "cannot analyze " + url );
+                    }
+                    return Collections.EMPTY_SET;
+                }
+            } );
+            fail( "Exception expected" );
+        }
+        catch ( IOException exception )
+        {
+            assertEquals( "cannot analyze http://localhost/10", exception.getMessage() );
+        }
+    }
+
+    public void testAnalyzeRethrowsFirstFailureInOrder()
+        throws IOException
+    {
+        // the largest files are analyzed first, so the first URL is analyzed last
+        List urls = new ArrayList();
+        int[] sizes = { 1, 3000, 2000 };
+        for ( int i = 0; i < sizes.length; i++ )
+        {
+            File file = createJar();
+            FileOutputStream out = new FileOutputStream( file );
+            out.write( new byte[sizes[i]] );
+            out.close();
+
+            urls.add( file.toURI().toURL() );
+        }
+
+        final URL first = (URL) urls.get( 0 );
+        final URL second = (URL) urls.get( 1 );
+
+        try
+        {
+            BatchAnalysisUtils.analyze( urls, 2, new BatchAnalysisUtils.UrlAnalysis()
+            {
+                public Set analyze( URL url )
+                    throws IOException
+                {
+                    if ( url.equals( first ) || url.equals( second ) )
+                    {
+                        throw new IOException( "cannot analyze " + url );
+                    }
+                    return Collections.EMPTY_SET;
+                }
+            } );
+            fail( "Exception expected" );
+        }
+        catch ( IOException exception )
+        {
+            assertEquals( "cannot analyze " + first, exception.getMessage() );
+        }
+    }
+
+    public void testClassAnalyzerBatch()
+        throws IOException
+    {
+        List urls = new ArrayList();
+        for ( int i = 0; i < 10; i++ )
+        {
+            File file = createJar();
+            JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+            writeEntry( out, "p" + i + "/C.class", "class p" + i + ".C" );
+            out.close();
+
+            urls.add( file.toURI().toURL() );
+        }
+
+        Map classes = new DefaultClassAnalyzer().analyze( urls, 3 );
+
+        assertEquals( urls, new ArrayList( classes.keySet() ) );
+        for ( int i = 0; i < urls.size(); i++ )
+        {
+            Set expectedClasses = new HashSet();
+            expectedClasses.add( "p" + i + ".C" );
+
+            assertEquals( expectedClasses, classes.get( urls.get( i ) ) );
+        }
+    }
+}
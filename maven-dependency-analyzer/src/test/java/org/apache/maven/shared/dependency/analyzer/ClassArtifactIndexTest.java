@@ -0,0 +1,137 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests <code>ClassArtifactIndex</code>.
+ *
+ * @version $Id$
+ * @see ClassArtifactIndex
+ */
+public class ClassArtifactIndexTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testGetArtifact()
+    {
+        Map artifactClassMap = new LinkedHashMap();
+        artifactClassMap.put( "a", classes( new String[] { "a.b.C", "a.b.D", "E" } ) );
+        artifactClassMap.put( "x", classes( new String[] { "x.y.Z", "a.b.D", "a.b.F" } ) );
+
+        ClassArtifactIndex index = new ClassArtifactIndex( artifactClassMap );
+
+        assertEquals( "a", index.getArtifact( "a.b.C" ) );
+        assertEquals( "a", index.getArtifact( "a.b.D" ) );
+        assertEquals( "a", index.getArtifact( "E" ) );
+        assertEquals( "x", index.getArtifact( "x.y.Z" ) );
+        assertEquals( "x", index.getArtifact( "a.b.F" ) );
+        assertNull( index.getArtifact( "u.V" ) );
+
+        assertEquals( 1, index.getDuplicateClasses().size() );
+        assertEquals( Arrays.asList( new String[] { "a", "x" } ),
+                      Arrays.asList( ( (Set) index.getDuplicateClasses().get( "a.b.D" ) ).toArray() ) );
+
+        assertEquals( 1, index.getSplitPackages().size() );
+        assertEquals( Arrays.asList( new String[] { "a", "x" } ),
+                      Arrays.asList( ( (Set) index.getSplitPackages().get( "a.b" ) ).toArray() ) );
+    }
+
+    public void testSameAsLinearSearchOnLargeClassPath()
+    {
+        // a synthetic class path of 500 jars, sharing some packages and classes
+        Random random = new Random( 500 );
+        Map artifactClassMap = new LinkedHashMap();
+        for ( int i = 0; i < 500; i++ )
+        {
+            Set classes = new HashSet();
+            for ( int j = 0; j < 100; j++ )
+            {
+                int packageIndex = random.nextInt( 10 ) == 0 ? random.nextInt( 50 ) : i;
+                classes.add( "org.example.p" + packageIndex + ".C" + random.nextInt( 200 ) );
+            }
+            artifactClassMap.put( "artifact" + i, classes );
+        }
+
+        ClassArtifactIndex index = new ClassArtifactIndex( artifactClassMap );
+
+        Set splitPackages = new HashSet();
+        for ( int packageIndex = 0; packageIndex < 500; packageIndex++ )
+        {
+            for ( int classIndex = 0; classIndex < 200; classIndex++ )
+            {
+                String className = "org.example.p" + packageIndex + ".C" + classIndex;
+
+                Set artifacts = new LinkedHashSet();
+                for ( Iterator iterator = artifactClassMap.entrySet().iterator(); iterator.hasNext(); )
+                {
+                    Map.Entry entry = (Map.Entry) iterator.next();
+                    if ( ( (Set) entry.getValue() ).contains( className ) )
+                    {
+                        artifacts.add( entry.getKey() );
+                    }
+                }
+
+                assertEquals( className, artifacts.isEmpty() ? null : artifacts.iterator().next(),
+                              index.getArtifact( className ) );
+                assertEquals( className, artifacts.size() > 1 ? artifacts : null,
+                              index.getDuplicateClasses().get( className ) );
+            }
+
+            String packageName = "org.example.p" + packageIndex;
+            Set artifacts = new HashSet();
+            for ( Iterator iterator = artifactClassMap.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) iterator.next();
+                for ( Iterator classIterator = ( (Set) entry.getValue() ).iterator(); classIterator.hasNext(); )
+                {
+                    if ( ( (String) classIterator.next() ).startsWith( packageName + "." ) )
+                    {
+                        artifacts.add( entry.getKey() );
+                    }
+                }
+            }
+            if ( artifacts.size() > 1 )
+            {
+                splitPackages.add( packageName );
+                assertEquals( packageName, artifacts, index.getSplitPackages().get( packageName ) );
+            }
+        }
+        assertEquals( splitPackages, index.getSplitPackages().keySet() );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private static Set classes( String[] classNames )
+    {
+        return new LinkedHashSet( Arrays.asList( classNames ) );
+    }
+}
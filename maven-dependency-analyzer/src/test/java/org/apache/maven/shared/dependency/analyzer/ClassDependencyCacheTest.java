@@ -0,0 +1,234 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Tests <code>ClassDependencyCache</code>.
+ *
+ * @version $Id$
+ * @see ClassDependencyCache
+ */
+public class ClassDependencyCacheTest
+    extends AbstractFileTest
+{
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The paths of the class files analyzed by {@link #dependencyAnalyzer}.
+     */
+    private final List analyzedPaths = new ArrayList();
+
+    /**
+     * The configuration of {@link #dependencyAnalyzer}.
+     */
+    private String configuration = "default";
+
+    /**
+     * Reads the referenced classes from the class files, written as comma separated class names.
+     */
+    private final ClassFileDependencyAnalyzer dependencyAnalyzer = new ClassFileDependencyAnalyzer()
+    {
+        public Set analyze( URL url )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public Map analyze( File directory, String[] paths )
+            throws IOException
+        {
+            Map dependencies = new HashMap();
+
+            for ( int i = 0; i < paths.length; i++ )
+            {
+                analyzedPaths.add( paths[i] );
+
+                String data = FileUtils.fileRead( new File( directory, paths[i] ) );
+                dependencies.put( ClassFileVisitorUtils.getClassName( paths[i] ),
+                                  new HashSet( Arrays.asList( data.split( "," ) ) ) );
+            }
+
+            return dependencies;
+        }
+
+        public String getConfiguration()
+        {
+            return configuration;
+        }
+    };
+
+    // tests ------------------------------------------------------------------
+
+    public void testGetDependenciesFromStoredCache()
+        throws IOException
+    {
+        File dir = createDir();
+        createFile( mkdirs( dir, "a/b" ), "c.class", "x.Y,x.Z" );
+        createFile( dir, "d.class", "u.V" );
+        File cacheFile = createCacheFile();
+
+        ClassDependencyCache cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "x.Z", "u.V" } ),
+                      cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( 2, analyzedPaths.size() );
+        cache.store();
+
+        analyzedPaths.clear();
+        cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "x.Z", "u.V" } ),
+                      cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( 0, analyzedPaths.size() );
+        assertEquals( 2, cache.getHitCount() );
+
+        FileUtils.deleteDirectory( dir );
+    }
+
+    public void testGetDependenciesOfChangedAndDeletedClasses()
+        throws IOException
+    {
+        File dir = createDir();
+        File c = createFile( mkdirs( dir, "a/b" ), "c.class", "x.Y" );
+        File d = createFile( dir, "d.class", "u.V" );
+        createFile( dir, "e.class", "p.Q" );
+        File cacheFile = createCacheFile();
+
+        ClassDependencyCache cache = new ClassDependencyCache( cacheFile );
+        cache.getDependencies( dir, dependencyAnalyzer );
+        cache.store();
+
+        createFile( c.getParentFile(), c.getName(), "x.Y,x.Z" );
+        c.setLastModified( c.lastModified() + 2000 );
+        d.delete();
+        createFile( dir, "f.class", "r.S" );
+
+        analyzedPaths.clear();
+        cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "x.Z", "p.Q", "r.S" } ),
+                      cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( classes( new String[] { "a/b/c.class", "f.class" } ), new HashSet( analyzedPaths ) );
+        cache.store();
+
+        // the deleted class is no longer in the stored cache either
+        analyzedPaths.clear();
+        cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "x.Z", "p.Q", "r.S" } ),
+                      cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( 0, analyzedPaths.size() );
+
+        FileUtils.deleteDirectory( dir );
+    }
+
+    public void testGetDependenciesWithMissingDirectory()
+        throws IOException
+    {
+        File dir = createDir();
+        createFile( dir, "c.class", "x.Y" );
+        File cacheFile = createCacheFile();
+
+        ClassDependencyCache cache = new ClassDependencyCache( cacheFile );
+        cache.getDependencies( dir, dependencyAnalyzer );
+
+        FileUtils.deleteDirectory( dir );
+
+        assertEquals( new HashSet(), cache.getDependencies( dir, dependencyAnalyzer ) );
+    }
+
+    public void testGetDependenciesWithChangedConfiguration()
+        throws IOException
+    {
+        File dir = createDir();
+        createFile( dir, "c.class", "x.Y" );
+        createFile( dir, "d.class", "u.V" );
+        File cacheFile = createCacheFile();
+
+        ClassDependencyCache cache = new ClassDependencyCache( cacheFile );
+        cache.getDependencies( dir, dependencyAnalyzer );
+        cache.store();
+
+        // the classes cached with another configuration of the analyzer are analyzed again
+        analyzedPaths.clear();
+        configuration = "signaturesOnly";
+        cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "u.V" } ), cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( classes( new String[] { "c.class", "d.class" } ), new HashSet( analyzedPaths ) );
+        assertEquals( 0, cache.getHitCount() );
+        cache.store();
+
+        analyzedPaths.clear();
+        cache = new ClassDependencyCache( cacheFile );
+        cache.getDependencies( dir, dependencyAnalyzer );
+        assertEquals( 0, analyzedPaths.size() );
+
+        FileUtils.deleteDirectory( dir );
+    }
+
+    public void testGetDependenciesFromCorruptedCache()
+        throws IOException
+    {
+        File dir = createDir();
+        createFile( dir, "c.class", "x.Y" );
+        createFile( dir, "d.class", "u.V" );
+        File cacheFile = createCacheFile();
+
+        ClassDependencyCache cache = new ClassDependencyCache( cacheFile );
+        cache.getDependencies( dir, dependencyAnalyzer );
+        cache.store();
+
+        // replace the number of classes of the directory by a count larger than the file
+        corruptCount( cacheFile, dir.getAbsolutePath() );
+
+        // the corrupted cache is an empty one
+        analyzedPaths.clear();
+        cache = new ClassDependencyCache( cacheFile );
+        assertEquals( classes( new String[] { "x.Y", "u.V" } ), cache.getDependencies( dir, dependencyAnalyzer ) );
+        assertEquals( classes( new String[] { "c.class", "d.class" } ), new HashSet( analyzedPaths ) );
+
+        FileUtils.deleteDirectory( dir );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private static Set classes( String[] classNames )
+    {
+        return new HashSet( Arrays.asList( classNames ) );
+    }
+
+    private File createCacheFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "cache", ".bin" );
+        file.delete();
+        file.deleteOnExit();
+
+        return file;
+    }
+}
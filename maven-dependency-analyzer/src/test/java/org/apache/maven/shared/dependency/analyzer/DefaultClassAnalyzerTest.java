@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.jar.JarOutputStream;
@@ -60,6 +61,29 @@ public class DefaultClassAnalyzerTest extends AbstractFileTest
         assertEquals( expectedClasses, actualClasses );
     }
 
+    public void testAnalyzeWithJarDoesNotReadEntries() throws IOException
+    {
+        File file = createJar();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        writeEntry( out, "a/b/c.class", "class a.b.c" );
+        writeEntry( out, "x/y/z.class", "class x.y.z" );
+        out.close();
+
+        // break the local header of the first entry, the class names come from the central directory
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        raf.write( new byte[] { 0, 0, 0, 0 } );
+        raf.close();
+
+        Set expectedClasses = new HashSet();
+        expectedClasses.add( "a.b.c" );
+        expectedClasses.add( "x.y.z" );
+
+        DefaultClassAnalyzer analyzer = new DefaultClassAnalyzer();
+        Set actualClasses = analyzer.analyze( file.toURI().toURL() );
+
+        assertEquals( expectedClasses, actualClasses );
+    }
+
     public void testAnalyzeBadJar() throws IOException
     {
         //to reproduce MDEP-143
@@ -81,6 +105,8 @@ public class DefaultClassAnalyzerTest extends AbstractFileTest
         fos.close();
 
         DefaultClassAnalyzer analyzer = new DefaultClassAnalyzer();
+        //the corrupted data is only seen when the entries are read
+        analyzer.setVerifyJars( true );
 
         try
         {
@@ -93,4 +119,30 @@ public class DefaultClassAnalyzerTest extends AbstractFileTest
         }
 
     }
+
+    public void testAnalyzeTruncatedJar() throws IOException
+    {
+        File file = createJar();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        writeEntry( out, "a/b/c.class", "class a.b.c" );
+        writeEntry( out, "x/y/z.class", "class x.y.z" );
+        out.close();
+
+        //truncate the jar file, the entries are listed from the central directory at its end
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        raf.setLength( 100 );
+        raf.close();
+
+        DefaultClassAnalyzer analyzer = new DefaultClassAnalyzer();
+
+        try
+        {
+            analyzer.analyze( file.toURI().toURL() );
+            fail( "Exception expected" );
+        }
+        catch ( ZipException e )
+        {
+            assertTrue( e.getMessage().startsWith( "Cannot process Jar entry on URL:" ) );
+        }
+    }
 }
@@ -683,6 +683,39 @@ public class DependencyVisitorTest extends TestCase
         assertNoClasses();
     }
 
+    // class name pool tests -------------------------------------------------
+
+    public void testVisitWithClassNamePool()
+    {
+        ClassNamePool pool = new ClassNamePool();
+        Set classes = new HashSet();
+        visitor = new DependencyVisitor( classes, pool );
+
+        // class a.b.c extends x.y.z implements p.q.r
+        visitor.visit( 50, 0, "a/b/c", null, "x/y/z", new String[] { "p/q/r" } );
+        visitor.visitField( 0, "a", "[Lx/y/z;", null, null );
+
+        assertClasses( "p.q.r", "x.y.z" );
+        assertSame( classes, visitor.getClasses() );
+        assertEquals( 2, pool.size() );
+
+        // another visitor sharing the pool gets the same instances
+        DependencyVisitor otherVisitor = new DependencyVisitor( new HashSet(), pool );
+        otherVisitor.visit( 50, 0, "u/v/w", null, "x/y/z", null );
+
+        String className = pool.getClassName( "x/y/z" );
+        assertSame( className, otherVisitor.getClasses().iterator().next() );
+        assertSame( className, pool.getClassName( "x/y/z" ) );
+        assertEquals( 2, pool.size() );
+    }
+
+    public void testToClassName()
+    {
+        assertEquals( "x.y.z", ClassNamePool.toClassName( "x/y/z" ) );
+        assertEquals( "x.y.z", ClassNamePool.toClassName( "[Lx/y/z;" ) );
+        assertEquals( "z", ClassNamePool.toClassName( "z" ) );
+    }
+
     // private methods --------------------------------------------------------
 
     private void assertVisitor( Object actualVisitor )
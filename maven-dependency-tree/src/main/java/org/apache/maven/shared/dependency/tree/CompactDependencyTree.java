@@ -0,0 +1,890 @@
+package org.apache.maven.shared.dependency.tree;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
+
+/**
+ * An immutable and compact representation of a dependency tree, which holds its hierarchy in arrays rather than in
+ * linked dependency node objects.
+ *
+ * <p>
+ * The nodes are numbered in preorder, the root node being <code>0</code>, so the subtree of a node is the range of
+ * nodes from its index to the index of its last descendant, which makes ancestor queries constant-time.
+ * </p>
+ *
+ * <p>
+ * The hierarchy is held by the parent, first child and next sibling index of each node, the artifact keys are interned
+ * so that nodes of the same artifact share them, and the optional details of the nodes, such as their premanaged
+ * version, are only held for the nodes which have any.
+ * </p>
+ *
+ * <p>
+ * The tree can be viewed through the <code>DependencyNode</code> API with {@link #getRootNode()}, whose nodes are
+ * created on first access and cannot be modified, or copied back to a mutable tree with {@link #toDependencyNode()}.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ */
+public class CompactDependencyTree
+{
+    // constants --------------------------------------------------------------
+
+    /**
+     * The index returned for a missing node, such as the parent of the root node.
+     */
+    public static final int NONE = -1;
+
+    // classes ----------------------------------------------------------------
+
+    /**
+     * The optional details of a dependency node.
+     */
+    private static class NodeDetails
+    {
+        private Artifact relatedArtifact;
+
+        private String originalScope;
+
+        private String failedUpdateScope;
+
+        private String premanagedVersion;
+
+        private String premanagedScope;
+
+        private VersionRange versionSelectedFromRange;
+
+        private List availableVersions;
+    }
+
+    /**
+     * A dependency node that is a read-only view of a node of this tree.
+     */
+    private class NodeView extends DependencyNode
+    {
+        private final int index;
+
+        public NodeView( int index )
+        {
+            super( artifacts[index], states[index], CompactDependencyTree.this.getRelatedArtifact( index ),
+                   Collections.EMPTY_LIST );
+
+            this.index = index;
+        }
+
+        public boolean accept( DependencyNodeVisitor visitor )
+        {
+            return CompactDependencyTree.this.accept( index, visitor );
+        }
+
+        public void addChild( DependencyNode child )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public void removeChild( DependencyNode child )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public DependencyNode getParent()
+        {
+            int parent = parents[index];
+
+            return ( parent != NONE ) ? getNode( parent ) : null;
+        }
+
+        public int getDepth()
+        {
+            return CompactDependencyTree.this.getDepth( index );
+        }
+
+        public List getChildren()
+        {
+            List children = new ArrayList();
+
+            for ( int child = firstChildren[index]; child != NONE; child = nextSiblings[child] )
+            {
+                children.add( getNode( child ) );
+            }
+
+            return Collections.unmodifiableList( children );
+        }
+
+        public boolean hasChildren()
+        {
+            return firstChildren[index] != NONE;
+        }
+
+        public String getOriginalScope()
+        {
+            return CompactDependencyTree.this.getOriginalScope( index );
+        }
+
+        public void setOriginalScope( String originalScope )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public String getFailedUpdateScope()
+        {
+            return CompactDependencyTree.this.getFailedUpdateScope( index );
+        }
+
+        public void setFailedUpdateScope( String failedUpdateScope )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public String getPremanagedVersion()
+        {
+            return CompactDependencyTree.this.getPremanagedVersion( index );
+        }
+
+        public void setPremanagedVersion( String premanagedVersion )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public String getPremanagedScope()
+        {
+            return CompactDependencyTree.this.getPremanagedScope( index );
+        }
+
+        public void setPremanagedScope( String premanagedScope )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public VersionRange getVersionSelectedFromRange()
+        {
+            return CompactDependencyTree.this.getVersionSelectedFromRange( index );
+        }
+
+        public void setVersionSelectedFromRange( VersionRange versionSelectedFromRange )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public List getAvailableVersions()
+        {
+            return CompactDependencyTree.this.getAvailableVersions( index );
+        }
+
+        public void setAvailableVersions( List availableVersions )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public void omitForConflict( Artifact relatedArtifact )
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+
+        public void omitForCycle()
+        {
+            throw new UnsupportedOperationException( "Compact dependency trees cannot be modified" );
+        }
+    }
+
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The index of the parent of each node, or <code>NONE</code> for the root node.
+     */
+    private final int[] parents;
+
+    /**
+     * The index of the first child of each node, or <code>NONE</code> for a leaf node.
+     */
+    private final int[] firstChildren;
+
+    /**
+     * The index of the next sibling of each node, or <code>NONE</code> for the last child of its parent.
+     */
+    private final int[] nextSiblings;
+
+    /**
+     * The index of the last descendant of each node, or its own index for a leaf node.
+     */
+    private final int[] lastDescendants;
+
+    /**
+     * The depth of each node, the root node having a depth of <code>0</code>.
+     */
+    private final int[] depths;
+
+    /**
+     * The state of each node.
+     */
+    private final byte[] states;
+
+    /**
+     * The artifact attached to each node.
+     */
+    private final Artifact[] artifacts;
+
+    /**
+     * The index of the artifact key of each node within <code>keys</code>.
+     */
+    private final int[] keyIndices;
+
+    /**
+     * The distinct artifact keys of the nodes, in order of first appearance.
+     */
+    private final String[] keys;
+
+    /**
+     * The optional details of each node, or <code>null</code> for the nodes without any.
+     */
+    private final NodeDetails[] details;
+
+    /**
+     * The dependency node views of the nodes, created on first access.
+     */
+    private DependencyNode[] nodeViews;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Creates a compact dependency tree from the specified dependency node and its descendants.
+     *
+     * @param rootNode
+     *            the root node of the dependency tree to copy
+     * @throws IllegalArgumentException
+     *             if a dependency node has no artifact
+     */
+    public CompactDependencyTree( DependencyNode rootNode )
+    {
+        // collect the nodes in preorder without recursing, as trees may be deep
+        List nodes = new ArrayList();
+        int[] nodeParents = new int[16];
+
+        List pendingNodes = new ArrayList();
+        int[] pendingParents = new int[16];
+
+        pendingNodes.add( rootNode );
+        pendingParents[0] = NONE;
+
+        while ( !pendingNodes.isEmpty() )
+        {
+            int last = pendingNodes.size() - 1;
+            DependencyNode node = (DependencyNode) pendingNodes.remove( last );
+
+            if ( node.getArtifact() == null )
+            {
+                throw new IllegalArgumentException( "Dependency node has no artifact" );
+            }
+
+            int index = nodes.size();
+            nodes.add( node );
+            nodeParents = ensureCapacity( nodeParents, index + 1 );
+            nodeParents[index] = pendingParents[last];
+
+            List children = node.getChildren();
+            pendingParents = ensureCapacity( pendingParents, last + children.size() );
+
+            for ( int i = children.size() - 1; i >= 0; i-- )
+            {
+                pendingParents[pendingNodes.size()] = index;
+                pendingNodes.add( children.get( i ) );
+            }
+        }
+
+        int size = nodes.size();
+
+        parents = new int[size];
+        System.arraycopy( nodeParents, 0, parents, 0, size );
+
+        // link the children backwards so that each is prepended to its siblings
+        firstChildren = new int[size];
+        nextSiblings = new int[size];
+
+        for ( int i = 0; i < size; i++ )
+        {
+            firstChildren[i] = NONE;
+        }
+
+        for ( int i = size - 1; i >= 0; i-- )
+        {
+            int parent = parents[i];
+
+            nextSiblings[i] = ( parent != NONE ) ? firstChildren[parent] : NONE;
+
+            if ( parent != NONE )
+            {
+                firstChildren[parent] = i;
+            }
+        }
+
+        // parents precede their children forwards, and last descendants are known before their parent's backwards
+        depths = new int[size];
+        for ( int i = 1; i < size; i++ )
+        {
+            depths[i] = depths[parents[i]] + 1;
+        }
+
+        lastDescendants = new int[size];
+        for ( int i = size - 1; i >= 0; i-- )
+        {
+            if ( lastDescendants[i] < i )
+            {
+                lastDescendants[i] = i;
+            }
+
+            if ( parents[i] != NONE && lastDescendants[parents[i]] < lastDescendants[i] )
+            {
+                lastDescendants[parents[i]] = lastDescendants[i];
+            }
+        }
+
+        states = new byte[size];
+        artifacts = new Artifact[size];
+        keyIndices = new int[size];
+        details = new NodeDetails[size];
+
+        Map keyIndicesByKey = new HashMap();
+        List distinctKeys = new ArrayList();
+
+        for ( int i = 0; i < size; i++ )
+        {
+            DependencyNode node = (DependencyNode) nodes.get( i );
+
+            states[i] = (byte) node.getState();
+            artifacts[i] = node.getArtifact();
+
+            String key = createKey( node.getArtifact() );
+            Integer keyIndex = (Integer) keyIndicesByKey.get( key );
+
+            if ( keyIndex == null )
+            {
+                keyIndex = new Integer( distinctKeys.size() );
+                keyIndicesByKey.put( key, keyIndex );
+                distinctKeys.add( key );
+            }
+
+            keyIndices[i] = keyIndex.intValue();
+            details[i] = createDetails( node );
+        }
+
+        keys = (String[]) distinctKeys.toArray( new String[distinctKeys.size()] );
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Gets the number of nodes of this tree.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount()
+    {
+        return parents.length;
+    }
+
+    /**
+     * Gets the index of the parent of the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the index of the parent node, or <code>NONE</code> for the root node
+     */
+    public int getParent( int index )
+    {
+        return parents[index];
+    }
+
+    /**
+     * Gets the index of the first child of the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the index of the first child node, or <code>NONE</code> if the node has no children
+     */
+    public int getFirstChild( int index )
+    {
+        return firstChildren[index];
+    }
+
+    /**
+     * Gets the index of the next sibling of the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the index of the next sibling node, or <code>NONE</code> if the node is the last child of its parent
+     */
+    public int getNextSibling( int index )
+    {
+        return nextSiblings[index];
+    }
+
+    /**
+     * Gets the depth of the specified node, the root node having a depth of <code>0</code>.
+     *
+     * @param index
+     *            the index of the node
+     * @return the depth of the node
+     */
+    public int getDepth( int index )
+    {
+        return depths[index];
+    }
+
+    /**
+     * Gets the index of the last descendant of the specified node, so that the subtree of the node is the range of
+     * nodes from the index of the node to this index.
+     *
+     * @param index
+     *            the index of the node
+     * @return the index of the last descendant node, or the index of the node itself if it has no children
+     */
+    public int getLastDescendant( int index )
+    {
+        return lastDescendants[index];
+    }
+
+    /**
+     * Gets whether the first node is an ancestor of, or equal to, the second.
+     *
+     * @param ancestorIndex
+     *            the index of the ancestor-or-self node
+     * @param descendantIndex
+     *            the index of the node to test
+     * @return <code>true</code> if the first node is an ancestor of, or equal to, the second node
+     */
+    public boolean isAncestorOrSelf( int ancestorIndex, int descendantIndex )
+    {
+        return ancestorIndex <= descendantIndex && descendantIndex <= lastDescendants[ancestorIndex];
+    }
+
+    /**
+     * Gets the artifact attached to the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the artifact
+     */
+    public Artifact getArtifact( int index )
+    {
+        return artifacts[index];
+    }
+
+    /**
+     * Gets the key of the artifact attached to the specified node, in the form of <code>Artifact.getId()</code>, that
+     * is <code>groupId:artifactId:type[:classifier]:version</code>. The key instances are shared by all the nodes of
+     * the same artifact.
+     *
+     * @param index
+     *            the index of the node
+     * @return the artifact key
+     */
+    public String getArtifactKey( int index )
+    {
+        return keys[keyIndices[index]];
+    }
+
+    /**
+     * Gets the indices of the nodes whose artifact has the specified key.
+     *
+     * @param artifactKey
+     *            the artifact key, in the form of <code>Artifact.getId()</code>
+     * @return the indices of the nodes, in preorder
+     */
+    public int[] getNodeIndices( String artifactKey )
+    {
+        int keyIndex = NONE;
+
+        for ( int i = 0; keyIndex == NONE && i < keys.length; i++ )
+        {
+            if ( keys[i].equals( artifactKey ) )
+            {
+                keyIndex = i;
+            }
+        }
+
+        int count = 0;
+
+        for ( int i = 0; keyIndex != NONE && i < keyIndices.length; i++ )
+        {
+            if ( keyIndices[i] == keyIndex )
+            {
+                count++;
+            }
+        }
+
+        int[] indices = new int[count];
+
+        for ( int i = 0, j = 0; j < count; i++ )
+        {
+            if ( keyIndices[i] == keyIndex )
+            {
+                indices[j++] = i;
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Gets the state of the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the state
+     * @see DependencyNode#getState()
+     */
+    public int getState( int index )
+    {
+        return states[index];
+    }
+
+    /**
+     * Gets the artifact related to the state of the specified node.
+     *
+     * @param index
+     *            the index of the node
+     * @return the related artifact
+     * @see DependencyNode#getRelatedArtifact()
+     */
+    public Artifact getRelatedArtifact( int index )
+    {
+        return ( details[index] != null ) ? details[index].relatedArtifact : null;
+    }
+
+    /**
+     * Gets the scope of the artifact of the specified node before it was updated due to conflicts.
+     *
+     * @param index
+     *            the index of the node
+     * @return the original scope, or <code>null</code> if the artifact scope has not been updated
+     * @see DependencyNode#getOriginalScope()
+     */
+    public String getOriginalScope( int index )
+    {
+        return ( details[index] != null ) ? details[index].originalScope : null;
+    }
+
+    /**
+     * Gets the scope that the artifact of the specified node was attempted to be updated to due to conflicts.
+     *
+     * @param index
+     *            the index of the node
+     * @return the failed update scope, or <code>null</code> if the artifact scope has not failed being updated
+     * @see DependencyNode#getFailedUpdateScope()
+     */
+    public String getFailedUpdateScope( int index )
+    {
+        return ( details[index] != null ) ? details[index].failedUpdateScope : null;
+    }
+
+    /**
+     * Gets the version of the artifact of the specified node before it was updated by dependency management.
+     *
+     * @param index
+     *            the index of the node
+     * @return the premanaged version, or <code>null</code> if the artifact version has not been managed
+     * @see DependencyNode#getPremanagedVersion()
+     */
+    public String getPremanagedVersion( int index )
+    {
+        return ( details[index] != null ) ? details[index].premanagedVersion : null;
+    }
+
+    /**
+     * Gets the scope of the artifact of the specified node before it was updated by dependency management.
+     *
+     * @param index
+     *            the index of the node
+     * @return the premanaged scope, or <code>null</code> if the artifact scope has not been managed
+     * @see DependencyNode#getPremanagedScope()
+     */
+    public String getPremanagedScope( int index )
+    {
+        return ( details[index] != null ) ? details[index].premanagedScope : null;
+    }
+
+    /**
+     * Gets the version range the version of the artifact of the specified node was selected from.
+     *
+     * @param index
+     *            the index of the node
+     * @return the version range, or <code>null</code> if the artifact had an explicit version
+     * @see DependencyNode#getVersionSelectedFromRange()
+     */
+    public VersionRange getVersionSelectedFromRange( int index )
+    {
+        return ( details[index] != null ) ? details[index].versionSelectedFromRange : null;
+    }
+
+    /**
+     * Gets the versions available when the version of the artifact of the specified node was selected from a range.
+     *
+     * @param index
+     *            the index of the node
+     * @return the available versions, or <code>null</code> if the artifact had an explicit version
+     * @see DependencyNode#getAvailableVersions()
+     */
+    public List getAvailableVersions( int index )
+    {
+        return ( details[index] != null ) ? details[index].availableVersions : null;
+    }
+
+    /**
+     * Applies the specified dependency node visitor to the view of the specified node and its descendants, in the
+     * same way as <code>DependencyNode.accept</code> does, but without recursing.
+     *
+     * @param index
+     *            the index of the node to start from
+     * @param visitor
+     *            the dependency node visitor to use
+     * @return the visitor result of ending the visit to the node
+     * @see DependencyNode#accept(DependencyNodeVisitor)
+     */
+    public boolean accept( int index, DependencyNodeVisitor visitor )
+    {
+        int node = index;
+
+        while ( true )
+        {
+            if ( visitor.visit( getNode( node ) ) && firstChildren[node] != NONE )
+            {
+                node = firstChildren[node];
+            }
+            else
+            {
+                // end the visits of the node and of its ancestors without a next sibling to visit
+                while ( true )
+                {
+                    boolean visiting = visitor.endVisit( getNode( node ) );
+
+                    if ( node == index )
+                    {
+                        return visiting;
+                    }
+
+                    if ( visiting && nextSiblings[node] != NONE )
+                    {
+                        node = nextSiblings[node];
+                        break;
+                    }
+
+                    node = parents[node];
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the specified dependency node visitor to the views of the nodes of this tree.
+     *
+     * @param visitor
+     *            the dependency node visitor to use
+     * @return the visitor result of ending the visit to the root node
+     * @see #accept(int, DependencyNodeVisitor)
+     */
+    public boolean accept( DependencyNodeVisitor visitor )
+    {
+        return accept( 0, visitor );
+    }
+
+    /**
+     * Gets the read-only dependency node view of the specified node. The same view is returned for a node on each
+     * call.
+     *
+     * @param index
+     *            the index of the node
+     * @return the dependency node view
+     */
+    public synchronized DependencyNode getNode( int index )
+    {
+        if ( nodeViews == null )
+        {
+            nodeViews = new DependencyNode[parents.length];
+        }
+
+        if ( nodeViews[index] == null )
+        {
+            nodeViews[index] = new NodeView( index );
+        }
+
+        return nodeViews[index];
+    }
+
+    /**
+     * Gets the read-only dependency node view of the root node.
+     *
+     * @return the root dependency node view
+     */
+    public DependencyNode getRootNode()
+    {
+        return getNode( 0 );
+    }
+
+    /**
+     * Gets the list of the dependency node views of the nodes of this tree, in preorder, without copying them.
+     *
+     * @return the unmodifiable list of the dependency node views
+     */
+    public List getNodes()
+    {
+        return new AbstractList()
+        {
+            public Object get( int index )
+            {
+                return getNode( index );
+            }
+
+            public int size()
+            {
+                return getNodeCount();
+            }
+        };
+    }
+
+    /**
+     * Copies this tree to a new mutable dependency tree.
+     *
+     * @return the root node of the new dependency tree
+     */
+    public DependencyNode toDependencyNode()
+    {
+        DependencyNode[] nodes = new DependencyNode[parents.length];
+
+        for ( int i = 0; i < nodes.length; i++ )
+        {
+            DependencyNode node = new DependencyNode( artifacts[i], states[i], getRelatedArtifact( i ) );
+            node.setOriginalScope( getOriginalScope( i ) );
+            node.setFailedUpdateScope( getFailedUpdateScope( i ) );
+            node.setPremanagedVersion( getPremanagedVersion( i ) );
+            node.setPremanagedScope( getPremanagedScope( i ) );
+            node.setVersionSelectedFromRange( getVersionSelectedFromRange( i ) );
+            node.setAvailableVersions( getAvailableVersions( i ) );
+
+            // parents precede their children in preorder, and siblings are in order
+            if ( parents[i] != NONE )
+            {
+                nodes[parents[i]].addChild( node );
+            }
+
+            nodes[i] = node;
+        }
+
+        return nodes[0];
+    }
+
+    // Object methods ---------------------------------------------------------
+
+    /**
+     * Returns a string representation of this dependency tree.
+     *
+     * @return the string representation
+     * @see DependencyNode#toString()
+     */
+    public String toString()
+    {
+        return getRootNode().toString();
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Creates the optional details of the specified dependency node.
+     *
+     * @param node
+     *            the dependency node
+     * @return the details, or <code>null</code> if the node has none
+     */
+    private static NodeDetails createDetails( DependencyNode node )
+    {
+        if ( node.getRelatedArtifact() == null && node.getOriginalScope() == null
+            && node.getFailedUpdateScope() == null && node.getPremanagedVersion() == null
+            && node.getPremanagedScope() == null && node.getVersionSelectedFromRange() == null
+            && node.getAvailableVersions() == null )
+        {
+            return null;
+        }
+
+        NodeDetails nodeDetails = new NodeDetails();
+        nodeDetails.relatedArtifact = node.getRelatedArtifact();
+        nodeDetails.originalScope = node.getOriginalScope();
+        nodeDetails.failedUpdateScope = node.getFailedUpdateScope();
+        nodeDetails.premanagedVersion = node.getPremanagedVersion();
+        nodeDetails.premanagedScope = node.getPremanagedScope();
+        nodeDetails.versionSelectedFromRange = node.getVersionSelectedFromRange();
+        nodeDetails.availableVersions = node.getAvailableVersions();
+        return nodeDetails;
+    }
+
+    /**
+     * Creates the key of the specified artifact, in the form of <code>Artifact.getId()</code>.
+     *
+     * @param artifact
+     *            the artifact
+     * @return the artifact key
+     */
+    private static String createKey( Artifact artifact )
+    {
+        StringBuffer buffer = new StringBuffer();
+
+        buffer.append( artifact.getGroupId() ).append( ':' );
+        buffer.append( artifact.getArtifactId() ).append( ':' );
+        buffer.append( artifact.getType() ).append( ':' );
+
+        if ( artifact.getClassifier() != null )
+        {
+            buffer.append( artifact.getClassifier() ).append( ':' );
+        }
+
+        buffer.append( artifact.getVersion() );
+
+        return buffer.toString();
+    }
+
+    /**
+     * Grows the specified array, if needed, to hold the specified number of elements.
+     *
+     * @param array
+     *            the array
+     * @param capacity
+     *            the number of elements to hold
+     * @return the array, or a larger copy of it
+     */
+    private static int[] ensureCapacity( int[] array, int capacity )
+    {
+        if ( capacity <= array.length )
+        {
+            return array;
+        }
+
+        int[] newArray = new int[Math.max( capacity, array.length * 2 )];
+        System.arraycopy( array, 0, newArray, 0, array.length );
+        return newArray;
+    }
+}
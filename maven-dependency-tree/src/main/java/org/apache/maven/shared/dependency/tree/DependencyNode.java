@@ -247,6 +247,28 @@ public class DependencyNode
      * @since 1.1
      */
     public DependencyNode( Artifact artifact, int state, Artifact relatedArtifact )
+    {
+        this( artifact, state, relatedArtifact, new ArrayList() );
+    }
+
+    /**
+     * Creates a new dependency node for the specified artifact with the specified state, related artifact and list of
+     * children. This is meant for the nodes which are views of another tree representation and override the
+     * accessors of their hierarchy, such as the nodes of a {@link CompactDependencyTree}.
+     * 
+     * @param artifact
+     *            the artifact attached to the new dependency node
+     * @param state
+     *            the state of the new dependency node
+     * @param relatedArtifact
+     *            the artifact related to the state of this dependency node
+     * @param children
+     *            the list of child dependency nodes of the new dependency node
+     * @throws IllegalArgumentException
+     *             if the parameter constraints were violated
+     * @see #DependencyNode(Artifact, int, Artifact)
+     */
+    DependencyNode( Artifact artifact, int state, Artifact relatedArtifact, List children )
     {
         if ( artifact == null )
         {
@@ -275,8 +297,7 @@ public class DependencyNode
         this.artifact = artifact;
         this.state = state;
         this.relatedArtifact = relatedArtifact;
-
-        children = new ArrayList();
+        this.children = children;
     }
     
     /**
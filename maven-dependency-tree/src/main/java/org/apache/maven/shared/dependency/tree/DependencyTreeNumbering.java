@@ -0,0 +1,298 @@
+package org.apache.maven.shared.dependency.tree;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A numbering of the nodes of a dependency tree that answers hierarchy queries in constant time.
+ *
+ * <p>
+ * Each node is given its preorder number, its depth and the preorder number of its last descendant, so its subtree is
+ * the interval of the nodes numbered from its own number to the number of its last descendant. A node is then an
+ * ancestor of, or equal to, another node if the number of the other node lies in its interval. Nodes are compared by
+ * identity.
+ * </p>
+ *
+ * <p>
+ * The numbering is a snapshot of the tree at the time it was created, and must be created again once the tree is
+ * modified.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ * @see CompactDependencyTree#isAncestorOrSelf(int, int)
+ */
+public class DependencyTreeNumbering
+{
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The nodes of the tree, in preorder.
+     */
+    private final DependencyNode[] nodes;
+
+    /**
+     * The preorder number of each node, by node identity.
+     */
+    private final Map numbers;
+
+    /**
+     * The preorder number of the last descendant of each node, or its own number for a leaf node.
+     */
+    private final int[] lastDescendants;
+
+    /**
+     * The depth of each node, the root node having a depth of <code>0</code>.
+     */
+    private final int[] depths;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Numbers the specified dependency node and its descendants.
+     *
+     * @param rootNode
+     *            the root node of the dependency tree to number
+     */
+    public DependencyTreeNumbering( DependencyNode rootNode )
+    {
+        // number the nodes in preorder without recursing, as trees may be deep
+        List preorderNodes = new ArrayList();
+        int[] parents = new int[16];
+        int[] nodeDepths = new int[16];
+
+        List pendingNodes = new ArrayList();
+        int[] pendingParents = new int[16];
+
+        pendingNodes.add( rootNode );
+        pendingParents[0] = -1;
+
+        while ( !pendingNodes.isEmpty() )
+        {
+            int last = pendingNodes.size() - 1;
+            DependencyNode node = (DependencyNode) pendingNodes.remove( last );
+            int parent = pendingParents[last];
+
+            int number = preorderNodes.size();
+            preorderNodes.add( node );
+            parents = ensureCapacity( parents, number + 1 );
+            nodeDepths = ensureCapacity( nodeDepths, number + 1 );
+            parents[number] = parent;
+            nodeDepths[number] = ( parent != -1 ) ? nodeDepths[parent] + 1 : 0;
+
+            List children = node.getChildren();
+            pendingParents = ensureCapacity( pendingParents, last + children.size() );
+
+            for ( int i = children.size() - 1; i >= 0; i-- )
+            {
+                pendingParents[pendingNodes.size()] = number;
+                pendingNodes.add( children.get( i ) );
+            }
+        }
+
+        int size = preorderNodes.size();
+
+        nodes = (DependencyNode[]) preorderNodes.toArray( new DependencyNode[size] );
+
+        numbers = new IdentityHashMap( size * 2 );
+        for ( int i = 0; i < size; i++ )
+        {
+            numbers.put( nodes[i], new Integer( i ) );
+        }
+
+        depths = new int[size];
+        System.arraycopy( nodeDepths, 0, depths, 0, size );
+
+        // a node is numbered after its ancestors, so backwards each last descendant is known before its parent's
+        lastDescendants = new int[size];
+        for ( int i = size - 1; i >= 0; i-- )
+        {
+            if ( lastDescendants[i] < i )
+            {
+                lastDescendants[i] = i;
+            }
+
+            if ( parents[i] != -1 && lastDescendants[parents[i]] < lastDescendants[i] )
+            {
+                lastDescendants[parents[i]] = lastDescendants[i];
+            }
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Gets the root node of the numbered dependency tree.
+     *
+     * @return the root node
+     */
+    public DependencyNode getRootNode()
+    {
+        return nodes[0];
+    }
+
+    /**
+     * Gets the number of nodes of the numbered dependency tree.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount()
+    {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the node with the specified preorder number.
+     *
+     * @param number
+     *            the preorder number of the node, from <code>0</code> for the root node
+     * @return the node
+     */
+    public DependencyNode getNode( int number )
+    {
+        return nodes[number];
+    }
+
+    /**
+     * Gets whether the specified node belongs to the numbered dependency tree.
+     *
+     * @param node
+     *            the dependency node
+     * @return <code>true</code> if the node was numbered
+     */
+    public boolean contains( DependencyNode node )
+    {
+        return numbers.containsKey( node );
+    }
+
+    /**
+     * Gets the preorder number of the specified node.
+     *
+     * @param node
+     *            the dependency node
+     * @return the preorder number, from <code>0</code> for the root node
+     * @throws IllegalArgumentException
+     *             if the node does not belong to the numbered dependency tree
+     */
+    public int getPreorderNumber( DependencyNode node )
+    {
+        Integer number = (Integer) numbers.get( node );
+
+        if ( number == null )
+        {
+            throw new IllegalArgumentException( "Node does not belong to the numbered tree: " + node.toNodeString() );
+        }
+
+        return number.intValue();
+    }
+
+    /**
+     * Gets the postorder number of the specified node.
+     *
+     * @param node
+     *            the dependency node
+     * @return the postorder number, from <code>0</code> for the first leaf node
+     * @throws IllegalArgumentException
+     *             if the node does not belong to the numbered dependency tree
+     */
+    public int getPostorderNumber( DependencyNode node )
+    {
+        int number = getPreorderNumber( node );
+
+        // the nodes ending before this one are those numbered before it, less its ancestors, plus its descendants
+        return lastDescendants[number] - depths[number];
+    }
+
+    /**
+     * Gets the preorder number of the last descendant of the specified node, so that the subtree of the node is the
+     * interval of the nodes numbered from the preorder number of the node to this number.
+     *
+     * @param node
+     *            the dependency node
+     * @return the preorder number of the last descendant, or that of the node itself if it has no children
+     * @throws IllegalArgumentException
+     *             if the node does not belong to the numbered dependency tree
+     */
+    public int getLastDescendantNumber( DependencyNode node )
+    {
+        return lastDescendants[getPreorderNumber( node )];
+    }
+
+    /**
+     * Gets the depth of the specified node.
+     *
+     * @param node
+     *            the dependency node
+     * @return the depth, the root node having a depth of <code>0</code>
+     * @throws IllegalArgumentException
+     *             if the node does not belong to the numbered dependency tree
+     */
+    public int getDepth( DependencyNode node )
+    {
+        return depths[getPreorderNumber( node )];
+    }
+
+    /**
+     * Gets whether the first dependency node is an ancestor of, or equal to, the second.
+     *
+     * @param ancestorNode
+     *            the ancestor-or-self dependency node
+     * @param descendantNode
+     *            the dependency node to test
+     * @return <code>true</code> if <code>ancestorNode</code> is an ancestor of, or equal to,
+     *         <code>descendantNode</code>
+     * @throws IllegalArgumentException
+     *             if either node does not belong to the numbered dependency tree
+     */
+    public boolean isAncestorOrSelf( DependencyNode ancestorNode, DependencyNode descendantNode )
+    {
+        int ancestor = getPreorderNumber( ancestorNode );
+        int descendant = getPreorderNumber( descendantNode );
+
+        return ancestor <= descendant && descendant <= lastDescendants[ancestor];
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Grows the specified array, if needed, to hold the specified number of elements.
+     *
+     * @param array
+     *            the array
+     * @param capacity
+     *            the number of elements to hold
+     * @return the array, or a larger copy of it
+     */
+    private static int[] ensureCapacity( int[] array, int capacity )
+    {
+        if ( capacity <= array.length )
+        {
+            return array;
+        }
+
+        int[] newArray = new int[Math.max( capacity, array.length * 2 )];
+        System.arraycopy( array, 0, newArray, 0, array.length );
+        return newArray;
+    }
+}
@@ -19,21 +19,89 @@ package org.apache.maven.shared.dependency.tree.filter;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.DependencyTreeNumbering;
 
 /**
  * A dependency node filter than only accepts nodes that are ancestors of, or equal to, a given list of nodes.
  * 
+ * <p>
+ * The trees of the given nodes are numbered on first use with a {@link DependencyTreeNumbering}, so that accepting a
+ * node of these trees is an interval test against the sorted numbers of the given nodes, rather than a walk up from
+ * each of them. Nodes of other trees are compared by equality with the ancestors of the given nodes. The trees must not
+ * be modified while this filter is used.
+ * </p>
+ * 
  * @author <a href="mailto:markhobson@gmail.com">Mark Hobson</a>
  * @version $Id$
  * @since 1.1
  */
 public class AncestorOrSelfDependencyNodeFilter implements DependencyNodeFilter
 {
+    // classes ----------------------------------------------------------------
+
+    /**
+     * The nodes that this filter accepts ancestors-or-self of within a single dependency tree.
+     */
+    private static class TreeDescendantNodes
+    {
+        private final DependencyTreeNumbering numbering;
+
+        private final List numberList = new ArrayList();
+
+        /**
+         * The sorted preorder numbers of the descendant nodes.
+         */
+        private int[] numbers;
+
+        public TreeDescendantNodes( DependencyTreeNumbering numbering )
+        {
+            this.numbering = numbering;
+        }
+
+        public void add( DependencyNode descendantNode )
+        {
+            numberList.add( new Integer( numbering.getPreorderNumber( descendantNode ) ) );
+        }
+
+        public void sort()
+        {
+            numbers = new int[numberList.size()];
+
+            for ( int i = 0; i < numbers.length; i++ )
+            {
+                numbers[i] = ( (Integer) numberList.get( i ) ).intValue();
+            }
+
+            Arrays.sort( numbers );
+        }
+
+        /**
+         * Gets whether a descendant node lies within the subtree of the specified node, which must belong to the
+         * numbered tree.
+         */
+        public boolean hasDescendantOrSelf( DependencyNode node )
+        {
+            int first = numbering.getPreorderNumber( node );
+            int last = numbering.getLastDescendantNumber( node );
+
+            int index = Arrays.binarySearch( numbers, first );
+
+            if ( index < 0 )
+            {
+                index = -index - 1;
+            }
+
+            return index < numbers.length && numbers[index] <= last;
+        }
+    }
+
     // fields -----------------------------------------------------------------
 
     /**
@@ -41,6 +109,12 @@ public class AncestorOrSelfDependencyNodeFilter implements DependencyNodeFilter
      */
     private final List descendantNodes;
 
+    /**
+     * The nodes that this filter accepts ancestors-or-self of, by dependency tree, or <code>null</code> if not yet
+     * numbered.
+     */
+    private List treeDescendantNodes;
+
     // constructors -----------------------------------------------------------
 
     public AncestorOrSelfDependencyNodeFilter( DependencyNode descendantNode )
@@ -67,6 +141,17 @@ public class AncestorOrSelfDependencyNodeFilter implements DependencyNodeFilter
      */
     public boolean accept( DependencyNode node )
     {
+        for ( Iterator iterator = getTreeDescendantNodes().iterator(); iterator.hasNext(); )
+        {
+            TreeDescendantNodes treeNodes = (TreeDescendantNodes) iterator.next();
+
+            if ( treeNodes.numbering.contains( node ) )
+            {
+                return treeNodes.hasDescendantOrSelf( node );
+            }
+        }
+
+        // the node does not belong to the tree of any descendant node
         boolean accept = false;
 
         for ( Iterator iterator = descendantNodes.iterator(); !accept && iterator.hasNext(); )
@@ -84,6 +169,72 @@ public class AncestorOrSelfDependencyNodeFilter implements DependencyNodeFilter
 
     // private methods --------------------------------------------------------
 
+    /**
+     * Gets the descendant nodes by dependency tree, numbering their trees on first use.
+     * 
+     * @return the list of <code>TreeDescendantNodes</code>
+     */
+    private List getTreeDescendantNodes()
+    {
+        if ( treeDescendantNodes == null )
+        {
+            List trees = new ArrayList();
+
+            for ( Iterator iterator = descendantNodes.iterator(); iterator.hasNext(); )
+            {
+                DependencyNode descendantNode = (DependencyNode) iterator.next();
+
+                if ( descendantNode != null )
+                {
+                    getTreeDescendantNodes( trees, descendantNode ).add( descendantNode );
+                }
+            }
+
+            for ( Iterator iterator = trees.iterator(); iterator.hasNext(); )
+            {
+                ( (TreeDescendantNodes) iterator.next() ).sort();
+            }
+
+            treeDescendantNodes = trees;
+        }
+
+        return treeDescendantNodes;
+    }
+
+    /**
+     * Gets the descendant nodes of the tree of the specified node, numbering the tree if it is not yet.
+     * 
+     * @param trees
+     *            the list of the <code>TreeDescendantNodes</code> of the trees numbered so far
+     * @param node
+     *            the dependency node
+     * @return the descendant nodes of its tree
+     */
+    private TreeDescendantNodes getTreeDescendantNodes( List trees, DependencyNode node )
+    {
+        for ( Iterator iterator = trees.iterator(); iterator.hasNext(); )
+        {
+            TreeDescendantNodes treeNodes = (TreeDescendantNodes) iterator.next();
+
+            if ( treeNodes.numbering.contains( node ) )
+            {
+                return treeNodes;
+            }
+        }
+
+        DependencyNode rootNode = node;
+
+        while ( rootNode.getParent() != null )
+        {
+            rootNode = rootNode.getParent();
+        }
+
+        TreeDescendantNodes treeNodes = new TreeDescendantNodes( new DependencyTreeNumbering( rootNode ) );
+        trees.add( treeNodes );
+
+        return treeNodes;
+    }
+
     /**
      * Gets whether the first dependency node is an ancestor-or-self of the second.
      * 
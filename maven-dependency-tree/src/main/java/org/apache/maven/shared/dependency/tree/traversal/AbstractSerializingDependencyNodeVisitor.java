@@ -0,0 +1,212 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * A base for the dependency node visitors that stream visited nodes to a writer in a machine-readable format.
+ *
+ * <p>
+ * Each visited node is given an id, which is its number in the order of the visits, and is written along with the id
+ * of its visited parent as soon as it is visited. The ids of the visited ancestors are kept on a stack, so that a tree
+ * is serialized in a single pass whatever its size. The output is buffered and flushed once the visit to the root node
+ * ends. Lines are separated by <code>\n</code> so that the output does not depend on the platform.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ */
+public abstract class AbstractSerializingDependencyNodeVisitor implements DependencyNodeVisitor
+{
+    // constants --------------------------------------------------------------
+
+    /**
+     * The id of the parent of a root node.
+     */
+    protected static final int NO_PARENT = -1;
+
+    // fields -----------------------------------------------------------------
+
+    /**
+     * The writer to serialize to.
+     */
+    private final PrintWriter writer;
+
+    /**
+     * The stack of the ids of the visited dependency nodes, by depth.
+     */
+    private int[] nodeIds;
+
+    /**
+     * The depth of the currently visited dependency node.
+     */
+    private int depth;
+
+    /**
+     * The number of dependency nodes visited so far.
+     */
+    private int nodeCount;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Creates a dependency node visitor that serializes visited nodes to the specified writer. The writer is
+     * buffered, unless it is a <code>PrintWriter</code>.
+     *
+     * @param writer
+     *            the writer to serialize to
+     */
+    protected AbstractSerializingDependencyNodeVisitor( Writer writer )
+    {
+        if ( writer instanceof PrintWriter )
+        {
+            this.writer = (PrintWriter) writer;
+        }
+        else
+        {
+            this.writer = new PrintWriter( new BufferedWriter( writer ) );
+        }
+
+        nodeIds = new int[16];
+        depth = 0;
+        nodeCount = 0;
+    }
+
+    // DependencyNodeVisitor methods ------------------------------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean visit( DependencyNode node )
+    {
+        if ( depth == 0 )
+        {
+            startTree( node );
+        }
+
+        int id = nodeCount++;
+        int parentId = ( depth > 0 ) ? nodeIds[depth - 1] : NO_PARENT;
+
+        if ( depth == nodeIds.length )
+        {
+            int[] newNodeIds = new int[nodeIds.length * 2];
+            System.arraycopy( nodeIds, 0, newNodeIds, 0, nodeIds.length );
+            nodeIds = newNodeIds;
+        }
+
+        nodeIds[depth] = id;
+
+        writeNode( node, id, parentId, depth );
+
+        depth++;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean endVisit( DependencyNode node )
+    {
+        depth--;
+
+        if ( depth == 0 )
+        {
+            endTree( node );
+
+            writer.flush();
+        }
+
+        return true;
+    }
+
+    // protected methods ------------------------------------------------------
+
+    /**
+     * Gets the writer to serialize to.
+     *
+     * @return the writer
+     */
+    protected PrintWriter getWriter()
+    {
+        return writer;
+    }
+
+    /**
+     * Writes what precedes the nodes of a tree, before its root node is written.
+     *
+     * @param rootNode
+     *            the root node of the tree
+     */
+    protected abstract void startTree( DependencyNode rootNode );
+
+    /**
+     * Writes a visited dependency node.
+     *
+     * @param node
+     *            the visited dependency node
+     * @param id
+     *            the id of the node
+     * @param parentId
+     *            the id of the visited parent of the node, or <code>NO_PARENT</code> for the root node
+     * @param nodeDepth
+     *            the depth of the node, the root node having a depth of <code>0</code>
+     */
+    protected abstract void writeNode( DependencyNode node, int id, int parentId, int nodeDepth );
+
+    /**
+     * Writes what follows the nodes of a tree, once the visit to its root node ends.
+     *
+     * @param rootNode
+     *            the root node of the tree
+     */
+    protected abstract void endTree( DependencyNode rootNode );
+
+    /**
+     * Gets the name of the state of the specified dependency node.
+     *
+     * @param node
+     *            the dependency node
+     * @return <code>INCLUDED</code>, <code>OMITTED_FOR_DUPLICATE</code>, <code>OMITTED_FOR_CONFLICT</code> or
+     *         <code>OMITTED_FOR_CYCLE</code>
+     */
+    protected static String getStateName( DependencyNode node )
+    {
+        switch ( node.getState() )
+        {
+            case DependencyNode.OMITTED_FOR_DUPLICATE:
+                return "OMITTED_FOR_DUPLICATE";
+
+            case DependencyNode.OMITTED_FOR_CONFLICT:
+                return "OMITTED_FOR_CONFLICT";
+
+            case DependencyNode.OMITTED_FOR_CYCLE:
+                return "OMITTED_FOR_CYCLE";
+
+            default:
+                return "INCLUDED";
+        }
+    }
+}
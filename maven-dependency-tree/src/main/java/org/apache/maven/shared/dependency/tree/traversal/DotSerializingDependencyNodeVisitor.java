@@ -0,0 +1,135 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * A dependency node visitor that serializes visited nodes to a writer as a Graphviz DOT directed graph.
+ *
+ * <p>
+ * Each node is labelled with its node string, and is followed by the edge from its parent. The nodes which are not
+ * included, and the edges to them, are dashed.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ * @see DependencyNode#toNodeString()
+ */
+public class DotSerializingDependencyNodeVisitor extends AbstractSerializingDependencyNodeVisitor
+{
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Creates a dependency node visitor that serializes visited nodes to the specified writer as a DOT graph.
+     *
+     * @param writer
+     *            the writer to serialize to
+     */
+    public DotSerializingDependencyNodeVisitor( Writer writer )
+    {
+        super( writer );
+    }
+
+    // AbstractSerializingDependencyNodeVisitor methods -----------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void startTree( DependencyNode rootNode )
+    {
+        PrintWriter writer = getWriter();
+
+        writer.write( "digraph " );
+        writeString( String.valueOf( rootNode.getArtifact() ) );
+        writer.write( " {\n" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void writeNode( DependencyNode node, int id, int parentId, int nodeDepth )
+    {
+        PrintWriter writer = getWriter();
+        boolean included = ( node.getState() == DependencyNode.INCLUDED );
+
+        writer.write( "  n" );
+        writer.print( id );
+        writer.write( " [label=" );
+        writeString( node.toNodeString() );
+        writer.write( included ? "];\n" : ", style=dashed];\n" );
+
+        if ( parentId != NO_PARENT )
+        {
+            writer.write( "  n" );
+            writer.print( parentId );
+            writer.write( " -> n" );
+            writer.print( id );
+            writer.write( included ? ";\n" : " [style=dashed];\n" );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void endTree( DependencyNode rootNode )
+    {
+        getWriter().write( "}\n" );
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Writes a DOT quoted string.
+     *
+     * @param value
+     *            the string to write
+     */
+    private void writeString( String value )
+    {
+        PrintWriter writer = getWriter();
+
+        writer.write( '"' );
+
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+
+            if ( c == '"' || c == '\\' )
+            {
+                writer.write( '\\' );
+                writer.write( c );
+            }
+            else if ( c == '\n' )
+            {
+                writer.write( "\\n" );
+            }
+            else if ( c != '\r' )
+            {
+                writer.write( c );
+            }
+        }
+
+        writer.write( '"' );
+    }
+}
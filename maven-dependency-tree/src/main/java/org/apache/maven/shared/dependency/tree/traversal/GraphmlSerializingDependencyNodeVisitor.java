@@ -0,0 +1,215 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * A dependency node visitor that serializes visited nodes to a writer as a GraphML document.
+ *
+ * <p>
+ * Each node holds the coordinates and scope of its artifact, its state and its node string as data, and is followed by
+ * the edge from its parent. The output is ASCII, other characters being written as character references, so it does
+ * not depend on the encoding of the writer.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ * @see DependencyNode#toNodeString()
+ */
+public class GraphmlSerializingDependencyNodeVisitor extends AbstractSerializingDependencyNodeVisitor
+{
+    // constants --------------------------------------------------------------
+
+    /**
+     * The keys of the data of the nodes.
+     */
+    private static final String[] KEYS =
+        new String[] { "groupId", "artifactId", "type", "classifier", "version", "scope", "state", "label" };
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Creates a dependency node visitor that serializes visited nodes to the specified writer as a GraphML document.
+     *
+     * @param writer
+     *            the writer to serialize to
+     */
+    public GraphmlSerializingDependencyNodeVisitor( Writer writer )
+    {
+        super( writer );
+    }
+
+    // AbstractSerializingDependencyNodeVisitor methods -----------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void startTree( DependencyNode rootNode )
+    {
+        PrintWriter writer = getWriter();
+
+        writer.write( "<?xml version=\"1.0\"?>\n" );
+        writer.write( "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n" );
+
+        for ( int i = 0; i < KEYS.length; i++ )
+        {
+            writer.write( "  <key id=\"" );
+            writer.write( KEYS[i] );
+            writer.write( "\" for=\"node\" attr.name=\"" );
+            writer.write( KEYS[i] );
+            writer.write( "\" attr.type=\"string\"/>\n" );
+        }
+
+        writer.write( "  <graph id=\"" );
+        writeText( String.valueOf( rootNode.getArtifact() ) );
+        writer.write( "\" edgedefault=\"directed\">\n" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void writeNode( DependencyNode node, int id, int parentId, int nodeDepth )
+    {
+        PrintWriter writer = getWriter();
+        Artifact artifact = node.getArtifact();
+
+        writer.write( "    <node id=\"n" );
+        writer.print( id );
+        writer.write( "\">" );
+
+        writeData( "groupId", artifact.getGroupId() );
+        writeData( "artifactId", artifact.getArtifactId() );
+        writeData( "type", artifact.getType() );
+        writeData( "classifier", artifact.getClassifier() );
+        writeData( "version", artifact.getVersion() );
+        writeData( "scope", artifact.getScope() );
+        writeData( "state", getStateName( node ) );
+        writeData( "label", node.toNodeString() );
+
+        writer.write( "</node>\n" );
+
+        if ( parentId != NO_PARENT )
+        {
+            writer.write( "    <edge source=\"n" );
+            writer.print( parentId );
+            writer.write( "\" target=\"n" );
+            writer.print( id );
+            writer.write( "\"/>\n" );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void endTree( DependencyNode rootNode )
+    {
+        PrintWriter writer = getWriter();
+
+        writer.write( "  </graph>\n" );
+        writer.write( "</graphml>\n" );
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Writes a data element of the current node, unless its value is <code>null</code>.
+     *
+     * @param key
+     *            the key of the data
+     * @param value
+     *            the value of the data, possibly <code>null</code>
+     */
+    private void writeData( String key, String value )
+    {
+        if ( value != null )
+        {
+            PrintWriter writer = getWriter();
+
+            writer.write( "<data key=\"" );
+            writer.write( key );
+            writer.write( "\">" );
+            writeText( value );
+            writer.write( "</data>" );
+        }
+    }
+
+    /**
+     * Writes XML character data, which is also valid within attribute values.
+     *
+     * @param value
+     *            the text to write
+     */
+    private void writeText( String value )
+    {
+        PrintWriter writer = getWriter();
+
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+
+            switch ( c )
+            {
+                case '<':
+                    writer.write( "&lt;" );
+                    break;
+
+                case '>':
+                    writer.write( "&gt;" );
+                    break;
+
+                case '&':
+                    writer.write( "&amp;" );
+                    break;
+
+                case '"':
+                    writer.write( "&quot;" );
+                    break;
+
+                default:
+                    if ( c >= 0x20 && c <= 0x7e )
+                    {
+                        writer.write( c );
+                    }
+                    else if ( c == '\t' || c == '\n' || c == '\r' || c > 0x7e )
+                    {
+                        int codePoint = c;
+
+                        // a surrogate pair is referenced as a single character
+                        if ( c >= 0xd800 && c <= 0xdbff && i + 1 < value.length()
+                            && value.charAt( i + 1 ) >= 0xdc00 && value.charAt( i + 1 ) <= 0xdfff )
+                        {
+                            codePoint = 0x10000 + ( ( c - 0xd800 ) << 10 ) + ( value.charAt( ++i ) - 0xdc00 );
+                        }
+
+                        writer.write( "&#x" );
+                        writer.write( Integer.toHexString( codePoint ) );
+                        writer.write( ';' );
+                    }
+
+                    // other control characters cannot be represented in XML 1.0
+            }
+        }
+    }
+}
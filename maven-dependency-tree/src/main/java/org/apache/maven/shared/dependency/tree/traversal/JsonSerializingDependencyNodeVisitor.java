@@ -0,0 +1,216 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * A dependency node visitor that serializes visited nodes to a writer as JSON lines, that is one JSON object per node
+ * and per line, in the order of the visits.
+ *
+ * <p>
+ * Each object holds the <code>id</code> of the node, the id of its <code>parent</code>, or <code>null</code> for the
+ * root node, its <code>depth</code>, the coordinates and scope of its artifact and its <code>state</code>. The
+ * <code>classifier</code>, the <code>relatedVersion</code> of the artifact the node was omitted for, the premanaged,
+ * original and failed update scopes and versions and the version range are only written when they are set. The output
+ * is ASCII, other characters being escaped.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.3
+ */
+public class JsonSerializingDependencyNodeVisitor extends AbstractSerializingDependencyNodeVisitor
+{
+    // constructors -----------------------------------------------------------
+
+    /**
+     * Creates a dependency node visitor that serializes visited nodes to the specified writer as JSON lines.
+     *
+     * @param writer
+     *            the writer to serialize to
+     */
+    public JsonSerializingDependencyNodeVisitor( Writer writer )
+    {
+        super( writer );
+    }
+
+    // AbstractSerializingDependencyNodeVisitor methods -----------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void startTree( DependencyNode rootNode )
+    {
+        // lines are not enclosed
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void writeNode( DependencyNode node, int id, int parentId, int nodeDepth )
+    {
+        PrintWriter writer = getWriter();
+        Artifact artifact = node.getArtifact();
+
+        writer.write( "{\"id\":" );
+        writer.print( id );
+        writer.write( ",\"parent\":" );
+        writer.write( ( parentId != NO_PARENT ) ? String.valueOf( parentId ) : "null" );
+        writer.write( ",\"depth\":" );
+        writer.print( nodeDepth );
+
+        writeField( "groupId", artifact.getGroupId(), true );
+        writeField( "artifactId", artifact.getArtifactId(), true );
+        writeField( "type", artifact.getType(), true );
+        writeField( "classifier", artifact.getClassifier(), false );
+        writeField( "version", artifact.getVersion(), true );
+        writeField( "scope", artifact.getScope(), true );
+        writeField( "state", getStateName( node ), true );
+
+        if ( node.getRelatedArtifact() != null )
+        {
+            writeField( "relatedVersion", node.getRelatedArtifact().getVersion(), true );
+        }
+
+        writeField( "premanagedVersion", node.getPremanagedVersion(), false );
+        writeField( "premanagedScope", node.getPremanagedScope(), false );
+        writeField( "originalScope", node.getOriginalScope(), false );
+        writeField( "failedUpdateScope", node.getFailedUpdateScope(), false );
+
+        if ( node.getVersionSelectedFromRange() != null )
+        {
+            writeField( "versionSelectedFromRange", node.getVersionSelectedFromRange().toString(), true );
+            writeAvailableVersions( node.getAvailableVersions() );
+        }
+
+        writer.write( "}\n" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void endTree( DependencyNode rootNode )
+    {
+        // lines are not enclosed
+    }
+
+    // private methods --------------------------------------------------------
+
+    /**
+     * Writes a string member of the current object.
+     *
+     * @param name
+     *            the name of the member
+     * @param value
+     *            the value of the member, possibly <code>null</code>
+     * @param writeNull
+     *            whether to write the member when its value is <code>null</code>
+     */
+    private void writeField( String name, String value, boolean writeNull )
+    {
+        if ( value != null || writeNull )
+        {
+            PrintWriter writer = getWriter();
+
+            writer.write( ",\"" );
+            writer.write( name );
+            writer.write( "\":" );
+            writeString( value );
+        }
+    }
+
+    /**
+     * Writes the versions available when the version of a node was selected from a range.
+     *
+     * @param availableVersions
+     *            the available versions, possibly <code>null</code>
+     */
+    private void writeAvailableVersions( List availableVersions )
+    {
+        if ( availableVersions != null )
+        {
+            PrintWriter writer = getWriter();
+
+            writer.write( ",\"availableVersions\":[" );
+
+            for ( Iterator iterator = availableVersions.iterator(); iterator.hasNext(); )
+            {
+                writeString( String.valueOf( iterator.next() ) );
+
+                if ( iterator.hasNext() )
+                {
+                    writer.write( ',' );
+                }
+            }
+
+            writer.write( ']' );
+        }
+    }
+
+    /**
+     * Writes a JSON string, or <code>null</code>.
+     *
+     * @param value
+     *            the string to write, possibly <code>null</code>
+     */
+    private void writeString( String value )
+    {
+        PrintWriter writer = getWriter();
+
+        if ( value == null )
+        {
+            writer.write( "null" );
+            return;
+        }
+
+        writer.write( '"' );
+
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+
+            if ( c == '"' || c == '\\' )
+            {
+                writer.write( '\\' );
+                writer.write( c );
+            }
+            else if ( c < 0x20 || c > 0x7e )
+            {
+                String hex = Integer.toHexString( c );
+
+                writer.write( "\\u" );
+                writer.write( "0000", 0, 4 - hex.length() );
+                writer.write( hex );
+            }
+            else
+            {
+                writer.write( c );
+            }
+        }
+
+        writer.write( '"' );
+    }
+}
@@ -19,8 +19,10 @@ package org.apache.maven.shared.dependency.tree.traversal;
  * under the License.
  */
 
+import java.io.BufferedWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.maven.shared.dependency.tree.DependencyNode;
@@ -28,6 +30,11 @@ import org.apache.maven.shared.dependency.tree.DependencyNode;
 /**
  * A dependency node visitor that serializes visited nodes to a writer.
  * 
+ * <p>
+ * Whether each visited node is the last of its siblings is kept on a stack during the traversal, so that the tree is
+ * serialized in linear time. The output is buffered and flushed once the visit to the root node ends.
+ * </p>
+ * 
  * @author <a href="mailto:markhobson@gmail.com">Mark Hobson</a>
  * @version $Id$
  * @since 1.1
@@ -68,6 +75,29 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
         }
     }
 
+    /**
+     * The state of a visited dependency node that is kept while its descendants are visited.
+     */
+    private static class VisitedNode
+    {
+        private DependencyNode node;
+
+        /**
+         * Whether the node is the last of its siblings.
+         */
+        private boolean last;
+
+        /**
+         * The children of the node, or <code>null</code> until its first child is visited.
+         */
+        private List children;
+
+        /**
+         * The index of the child following the last visited child of the node.
+         */
+        private int nextChildIndex;
+    }
+
     // constants --------------------------------------------------------------
 
     /**
@@ -103,6 +133,11 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
      */
     private int depth;
 
+    /**
+     * The stack of the visited dependency nodes, by depth, whose elements are reused.
+     */
+    private final List visitedNodes;
+
     // constructors -----------------------------------------------------------
 
     /**
@@ -118,7 +153,7 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
 
     /**
      * Creates a dependency node visitor that serializes visited nodes to the specified writer using the specified
-     * tokens.
+     * tokens. The writer is buffered, unless it is a <code>PrintWriter</code>.
      * 
      * @param writer
      *            the writer to serialize to
@@ -133,12 +168,14 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
         }
         else
         {
-            this.writer = new PrintWriter( writer, true );
+            this.writer = new PrintWriter( new BufferedWriter( writer ) );
         }
 
         this.tokens = tokens;
 
         depth = 0;
+
+        visitedNodes = new ArrayList();
     }
 
     // DependencyNodeVisitor methods ------------------------------------------
@@ -148,7 +185,15 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
      */
     public boolean visit( DependencyNode node )
     {
-        indent( node );
+        boolean last = ( depth == 0 ) || isLast( node );
+
+        VisitedNode visitedNode = getVisitedNode( depth );
+        visitedNode.node = node;
+        visitedNode.last = last;
+        visitedNode.children = null;
+        visitedNode.nextChildIndex = 0;
+
+        indent();
 
         writer.println( node.toNodeString() );
 
@@ -164,27 +209,33 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
     {
         depth--;
 
+        VisitedNode visitedNode = getVisitedNode( depth );
+        visitedNode.node = null;
+        visitedNode.children = null;
+
+        if ( depth == 0 )
+        {
+            writer.flush();
+        }
+
         return true;
     }
 
     // private methods --------------------------------------------------------
 
     /**
-     * Writes the necessary tokens to indent the specified dependency node to this visitor's writer.
-     * 
-     * @param node
-     *            the dependency node to indent
+     * Writes the necessary tokens to indent the currently visited dependency node to this visitor's writer.
      */
-    private void indent( DependencyNode node )
+    private void indent()
     {
         for ( int i = 1; i < depth; i++ )
         {
-            writer.write( tokens.getFillIndent( isLast( node, i ) ) );
+            writer.write( tokens.getFillIndent( getVisitedNode( i ).last ) );
         }
 
         if ( depth > 0 )
         {
-            writer.write( tokens.getNodeIndent( isLast( node ) ) );
+            writer.write( tokens.getNodeIndent( getVisitedNode( depth ).last ) );
         }
     }
 
@@ -197,46 +248,56 @@ public class SerializingDependencyNodeVisitor implements DependencyNodeVisitor
      */
     private boolean isLast( DependencyNode node )
     {
-        // TODO: remove node argument and calculate from visitor calls only
-        
         DependencyNode parent = node.getParent();
 
-        boolean last;
-
         if ( parent == null )
         {
-            last = true;
+            return true;
         }
-        else
-        {
-            List siblings = parent.getChildren();
 
-            last = ( siblings.indexOf( node ) == siblings.size() - 1 );
+        VisitedNode visitedParent = getVisitedNode( depth - 1 );
+
+        if ( visitedParent.node == parent )
+        {
+            // siblings are visited in order, so look for the node from the sibling after the last visited one
+            if ( visitedParent.children == null )
+            {
+                visitedParent.children = parent.getChildren();
+            }
+
+            List siblings = visitedParent.children;
+
+            for ( int i = visitedParent.nextChildIndex; i < siblings.size(); i++ )
+            {
+                if ( siblings.get( i ) == node )
+                {
+                    visitedParent.nextChildIndex = i + 1;
+
+                    return i == siblings.size() - 1;
+                }
+            }
         }
 
-        return last;
+        // the parent of the node was not visited, or its children were not visited in order
+        List siblings = parent.getChildren();
+
+        return siblings.indexOf( node ) == siblings.size() - 1;
     }
 
     /**
-     * Gets whether the specified dependency node ancestor is the last of its siblings.
+     * Gets the visited dependency node at the specified depth of the stack, growing the stack if needed.
      * 
-     * @param node
-     *            the dependency node whose ancestor to check
-     * @param ancestorDepth
-     *            the depth of the ancestor of the specified dependency node to check
-     * @return <code>true</code> if the specified dependency node ancestor is the last of its siblings
+     * @param nodeDepth
+     *            the depth of the visited dependency node
+     * @return the visited dependency node
      */
-    private boolean isLast( DependencyNode node, int ancestorDepth )
+    private VisitedNode getVisitedNode( int nodeDepth )
     {
-        // TODO: remove node argument and calculate from visitor calls only
-        
-        int distance = depth - ancestorDepth;
-
-        while ( distance-- > 0 )
+        while ( visitedNodes.size() <= nodeDepth )
         {
-            node = node.getParent();
+            visitedNodes.add( new VisitedNode() );
         }
 
-        return isLast( node );
+        return (VisitedNode) visitedNodes.get( nodeDepth );
     }
 }
@@ -0,0 +1,218 @@
+package org.apache.maven.shared.dependency.tree;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.shared.dependency.tree.traversal.CollectingDependencyNodeVisitor;
+import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
+
+/**
+ * Tests <code>CompactDependencyTree</code>.
+ *
+ * @version $Id$
+ * @see CompactDependencyTree
+ */
+public class CompactDependencyTreeTest
+    extends AbstractDependencyNodeTest
+{
+    // fields -----------------------------------------------------------------
+
+    private DependencyNode rootNode, node2, node3, node4, node5, node6, node7;
+
+    private CompactDependencyTree tree;
+
+    // TestCase methods -------------------------------------------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        /*
+         *     ------1------
+         * ----2----       3
+         * 4       5       7
+         *         6
+         */
+
+        rootNode = createNode( "g:1:jar:1" );
+        node2 = createNode( rootNode, "g:2:jar:1" );
+        node3 = createNode( rootNode, "g:3:jar:1" );
+        node4 = createNode( node2, "g:4:jar:1" );
+        node5 = createNode( node2, "g:5:jar:1" );
+        node6 = createNode( node5, "g:6:jar:1" );
+        node7 = createNode( node3, "g:5:jar:1" );
+
+        node5.setPremanagedVersion( "2" );
+        node7.omitForConflict( createArtifact( "g:5:jar:1" ) );
+
+        tree = new CompactDependencyTree( rootNode );
+    }
+
+    // tests ------------------------------------------------------------------
+
+    public void testHierarchy()
+    {
+        assertEquals( 7, tree.getNodeCount() );
+
+        // nodes are numbered in preorder: 1, 2, 4, 5, 6, 3, 7
+        assertEquals( CompactDependencyTree.NONE, tree.getParent( 0 ) );
+        assertEquals( 1, tree.getFirstChild( 0 ) );
+        assertEquals( 5, tree.getNextSibling( 1 ) );
+        assertEquals( 2, tree.getFirstChild( 1 ) );
+        assertEquals( 3, tree.getNextSibling( 2 ) );
+        assertEquals( CompactDependencyTree.NONE, tree.getNextSibling( 3 ) );
+        assertEquals( 3, tree.getParent( 4 ) );
+        assertEquals( CompactDependencyTree.NONE, tree.getFirstChild( 4 ) );
+        assertEquals( 6, tree.getFirstChild( 5 ) );
+        assertEquals( 3, tree.getDepth( 4 ) );
+
+        assertSame( node6.getArtifact(), tree.getArtifact( 4 ) );
+        assertEquals( "2", tree.getPremanagedVersion( 3 ) );
+        assertNull( tree.getPremanagedVersion( 2 ) );
+        assertEquals( DependencyNode.OMITTED_FOR_DUPLICATE, tree.getState( 6 ) );
+        assertNotNull( tree.getRelatedArtifact( 6 ) );
+    }
+
+    public void testAncestorOrSelf()
+    {
+        assertEquals( 6, tree.getLastDescendant( 0 ) );
+        assertEquals( 4, tree.getLastDescendant( 1 ) );
+        assertEquals( 2, tree.getLastDescendant( 2 ) );
+
+        assertTrue( tree.isAncestorOrSelf( 0, 4 ) );
+        assertTrue( tree.isAncestorOrSelf( 1, 4 ) );
+        assertTrue( tree.isAncestorOrSelf( 4, 4 ) );
+        assertFalse( tree.isAncestorOrSelf( 4, 1 ) );
+        assertFalse( tree.isAncestorOrSelf( 1, 6 ) );
+        assertFalse( tree.isAncestorOrSelf( 2, 3 ) );
+    }
+
+    public void testArtifactKeys()
+    {
+        assertEquals( "g:5:jar:1", tree.getArtifactKey( 3 ) );
+        assertSame( tree.getArtifactKey( 3 ), tree.getArtifactKey( 6 ) );
+
+        int[] indices = tree.getNodeIndices( "g:5:jar:1" );
+        assertEquals( 2, indices.length );
+        assertEquals( 3, indices[0] );
+        assertEquals( 6, indices[1] );
+
+        assertEquals( 0, tree.getNodeIndices( "g:x:jar:1" ).length );
+    }
+
+    public void testRootNodeView()
+    {
+        DependencyNode view = tree.getRootNode();
+
+        assertEquals( rootNode, view );
+        assertEquals( rootNode.toString(), view.toString() );
+        assertEquals( rootNode.toString(), tree.toString() );
+        assertNull( view.getParent() );
+        assertSame( view, ( (DependencyNode) view.getChildren().get( 0 ) ).getParent() );
+    }
+
+    public void testNodeViewsArePreorder()
+    {
+        List nodes = tree.getNodes();
+        Iterator it = tree.getRootNode().preorderIterator();
+
+        for ( int i = 0; i < nodes.size(); i++ )
+        {
+            assertSame( nodes.get( i ), it.next() );
+        }
+        assertFalse( it.hasNext() );
+    }
+
+    public void testAccept()
+    {
+        CollectingDependencyNodeVisitor visitor = new CollectingDependencyNodeVisitor();
+        tree.accept( visitor );
+
+        assertEquals( tree.getNodes(), visitor.getNodes() );
+    }
+
+    public void testAcceptSkipsChildrenAndSiblings()
+    {
+        final StringBuffer visited = new StringBuffer();
+
+        // stop visiting the siblings after 4 and do not visit the children of 3
+        DependencyNodeVisitor visitor = new DependencyNodeVisitor()
+        {
+            public boolean visit( DependencyNode node )
+            {
+                visited.append( node.getArtifact().getArtifactId() );
+                return !"3".equals( node.getArtifact().getArtifactId() );
+            }
+
+            public boolean endVisit( DependencyNode node )
+            {
+                return !"4".equals( node.getArtifact().getArtifactId() );
+            }
+        };
+
+        boolean expected = rootNode.accept( visitor );
+        assertEquals( "1243", visited.toString() );
+
+        visited.setLength( 0 );
+        assertEquals( expected, tree.accept( visitor ) );
+        assertEquals( "1243", visited.toString() );
+    }
+
+    public void testViewCannotBeModified()
+    {
+        try
+        {
+            tree.getRootNode().addChild( createNode( "g:8:jar:1" ) );
+            fail( "Expected UnsupportedOperationException" );
+        }
+        catch ( UnsupportedOperationException exception )
+        {
+            // expected
+        }
+    }
+
+    public void testToDependencyNode()
+    {
+        DependencyNode copy = tree.toDependencyNode();
+
+        assertEquals( rootNode, copy );
+        assertNotSame( rootNode, copy );
+
+        copy.addChild( createNode( "g:8:jar:1" ) );
+        assertEquals( 7, tree.getNodeCount() );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private DependencyNode createNode( DependencyNode parent, String id )
+    {
+        DependencyNode node = createNode( id );
+
+        parent.addChild( node );
+
+        return node;
+    }
+}
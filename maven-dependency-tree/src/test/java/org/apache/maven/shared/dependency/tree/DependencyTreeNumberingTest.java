@@ -0,0 +1,143 @@
+package org.apache.maven.shared.dependency.tree;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Tests <code>DependencyTreeNumbering</code>.
+ *
+ * @version $Id$
+ * @see DependencyTreeNumbering
+ */
+public class DependencyTreeNumberingTest
+    extends AbstractDependencyNodeTest
+{
+    // fields -----------------------------------------------------------------
+
+    private DependencyNode node1, node2, node3, node4, node5, node6, node7;
+
+    private DependencyTreeNumbering numbering;
+
+    // TestCase methods -------------------------------------------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        /*
+         *     ------1------
+         * ----2----       3
+         * 4       5       7
+         *         6
+         */
+
+        node1 = createNode( "g:1:jar:1" );
+        node2 = createNode( node1, "g:2:jar:1" );
+        node3 = createNode( node1, "g:3:jar:1" );
+        node4 = createNode( node2, "g:4:jar:1" );
+        node5 = createNode( node2, "g:5:jar:1" );
+        node6 = createNode( node5, "g:6:jar:1" );
+        node7 = createNode( node3, "g:7:jar:1" );
+
+        numbering = new DependencyTreeNumbering( node1 );
+    }
+
+    // tests ------------------------------------------------------------------
+
+    public void testPreorderNumbers()
+    {
+        assertEquals( 7, numbering.getNodeCount() );
+        assertSame( node1, numbering.getRootNode() );
+
+        DependencyNode[] preorder = new DependencyNode[] { node1, node2, node4, node5, node6, node3, node7 };
+
+        for ( int i = 0; i < preorder.length; i++ )
+        {
+            assertEquals( i, numbering.getPreorderNumber( preorder[i] ) );
+            assertSame( preorder[i], numbering.getNode( i ) );
+        }
+    }
+
+    public void testPostorderNumbers()
+    {
+        DependencyNode[] postorder = new DependencyNode[] { node4, node6, node5, node2, node7, node3, node1 };
+
+        for ( int i = 0; i < postorder.length; i++ )
+        {
+            assertEquals( i, numbering.getPostorderNumber( postorder[i] ) );
+        }
+    }
+
+    public void testLastDescendantNumbers()
+    {
+        assertEquals( 6, numbering.getLastDescendantNumber( node1 ) );
+        assertEquals( 4, numbering.getLastDescendantNumber( node2 ) );
+        assertEquals( 2, numbering.getLastDescendantNumber( node4 ) );
+        assertEquals( 4, numbering.getLastDescendantNumber( node5 ) );
+    }
+
+    public void testDepth()
+    {
+        assertEquals( 0, numbering.getDepth( node1 ) );
+        assertEquals( 1, numbering.getDepth( node3 ) );
+        assertEquals( 3, numbering.getDepth( node6 ) );
+    }
+
+    public void testAncestorOrSelf()
+    {
+        assertTrue( numbering.isAncestorOrSelf( node1, node6 ) );
+        assertTrue( numbering.isAncestorOrSelf( node2, node6 ) );
+        assertTrue( numbering.isAncestorOrSelf( node6, node6 ) );
+        assertFalse( numbering.isAncestorOrSelf( node6, node2 ) );
+        assertFalse( numbering.isAncestorOrSelf( node2, node7 ) );
+        assertFalse( numbering.isAncestorOrSelf( node4, node5 ) );
+    }
+
+    public void testNodeOfAnotherTree()
+    {
+        DependencyNode node = createNode( "g:1:jar:1" );
+
+        assertFalse( numbering.contains( node ) );
+
+        try
+        {
+            numbering.getPreorderNumber( node );
+            fail( "Expected IllegalArgumentException" );
+        }
+        catch ( IllegalArgumentException exception )
+        {
+            // expected
+        }
+    }
+
+    // private methods --------------------------------------------------------
+
+    private DependencyNode createNode( DependencyNode parent, String id )
+    {
+        DependencyNode node = createNode( id );
+
+        parent.addChild( node );
+
+        return node;
+    }
+}
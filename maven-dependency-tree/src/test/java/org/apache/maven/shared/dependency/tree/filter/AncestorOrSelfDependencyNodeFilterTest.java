@@ -19,7 +19,10 @@ package org.apache.maven.shared.dependency.tree.filter;
  * under the License.
  */
 
+import java.util.Arrays;
+
 import org.apache.maven.shared.dependency.tree.AbstractDependencyNodeTest;
+import org.apache.maven.shared.dependency.tree.CompactDependencyTree;
 import org.apache.maven.shared.dependency.tree.DependencyNode;
 
 /**
@@ -110,4 +113,39 @@ public class AncestorOrSelfDependencyNodeFilterTest extends AbstractDependencyNo
 
         assertFalse( filter.accept( grandChildNode ) );
     }
+
+    public void testMultipleDescendants()
+    {
+        filter = new AncestorOrSelfDependencyNodeFilter( Arrays.asList( new DependencyNode[] { grandChildNode,
+            childNode2 } ) );
+
+        assertTrue( filter.accept( rootNode ) );
+        assertTrue( filter.accept( childNode1 ) );
+        assertTrue( filter.accept( childNode2 ) );
+        assertTrue( filter.accept( grandChildNode ) );
+    }
+
+    public void testNodeOfAnotherTree()
+    {
+        filter = new AncestorOrSelfDependencyNodeFilter( grandChildNode );
+
+        DependencyNode copy = new CompactDependencyTree( rootNode ).toDependencyNode();
+        DependencyNode childCopy2 = (DependencyNode) copy.getChildren().get( 1 );
+
+        assertTrue( filter.accept( copy ) );
+        assertFalse( filter.accept( childCopy2 ) );
+    }
+
+    public void testCompactTreeNodes()
+    {
+        CompactDependencyTree tree = new CompactDependencyTree( rootNode );
+
+        // p, a, c, b
+        filter = new AncestorOrSelfDependencyNodeFilter( tree.getNode( 1 ) );
+
+        assertTrue( filter.accept( tree.getNode( 0 ) ) );
+        assertTrue( filter.accept( tree.getNode( 1 ) ) );
+        assertFalse( filter.accept( tree.getNode( 2 ) ) );
+        assertFalse( filter.accept( tree.getNode( 3 ) ) );
+    }
 }
@@ -0,0 +1,56 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.apache.maven.shared.dependency.tree.AbstractDependencyNodeTest;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * Tests <code>DotSerializingDependencyNodeVisitor</code>.
+ *
+ * @version $Id$
+ * @see DotSerializingDependencyNodeVisitor
+ */
+public class DotSerializingDependencyNodeVisitorTest extends AbstractDependencyNodeTest
+{
+    // tests ------------------------------------------------------------------
+
+    public void testNodeWithChildren()
+    {
+        DependencyNode rootNode = createNode( "g:p:t:1" );
+        rootNode.addChild( createNode( "g:a:t:1" ) );
+        rootNode.addChild( createNode( "g:b:t:1", DependencyNode.OMITTED_FOR_DUPLICATE, "g:b:t:1" ) );
+
+        StringWriter writer = new StringWriter();
+        rootNode.accept( new DotSerializingDependencyNodeVisitor( writer ) );
+
+        assertEquals(
+            "digraph \"g:p:t:1\" {\n"
+            + "  n0 [label=\"g:p:t:1\"];\n"
+            + "  n1 [label=\"g:a:t:1\"];\n"
+            + "  n0 -> n1;\n"
+            + "  n2 [label=\"(g:b:t:1 - omitted for duplicate)\", style=dashed];\n"
+            + "  n0 -> n2 [style=dashed];\n"
+            + "}\n",
+            writer.toString() );
+    }
+}
@@ -0,0 +1,55 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.apache.maven.shared.dependency.tree.AbstractDependencyNodeTest;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * Tests <code>GraphmlSerializingDependencyNodeVisitor</code>.
+ *
+ * @version $Id$
+ * @see GraphmlSerializingDependencyNodeVisitor
+ */
+public class GraphmlSerializingDependencyNodeVisitorTest extends AbstractDependencyNodeTest
+{
+    // tests ------------------------------------------------------------------
+
+    public void testNodeWithChild()
+    {
+        DependencyNode rootNode = createNode( "g:p:t:1" );
+        rootNode.addChild( createNode( "g:a<&>:t:1:compile" ) );
+
+        StringWriter writer = new StringWriter();
+        rootNode.accept( new GraphmlSerializingDependencyNodeVisitor( writer ) );
+
+        String graphml = writer.toString();
+
+        assertTrue( graphml.startsWith( "<?xml version=\"1.0\"?>\n<graphml" ) );
+        assertTrue( graphml.indexOf( "  <graph id=\"g:p:t:1\" edgedefault=\"directed\">\n" ) != -1 );
+        assertTrue( graphml.indexOf( "    <node id=\"n0\"><data key=\"groupId\">g</data>" ) != -1 );
+        assertTrue( graphml.indexOf( "<data key=\"artifactId\">a&lt;&amp;&gt;</data>" ) != -1 );
+        assertTrue( graphml.indexOf( "<data key=\"scope\">compile</data><data key=\"state\">INCLUDED</data>" ) != -1 );
+        assertTrue( graphml.indexOf( "    <edge source=\"n0\" target=\"n1\"/>\n" ) != -1 );
+        assertTrue( graphml.endsWith( "  </graph>\n</graphml>\n" ) );
+    }
+}
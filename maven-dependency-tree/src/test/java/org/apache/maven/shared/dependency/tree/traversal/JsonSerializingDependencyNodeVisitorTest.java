@@ -0,0 +1,83 @@
+package org.apache.maven.shared.dependency.tree.traversal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.apache.maven.shared.dependency.tree.AbstractDependencyNodeTest;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+
+/**
+ * Tests <code>JsonSerializingDependencyNodeVisitor</code>.
+ *
+ * @version $Id$
+ * @see JsonSerializingDependencyNodeVisitor
+ */
+public class JsonSerializingDependencyNodeVisitorTest extends AbstractDependencyNodeTest
+{
+    // fields -----------------------------------------------------------------
+
+    private StringWriter writer;
+
+    private JsonSerializingDependencyNodeVisitor serializer;
+
+    // TestCase methods -------------------------------------------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp() throws Exception
+    {
+        writer = new StringWriter();
+
+        serializer = new JsonSerializingDependencyNodeVisitor( writer );
+    }
+
+    // tests ------------------------------------------------------------------
+
+    public void testNodeWithChildren()
+    {
+        DependencyNode rootNode = createNode( "g:p:t:1" );
+        DependencyNode childNode = createNode( "g:a:t:1:compile" );
+        rootNode.addChild( childNode );
+        childNode.setPremanagedVersion( "2" );
+        childNode.addChild( createNode( "g:b:t:1:test", DependencyNode.OMITTED_FOR_CONFLICT, "g:b:t:2:test" ) );
+
+        rootNode.accept( serializer );
+
+        assertEquals(
+            "{\"id\":0,\"parent\":null,\"depth\":0,\"groupId\":\"g\",\"artifactId\":\"p\",\"type\":\"t\","
+                + "\"version\":\"1\",\"scope\":null,\"state\":\"INCLUDED\"}\n"
+            + "{\"id\":1,\"parent\":0,\"depth\":1,\"groupId\":\"g\",\"artifactId\":\"a\",\"type\":\"t\","
+                + "\"version\":\"1\",\"scope\":\"compile\",\"state\":\"INCLUDED\",\"premanagedVersion\":\"2\"}\n"
+            + "{\"id\":2,\"parent\":1,\"depth\":2,\"groupId\":\"g\",\"artifactId\":\"b\",\"type\":\"t\","
+                + "\"version\":\"1\",\"scope\":\"test\",\"state\":\"OMITTED_FOR_CONFLICT\",\"relatedVersion\":\"2\"}\n",
+            writer.toString() );
+    }
+
+    public void testEscaping()
+    {
+        DependencyNode rootNode = createNode( "g:p\"\\\u00e9:t:1" );
+
+        rootNode.accept( serializer );
+
+        assertTrue( writer.toString().indexOf( "\"artifactId\":\"p\\\"\\\\\\u00e9\"" ) != -1 );
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.maven.shared.dependency.tree.traversal;
 import java.io.StringWriter;
 
 import org.apache.maven.shared.dependency.tree.AbstractDependencyNodeTest;
+import org.apache.maven.shared.dependency.tree.CompactDependencyTree;
 import org.apache.maven.shared.dependency.tree.DependencyNode;
 
 /**
@@ -123,6 +124,47 @@ public class SerializingDependencyNodeVisitorTest extends AbstractDependencyNode
             rootNode );
     }
     
+    public void testNodeWithMultipleGreatGrandchildren()
+    {
+        DependencyNode rootNode = createNode( "g:p:t:1" );
+        DependencyNode child1Node = createNode( "g:a:t:1" );
+        rootNode.addChild( child1Node );
+        DependencyNode grandchild1Node = createNode( "g:b:t:1" );
+        child1Node.addChild( grandchild1Node );
+        grandchild1Node.addChild( createNode( "g:c:t:1" ) );
+        grandchild1Node.addChild( createNode( "g:d:t:1" ) );
+        DependencyNode grandchild2Node = createNode( "g:e:t:1" );
+        child1Node.addChild( grandchild2Node );
+        grandchild2Node.addChild( createNode( "g:f:t:1" ) );
+        rootNode.addChild( createNode( "g:g:t:1" ) );
+
+        assertTree(
+            "g:p:t:1" + NEWLINE +
+            "+- g:a:t:1" + NEWLINE +
+            "|  +- g:b:t:1" + NEWLINE +
+            "|  |  +- g:c:t:1" + NEWLINE +
+            "|  |  \\- g:d:t:1" + NEWLINE +
+            "|  \\- g:e:t:1" + NEWLINE +
+            "|     \\- g:f:t:1" + NEWLINE +
+            "\\- g:g:t:1" + NEWLINE,
+            rootNode );
+    }
+
+    public void testCompactTree()
+    {
+        DependencyNode rootNode = createNode( "g:p:t:1" );
+        DependencyNode child1Node = createNode( "g:a:t:1" );
+        rootNode.addChild( child1Node );
+        child1Node.addChild( createNode( "g:b:t:1" ) );
+        rootNode.addChild( createNode( "g:c:t:1" ) );
+
+        StringWriter expectedWriter = new StringWriter();
+        rootNode.accept( new SerializingDependencyNodeVisitor( expectedWriter,
+                                                               SerializingDependencyNodeVisitor.STANDARD_TOKENS ) );
+
+        assertTree( expectedWriter.toString(), new CompactDependencyTree( rootNode ).getRootNode() );
+    }
+
     // private methods --------------------------------------------------------
 
     private void assertTree( String expectedTree, DependencyNode actualNode )
@@ -27,11 +27,14 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.interpolation.InterpolationException;
 import org.codehaus.plexus.interpolation.InterpolationPostProcessor;
 import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
 import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
@@ -61,6 +64,9 @@ public class DefaultMavenFileFilter
     /** @plexus.requirement */
     private BuildContext buildContext;
 
+    /** {@link FilterPropertiesCache} per {@link MavenSession}, dropped with the session. */
+    private final Map filterPropertiesCaches = new WeakHashMap();
+
     public void copyFile( File from, File to, boolean filtering, MavenProject mavenProject, List filters,
                           boolean escapedBackslashesInFilePath, String encoding, MavenSession mavenSession )
         throws MavenFilteringException
@@ -102,6 +108,43 @@ public class DefaultMavenFileFilter
                           boolean overwrite )
         throws MavenFilteringException
     {
+        copyFile( from, to, filtering, filterWrappers, encoding, overwrite, MavenResourcesExecution.COPY_MODE_STREAM );
+    }
+
+    /**
+     * Same as {@link #copyFile(File, File, boolean, List, String, boolean)}, copying <code>from</code> with the given
+     * copy mode when it is not filtered. Not part of {@link MavenFileFilter}, so its other implementations are not
+     * affected.
+     *
+     * @param copyMode one of the <code>MavenResourcesExecution.COPY_MODE_*</code> constants, <code>null</code> for
+     *            {@link MavenResourcesExecution#COPY_MODE_STREAM}
+     * @throws IllegalArgumentException if <code>copyMode</code> is unknown
+     * @see MavenResourcesExecution#setCopyMode(String)
+     * @since 1.1
+     */
+    public void copyFile( File from, File to, boolean filtering, List filterWrappers, String encoding,
+                          boolean overwrite, String copyMode )
+        throws MavenFilteringException
+    {
+        copyFile( from, to, filtering, filterWrappers, encoding, overwrite, copyMode, buildContext );
+    }
+
+    /**
+     * Same as {@link #copyFile(File, File, boolean, List, String, boolean, String)}, refreshing the destination with
+     * the given build context rather than the one of this filter.
+     *
+     * @param refreshContext the build context <code>to</code> is refreshed with
+     */
+    void copyFile( File from, File to, boolean filtering, List filterWrappers, String encoding, boolean overwrite,
+                   String copyMode, BuildContext refreshContext )
+        throws MavenFilteringException
+    {
+        if ( copyMode != null && !MavenResourcesExecution.COPY_MODE_STREAM.equals( copyMode )
+            && !MavenResourcesExecution.COPY_MODE_CHANNEL.equals( copyMode )
+            && !MavenResourcesExecution.COPY_MODE_LINK.equals( copyMode ) )
+        {
+            throw new IllegalArgumentException( "Unknown copy mode: " + copyMode );
+        }
         try
         {
             if ( filtering )
@@ -112,6 +155,7 @@ public class DefaultMavenFileFilter
                 }
                 FileUtils.FilterWrapper[] wrappers = (FileUtils.FilterWrapper[]) filterWrappers
                     .toArray( new FileUtils.FilterWrapper[filterWrappers.size()] );
+                ResourceFileCopier.replaceDestination( from, to );
                 FileUtils.copyFile( from, to, encoding, wrappers );
             }
             else
@@ -120,10 +164,21 @@ public class DefaultMavenFileFilter
                 {
                     getLogger().debug( "copy " + from.getPath() + " to " + to.getPath() );
                 }
-                FileUtils.copyFile( from, to, encoding, new FileUtils.FilterWrapper[0], overwrite );
+                if ( copyMode == null || MavenResourcesExecution.COPY_MODE_STREAM.equals( copyMode ) )
+                {
+                    if ( overwrite || to.lastModified() < from.lastModified() )
+                    {
+                        ResourceFileCopier.replaceDestination( from, to );
+                    }
+                    FileUtils.copyFile( from, to, encoding, new FileUtils.FilterWrapper[0], overwrite );
+                }
+                else
+                {
+                    ResourceFileCopier.copyFile( from, to, overwrite, copyMode );
+                }
             }
 
-            buildContext.refresh( to );
+            refreshContext.refresh( to );
         }
         catch ( IOException e )
         {
@@ -201,7 +256,9 @@ public class DefaultMavenFileFilter
 
         final Properties filterProperties = new Properties();
 
-        loadProperties( filterProperties, request.getFileFilters(), baseProps );
+        final FilterPropertiesCache cache = getFilterPropertiesCache( request.getMavenSession() );
+
+        loadProperties( filterProperties, request.getFileFilters(), baseProps, cache );
         if ( filterProperties.size() < 1 )
         {
             filterProperties.putAll( baseProps );
@@ -214,7 +271,7 @@ public class DefaultMavenFileFilter
                 List buildFilters = new ArrayList( request.getMavenProject().getBuild().getFilters() );
                 buildFilters.removeAll( request.getFileFilters() );
                 
-                loadProperties( filterProperties, buildFilters, baseProps );
+                loadProperties( filterProperties, buildFilters, baseProps, cache );
             }
 
             // Project properties
@@ -241,7 +298,21 @@ public class DefaultMavenFileFilter
             getLogger().debug( "properties used " + filterProperties );
         }
 
-        final ValueSource propertiesValueSource = new PropertiesBasedValueSource( filterProperties );
+        final ValueSource propertiesValueSource;
+        if ( cache != null )
+        {
+            propertiesValueSource = cache.getValueSource( filterProperties );
+
+            if ( getLogger().isDebugEnabled() )
+            {
+                getLogger().debug( "filter properties cache hits " + cache.getHitCount() + ", misses "
+                                       + cache.getMissCount() );
+            }
+        }
+        else
+        {
+            propertiesValueSource = new PropertiesBasedValueSource( filterProperties );
+        }
 
         if ( request != null )
         {
@@ -263,6 +334,49 @@ public class DefaultMavenFileFilter
     protected void loadProperties( Properties filterProperties, List /* String */propertiesFilePaths,
                                  Properties baseProps )
         throws MavenFilteringException
+    {
+        loadPropertyFiles( filterProperties, propertiesFilePaths, baseProps, null );
+    }
+
+    /**
+     * Loads the filter files through the cache, unless a subclass overrides
+     * {@link #loadProperties(Properties, List, Properties)}, which is then called instead.
+     */
+    private void loadProperties( Properties filterProperties, List /* String */propertiesFilePaths,
+                                 Properties baseProps, FilterPropertiesCache cache )
+        throws MavenFilteringException
+    {
+        if ( cache == null || isLoadPropertiesOverridden() )
+        {
+            loadProperties( filterProperties, propertiesFilePaths, baseProps );
+        }
+        else
+        {
+            loadPropertyFiles( filterProperties, propertiesFilePaths, baseProps, cache );
+        }
+    }
+
+    private boolean isLoadPropertiesOverridden()
+    {
+        for ( Class clazz = getClass(); clazz != DefaultMavenFileFilter.class; clazz = clazz.getSuperclass() )
+        {
+            try
+            {
+                clazz.getDeclaredMethod( "loadProperties",
+                                         new Class[] { Properties.class, List.class, Properties.class } );
+                return true;
+            }
+            catch ( NoSuchMethodException e )
+            {
+                // not overridden by this class
+            }
+        }
+        return false;
+    }
+
+    private void loadPropertyFiles( Properties filterProperties, List /* String */propertiesFilePaths,
+                                    Properties baseProps, FilterPropertiesCache cache )
+        throws MavenFilteringException
     {
         if ( propertiesFilePaths != null )
         {
@@ -280,7 +394,9 @@ public class DefaultMavenFileFilter
                 try
                 {
                     // TODO new File should be new File(mavenProject.getBasedir(), filterfile ) ?
-                    Properties properties = PropertyUtils.loadPropertyFile( new File( filterFile ), workProperties );
+                    Properties properties = cache == null
+                        ? PropertyUtils.loadPropertyFile( new File( filterFile ), workProperties )
+                        : cache.loadPropertyFile( new File( filterFile ), workProperties );
                     filterProperties.putAll( properties );
                     workProperties.putAll( properties );
                 }
@@ -292,24 +408,53 @@ public class DefaultMavenFileFilter
         }
     }
     
-    private static final class Wrapper extends FileUtils.FilterWrapper
+    /**
+     * The filter files and filter properties of the executions of a session are cached, so the filters shared by
+     * the modules of a reactor are only read once.
+     *
+     * @param mavenSession
+     * @return the cache used for <code>mavenSession</code>, or <code>null</code> if <code>mavenSession</code> is
+     *         <code>null</code>.
+     * @since 1.1
+     */
+    public FilterPropertiesCache getFilterPropertiesCache( MavenSession mavenSession )
     {
-        
+        if ( mavenSession == null )
+        {
+            return null;
+        }
+        synchronized ( filterPropertiesCaches )
+        {
+            FilterPropertiesCache cache = (FilterPropertiesCache) filterPropertiesCaches.get( mavenSession );
+            if ( cache == null )
+            {
+                cache = new FilterPropertiesCache();
+                filterPropertiesCaches.put( mavenSession, cache );
+            }
+            return cache;
+        }
+    }
+
+    private static final class Wrapper extends FileUtils.FilterWrapper implements TrackingFilterWrapper
+    {
+        /** Maximum number of expression results shared by the readers of a wrapper. */
+        private static final int MAX_CACHED_EXPRESSIONS = 10000;
+
         private LinkedHashSet delimiters;
         
-        private MavenProject project;
-        
-        private ValueSource propertiesValueSource;
-        
         private List projectStartExpressions;
         
         private String escapeString;
         
+        private boolean supportMultiLineFiltering;
+
         private boolean escapeWindowsPaths;
 
-        private final MavenSession mavenSession;
-        
-        private boolean supportMultiLineFiltering;
+        /** Resolves the expressions of all the readers, guarded by itself. */
+        private final MultiDelimiterStringSearchInterpolator interpolator;
+
+        /** expression to resolved value, guarded by itself. */
+        private final Map answers = new LruMap( MAX_CACHED_EXPRESSIONS );
 
         Wrapper( LinkedHashSet delimiters, MavenProject project, MavenSession mavenSession,
                  ValueSource propertiesValueSource, List projectStartExpressions, String escapeString,
@@ -317,30 +462,14 @@ public class DefaultMavenFileFilter
         {
             super();
             this.delimiters = delimiters;
-            this.project = project;
-            this.mavenSession = mavenSession;
-            this.propertiesValueSource = propertiesValueSource;
             this.projectStartExpressions = projectStartExpressions;
             this.escapeString = escapeString;
-            this.escapeWindowsPaths = escapeWindowsPaths;
             this.supportMultiLineFiltering = supportMultiLineFiltering;
-        }
+            this.escapeWindowsPaths = escapeWindowsPaths;
 
-        public Reader getReader( Reader reader )
-        {
-            MultiDelimiterStringSearchInterpolator interpolator = new MultiDelimiterStringSearchInterpolator();
+            interpolator = new MultiDelimiterStringSearchInterpolator();
             interpolator.setDelimiterSpecs( delimiters );
             
-            RecursionInterceptor ri = null;
-            if ( projectStartExpressions != null && !projectStartExpressions.isEmpty() )
-            {
-                ri = new PrefixAwareRecursionInterceptor( projectStartExpressions, true );
-            }
-            else
-            {
-                ri = new SimpleRecursionInterceptor();
-            }
-            
             interpolator.addValueSource( propertiesValueSource );
             
             if ( project != null )
@@ -378,18 +507,118 @@ public class DefaultMavenFileFilter
                     }
                 } );
             }
-            
+        }
+
+        public Reader getReader( Reader reader )
+        {
+            return getReader( reader, null );
+        }
+
+        public Reader getReader( Reader reader, Map expressions )
+        {
             MultiDelimiterInterpolatorFilterReaderLineEnding filterReader = 
-                new MultiDelimiterInterpolatorFilterReaderLineEnding( reader, interpolator, supportMultiLineFiltering );
-            filterReader.setRecursionInterceptor( ri );
+                new MultiDelimiterInterpolatorFilterReaderLineEnding( reader,
+                                                                      new SharedInterpolator( this, expressions ),
+                                                                      supportMultiLineFiltering );
+            filterReader.setRecursionInterceptor( newRecursionInterceptor() );
             filterReader.setDelimiterSpecs( delimiters );
             
             filterReader.setInterpolateWithPrefixPattern( false );
             filterReader.setEscapeString( escapeString );
+            filterReader.setBlockBuffered( true );
             
             return filterReader;
         }
-        
+
+        public String resolve( String expression )
+            throws InterpolationException
+        {
+            return interpolate( expression, newRecursionInterceptor() );
+        }
+
+        public String getConfiguration()
+        {
+            return "delimiters=" + delimiters + ",projectStartExpressions=" + projectStartExpressions
+                + ",escapeString=" + escapeString + ",escapeWindowsPaths=" + escapeWindowsPaths
+                + ",supportMultiLineFiltering=" + supportMultiLineFiltering;
+        }
+
+        private RecursionInterceptor newRecursionInterceptor()
+        {
+            if ( projectStartExpressions != null && !projectStartExpressions.isEmpty() )
+            {
+                return new PrefixAwareRecursionInterceptor( projectStartExpressions, true );
+            }
+            else
+            {
+                return new SimpleRecursionInterceptor();
+            }
+        }
+
+        String interpolate( String expression, RecursionInterceptor recursionInterceptor )
+            throws InterpolationException
+        {
+            synchronized ( answers )
+            {
+                String value = (String) answers.get( expression );
+                if ( value != null )
+                {
+                    return value;
+                }
+            }
+
+            String value;
+            synchronized ( interpolator )
+            {
+                value = interpolator.interpolate( expression, recursionInterceptor );
+                interpolator.clearFeedback();
+            }
+
+            if ( value != null )
+            {
+                synchronized ( answers )
+                {
+                    answers.put( expression, value );
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The interpolator given to the reader of a file: resolves the expressions through the interpolator of its
+     * {@link Wrapper}, so the values found by reflection on the project, session or settings are shared by the files.
+     */
+    private static final class SharedInterpolator
+        extends MultiDelimiterStringSearchInterpolator
+    {
+        private final Wrapper wrapper;
+
+        /** if not <code>null</code>, receives the resolved expressions with their values */
+        private final Map expressions;
+
+        SharedInterpolator( Wrapper wrapper, Map expressions )
+        {
+            this.wrapper = wrapper;
+            this.expressions = expressions;
+        }
+
+        public String interpolate( String input, RecursionInterceptor recursionInterceptor )
+            throws InterpolationException
+        {
+            String value = wrapper.interpolate( input, recursionInterceptor );
+            if ( expressions != null )
+            {
+                expressions.put( input, value );
+            }
+            return value;
+        }
+
+        public String interpolate( String input, String thisPrefixPattern, RecursionInterceptor recursionInterceptor )
+            throws InterpolationException
+        {
+            return interpolate( input, recursionInterceptor );
+        }
     }
 
 }
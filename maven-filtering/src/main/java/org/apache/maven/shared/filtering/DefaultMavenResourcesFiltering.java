@@ -21,10 +21,17 @@ package org.apache.maven.shared.filtering;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Resource;
@@ -175,7 +182,17 @@ public class DefaultMavenResourcesFiltering
                               "Using '" + mavenResourcesExecution.getEncoding()
                                   + "' encoding to copy filtered resources." );
         }
-        
+
+        // parent directories of the destination files already created during this execution
+        Set createdDirectories = new HashSet();
+
+        ResourceFingerprints fingerprints = null;
+        if ( mavenResourcesExecution.isSkipUnchanged() )
+        {
+            fingerprints = new ResourceFingerprints( getFingerprintsFile( mavenResourcesExecution ) );
+            fingerprints.load();
+        }
+
         for ( Iterator i = mavenResourcesExecution.getResources().iterator(); i.hasNext(); )
         {
             Resource resource = (Resource) i.next();
@@ -251,6 +268,8 @@ public class DefaultMavenResourcesFiltering
                               "Copying " + includedFiles.size() + " resource" + ( includedFiles.size() > 1 ? "s" : "" )
                                   + ( targetPath == null ? "" : " to " + targetPath ) );
 
+            List copies = new ArrayList( includedFiles.size() );
+
             for ( Iterator j = includedFiles.iterator(); j.hasNext(); )
             {
                 String name = (String) j.next();
@@ -259,14 +278,26 @@ public class DefaultMavenResourcesFiltering
 
                 //File destinationFile = new File( outputDirectory, destination );
 
-                File destinationFile = getDestinationFile( outputDirectory, targetPath, name );
+                File destinationFile = getDestinationFile( outputDirectory, targetPath, name, createdDirectories );
                 
                 boolean filteredExt = filteredFileExtension( source.getName(), mavenResourcesExecution
                     .getNonFilteredFileExtensions() );
                 
-                mavenFileFilter.copyFile( source, destinationFile, resource.isFiltering() && filteredExt,
-                                          mavenResourcesExecution.getFilterWrappers(), mavenResourcesExecution
-                                              .getEncoding(), mavenResourcesExecution.isOverwrite() );
+                copies.add( new FileCopy( source, destinationFile, resource.isFiltering() && filteredExt ) );
+            }
+
+            // the refreshes of the copies can only be recorded, then replayed in order, with the default file filter
+            if ( mavenResourcesExecution.getThreadCount() > 1 && copies.size() > 1
+                && mavenFileFilter instanceof DefaultMavenFileFilter )
+            {
+                copyFilesInParallel( copies, mavenResourcesExecution, fingerprints );
+            }
+            else
+            {
+                for ( Iterator j = copies.iterator(); j.hasNext(); )
+                {
+                    copyFile( (FileCopy) j.next(), mavenResourcesExecution, fingerprints, null );
+                }
             }
 
             // deal with deleted source files
@@ -283,18 +314,237 @@ public class DefaultMavenResourcesFiltering
             {
                 String name = (String) j.next();
 
-                File destinationFile = getDestinationFile( outputDirectory, targetPath, name );
+                File destinationFile = getDestinationFile( outputDirectory, targetPath, name, createdDirectories );
                 
                 destinationFile.delete();
                 
                 buildContext.refresh( destinationFile );
+
+                if ( fingerprints != null )
+                {
+                    fingerprints.remove( destinationFile );
+                }
             }
 
         }
 
+        if ( fingerprints != null )
+        {
+            try
+            {
+                fingerprints.store();
+            }
+            catch ( IOException e )
+            {
+                getLogger().warn( "Cannot store resources fingerprints: " + e.getMessage() );
+            }
+        }
+
     }
 
-    private File getDestinationFile( File outputDirectory, String targetPath, String name )
+    /**
+     * @param refreshContext the build context the destination is refreshed with, <code>null</code> for the one of the
+     *            file filter
+     */
+    private void copyFile( FileCopy copy, MavenResourcesExecution mavenResourcesExecution,
+                           ResourceFingerprints fingerprints, BuildContext refreshContext )
+        throws MavenFilteringException
+    {
+        List filterWrappers = mavenResourcesExecution.getFilterWrappers();
+        if ( !copy.filtering || filterWrappers == null )
+        {
+            filterWrappers = Collections.EMPTY_LIST;
+        }
+
+        if ( fingerprints == null || !ResourceFingerprints.isTrackable( filterWrappers ) )
+        {
+            if ( fingerprints != null )
+            {
+                fingerprints.remove( copy.destination );
+            }
+            copyFile( copy, mavenResourcesExecution.getFilterWrappers(), mavenResourcesExecution, refreshContext );
+            return;
+        }
+
+        try
+        {
+            String sourceDigest = ResourceFingerprints.digest( copy.source );
+            String settings = "encoding=" + mavenResourcesExecution.getEncoding() + ",filtering=" + copy.filtering;
+
+            if ( fingerprints.isUnchanged( copy.destination, sourceDigest, settings, filterWrappers ) )
+            {
+                if ( getLogger().isDebugEnabled() )
+                {
+                    getLogger().debug( "skip unchanged " + copy.destination.getPath() );
+                }
+                return;
+            }
+
+            List values = new ArrayList( filterWrappers.size() );
+            copyFile( copy, ResourceFingerprints.recordingWrappers( filterWrappers, values ), mavenResourcesExecution,
+                      refreshContext );
+
+            fingerprints.put( copy.destination, sourceDigest, settings, filterWrappers, values );
+        }
+        catch ( IOException e )
+        {
+            throw new MavenFilteringException( "Cannot fingerprint " + copy.source.getPath(), e );
+        }
+    }
+
+    /**
+     * Copies with the copy mode of the execution when the file filter supports it, the other implementations of
+     * {@link MavenFileFilter} copying as before.
+     */
+    private void copyFile( FileCopy copy, List filterWrappers, MavenResourcesExecution mavenResourcesExecution,
+                           BuildContext refreshContext )
+        throws MavenFilteringException
+    {
+        if ( mavenFileFilter instanceof DefaultMavenFileFilter )
+        {
+            DefaultMavenFileFilter defaultFileFilter = (DefaultMavenFileFilter) mavenFileFilter;
+            if ( refreshContext == null )
+            {
+                defaultFileFilter.copyFile( copy.source, copy.destination, copy.filtering, filterWrappers,
+                                            mavenResourcesExecution.getEncoding(),
+                                            mavenResourcesExecution.isOverwrite(),
+                                            mavenResourcesExecution.getCopyMode() );
+            }
+            else
+            {
+                defaultFileFilter.copyFile( copy.source, copy.destination, copy.filtering, filterWrappers,
+                                            mavenResourcesExecution.getEncoding(),
+                                            mavenResourcesExecution.isOverwrite(),
+                                            mavenResourcesExecution.getCopyMode(), refreshContext );
+            }
+        }
+        else
+        {
+            mavenFileFilter.copyFile( copy.source, copy.destination, copy.filtering, filterWrappers,
+                                      mavenResourcesExecution.getEncoding(), mavenResourcesExecution.isOverwrite() );
+        }
+    }
+
+    private File getFingerprintsFile( MavenResourcesExecution execution )
+    {
+        if ( execution.getFingerprintsFile() != null )
+        {
+            return execution.getFingerprintsFile();
+        }
+
+        File outputDirectory = execution.getOutputDirectory().getAbsoluteFile();
+        String name = outputDirectory.getName() + "-" + Integer.toHexString( outputDirectory.getPath().hashCode() )
+            + ".fingerprints";
+
+        MavenProject project = execution.getMavenProject();
+        if ( project != null && project.getBuild() != null && project.getBuild().getDirectory() != null )
+        {
+            return new File( new File( project.getBuild().getDirectory(), "maven-filtering" ), name );
+        }
+        return new File( outputDirectory.getParentFile(), name );
+    }
+
+    /**
+     * Copies the files with {@link MavenResourcesExecution#getThreadCount()} threads. Files are handed out in the
+     * scan order and no new copy is started once one failed, so the failure reported is always the one of the first
+     * failing file. Each copy refreshes its destination through a {@link RefreshRecorder}, and the recorded
+     * {@link BuildContext#refresh(File)} calls are replayed on the calling thread in the scan order. Only used with
+     * the {@link DefaultMavenFileFilter}, which can refresh through a given build context.
+     */
+    private void copyFilesInParallel( final List copies, final MavenResourcesExecution mavenResourcesExecution,
+                                      final ResourceFingerprints fingerprints )
+        throws MavenFilteringException
+    {
+        final List[] refreshed = new List[copies.size()];
+        final Throwable[] failures = new Throwable[copies.size()];
+        final int[] state = { 0, -1 }; // next copy to hand out, index of the first failure
+
+        Thread[] workers = new Thread[Math.min( mavenResourcesExecution.getThreadCount(), copies.size() )];
+        for ( int i = 0; i < workers.length; i++ )
+        {
+            workers[i] = new Thread( "resources-copy-" + i )
+            {
+                public void run()
+                {
+                    while ( true )
+                    {
+                        int index;
+                        synchronized ( state )
+                        {
+                            if ( state[0] >= copies.size() || state[1] >= 0 )
+                            {
+                                return;
+                            }
+                            index = state[0]++;
+                        }
+
+                        RefreshRecorder recorder = new RefreshRecorder( buildContext );
+                        refreshed[index] = recorder.refreshed;
+                        try
+                        {
+                            copyFile( (FileCopy) copies.get( index ), mavenResourcesExecution, fingerprints,
+                                      recorder.newBuildContext() );
+                        }
+                        catch ( Throwable t )
+                        {
+                            failures[index] = t;
+                        }
+
+                        if ( failures[index] != null )
+                        {
+                            synchronized ( state )
+                            {
+                                if ( state[1] < 0 || index < state[1] )
+                                {
+                                    state[1] = index;
+                                }
+                            }
+                        }
+                    }
+                }
+            };
+            workers[i].setDaemon( true );
+            workers[i].start();
+        }
+
+        for ( int i = 0; i < workers.length; i++ )
+        {
+            try
+            {
+                workers[i].join();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new MavenFilteringException( "Interrupted while copying resources", e );
+            }
+        }
+
+        for ( int i = 0; i < copies.size(); i++ )
+        {
+            if ( failures[i] instanceof MavenFilteringException )
+            {
+                throw (MavenFilteringException) failures[i];
+            }
+            else if ( failures[i] instanceof RuntimeException )
+            {
+                throw (RuntimeException) failures[i];
+            }
+            else if ( failures[i] instanceof Error )
+            {
+                throw (Error) failures[i];
+            }
+            if ( refreshed[i] != null )
+            {
+                for ( Iterator j = refreshed[i].iterator(); j.hasNext(); )
+                {
+                    buildContext.refresh( (File) j.next() );
+                }
+            }
+        }
+    }
+
+    private File getDestinationFile( File outputDirectory, String targetPath, String name, Set createdDirectories )
     {
       String destination = name;
 
@@ -309,9 +559,10 @@ public class DefaultMavenResourcesFiltering
           destinationFile = new File( outputDirectory, destination );
       }                
       
-      if ( !destinationFile.getParentFile().exists() )
+      File parent = destinationFile.getParentFile();
+      if ( createdDirectories.add( parent ) && !parent.exists() )
       {
-          destinationFile.getParentFile().mkdirs();
+          parent.mkdirs();
       }
       return destinationFile;
     }
@@ -402,4 +653,67 @@ public class DefaultMavenResourcesFiltering
         return relOutDir;
     }
 
+    /**
+     * A file of a resource to copy, filtered or not.
+     */
+    private static final class FileCopy
+    {
+        final File source;
+
+        final File destination;
+
+        final boolean filtering;
+
+        FileCopy( File source, File destination, boolean filtering )
+        {
+            this.source = source;
+            this.destination = destination;
+            this.filtering = filtering;
+        }
+    }
+
+    /**
+     * The build context of a single copy done by a copy thread: records the refreshed files, to be replayed by the
+     * thread which started the copies, and delegates the other calls.
+     */
+    private static final class RefreshRecorder
+        implements InvocationHandler
+    {
+        private final BuildContext delegate;
+
+        final List refreshed = new ArrayList( 1 );
+
+        RefreshRecorder( BuildContext delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        BuildContext newBuildContext()
+        {
+            return (BuildContext) Proxy.newProxyInstance( BuildContext.class.getClassLoader(),
+                                                          new Class[] { BuildContext.class }, this );
+        }
+
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            if ( "refresh".equals( method.getName() ) && args != null && args.length == 1 )
+            {
+                refreshed.add( args[0] );
+                return null;
+            }
+            try
+            {
+                synchronized ( delegate )
+                {
+                    return method.invoke( delegate, args );
+                }
+            }
+            catch ( InvocationTargetException e )
+            {
+                throw e.getTargetException();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,193 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+
+import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
+import org.codehaus.plexus.interpolation.ValueSource;
+
+/**
+ * Caches the resolved content of filter files and the {@link ValueSource} built from the resulting filter
+ * properties, so the filters shared by the modules of a build are only read once per session.
+ * <p>
+ * A filter file is looked up by its path, last modification date and size, plus the properties used to resolve the
+ * expressions it contains. The returned {@link Properties} are shared and must not be modified.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+public class FilterPropertiesCache
+{
+    /** Maximum number of filter files kept in the cache. */
+    public static final int MAX_FILTER_FILES = 1000;
+
+    /** Maximum number of filter properties value sources kept in the cache. */
+    public static final int MAX_VALUE_SOURCES = 100;
+
+    private final Map filterFiles = new LruMap( MAX_FILTER_FILES );
+
+    private final Map valueSources = new LruMap( MAX_VALUE_SOURCES );
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * Same as {@link PropertyUtils#loadPropertyFile(File, Properties)}, but returns the cached result if the file and
+     * the base properties did not change since it was loaded.
+     *
+     * @param propFile The property file to load.
+     * @param baseProps Properties containing the initial values to substitute into the properties file.
+     * @return Properties object containing the properties in the file with their values fully resolved, which must not
+     *         be modified.
+     * @throws IOException if profile does not exist, or cannot be read.
+     */
+    public Properties loadPropertyFile( File propFile, Properties baseProps )
+        throws IOException
+    {
+        if ( baseProps == null )
+        {
+            baseProps = new Properties();
+        }
+
+        FilterFileKey key = new FilterFileKey( propFile, baseProps );
+
+        synchronized ( this )
+        {
+            FilterFileEntry entry = (FilterFileEntry) filterFiles.get( key );
+            if ( entry != null && entry.baseProps.equals( baseProps ) )
+            {
+                hitCount++;
+                return entry.properties;
+            }
+            missCount++;
+        }
+
+        Properties properties = PropertyUtils.loadPropertyFile( propFile, baseProps );
+
+        Properties basePropsCopy = new Properties();
+        basePropsCopy.putAll( baseProps );
+
+        synchronized ( this )
+        {
+            filterFiles.put( key, new FilterFileEntry( basePropsCopy, properties ) );
+        }
+        return properties;
+    }
+
+    /**
+     * @param filterProperties the resolved filter properties, which must not be modified afterwards.
+     * @return a {@link PropertiesBasedValueSource} on properties equal to <code>filterProperties</code>.
+     */
+    public synchronized ValueSource getValueSource( Properties filterProperties )
+    {
+        ValueSource valueSource = (ValueSource) valueSources.get( filterProperties );
+        if ( valueSource != null )
+        {
+            hitCount++;
+            return valueSource;
+        }
+        missCount++;
+
+        valueSource = new PropertiesBasedValueSource( filterProperties );
+        valueSources.put( filterProperties, valueSource );
+        return valueSource;
+    }
+
+    /**
+     * @return number of lookups answered from the cache.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return number of lookups which had to load a filter file or build a value source.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    public synchronized void clear()
+    {
+        filterFiles.clear();
+        valueSources.clear();
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    private static final class FilterFileKey
+    {
+        private final String path;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final int basePropsHash;
+
+        FilterFileKey( File file, Properties baseProps )
+        {
+            this.path = file.getAbsolutePath();
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.basePropsHash = baseProps.hashCode();
+        }
+
+        public boolean equals( Object obj )
+        {
+            if ( !( obj instanceof FilterFileKey ) )
+            {
+                return false;
+            }
+            FilterFileKey other = (FilterFileKey) obj;
+            return path.equals( other.path ) && lastModified == other.lastModified && length == other.length
+                && basePropsHash == other.basePropsHash;
+        }
+
+        public int hashCode()
+        {
+            int hash = path.hashCode();
+            hash = 31 * hash + (int) ( lastModified ^ ( lastModified >>> 32 ) );
+            hash = 31 * hash + (int) ( length ^ ( length >>> 32 ) );
+            return 31 * hash + basePropsHash;
+        }
+    }
+
+    private static final class FilterFileEntry
+    {
+        final Properties baseProps;
+
+        final Properties properties;
+
+        FilterFileEntry( Properties baseProps, Properties properties )
+        {
+            this.baseProps = baseProps;
+            this.properties = properties;
+        }
+    }
+}
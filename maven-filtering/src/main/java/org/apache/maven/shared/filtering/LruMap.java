@@ -0,0 +1,49 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link LinkedHashMap} in access order which drops its least recently used entry above a maximum size.
+ * Not synchronized.
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+class LruMap
+    extends LinkedHashMap
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    LruMap( int maxSize )
+    {
+        super( 16, 0.75f, true );
+        this.maxSize = maxSize;
+    }
+
+    protected boolean removeEldestEntry( Map.Entry eldest )
+    {
+        return size() > maxSize;
+    }
+}
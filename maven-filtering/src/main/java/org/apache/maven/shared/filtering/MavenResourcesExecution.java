@@ -42,6 +42,30 @@ import org.codehaus.plexus.util.FileUtils.FilterWrapper;
 public class MavenResourcesExecution
     extends AbstractMavenFilteringRequest
 {
+
+    /**
+     * Copy mode of the files which are not filtered: read and written as streams.
+     *
+     * @since 1.1
+     */
+    public static final String COPY_MODE_STREAM = "stream";
+
+    /**
+     * Copy mode of the files which are not filtered: bytes transferred between file channels, which lets the
+     * operating system copy them without going through the JVM heap.
+     *
+     * @since 1.1
+     */
+    public static final String COPY_MODE_CHANNEL = "channel";
+
+    /**
+     * Copy mode of the files which are not filtered: the destination is a hard link to the source, falling back to
+     * {@link #COPY_MODE_CHANNEL} when the file system, or the JVM before Java 7, does not support it. The output files
+     * must then never be modified in place, as this would modify the resources too.
+     *
+     * @since 1.1
+     */
+    public static final String COPY_MODE_LINK = "link";
    
     /** @see org.apache.maven.model.Resource  */
     private List resources;
@@ -78,6 +102,36 @@ public class MavenResourcesExecution
      * @since 1.0
      */
     private boolean supportMultiLineFiltering;    
+
+    /**
+     * Number of threads used to copy and filter the files of a resource.
+     * <code>1</code> by default: files are copied on the calling thread.
+     *
+     * @since 1.1
+     */
+    private int threadCount = 1;
+
+    /**
+     * Do not copy again the files whose source content, encoding and filtering values did not change
+     * since the previous execution.
+     *
+     * @since 1.1
+     */
+    private boolean skipUnchanged = false;
+
+    /**
+     * Where the fingerprints used by <code>skipUnchanged</code> are stored.
+     *
+     * @since 1.1
+     */
+    private File fingerprintsFile;
+
+    /**
+     * How the files which are not filtered are copied.
+     *
+     * @since 1.1
+     */
+    private String copyMode = COPY_MODE_STREAM;
     
     public MavenResourcesExecution()
     {
@@ -373,6 +427,10 @@ public class MavenResourcesExecution
         mre.setResourcesBaseDirectory( mre.getResourcesBaseDirectory() );
         mre.setUseDefaultFilterWrappers( mre.isUseDefaultFilterWrappers() );
         mre.setSupportMultiLineFiltering( mre.isSupportMultiLineFiltering() );
+        mre.setThreadCount( getThreadCount() );
+        mre.setSkipUnchanged( isSkipUnchanged() );
+        mre.setFingerprintsFile( getFingerprintsFile() );
+        mre.setCopyMode( getCopyMode() );
         return mre;
     }
    
@@ -401,4 +459,101 @@ public class MavenResourcesExecution
     {
         this.supportMultiLineFiltering = supportMultiLineFiltering;
     }
+
+    /**
+     * Number of threads used to copy and filter the files of a resource.
+     *
+     * @since 1.1
+     */
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    /**
+     * Number of threads used to copy and filter the files of a resource. With more than one thread the filter
+     * wrappers are used concurrently so they must be thread safe, the default filter wrappers are.
+     *
+     * @param threadCount values lower than <code>1</code> are handled as <code>1</code>
+     * @since 1.1
+     */
+    public void setThreadCount( int threadCount )
+    {
+        this.threadCount = Math.max( 1, threadCount );
+    }
+
+    /**
+     * Do not copy again the files whose source content, encoding and filtering values did not change since the
+     * previous execution. The values of the expressions found in a filtered file are recorded with its fingerprint
+     * and resolved again to check the file is unchanged; files filtered with other filter wrappers than the default
+     * ones are always copied.
+     *
+     * @since 1.1
+     */
+    public boolean isSkipUnchanged()
+    {
+        return skipUnchanged;
+    }
+
+    /**
+     * @param skipUnchanged
+     * @see #isSkipUnchanged()
+     * @since 1.1
+     */
+    public void setSkipUnchanged( boolean skipUnchanged )
+    {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * @return the file storing the fingerprints used by {@link #isSkipUnchanged()}, if <code>null</code> a file
+     *         named after the output directory is used, in the project build directory or next to the output
+     *         directory.
+     * @since 1.1
+     */
+    public File getFingerprintsFile()
+    {
+        return fingerprintsFile;
+    }
+
+    /**
+     * @param fingerprintsFile
+     * @since 1.1
+     */
+    public void setFingerprintsFile( File fingerprintsFile )
+    {
+        this.fingerprintsFile = fingerprintsFile;
+    }
+
+    /**
+     * @return how the files which are not filtered are copied, {@link #COPY_MODE_STREAM} by default.
+     * @since 1.1
+     */
+    public String getCopyMode()
+    {
+        return copyMode;
+    }
+
+    /**
+     * @param copyMode {@link #COPY_MODE_STREAM}, {@link #COPY_MODE_CHANNEL} or {@link #COPY_MODE_LINK},
+     *            <code>null</code> for the default one.
+     * @throws IllegalArgumentException if <code>copyMode</code> is not one of the above
+     * @since 1.1
+     */
+    public void setCopyMode( String copyMode )
+    {
+        if ( copyMode == null )
+        {
+            this.copyMode = COPY_MODE_STREAM;
+        }
+        else if ( COPY_MODE_STREAM.equals( copyMode ) || COPY_MODE_CHANNEL.equals( copyMode )
+            || COPY_MODE_LINK.equals( copyMode ) )
+        {
+            this.copyMode = copyMode;
+        }
+        else
+        {
+            throw new IllegalArgumentException( "Unknown copy mode: " + copyMode );
+        }
+    }
 }
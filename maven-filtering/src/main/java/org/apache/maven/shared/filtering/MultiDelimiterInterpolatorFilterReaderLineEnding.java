@@ -88,6 +88,30 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
     private boolean supportMultiLineFiltering;
     
     private int preserveChar = -1;
+
+    /** Default size of the block buffer used when {@link #isBlockBuffered()} is <code>true</code>. */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** if true the underlying reader is consumed in blocks and non-token spans are copied in bulk */
+    private boolean blockBuffered = false;
+
+    /** block buffer on the underlying reader, only used in block buffered mode */
+    private char[] inBuffer;
+
+    /** Index of the next character to consume in inBuffer */
+    private int inPos = 0;
+
+    /** Number of valid characters in inBuffer */
+    private int inLimit = 0;
+
+    /** Characters which may start a token or an escape sequence, rebuilt lazily when delimiters change */
+    private char[] tokenStarts;
+
+    /** Fast lookup of tokenStarts for ASCII characters */
+    private boolean[] asciiTokenStarts;
+
+    /** reused for every token to avoid a new buffer per expression */
+    private final StringBuffer key = new StringBuffer();
     
     /**
      * This constructor uses default begin token ${ and default end token }.
@@ -129,12 +153,14 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
     
     public boolean removeDelimiterSpec( String delimiterSpec )
     {
+        tokenStarts = null;
         return delimiters.remove( DelimiterSpecification.parse( delimiterSpec ) );
     }
     
     public MultiDelimiterInterpolatorFilterReaderLineEnding setDelimiterSpecs( HashSet specs )
     {
         delimiters.clear();
+        tokenStarts = null;
         for ( Iterator it = specs.iterator(); it.hasNext(); )
         {
             String spec = (String) it.next();
@@ -184,6 +210,10 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
     public int read( char cbuf[], int off, int len )
         throws IOException
     {
+        if ( blockBuffered )
+        {
+            return readBlock( cbuf, off, len );
+        }
         for ( int i = 0; i < len; i++ )
         {
             int ch = read();
@@ -203,6 +233,173 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         return len;
     }
 
+    /**
+     * Block buffered variant of {@link #read(char[], int, int)}: pending replacement data and spans of the buffered
+     * input which cannot start a token are copied in bulk, only token candidates go through {@link #read()}.
+     */
+    private int readBlock( char cbuf[], int off, int len )
+        throws IOException
+    {
+        int count = 0;
+        while ( count < len )
+        {
+            if ( replaceIndex != -1 && replaceIndex < replaceData.length() )
+            {
+                int n = Math.min( len - count, replaceData.length() - replaceIndex );
+                replaceData.getChars( replaceIndex, replaceIndex + n, cbuf, off + count );
+                replaceIndex += n;
+                if ( replaceIndex >= replaceData.length() )
+                {
+                    replaceIndex = -1;
+                }
+                count += n;
+                continue;
+            }
+
+            // same condition as read() uses to decide it takes its next character from the underlying reader
+            if ( preserveChar < 0 && ( previousIndex == -1 || previousIndex >= this.endToken.length() )
+                && ( inPos < inLimit || fillBuffer() ) )
+            {
+                if ( tokenStarts == null )
+                {
+                    computeTokenStarts();
+                }
+                int end = Math.min( inLimit, inPos + len - count );
+                int pos = inPos;
+                boolean newLine = false;
+                while ( pos < end && !isTokenStart( inBuffer[pos] ) )
+                {
+                    if ( inBuffer[pos] == '\n' )
+                    {
+                        newLine = true;
+                    }
+                    pos++;
+                }
+                if ( pos > inPos )
+                {
+                    System.arraycopy( inBuffer, inPos, cbuf, off + count, pos - inPos );
+                    count += pos - inPos;
+                    inPos = pos;
+                    if ( newLine && !supportMultiLineFiltering )
+                    {
+                        previousIndex = -1;
+                    }
+                    continue;
+                }
+            }
+
+            int ch = read();
+            if ( ch == -1 )
+            {
+                return count == 0 ? -1 : count;
+            }
+            cbuf[off + count++] = (char) ch;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the next character of the underlying reader, from the block buffer when block buffered.
+     */
+    private int readInput()
+        throws IOException
+    {
+        if ( !blockBuffered )
+        {
+            return in.read();
+        }
+        if ( inPos >= inLimit && !fillBuffer() )
+        {
+            return -1;
+        }
+        return inBuffer[inPos++];
+    }
+
+    /**
+     * @return <code>false</code> if the underlying reader reached its end
+     */
+    private boolean fillBuffer()
+        throws IOException
+    {
+        int n;
+        do
+        {
+            n = in.read( inBuffer, 0, inBuffer.length );
+        }
+        while ( n == 0 );
+
+        inPos = 0;
+        inLimit = n < 0 ? 0 : n;
+        return n > 0;
+    }
+
+    private void computeTokenStarts()
+    {
+        StringBuffer starts = new StringBuffer();
+        if ( useEscape )
+        {
+            starts.append( escapeString.charAt( 0 ) );
+        }
+        for ( Iterator it = delimiters.iterator(); it.hasNext(); )
+        {
+            DelimiterSpecification spec = (DelimiterSpecification) it.next();
+            starts.append( spec.getBegin().charAt( 0 ) );
+        }
+
+        boolean[] ascii = new boolean[128];
+        for ( int i = 0; i < starts.length(); i++ )
+        {
+            char c = starts.charAt( i );
+            if ( c < 128 )
+            {
+                ascii[c] = true;
+            }
+        }
+        asciiTokenStarts = ascii;
+        tokenStarts = starts.toString().toCharArray();
+    }
+
+    private boolean isTokenStart( char c )
+    {
+        if ( c < 128 )
+        {
+            return asciiTokenStarts[c];
+        }
+        for ( int i = 0; i < tokenStarts.length; i++ )
+        {
+            if ( tokenStarts[i] == c )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean ready()
+        throws IOException
+    {
+        if ( blockBuffered && ( inPos < inLimit || ( replaceIndex != -1 && replaceIndex < replaceData.length() ) ) )
+        {
+            return true;
+        }
+        return super.ready();
+    }
+
+    public boolean markSupported()
+    {
+        return !blockBuffered && super.markSupported();
+    }
+
+    public void mark( int readAheadLimit )
+        throws IOException
+    {
+        if ( blockBuffered )
+        {
+            throw new IOException( "mark() not supported in block buffered mode" );
+        }
+        super.mark( readAheadLimit );
+    }
+
     /**
      * Returns the next character in the filtered stream, replacing tokens from the original stream.
      *
@@ -236,7 +433,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         }
         else
         {
-            ch = in.read();
+            ch = readInput();
         }
         if ( ch == '\n' && !supportMultiLineFiltering )
         {
@@ -247,7 +444,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         
         if ( ( inEscape = ( useEscape && ch == escapeString.charAt( 0 ) ) ) || reselectDelimiterSpec( ch ) )
         {
-            StringBuffer key = new StringBuffer( );
+            key.setLength( 0 );
 
             key.append( (char) ch );
             
@@ -258,7 +455,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
             {
                 for ( int i = 0; i < escapeString.length() - 1; i++ )
                 {
-                    ch = in.read();
+                    ch = readInput();
                     if ( ch == -1 || ( ch == '\n' && !supportMultiLineFiltering ) )
                     {
                         atEnd = true;
@@ -270,7 +467,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
                 
                 if ( !atEnd )
                 {
-                    ch = in.read();
+                    ch = readInput();
                     if ( !reselectDelimiterSpec( ch ) )
                     {
                         // here we are after the escape but didn't found the a startToken
@@ -303,7 +500,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
                 }
                 else
                 {
-                    ch = in.read();
+                    ch = readInput();
                 }
                 if ( ch == '\n' && !supportMultiLineFiltering )
                 {
@@ -343,7 +540,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
                     }
                     else
                     {
-                        ch = in.read();
+                        ch = readInput();
                     }
 
                     if ( ch != -1 )
@@ -477,6 +674,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         {
             this.escapeString = escapeString;
             this.useEscape = escapeString != null && escapeString.length() >= 1;
+            this.tokenStarts = null;
         }
     }
 
@@ -490,6 +688,33 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         this.preserveEscapeString = preserveEscapeString;
     }
 
+    /**
+     * @return <code>true</code> if the underlying reader is consumed through a block buffer
+     * @since 1.1
+     */
+    public boolean isBlockBuffered()
+    {
+        return blockBuffered;
+    }
+
+    /**
+     * When enabled, the underlying reader is consumed in blocks of {@link #DEFAULT_BUFFER_SIZE} characters and
+     * {@link #read(char[], int, int)} copies the spans which cannot contain a token in bulk. The output is the same as
+     * in the default mode, but the underlying reader is read ahead so <code>mark()</code> is no longer supported.
+     * Must be called before the first read.
+     *
+     * @param blockBuffered
+     * @since 1.1
+     */
+    public void setBlockBuffered( boolean blockBuffered )
+    {
+        this.blockBuffered = blockBuffered;
+        if ( blockBuffered && inBuffer == null )
+        {
+            inBuffer = new char[DEFAULT_BUFFER_SIZE];
+        }
+    }
+
     public RecursionInterceptor getRecursionInterceptor()
     {
         return recursionInterceptor;
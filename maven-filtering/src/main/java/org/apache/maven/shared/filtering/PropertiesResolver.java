@@ -0,0 +1,399 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Resolves the <code>${key}</code> references of a set of properties, with the semantics of
+ * {@link PropertyUtils#loadPropertyFile(java.io.File, Properties)}: unknown keys fall back to the System properties,
+ * unresolved references are left alone, as are references to the key being resolved.
+ * <p>
+ * Each value is parsed once into literals and references. The references are walked depth first, which detects the
+ * cycles and resolves every property whose references are acyclic once, in topological order; those results are
+ * shared by all the keys referencing them. Only properties involved in a cycle are resolved for each key. Values
+ * containing an unclosed <code>${</code> or ending with <code>$</code>, and the properties reaching them, are resolved
+ * by reparsing the substituted text, since their expansion may form a new reference with the text following it.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+final class PropertiesResolver
+{
+    private static final int NEW = 0;
+
+    private static final int VISITING = 1;
+
+    private static final int DONE = 2;
+
+    private final Properties properties;
+
+    /** key to {@link Node}, or to {@link #UNRESOLVED} when neither a property nor a System property */
+    private final Map nodes = new HashMap();
+
+    private static final Object UNRESOLVED = new Object();
+
+    /** raw values of the visited nodes, a key found there is resolved on its own */
+    private final Set rawValues = new HashSet();
+
+    PropertiesResolver( Properties properties )
+    {
+        this.properties = properties;
+    }
+
+    /**
+     * @param key a key of the properties
+     * @return the value of <code>key</code> with its references resolved
+     */
+    String resolve( String key )
+    {
+        Node node = getNode( key );
+        if ( node == null )
+        {
+            return null;
+        }
+
+        visit( node );
+
+        if ( !node.cyclic && !node.reparsed && !rawValues.contains( key ) )
+        {
+            return node.resolved;
+        }
+
+        StringBuffer value = new StringBuffer( node.value.length() );
+        if ( node.reparsed || !expand( node, key, value, new HashSet() ) )
+        {
+            return getPropertyValue( key, properties );
+        }
+        return value.toString();
+    }
+
+    private Node getNode( String key )
+    {
+        Object node = nodes.get( key );
+        if ( node == null )
+        {
+            String value = properties.getProperty( key );
+
+            // try global environment..
+            if ( value == null && !StringUtils.isEmpty( key ) )
+            {
+                value = System.getProperty( key );
+            }
+
+            if ( value == null )
+            {
+                node = UNRESOLVED;
+            }
+            else
+            {
+                node = new Node( value );
+                rawValues.add( value );
+            }
+            nodes.put( key, node );
+        }
+        return node == UNRESOLVED ? null : (Node) node;
+    }
+
+    /**
+     * Depth first walk of the references of <code>root</code>, with an explicit stack so long reference chains can't
+     * overflow the thread stack.
+     */
+    private void visit( Node root )
+    {
+        if ( root.state == DONE )
+        {
+            return;
+        }
+
+        List stack = new ArrayList();
+        root.state = VISITING;
+        stack.add( root );
+
+        while ( !stack.isEmpty() )
+        {
+            Node node = (Node) stack.get( stack.size() - 1 );
+
+            boolean pushed = false;
+            while ( node.next < node.parts.length && !pushed )
+            {
+                Object part = node.parts[node.next];
+                if ( part instanceof Reference )
+                {
+                    Node child = getNode( ( (Reference) part ).key );
+                    if ( child != null )
+                    {
+                        if ( child.state == NEW )
+                        {
+                            child.state = VISITING;
+                            stack.add( child );
+                            pushed = true;
+                            // come back to this reference once the child is done
+                            continue;
+                        }
+                        else if ( child.state == VISITING )
+                        {
+                            node.cyclic = true;
+                        }
+                        else
+                        {
+                            node.cyclic |= child.cyclic;
+                            node.reparsed |= child.reparsed;
+                        }
+                    }
+                }
+                node.next++;
+            }
+
+            if ( !pushed )
+            {
+                stack.remove( stack.size() - 1 );
+                node.state = DONE;
+                if ( !node.cyclic && !node.reparsed )
+                {
+                    node.resolved = resolveAcyclic( node );
+                }
+            }
+        }
+    }
+
+    /**
+     * All the references of <code>node</code> are acyclic and already resolved.
+     */
+    private String resolveAcyclic( Node node )
+    {
+        if ( node.parts.length == 1 && node.parts[0] instanceof String )
+        {
+            return (String) node.parts[0];
+        }
+
+        StringBuffer value = new StringBuffer( node.value.length() );
+        for ( int i = 0; i < node.parts.length; i++ )
+        {
+            Object part = node.parts[i];
+            if ( part instanceof Reference )
+            {
+                Node child = getNode( ( (Reference) part ).key );
+                if ( child == null )
+                {
+                    value.append( "${" ).append( ( (Reference) part ).key ).append( '}' );
+                }
+                else
+                {
+                    value.append( child.resolved );
+                }
+            }
+            else
+            {
+                value.append( (String) part );
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Resolves <code>node</code> in the context of <code>key</code>: references to <code>key</code>, or to a property
+     * whose value is <code>key</code>, are left alone, as are references closing a cycle.
+     *
+     * @return <code>false</code> if a value to reparse was reached, in which case <code>value</code> must
+     *         be ignored
+     */
+    private boolean expand( Node node, String key, StringBuffer value, Set active )
+    {
+        if ( node.reparsed )
+        {
+            // only possible within a cycle, the flag is not propagated through it
+            return false;
+        }
+        active.add( node );
+        for ( int i = 0; i < node.parts.length; i++ )
+        {
+            Object part = node.parts[i];
+            if ( part instanceof Reference )
+            {
+                String childKey = ( (Reference) part ).key;
+                Node child = getNode( childKey );
+                if ( child == null || child.value.equals( key ) || key.equals( childKey ) || active.contains( child ) )
+                {
+                    value.append( "${" ).append( childKey ).append( '}' );
+                }
+                else if ( !child.cyclic && !child.reparsed && !rawValues.contains( key ) )
+                {
+                    // acyclic so can't reach key, which would be part of a cycle
+                    value.append( child.resolved );
+                }
+                else if ( !expand( child, key, value, active ) )
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                value.append( (String) part );
+            }
+        }
+        active.remove( node );
+        return true;
+    }
+
+    /**
+     * Retrieves a property value, replacing values like ${token}
+     * using the Properties to look them up.
+     *
+     * It will leave unresolved properties alone, trying for System
+     * properties, and implements reparsing (in the case that
+     * the value of a property contains a key), and will
+     * not loop endlessly on a pair like
+     * test = ${test}.
+     *
+     * Only used for values reaching an unclosed ${ or a trailing $, where the parsed form does not apply.
+     *
+     * @param k
+     * @param p
+     * @return The filtered property value.
+     */
+    private static String getPropertyValue( String k, Properties p )
+    {
+        // This can also be done using InterpolationFilterReader,
+        // but it requires reparsing the file over and over until
+        // it doesn't change.
+
+        String v = p.getProperty( k );
+        StringBuffer ret = new StringBuffer();
+        int idx, idx2;
+
+        while ( ( idx = v.indexOf( "${" ) ) >= 0 )
+        {
+            // append prefix to result
+            ret.append( v.substring( 0, idx ) );
+
+            // strip prefix from original
+            v = v.substring( idx + 2 );
+
+            // if no matching } then bail
+            if ( ( idx2 = v.indexOf( '}' ) ) < 0 )
+            {
+                break;
+            }
+
+            // strip out the key and resolve it
+            // resolve the key/value for the ${statement}
+            String nk = v.substring( 0, idx2 );
+            v = v.substring( idx2 + 1 );
+            String nv = p.getProperty( nk );
+
+            // try global environment..
+            if ( nv == null && !StringUtils.isEmpty( nk ) )
+            {
+                nv = System.getProperty( nk );
+            }
+
+            // if the key cannot be resolved,
+            // leave it alone ( and don't parse again )
+            // else prefix the original string with the
+            // resolved property ( so it can be parsed further )
+            // taking recursion into account.
+            if ( nv == null || nv.equals( k ) || k.equals( nk ) )
+            {
+                ret.append( "${" ).append( nk ).append( '}' );
+            }
+            else
+            {
+                v = nv + v;
+            }
+        }
+        return ret.append( v ).toString();
+    }
+
+    private static final class Reference
+    {
+        final String key;
+
+        Reference( String key )
+        {
+            this.key = key;
+        }
+    }
+
+    private static final class Node
+    {
+        final String value;
+
+        /** {@link String} literals and {@link Reference}s, in order */
+        final Object[] parts;
+
+        /** true if a value with an unclosed ${, or ending with $, is reachable from this node */
+        boolean reparsed;
+
+        /** true if a cycle is reachable from this node */
+        boolean cyclic;
+
+        int state = NEW;
+
+        /** index of the next part to visit */
+        int next;
+
+        /** resolved value, when neither cyclic nor reparsed */
+        String resolved;
+
+        Node( String value )
+        {
+            this.value = value;
+
+            List parts = new ArrayList();
+            int start = 0;
+            int idx;
+            while ( ( idx = value.indexOf( "${", start ) ) >= 0 )
+            {
+                int end = value.indexOf( '}', idx + 2 );
+                if ( end < 0 )
+                {
+                    reparsed = true;
+                    break;
+                }
+                if ( idx > start )
+                {
+                    parts.add( value.substring( start, idx ) );
+                }
+                parts.add( new Reference( value.substring( idx + 2, end ) ) );
+                start = end + 1;
+            }
+            // a trailing $ forms a reference with a { following the expansion
+            if ( value.endsWith( "$" ) )
+            {
+                reparsed = true;
+            }
+            if ( start < value.length() || parts.isEmpty() )
+            {
+                parts.add( value.substring( start ) );
+            }
+            this.parts = parts.toArray();
+        }
+    }
+}
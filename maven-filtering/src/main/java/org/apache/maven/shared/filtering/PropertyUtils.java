@@ -20,7 +20,6 @@ package org.apache.maven.shared.filtering;
  */
 
 import org.codehaus.plexus.util.IOUtil;
-import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -89,10 +88,11 @@ public final class PropertyUtils
         // as can be verified by replacing the implementation of #loadPropertyFile(File, boolean, boolean)
         // with the commented variant I have provided that reuses this method.
 
+        final PropertiesResolver resolver = new PropertiesResolver( combinedProps );
         for ( Iterator iter = fileProps.keySet().iterator(); iter.hasNext(); )
         {
             final String k = (String) iter.next();
-            final String propValue = getPropertyValue( k, combinedProps );
+            final String propValue = resolver.resolve( k );
             fileProps.setProperty( k, propValue );
         }
 
@@ -139,72 +139,4 @@ public final class PropertyUtils
 
         return resolvedProps;
     }
-
-
-    /**
-     * Retrieves a property value, replacing values like ${token}
-     * using the Properties to look them up.
-     *
-     * It will leave unresolved properties alone, trying for System
-     * properties, and implements reparsing (in the case that
-     * the value of a property contains a key), and will
-     * not loop endlessly on a pair like
-     * test = ${test}.
-     *
-     * @param k
-     * @param p
-     * @return The filtered property value.
-     */
-    private static String getPropertyValue( String k, Properties p )
-    {
-        // This can also be done using InterpolationFilterReader,
-        // but it requires reparsing the file over and over until
-        // it doesn't change.
-
-        String v = p.getProperty( k );
-        String ret = "";
-        int idx, idx2;
-
-        while ( ( idx = v.indexOf( "${" ) ) >= 0 )
-        {
-            // append prefix to result
-            ret += v.substring( 0, idx );
-
-            // strip prefix from original
-            v = v.substring( idx + 2 );
-
-            // if no matching } then bail
-            if ( ( idx2 = v.indexOf( '}' ) ) < 0 )
-            {
-                break;
-            }
-
-            // strip out the key and resolve it
-            // resolve the key/value for the ${statement}
-            String nk = v.substring( 0, idx2 );
-            v = v.substring( idx2 + 1 );
-            String nv = p.getProperty( nk );
-
-            // try global environment..
-            if ( nv == null && !StringUtils.isEmpty( nk ) )
-            {
-                nv = System.getProperty( nk );
-            }
-
-            // if the key cannot be resolved,
-            // leave it alone ( and don't parse again )
-            // else prefix the original string with the
-            // resolved property ( so it can be parsed further )
-            // taking recursion into account.
-            if ( nv == null || nv.equals( k ) || k.equals( nk ) )
-            {
-                ret += "${" + nk + "}";
-            }
-            else
-            {
-                v = nv + v;
-            }
-        }
-        return ret + v;
-    }
 }
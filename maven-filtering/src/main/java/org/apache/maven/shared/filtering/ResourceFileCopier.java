@@ -0,0 +1,211 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Copies the files which are not filtered without going through a character stream: the bytes are transferred
+ * between file channels, or the destination is a hard link to the source.
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+final class ResourceFileCopier
+{
+    /** Maximum number of bytes transferred by a single <code>FileChannel.transferTo</code> call. */
+    private static final long MAX_TRANSFER_SIZE = 64 * 1024 * 1024;
+
+    /** <code>java.nio.file.Files.createLink(Path, Path)</code>, <code>null</code> before Java 7 */
+    private static final Method CREATE_LINK;
+
+    /** <code>java.io.File.toPath()</code>, <code>null</code> before Java 7 */
+    private static final Method TO_PATH;
+
+    static
+    {
+        Method createLink = null;
+        Method toPath = null;
+        try
+        {
+            Class pathClass = Class.forName( "java.nio.file.Path" );
+            Class filesClass = Class.forName( "java.nio.file.Files" );
+            createLink = filesClass.getMethod( "createLink", new Class[] { pathClass, pathClass } );
+            toPath = File.class.getMethod( "toPath", new Class[0] );
+        }
+        catch ( ClassNotFoundException e )
+        {
+            createLink = null;
+        }
+        catch ( NoSuchMethodException e )
+        {
+            createLink = null;
+        }
+        CREATE_LINK = toPath != null ? createLink : null;
+        TO_PATH = toPath;
+    }
+
+    private ResourceFileCopier()
+    {
+        // no op
+    }
+
+    /**
+     * Same as <code>FileUtils.copyFile( from, to, encoding, new FileUtils.FilterWrapper[0], overwrite )</code>,
+     * using the given copy mode.
+     *
+     * @param from the source file
+     * @param to the destination file
+     * @param overwrite copy even if <code>to</code> is newer than <code>from</code>
+     * @param copyMode {@link MavenResourcesExecution#COPY_MODE_CHANNEL} or
+     *            {@link MavenResourcesExecution#COPY_MODE_LINK}
+     * @return <code>true</code> if <code>to</code> was written
+     * @throws IOException
+     */
+    static boolean copyFile( File from, File to, boolean overwrite, String copyMode )
+        throws IOException
+    {
+        if ( !from.exists() )
+        {
+            throw new IOException( "File " + from + " does not exist" );
+        }
+        if ( !overwrite && to.lastModified() >= from.lastModified() )
+        {
+            return false;
+        }
+        if ( from.getCanonicalPath().equals( to.getCanonicalPath() ) )
+        {
+            return false;
+        }
+
+        File parent = to.getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        if ( MavenResourcesExecution.COPY_MODE_LINK.equals( copyMode ) && link( from, to ) )
+        {
+            return true;
+        }
+
+        transfer( from, to );
+        return true;
+    }
+
+    /**
+     * Deletes a destination about to be written, so that it is replaced rather than written through: a previous copy
+     * in {@link MavenResourcesExecution#COPY_MODE_LINK} mode may have left it as a hard link to its source, which
+     * writing to would rewrite the source too.
+     *
+     * @param from the source file
+     * @param to the destination file
+     * @throws IOException if the destination cannot be deleted
+     */
+    static void replaceDestination( File from, File to )
+        throws IOException
+    {
+        if ( to.exists() && !from.getCanonicalPath().equals( to.getCanonicalPath() ) && !to.delete() )
+        {
+            throw new IOException( "Unable to delete " + to );
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the link could not be created, for instance because the files are not on the same
+     *         file system, or hard links are not supported.
+     */
+    private static boolean link( File from, File to )
+    {
+        if ( CREATE_LINK == null )
+        {
+            return false;
+        }
+
+        // the link replaces the destination, it does not write through it
+        if ( to.exists() && !to.delete() )
+        {
+            return false;
+        }
+
+        try
+        {
+            Object link = TO_PATH.invoke( to, new Object[0] );
+            Object existing = TO_PATH.invoke( from, new Object[0] );
+            CREATE_LINK.invoke( null, new Object[] { link, existing } );
+            return true;
+        }
+        catch ( IllegalAccessException e )
+        {
+            return false;
+        }
+        catch ( InvocationTargetException e )
+        {
+            // IOException, UnsupportedOperationException or SecurityException
+            return false;
+        }
+    }
+
+    private static void transfer( File from, File to )
+        throws IOException
+    {
+        replaceDestination( from, to );
+
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        try
+        {
+            in = new FileInputStream( from );
+            out = new FileOutputStream( to );
+            FileChannel source = in.getChannel();
+            FileChannel destination = out.getChannel();
+
+            long size = source.size();
+            long position = 0;
+            while ( position < size )
+            {
+                long count = source.transferTo( position, Math.min( MAX_TRANSFER_SIZE, size - position ), destination );
+                if ( count <= 0 )
+                {
+                    break;
+                }
+                position += count;
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+            IOUtil.close( in );
+        }
+
+        if ( from.length() != to.length() )
+        {
+            throw new IOException( "Failed to copy full contents from " + from + " to " + to );
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Fingerprints of the files copied by a resources execution, persisted between builds, used to skip the files whose
+ * inputs did not change: a destination file is unchanged if it was not modified since it was written, its source
+ * has the same content, it is copied with the same encoding and filter wrappers configuration, and the expressions
+ * it contained still resolve to the same values.
+ * <p>
+ * Only files copied without filtering, or filtered with {@link TrackingFilterWrapper}s only, can be fingerprinted.
+ * </p>
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+class ResourceFingerprints
+{
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+
+    /** destination absolute path to {@link Fingerprint}, guarded by this */
+    private final Map fingerprints = new HashMap();
+
+    /**
+     * @param file the file the fingerprints are stored in.
+     */
+    ResourceFingerprints( File file )
+    {
+        this.file = file;
+    }
+
+    /**
+     * Loads the stored fingerprints, a missing, unreadable or corrupted file is an empty one.
+     */
+    synchronized void load()
+    {
+        fingerprints.clear();
+        if ( !file.isFile() )
+        {
+            return;
+        }
+
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return;
+            }
+            // every count is bounded by the size of the file, so a corrupted one can't allocate more
+            long limit = file.length();
+            int count = readCount( in, limit );
+            for ( int i = 0; i < count; i++ )
+            {
+                String destination = in.readUTF();
+                Fingerprint fingerprint = new Fingerprint();
+                fingerprint.sourceDigest = in.readUTF();
+                fingerprint.destinationLength = in.readLong();
+                fingerprint.destinationLastModified = in.readLong();
+                fingerprint.valuesDigest = in.readUTF();
+                fingerprint.expressions = new String[readCount( in, limit )][];
+                for ( int j = 0; j < fingerprint.expressions.length; j++ )
+                {
+                    fingerprint.expressions[j] = new String[readCount( in, limit )];
+                    for ( int k = 0; k < fingerprint.expressions[j].length; k++ )
+                    {
+                        fingerprint.expressions[j][k] = in.readUTF();
+                    }
+                }
+                fingerprints.put( destination, fingerprint );
+            }
+        }
+        catch ( IOException e )
+        {
+            // start from scratch
+            fingerprints.clear();
+        }
+        catch ( RuntimeException e )
+        {
+            // start from scratch
+            fingerprints.clear();
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * @param limit the maximum count, each counted item taking at least one byte of the file
+     * @return a count read from <code>in</code>
+     * @throws IOException if the count is negative or larger than <code>limit</code>
+     */
+    private static int readCount( DataInputStream in, long limit )
+        throws IOException
+    {
+        int count = in.readInt();
+        if ( count < 0 || count > limit )
+        {
+            throw new IOException( "Corrupted fingerprints: invalid count " + count );
+        }
+        return count;
+    }
+
+    synchronized void store()
+        throws IOException
+    {
+        File parent = file.getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+        try
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeInt( fingerprints.size() );
+            for ( Iterator it = fingerprints.entrySet().iterator(); it.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) it.next();
+                Fingerprint fingerprint = (Fingerprint) entry.getValue();
+                out.writeUTF( (String) entry.getKey() );
+                out.writeUTF( fingerprint.sourceDigest );
+                out.writeLong( fingerprint.destinationLength );
+                out.writeLong( fingerprint.destinationLastModified );
+                out.writeUTF( fingerprint.valuesDigest );
+                out.writeInt( fingerprint.expressions.length );
+                for ( int j = 0; j < fingerprint.expressions.length; j++ )
+                {
+                    out.writeInt( fingerprint.expressions[j].length );
+                    for ( int k = 0; k < fingerprint.expressions[j].length; k++ )
+                    {
+                        out.writeUTF( fingerprint.expressions[j][k] );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * @param filterWrappers the filter wrappers a file is copied with
+     * @return <code>true</code> if the output of <code>filterWrappers</code> can be fingerprinted
+     */
+    static boolean isTrackable( List filterWrappers )
+    {
+        for ( Iterator it = filterWrappers.iterator(); it.hasNext(); )
+        {
+            if ( !( it.next() instanceof TrackingFilterWrapper ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param destination the destination file
+     * @param sourceDigest the {@link #digest(File)} of the source file
+     * @param settings what else than the filter wrappers changes the output, like the encoding
+     * @param filterWrappers {@link TrackingFilterWrapper}s only
+     * @return <code>true</code> if <code>destination</code> is known to be the same as copying the source again would
+     *         give
+     */
+    boolean isUnchanged( File destination, String sourceDigest, String settings, List filterWrappers )
+    {
+        Fingerprint fingerprint;
+        synchronized ( this )
+        {
+            fingerprint = (Fingerprint) fingerprints.get( destination.getAbsolutePath() );
+        }
+
+        if ( fingerprint == null || !fingerprint.sourceDigest.equals( sourceDigest )
+            || fingerprint.destinationLength != destination.length()
+            || fingerprint.destinationLastModified != destination.lastModified()
+            || fingerprint.expressions.length != filterWrappers.size() || !destination.isFile() )
+        {
+            return false;
+        }
+
+        List values = new ArrayList( filterWrappers.size() );
+        for ( int i = 0; i < fingerprint.expressions.length; i++ )
+        {
+            TrackingFilterWrapper wrapper = (TrackingFilterWrapper) filterWrappers.get( i );
+            Map expressions = new TreeMap();
+            for ( int j = 0; j < fingerprint.expressions[i].length; j++ )
+            {
+                String expression = fingerprint.expressions[i][j];
+                try
+                {
+                    expressions.put( expression, wrapper.resolve( expression ) );
+                }
+                catch ( InterpolationException e )
+                {
+                    return false;
+                }
+            }
+            values.add( expressions );
+        }
+
+        return fingerprint.valuesDigest.equals( valuesDigest( settings, filterWrappers, values ) );
+    }
+
+    /**
+     * @param filterWrappers {@link TrackingFilterWrapper}s only
+     * @param values receives one {@link Map} of resolved expressions per wrapper
+     * @return filter wrappers recording their resolved expressions in <code>values</code>
+     */
+    static List recordingWrappers( List filterWrappers, List values )
+    {
+        List recording = new ArrayList( filterWrappers.size() );
+        for ( Iterator it = filterWrappers.iterator(); it.hasNext(); )
+        {
+            final TrackingFilterWrapper wrapper = (TrackingFilterWrapper) it.next();
+            final Map expressions = new TreeMap();
+            values.add( expressions );
+            recording.add( new FileUtils.FilterWrapper()
+            {
+                public Reader getReader( Reader reader )
+                {
+                    return wrapper.getReader( reader, expressions );
+                }
+            } );
+        }
+        return recording;
+    }
+
+    /**
+     * Records the fingerprint of a destination file just written.
+     *
+     * @param values the {@link Map}s filled by the {@link #recordingWrappers(List, List)} used for the copy
+     */
+    void put( File destination, String sourceDigest, String settings, List filterWrappers, List values )
+    {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.sourceDigest = sourceDigest;
+        fingerprint.destinationLength = destination.length();
+        fingerprint.destinationLastModified = destination.lastModified();
+        fingerprint.valuesDigest = valuesDigest( settings, filterWrappers, values );
+        fingerprint.expressions = new String[values.size()][];
+        for ( int i = 0; i < fingerprint.expressions.length; i++ )
+        {
+            Map expressions = (Map) values.get( i );
+            fingerprint.expressions[i] = (String[]) expressions.keySet().toArray( new String[expressions.size()] );
+        }
+
+        synchronized ( this )
+        {
+            fingerprints.put( destination.getAbsolutePath(), fingerprint );
+        }
+    }
+
+    synchronized void remove( File destination )
+    {
+        fingerprints.remove( destination.getAbsolutePath() );
+    }
+
+    /**
+     * @return the hexadecimal MD5 digest of the content of <code>file</code>
+     */
+    static String digest( File file )
+        throws IOException
+    {
+        MessageDigest digest = newDigest();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ( ( n = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, n );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return toHex( digest.digest() );
+    }
+
+    private static String valuesDigest( String settings, List filterWrappers, List values )
+    {
+        MessageDigest digest = newDigest();
+        update( digest, settings );
+        for ( int i = 0; i < values.size(); i++ )
+        {
+            update( digest, ( (TrackingFilterWrapper) filterWrappers.get( i ) ).getConfiguration() );
+            Map expressions = (Map) values.get( i );
+            for ( Iterator it = expressions.entrySet().iterator(); it.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) it.next();
+                update( digest, (String) entry.getKey() );
+                update( digest, String.valueOf( entry.getValue() ) );
+            }
+        }
+        return toHex( digest.digest() );
+    }
+
+    private static void update( MessageDigest digest, String value )
+    {
+        try
+        {
+            byte[] bytes = value.getBytes( "UTF-8" );
+            digest.update( (byte) ( bytes.length >>> 24 ) );
+            digest.update( (byte) ( bytes.length >>> 16 ) );
+            digest.update( (byte) ( bytes.length >>> 8 ) );
+            digest.update( (byte) bytes.length );
+            digest.update( bytes );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( "UTF-8 not supported" );
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "MD5" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "MD5 not supported" );
+        }
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        StringBuffer hex = new StringBuffer( bytes.length * 2 );
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            int b = bytes[i] & 0xff;
+            if ( b < 0x10 )
+            {
+                hex.append( '0' );
+            }
+            hex.append( Integer.toHexString( b ) );
+        }
+        return hex.toString();
+    }
+
+    private static final class Fingerprint
+    {
+        String sourceDigest;
+
+        long destinationLength;
+
+        long destinationLastModified;
+
+        String valuesDigest;
+
+        /** recorded expressions, per filter wrapper */
+        String[][] expressions;
+    }
+}
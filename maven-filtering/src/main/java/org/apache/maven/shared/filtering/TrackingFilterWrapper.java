@@ -0,0 +1,56 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Reader;
+import java.util.Map;
+
+import org.codehaus.plexus.interpolation.InterpolationException;
+
+/**
+ * A {@link org.codehaus.plexus.util.FileUtils.FilterWrapper} whose output only depends on its input, on its
+ * configuration and on the values of the expressions it resolves, so a filtered file can be known unchanged without
+ * filtering it again.
+ *
+ * @version $Id$
+ * @since 1.1
+ */
+interface TrackingFilterWrapper
+{
+    /**
+     * @param reader the reader to filter
+     * @param expressions where the reader puts each expression it resolves, with its value
+     * @return the filtering reader
+     */
+    Reader getReader( Reader reader, Map expressions );
+
+    /**
+     * @param expression an expression previously recorded by a reader of this wrapper
+     * @return the current value of <code>expression</code>
+     * @throws InterpolationException
+     */
+    String resolve( String expression )
+        throws InterpolationException;
+
+    /**
+     * @return the configuration changing the output of the readers independently of the resolved values
+     */
+    String getConfiguration();
+}
@@ -20,12 +20,17 @@ package org.apache.maven.shared.filtering;
  */
 
 import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
 import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
 import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 
 /**
  * @author <a href="mailto:olamy@apache.org">olamy</a>
@@ -122,4 +127,96 @@ public class DefaultMavenFileFilterTest
 
         assertTrue( filterProperties.getProperty( "third_filter_key" ).equals( "first and second" ) );
     }
+
+    public void testFilterPropertiesCache()
+        throws Exception
+    {
+        DefaultMavenFileFilter mavenFileFilter =
+            (DefaultMavenFileFilter) lookup( MavenFileFilter.class.getName(), "default" );
+
+        File testDir = new File( getBasedir(), "src/test/units-files/MSHARED-177" );
+
+        List filters = new ArrayList();
+        filters.add( new File( testDir, "first_filter_file.properties" ).getAbsolutePath() );
+        filters.add( new File( testDir, "second_filter_file.properties" ).getAbsolutePath() );
+        filters.add( new File( testDir, "third_filter_file.properties" ).getAbsolutePath() );
+
+        StubMavenSession session = new StubMavenSession();
+        StubMavenProject mavenProject = new StubMavenProject( testDir );
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setMavenProject( mavenProject );
+        execution.setMavenSession( session );
+        execution.setFileFilters( filters );
+
+        mavenFileFilter.getDefaultFilterWrappers( execution );
+
+        FilterPropertiesCache cache = mavenFileFilter.getFilterPropertiesCache( session );
+        assertEquals( 0, cache.getHitCount() );
+        assertEquals( 4, cache.getMissCount() );
+
+        mavenFileFilter.getDefaultFilterWrappers( execution );
+
+        assertEquals( 4, cache.getHitCount() );
+        assertEquals( 4, cache.getMissCount() );
+
+        assertNotSame( cache, mavenFileFilter.getFilterPropertiesCache( new StubMavenSession() ) );
+        assertNull( mavenFileFilter.getFilterPropertiesCache( null ) );
+    }
+
+    public void testDefaultFilterWrapperSharedBetweenReaders()
+        throws Exception
+    {
+        MavenFileFilter mavenFileFilter = (MavenFileFilter) lookup( MavenFileFilter.class.getName(), "default" );
+
+        StubMavenProject mavenProject = new StubMavenProject( new File( getBasedir() ) );
+        mavenProject.setVersion( "1.0" );
+        mavenProject.addProperty( "foo", "bar" );
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setMavenProject( mavenProject );
+        execution.setMavenSession( new StubMavenSession() );
+
+        List wrappers = mavenFileFilter.getDefaultFilterWrappers( execution );
+        assertEquals( 1, wrappers.size() );
+        FileUtils.FilterWrapper wrapper = (FileUtils.FilterWrapper) wrappers.get( 0 );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            Reader reader = wrapper.getReader( new StringReader( "${project.version} @foo@ ${unknown}" ) );
+            assertEquals( "1.0 bar ${unknown}", IOUtil.toString( reader ) );
+        }
+    }
+
+    public void testOverriddenLoadPropertiesIsCalled()
+        throws Exception
+    {
+        DefaultMavenFileFilter mavenFileFilter = new DefaultMavenFileFilter()
+        {
+            protected void loadProperties( Properties filterProperties, List propertiesFilePaths,
+                                           Properties baseProps )
+                throws MavenFilteringException
+            {
+                super.loadProperties( filterProperties, propertiesFilePaths, baseProps );
+                filterProperties.setProperty( "overridden", "yes" );
+            }
+        };
+        mavenFileFilter.enableLogging( new ConsoleLogger( Logger.LEVEL_DISABLED, "test" ) );
+
+        File testDir = new File( getBasedir(), "src/test/units-files/MSHARED-177" );
+
+        List filters = new ArrayList();
+        filters.add( new File( testDir, "first_filter_file.properties" ).getAbsolutePath() );
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setMavenProject( new StubMavenProject( testDir ) );
+        execution.setMavenSession( new StubMavenSession() );
+        execution.setFileFilters( filters );
+
+        List wrappers = mavenFileFilter.getDefaultFilterWrappers( execution );
+        FileUtils.FilterWrapper wrapper = (FileUtils.FilterWrapper) wrappers.get( 0 );
+
+        Reader reader = wrapper.getReader( new StringReader( "${overridden}" ) );
+        assertEquals( "yes", IOUtil.toString( reader ) );
+    }
 }
@@ -22,6 +22,9 @@ package org.apache.maven.shared.filtering;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -35,6 +38,9 @@ import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.ValueSource;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+import org.sonatype.plexus.build.incremental.ThreadBuildContext;
 
 /**
  * @author <a href="mailto:olamy@apache.org">olamy</a>
@@ -174,6 +180,111 @@ public class DefaultMavenResourcesFilteringTest
         assertFiltering( baseDir, initialImageFile, true, false );
     }
 
+    public void testWithMavenResourcesExecutionWithThreads()
+        throws Exception
+    {
+        File baseDir = new File( "c:\\foo\\bar" );
+        StubMavenProject mavenProject = new StubMavenProject( baseDir );
+        mavenProject.setVersion( "1.0" );
+        mavenProject.setGroupId( "org.apache" );
+        mavenProject.setName( "test project" );
+
+        Properties projectProperties = new Properties();
+        projectProperties.put( "foo", "bar" );
+        projectProperties.put( "java.version", "zloug" );
+        mavenProject.setProperties( projectProperties );
+        MavenResourcesFiltering mavenResourcesFiltering = (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+
+        String unitFilesDir = getBasedir() + "/src/test/units-files/maven-resources-filtering";
+        File initialImageFile = new File( unitFilesDir, "happy_duke.gif" );
+
+        Resource resource = new Resource();
+        List resources = new ArrayList();
+        resources.add( resource );
+        resource.setDirectory( unitFilesDir );
+        resource.setFiltering( true );
+
+        List filtersFile = new ArrayList();
+        filtersFile.add( getBasedir() + "/src/test/units-files/maven-resources-filtering/empty-maven-resources-filtering.txt" );
+
+        List nonFilteredFileExtensions = Collections.singletonList( "gif" );
+        MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution( resources, outputDirectory, mavenProject,
+                                                                                       "UTF-8", filtersFile,
+                                                                                       nonFilteredFileExtensions,
+                                                                                       new StubMavenSession() );
+        mavenResourcesExecution.setEscapeString( "\\" );
+        mavenResourcesExecution.setThreadCount( 4 );
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+        assertFiltering( baseDir, initialImageFile, true, false );
+    }
+
+    public void testRefreshInScanOrderWithThreads()
+        throws Exception
+    {
+        final List refreshed = new ArrayList();
+        final List threads = new ArrayList();
+        final BuildContext delegate = new DefaultBuildContext();
+        BuildContext recordingContext =
+            (BuildContext) Proxy.newProxyInstance( BuildContext.class.getClassLoader(),
+                                                   new Class[] { BuildContext.class }, new InvocationHandler()
+                                                   {
+                                                       public Object invoke( Object proxy, Method method,
+                                                                             Object[] args )
+                                                           throws Throwable
+                                                       {
+                                                           if ( "refresh".equals( method.getName() ) )
+                                                           {
+                                                               synchronized ( refreshed )
+                                                               {
+                                                                   refreshed.add( args[0] );
+                                                                   threads.add( Thread.currentThread() );
+                                                               }
+                                                               return null;
+                                                           }
+                                                           return method.invoke( delegate, args );
+                                                       }
+                                                   } );
+
+        StubMavenProject mavenProject = new StubMavenProject( new File( getBasedir() ) );
+        mavenProject.setVersion( "1.0" );
+        mavenProject.setGroupId( "org.apache" );
+
+        MavenResourcesFiltering mavenResourcesFiltering =
+            (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+
+        Resource resource = new Resource();
+        List resources = new ArrayList();
+        resources.add( resource );
+        resource.setDirectory( getBasedir() + "/src/test/units-files/maven-resources-filtering" );
+        resource.setFiltering( true );
+
+        MavenResourcesExecution mavenResourcesExecution =
+            new MavenResourcesExecution( resources, outputDirectory, mavenProject, "UTF-8", null,
+                                         Collections.singletonList( "gif" ), new StubMavenSession() );
+
+        ThreadBuildContext.setThreadBuildContext( recordingContext );
+        try
+        {
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+            List sequential = new ArrayList( refreshed );
+            assertTrue( sequential.size() > 1 );
+
+            // the copy threads refresh nothing themselves, the calling thread replays their refreshes in order
+            refreshed.clear();
+            threads.clear();
+            FileUtils.deleteDirectory( outputDirectory );
+            mavenResourcesExecution.setThreadCount( 4 );
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+
+            assertEquals( sequential, refreshed );
+            assertEquals( Collections.nCopies( sequential.size(), Thread.currentThread() ), threads );
+        }
+        finally
+        {
+            ThreadBuildContext.setThreadBuildContext( null );
+        }
+    }
+
     public void testWithMavenResourcesExecutionWithAdditionnalProperties()
         throws Exception
     {
@@ -367,6 +478,127 @@ public class DefaultMavenResourcesFilteringTest
         assertTrue( filesAreIdentical( initialImageFile, imageFile ) );
     }
 
+    public void testNoFilteringWithCopyModes()
+        throws Exception
+    {
+        String[] copyModes = { MavenResourcesExecution.COPY_MODE_CHANNEL, MavenResourcesExecution.COPY_MODE_LINK };
+        for ( int i = 0; i < copyModes.length; i++ )
+        {
+            FileUtils.deleteDirectory( outputDirectory );
+
+            StubMavenProject mavenProject = new StubMavenProject( new File( getBasedir() ) );
+            mavenProject.setVersion( "1.0" );
+            mavenProject.setGroupId( "org.apache" );
+
+            MavenResourcesFiltering mavenResourcesFiltering =
+                (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+
+            String unitFilesDir = getBasedir() + "/src/test/units-files/maven-resources-filtering";
+            File initialImageFile = new File( unitFilesDir, "happy_duke.gif" );
+            long imageLength = initialImageFile.length();
+
+            Resource resource = new Resource();
+            List resources = new ArrayList();
+            resources.add( resource );
+
+            resource.setDirectory( unitFilesDir );
+            resource.setFiltering( false );
+
+            MavenResourcesExecution mavenResourcesExecution =
+                new MavenResourcesExecution( resources, outputDirectory, mavenProject, "UTF-8", null,
+                                             Collections.EMPTY_LIST, new StubMavenSession() );
+            mavenResourcesExecution.setCopyMode( copyModes[i] );
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+
+            assertEquals( copyModes[i], 7, outputDirectory.listFiles().length );
+            Properties result =
+                PropertyUtils.loadPropertyFile( new File( outputDirectory, "maven-resources-filtering.txt" ), null );
+            assertEquals( copyModes[i], "${pom.version}", result.get( "version" ) );
+            File imageFile = new File( outputDirectory, "happy_duke.gif" );
+            assertTrue( copyModes[i], filesAreIdentical( initialImageFile, imageFile ) );
+
+            // copying again over the previous output must leave the resources alone
+            mavenResourcesExecution.setOverwrite( true );
+            mavenResourcesExecution.setCopyMode( MavenResourcesExecution.COPY_MODE_CHANNEL );
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+            assertEquals( copyModes[i], imageLength, initialImageFile.length() );
+            assertTrue( copyModes[i], filesAreIdentical( initialImageFile, imageFile ) );
+        }
+    }
+
+    public void testCopyOverLinkLeavesSourceAlone()
+        throws Exception
+    {
+        File sourceDirectory = new File( getBasedir(), "target/DefaultMavenResourcesFilteringTest-sources" );
+        FileUtils.deleteDirectory( sourceDirectory );
+        FileUtils.copyFileToDirectory( new File( getBasedir(),
+                                                 "src/test/units-files/maven-resources-filtering/"
+                                                     + "maven-resources-filtering.txt" ), sourceDirectory );
+        File source = new File( sourceDirectory, "maven-resources-filtering.txt" );
+        String content = FileUtils.fileRead( source );
+
+        StubMavenProject mavenProject = new StubMavenProject( new File( getBasedir() ) );
+        mavenProject.setVersion( "1.0" );
+        mavenProject.setGroupId( "org.apache" );
+
+        MavenResourcesFiltering mavenResourcesFiltering =
+            (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+
+        Resource resource = new Resource();
+        List resources = new ArrayList();
+        resources.add( resource );
+        resource.setDirectory( sourceDirectory.getPath() );
+        resource.setFiltering( false );
+
+        // the destination may be a hard link to the source
+        MavenResourcesExecution mavenResourcesExecution =
+            new MavenResourcesExecution( resources, outputDirectory, mavenProject, "UTF-8", null,
+                                         Collections.EMPTY_LIST, new StubMavenSession() );
+        mavenResourcesExecution.setCopyMode( MavenResourcesExecution.COPY_MODE_LINK );
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+
+        // a filtered copy replaces the destination rather than writing through it
+        resource.setFiltering( true );
+        mavenResourcesExecution.setCopyMode( MavenResourcesExecution.COPY_MODE_STREAM );
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+
+        File destination = new File( outputDirectory, "maven-resources-filtering.txt" );
+        Properties result = PropertyUtils.loadPropertyFile( destination, null );
+        assertEquals( "1.0", result.get( "version" ) );
+        assertEquals( content, FileUtils.fileRead( source ) );
+
+        // as does a stream copy, which would otherwise truncate the source it reads from
+        mavenResourcesExecution.setCopyMode( MavenResourcesExecution.COPY_MODE_LINK );
+        resource.setFiltering( false );
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+
+        mavenResourcesExecution.setCopyMode( MavenResourcesExecution.COPY_MODE_STREAM );
+        mavenResourcesExecution.setOverwrite( true );
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+        assertEquals( content, FileUtils.fileRead( destination ) );
+        assertEquals( content, FileUtils.fileRead( source ) );
+    }
+
+    public void testUnknownCopyMode()
+        throws Exception
+    {
+        MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution();
+
+        mavenResourcesExecution.setCopyMode( null );
+        assertEquals( MavenResourcesExecution.COPY_MODE_STREAM, mavenResourcesExecution.getCopyMode() );
+
+        try
+        {
+            mavenResourcesExecution.setCopyMode( "reflink" );
+            fail( "Expected IllegalArgumentException" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // expected
+        }
+        assertEquals( MavenResourcesExecution.COPY_MODE_STREAM, mavenResourcesExecution.getCopyMode() );
+    }
+
     public static boolean filesAreIdentical( File expected, File current )
         throws IOException
     {
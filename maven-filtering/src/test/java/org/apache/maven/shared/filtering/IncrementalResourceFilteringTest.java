@@ -19,8 +19,10 @@ package org.apache.maven.shared.filtering;
  * under the License.
  */
 
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -155,6 +157,70 @@ public class IncrementalResourceFilteringTest
         assertTrue( ctx.getRefreshFiles().contains( new File( outputDirectory, "file02.txt" ) ) );
     }
 
+    public void testSkipUnchanged()
+        throws Exception
+    {
+        File fingerprintsFile = new File( getBasedir(), "target/IncrementalResourceFilteringTest.fingerprints" );
+        fingerprintsFile.delete();
+
+        // run full build first
+        filter( "time", fingerprintsFile );
+        assertTrue( fingerprintsFile.isFile() );
+
+        // both files are reported as changed, but their content and values are the same
+        HashSet changedFiles = new HashSet();
+        changedFiles.add( "file01.txt" );
+        changedFiles.add( "file02.txt" );
+        TestIncrementalBuildContext ctx = new TestIncrementalBuildContext( unitDirectory, changedFiles, new HashMap() );
+        ThreadBuildContext.setThreadBuildContext( ctx );
+
+        filter( "time", fingerprintsFile );
+        assertTime( "time", "file01.txt" );
+        assertTime( "time", "file02.txt" );
+
+        assertFalse( ctx.getRefreshFiles().contains( new File( outputDirectory, "file01.txt" ) ) );
+        assertFalse( ctx.getRefreshFiles().contains( new File( outputDirectory, "file02.txt" ) ) );
+
+        // the value of an expression used by the files changed
+        ctx = new TestIncrementalBuildContext( unitDirectory, changedFiles, new HashMap() );
+        ThreadBuildContext.setThreadBuildContext( ctx );
+
+        filter( "notime", fingerprintsFile );
+        assertTime( "notime", "file01.txt" );
+        assertTime( "notime", "file02.txt" );
+
+        assertTrue( ctx.getRefreshFiles().contains( new File( outputDirectory, "file01.txt" ) ) );
+        assertTrue( ctx.getRefreshFiles().contains( new File( outputDirectory, "file02.txt" ) ) );
+    }
+
+    public void testCorruptedFingerprints()
+        throws Exception
+    {
+        File fingerprintsFile = new File( getBasedir(), "target/IncrementalResourceFilteringTest.fingerprints" );
+        fingerprintsFile.delete();
+
+        // a valid format version followed by a huge count, then a negative one
+        int[][] corruptions = new int[][] { { 1, Integer.MAX_VALUE }, { 1, -1 } };
+        for ( int i = 0; i < corruptions.length; i++ )
+        {
+            DataOutputStream out = new DataOutputStream( new FileOutputStream( fingerprintsFile ) );
+            try
+            {
+                out.writeInt( corruptions[i][0] );
+                out.writeInt( corruptions[i][1] );
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+
+            // the corrupted fingerprints are ignored, every file is copied
+            filter( "time" + i, fingerprintsFile );
+            assertTime( "time" + i, "file01.txt" );
+            assertTime( "time" + i, "file02.txt" );
+        }
+    }
+
     private void assertTime( String time, String relpath )
         throws IOException
     {
@@ -175,6 +241,12 @@ public class IncrementalResourceFilteringTest
 
     private void filter( String time )
         throws Exception, MavenFilteringException
+    {
+        filter( time, null );
+    }
+
+    private void filter( String time, File fingerprintsFile )
+        throws Exception, MavenFilteringException
     {
         File baseDir = new File( getBasedir() );
         StubMavenProject mavenProject = new StubMavenProject( baseDir );
@@ -200,8 +272,17 @@ public class IncrementalResourceFilteringTest
         List filtersFile = new ArrayList();
         filtersFile.add( new File( unitDirectory, "filters.txt" ).getPath() );
 
-        mavenResourcesFiltering.filterResources( resources, outputDirectory, mavenProject, "UTF-8", filtersFile,
-                                                 new ArrayList(), new StubMavenSession() );
+        MavenResourcesExecution mavenResourcesExecution =
+            new MavenResourcesExecution( resources, outputDirectory, mavenProject, "UTF-8", filtersFile,
+                                         new ArrayList(), new StubMavenSession() );
+        mavenResourcesExecution.setUseDefaultFilterWrappers( true );
+        if ( fingerprintsFile != null )
+        {
+            mavenResourcesExecution.setSkipUnchanged( true );
+            mavenResourcesExecution.setFingerprintsFile( fingerprintsFile );
+        }
+
+        mavenResourcesFiltering.filterResources( mavenResourcesExecution );
     }
 
 }
@@ -0,0 +1,204 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
+import org.codehaus.plexus.interpolation.multi.MultiDelimiterStringSearchInterpolator;
+
+/**
+ * Checks the block buffered mode produces the same output as the character by character mode.
+ *
+ * @version $Id$
+ */
+public class MultiDelimiterInterpolatorFilterReaderLineEndingTest
+    extends TestCase
+{
+
+    private static final String[] INPUTS = {
+        "",
+        "no token at all",
+        "${foo}",
+        "@foo@",
+        "before ${foo} middle @foo@ after",
+        "${unknown} and @unknown@",
+        "\\${foo} escaped",
+        "\\@foo@ escaped",
+        "\\\\${foo} double escape",
+        "unfinished ${foo",
+        "unfinished @foo",
+        "email=foo@bar.com",
+        "${fo\no} @fo\no@",
+        "line1 ${foo}\nline2 @foo@\r\nline3",
+        "${${foo}}",
+        "@@@@",
+        "${}",
+        "\\",
+        "trailing $",
+        "${empty}${foo}${empty}" };
+
+    public void testBlockBufferedSameAsDefault()
+        throws Exception
+    {
+        for ( int i = 0; i < INPUTS.length; i++ )
+        {
+            assertSameOutput( INPUTS[i] );
+        }
+    }
+
+    public void testBlockBufferedSameAsDefaultRandom()
+        throws Exception
+    {
+        String alphabet = "${}@\\\n\r ab#foo";
+        Random random = new Random( 1234 );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            StringBuffer input = new StringBuffer();
+            int length = random.nextInt( 60 );
+            for ( int j = 0; j < length; j++ )
+            {
+                input.append( alphabet.charAt( random.nextInt( alphabet.length() ) ) );
+            }
+            assertSameOutput( input.toString() );
+        }
+    }
+
+    public void testBlockBufferedLargeInput()
+        throws Exception
+    {
+        StringBuffer input = new StringBuffer();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            input.append( "<entry key=\"line" ).append( i ).append( "\">${foo} @foo@ \\${foo}</entry>\n" );
+        }
+        assertSameOutput( input.toString() );
+    }
+
+    private void assertSameOutput( String input )
+        throws Exception
+    {
+        for ( int mode = 0; mode < 8; mode++ )
+        {
+            boolean supportMultiLineFiltering = ( mode & 1 ) != 0;
+            String escapeString = ( mode & 2 ) != 0 ? "\\" : null;
+            boolean atDelimiter = ( mode & 4 ) != 0;
+
+            String expected = filter( input, false, supportMultiLineFiltering, escapeString, atDelimiter, 1 );
+            String actual = filter( input, true, supportMultiLineFiltering, escapeString, atDelimiter, 7 );
+            assertEquals( "input '" + input + "' mode " + mode, expected, actual );
+
+            actual = filter( input, true, supportMultiLineFiltering, escapeString, atDelimiter, 8192 );
+            assertEquals( "input '" + input + "' mode " + mode, expected, actual );
+        }
+    }
+
+    private String filter( String input, boolean blockBuffered, boolean supportMultiLineFiltering,
+                           String escapeString, boolean atDelimiter, int chunkSize )
+        throws IOException
+    {
+        Properties properties = new Properties();
+        properties.put( "foo", "bar" );
+        properties.put( "empty", "" );
+        properties.put( "at", "@foo@" );
+
+        MultiDelimiterStringSearchInterpolator interpolator = new MultiDelimiterStringSearchInterpolator();
+        interpolator.addValueSource( new PropertiesBasedValueSource( properties ) );
+        interpolator.setEscapeString( escapeString );
+
+        HashSet specs = new HashSet();
+        specs.add( "${*}" );
+        if ( atDelimiter )
+        {
+            specs.add( "@" );
+        }
+        interpolator.setDelimiterSpecs( specs );
+
+        MultiDelimiterInterpolatorFilterReaderLineEnding reader =
+            new MultiDelimiterInterpolatorFilterReaderLineEnding( new ShortReadReader( input ), interpolator,
+                                                                  supportMultiLineFiltering );
+        reader.setDelimiterSpecs( specs );
+        reader.setInterpolateWithPrefixPattern( false );
+        reader.setEscapeString( escapeString );
+        reader.setBlockBuffered( blockBuffered );
+
+        StringBuffer result = new StringBuffer();
+        try
+        {
+            if ( chunkSize == 1 )
+            {
+                int ch;
+                while ( ( ch = reader.read() ) != -1 )
+                {
+                    result.append( (char) ch );
+                }
+            }
+            else
+            {
+                char[] buffer = new char[chunkSize];
+                int n;
+                while ( ( n = reader.read( buffer, 0, buffer.length ) ) != -1 )
+                {
+                    result.append( buffer, 0, n );
+                }
+            }
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return "failure: " + e.getMessage();
+        }
+        return result.toString();
+    }
+
+    /**
+     * Only hands out a few characters per read to exercise the block buffer refills.
+     */
+    private static class ShortReadReader
+        extends Reader
+    {
+        private final Reader reader;
+
+        private int count = 0;
+
+        ShortReadReader( String input )
+        {
+            this.reader = new StringReader( input );
+        }
+
+        public int read( char[] cbuf, int off, int len )
+            throws IOException
+        {
+            return reader.read( cbuf, off, Math.min( len, 1 + ( count++ % 3 ) ) );
+        }
+
+        public void close()
+            throws IOException
+        {
+            reader.close();
+        }
+    }
+}
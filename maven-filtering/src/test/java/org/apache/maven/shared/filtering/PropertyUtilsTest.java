@@ -111,4 +111,135 @@ public class PropertyUtilsTest
         assertEquals( "realVersion", interpolated.get( "bar" ) );
         assertEquals( "none filtered", interpolated.get( "none" ) );
     }
+
+    public void testCyclicReferences()
+        throws Exception
+    {
+        File cyclicProp = new File( testDirectory, "cyclic.properties" );
+
+        if ( cyclicProp.exists() )
+        {
+            cyclicProp.delete();
+        }
+
+        cyclicProp.createNewFile();
+        FileWriter writer = new FileWriter( cyclicProp );
+
+        writer.write( "self=${self}\n" );
+        writer.write( "a=${b}\n" );
+        writer.write( "b=${a}\n" );
+        writer.write( "entry=${c}\n" );
+        writer.write( "c=x${d}\n" );
+        writer.write( "d=y${c}\n" );
+        writer.write( "shared=${a}-${b}\n" );
+        writer.flush();
+        writer.close();
+
+        Properties prop = PropertyUtils.loadPropertyFile( cyclicProp, false, false );
+        assertEquals( "${self}", prop.getProperty( "self" ) );
+        assertEquals( "${a}", prop.getProperty( "a" ) );
+        assertEquals( "${b}", prop.getProperty( "b" ) );
+        assertEquals( "xy${c}", prop.getProperty( "entry" ) );
+        assertEquals( "xy${c}", prop.getProperty( "c" ) );
+        assertEquals( "yx${d}", prop.getProperty( "d" ) );
+        assertEquals( "${a}-${b}", prop.getProperty( "shared" ) );
+    }
+
+    public void testUnclosedReference()
+        throws Exception
+    {
+        File unclosedProp = new File( testDirectory, "unclosed.properties" );
+
+        if ( unclosedProp.exists() )
+        {
+            unclosedProp.delete();
+        }
+
+        unclosedProp.createNewFile();
+        FileWriter writer = new FileWriter( unclosedProp );
+
+        writer.write( "open=${fo\n" );
+        writer.write( "key=${open}o}\n" );
+        writer.write( "foo=bar\n" );
+        writer.flush();
+        writer.close();
+
+        Properties prop = PropertyUtils.loadPropertyFile( unclosedProp, false, false );
+        assertEquals( "fo", prop.getProperty( "open" ) );
+        assertEquals( "bar", prop.getProperty( "key" ) );
+    }
+
+    public void testTrailingDollar()
+        throws Exception
+    {
+        File dollarProp = new File( testDirectory, "dollar.properties" );
+
+        if ( dollarProp.exists() )
+        {
+            dollarProp.delete();
+        }
+
+        dollarProp.createNewFile();
+        FileWriter writer = new FileWriter( dollarProp );
+
+        writer.write( "dollar=$\n" );
+        writer.write( "spliced=${dollar}{target}\n" );
+        writer.write( "target=X\n" );
+        writer.write( "nested=${spliced}\n" );
+        writer.write( "via=${dollar}\n" );
+        writer.write( "indirect=${via}{target}\n" );
+        writer.write( "a=a{$\n" );
+        writer.write( "b=\n" );
+        writer.write( "c=${b}${a}{}\n" );
+        writer.flush();
+        writer.close();
+
+        Properties prop = PropertyUtils.loadPropertyFile( dollarProp, false, false );
+        assertEquals( "$", prop.getProperty( "dollar" ) );
+        assertEquals( "X", prop.getProperty( "spliced" ) );
+        assertEquals( "X", prop.getProperty( "nested" ) );
+        assertEquals( "$", prop.getProperty( "via" ) );
+        assertEquals( "X", prop.getProperty( "indirect" ) );
+        assertEquals( "a{$", prop.getProperty( "a" ) );
+        assertEquals( "a{${}", prop.getProperty( "c" ) );
+    }
+
+    public void testManyCrossReferencingKeys()
+        throws Exception
+    {
+        File manyProp = new File( testDirectory, "many.properties" );
+
+        if ( manyProp.exists() )
+        {
+            manyProp.delete();
+        }
+
+        manyProp.createNewFile();
+        FileWriter writer = new FileWriter( manyProp );
+
+        int count = 10000;
+        writer.write( "key0=value\n" );
+        for ( int i = 0; i < 10; i++ )
+        {
+            writer.write( "index" + i + "=" + i + "\n" );
+        }
+        for ( int i = 1; i < count; i++ )
+        {
+            writer.write( "key" + i + "=${key" + ( i / 2 ) + "}.${index" + ( i % 10 ) + "}\n" );
+        }
+        writer.flush();
+        writer.close();
+
+        Properties prop = PropertyUtils.loadPropertyFile( manyProp, false, false );
+
+        assertEquals( count + 10, prop.size() );
+        assertEquals( "value", prop.getProperty( "key0" ) );
+        assertEquals( "value.1", prop.getProperty( "key1" ) );
+        assertEquals( "value.1.2", prop.getProperty( "key2" ) );
+        for ( int i = 1; i < count; i++ )
+        {
+            String expected = prop.getProperty( "key" + ( i / 2 ) ) + "." + ( i % 10 );
+            assertEquals( expected, prop.getProperty( "key" + i ) );
+        }
+    }
 }
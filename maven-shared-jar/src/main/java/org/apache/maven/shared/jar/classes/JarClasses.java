@@ -19,10 +19,7 @@ package org.apache.maven.shared.jar.classes;
  * under the License.
  */
 
-import org.apache.commons.collections.list.SetUniqueList;
-
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -35,22 +32,22 @@ public class JarClasses
     /**
      * The list of imports in the classes in the JAR.
      */
-    private List imports;
+    private final StringTable imports = new StringTable();
 
     /**
      * A list of packages represented by classes in the JAR.
      */
-    private List packages;
+    private final StringTable packages = new StringTable();
 
     /**
      * A list of the classes that in the JAR.
      */
-    private List classNames;
+    private final StringTable classNames = new StringTable();
 
     /**
      * A list of methods within the classes in the JAR.
      */
-    private List methods;
+    private final MethodTable methods = new MethodTable();
 
     /**
      * Whether the JAR contains any code with debug information. If there is a mix of debug and release code, this will
@@ -69,12 +66,8 @@ public class JarClasses
      */
     public JarClasses()
     {
-        // Unique list decorators are used to ensure natural ordering is retained, the list interface is availble, and
-        // that duplicates are not entered.
-        imports = SetUniqueList.decorate( new ArrayList() );
-        packages = SetUniqueList.decorate( new ArrayList() );
-        classNames = SetUniqueList.decorate( new ArrayList() );
-        methods = SetUniqueList.decorate( new ArrayList() );
+        // Unique tables are used to ensure natural ordering is retained, the list interface is available through
+        // read only views, and that duplicates are not entered. Each string is only stored once.
     }
 
     /**
@@ -107,6 +100,17 @@ public class JarClasses
         this.methods.add( name );
     }
 
+    /**
+     * Add a discovered method to the record, without building its full name.
+     *
+     * @param className  the name of the class declaring the method
+     * @param methodName the name of the method followed by its signature
+     */
+    public void addMethod( String className, String methodName )
+    {
+        this.methods.add( className, methodName );
+    }
+
     /**
      * Add a list of discovered imports to the record.
      *
@@ -114,22 +118,25 @@ public class JarClasses
      */
     public void addImports( List imports )
     {
-        this.imports.addAll( imports );
+        for ( Iterator it = imports.iterator(); it.hasNext(); )
+        {
+            this.imports.add( (String) it.next() );
+        }
     }
 
     public List getImports()
     {
-        return Collections.unmodifiableList( imports );
+        return imports.asList();
     }
 
     public List getClassNames()
     {
-        return Collections.unmodifiableList( classNames );
+        return classNames.asList();
     }
 
     public List getPackages()
     {
-        return Collections.unmodifiableList( packages );
+        return packages.asList();
     }
 
     public boolean isDebugPresent()
@@ -154,6 +161,6 @@ public class JarClasses
 
     public List getMethods()
     {
-        return Collections.unmodifiableList( methods );
+        return methods.asList();
     }
 }
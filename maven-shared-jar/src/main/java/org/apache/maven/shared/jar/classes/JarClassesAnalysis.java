@@ -27,9 +27,10 @@ import org.apache.bcel.classfile.LineNumberTable;
 import org.apache.bcel.classfile.Method;
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.IOUtil;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.io.InputStream;
 import java.util.List;
 import java.util.jar.JarEntry;
 
@@ -66,78 +67,63 @@ public class JarClassesAnalysis
      * @return the details of the classes found
      */
     public JarClasses analyze( JarAnalyzer jarAnalyzer )
+    {
+        return analyze( jarAnalyzer, 1 );
+    }
+
+    /**
+     * Analyze a JAR and find any classes and their details, parsing the classes on several threads. The classes are
+     * read from the JAR file opened by the JAR analyzer, and the details of each class are added to the result in the
+     * order of the entries whatever the number of threads. Note that if the provided JAR analyzer has previously
+     * analyzed the JAR, the cached results will be returned.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     * @param threadCount the maximum number of threads parsing the classes, <code>1</code> to parse them on the
+     *                    calling thread
+     * @return the details of the classes found
+     */
+    public JarClasses analyze( JarAnalyzer jarAnalyzer, int threadCount )
     {
         JarClasses classes = jarAnalyzer.getJarData().getJarClasses();
         if ( classes == null )
         {
-            String jarfilename = jarAnalyzer.getFile().getAbsolutePath();
-            classes = new JarClasses();
-
             List classList = jarAnalyzer.getClassEntries();
 
+            ClassDetails[] details = parseClasses( jarAnalyzer, classList, threadCount );
+
+            classes = new JarClasses();
+
             classes.setDebugPresent( false );
 
             double maxVersion = 0.0;
 
-            Iterator it = classList.iterator();
-            while ( it.hasNext() )
+            for ( int i = 0; i < details.length; i++ )
             {
-                JarEntry entry = (JarEntry) it.next();
-                String classname = entry.getName();
-
-                try
+                ClassDetails classDetails = details[i];
+                if ( classDetails == null )
                 {
-                    ClassParser classParser = new ClassParser( jarfilename, classname );
-
-                    JavaClass javaClass = classParser.parse();
-
-                    String classSignature = javaClass.getClassName();
-
-                    if ( !classes.isDebugPresent() )
-                    {
-                        if ( hasDebugSymbols( javaClass ) )
-                        {
-                            classes.setDebugPresent( true );
-                        }
-                    }
-
-                    double classVersion = javaClass.getMajor();
-                    if ( javaClass.getMinor() > 0 )
-                    {
-                        classVersion = classVersion + 1 / (double) javaClass.getMinor();
-                    }
-
-                    if ( classVersion > maxVersion )
-                    {
-                        maxVersion = classVersion;
-                    }
-
-                    Method[] methods = javaClass.getMethods();
-                    for ( int i = 0; i < methods.length; i++ )
-                    {
-                        classes.addMethod( classSignature + "." + methods[i].getName() + methods[i].getSignature() );
-                    }
-
-                    String classPackageName = javaClass.getPackageName();
-
-                    classes.addClassName( classSignature );
-                    classes.addPackage( classPackageName );
-
-                    ImportVisitor importVisitor = new ImportVisitor( javaClass );
-                    DescendingVisitor descVisitor = new DescendingVisitor( javaClass, importVisitor );
-                    javaClass.accept( descVisitor );
+                    continue;
+                }
 
-                    classes.addImports( importVisitor.getImports() );
+                if ( classDetails.debugPresent )
+                {
+                    classes.setDebugPresent( true );
                 }
-                catch ( ClassFormatException e )
+
+                if ( classDetails.version > maxVersion )
                 {
-                    getLogger().warn( "Unable to process class " + classname + " in JarAnalyzer File " + jarfilename,
-                                      e );
+                    maxVersion = classDetails.version;
                 }
-                catch ( IOException e )
+
+                for ( int j = 0; j < classDetails.methods.length; j++ )
                 {
-                    getLogger().warn( "Unable to process JarAnalyzer File " + jarfilename, e );
+                    classes.addMethod( classDetails.className, classDetails.methods[j] );
                 }
+
+                classes.addClassName( classDetails.className );
+                classes.addPackage( classDetails.packageName );
+
+                classes.addImports( classDetails.imports );
             }
 
             // TODO: check these since they are > instead of >=
@@ -175,6 +161,134 @@ public class JarClassesAnalysis
         return classes;
     }
 
+    /**
+     * Parse the class entries, each entry being taken by the next idle thread.
+     *
+     * @return the details of each class, in the order of the entries, <code>null</code> for the classes which could
+     *         not be parsed
+     */
+    private ClassDetails[] parseClasses( final JarAnalyzer jarAnalyzer, final List classList, int threadCount )
+    {
+        final ClassDetails[] details = new ClassDetails[classList.size()];
+
+        // the index of the next entry to parse
+        final int[] next = { 0 };
+
+        Runnable worker = new Runnable()
+        {
+            public void run()
+            {
+                while ( true )
+                {
+                    int index;
+                    synchronized ( next )
+                    {
+                        if ( next[0] >= details.length )
+                        {
+                            return;
+                        }
+                        index = next[0]++;
+                    }
+
+                    details[index] = parseClass( jarAnalyzer, (JarEntry) classList.get( index ) );
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[Math.max( 0, Math.min( threadCount, details.length ) - 1 )];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread( worker, "jar-classes-analysis-" + ( i + 1 ) );
+            threads[i].setDaemon( true );
+            threads[i].start();
+        }
+
+        // the calling thread parses too
+        worker.run();
+
+        boolean interrupted = false;
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            try
+            {
+                threads[i].join();
+            }
+            catch ( InterruptedException e )
+            {
+                // keep waiting, the classes must all be parsed before they are cached in the JAR data
+                interrupted = true;
+                i--;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return details;
+    }
+
+    /**
+     * Parse a class from the JAR file already opened by the JAR analyzer, rather than opening the file again.
+     *
+     * @return the details of the class, or <code>null</code> if it could not be parsed
+     */
+    private ClassDetails parseClass( JarAnalyzer jarAnalyzer, JarEntry entry )
+    {
+        String jarfilename = jarAnalyzer.getFile().getAbsolutePath();
+        String classname = entry.getName();
+
+        InputStream is = null;
+        try
+        {
+            is = jarAnalyzer.getEntryInputStream( entry );
+
+            ClassParser classParser = new ClassParser( is, classname );
+
+            JavaClass javaClass = classParser.parse();
+
+            ClassDetails details = new ClassDetails();
+
+            details.className = javaClass.getClassName();
+            details.packageName = javaClass.getPackageName();
+            details.debugPresent = hasDebugSymbols( javaClass );
+
+            details.version = javaClass.getMajor();
+            if ( javaClass.getMinor() > 0 )
+            {
+                details.version = details.version + 1 / (double) javaClass.getMinor();
+            }
+
+            Method[] methods = javaClass.getMethods();
+            details.methods = new String[methods.length];
+            for ( int i = 0; i < methods.length; i++ )
+            {
+                details.methods[i] = methods[i].getName() + methods[i].getSignature();
+            }
+
+            ImportVisitor importVisitor = new ImportVisitor( javaClass );
+            DescendingVisitor descVisitor = new DescendingVisitor( javaClass, importVisitor );
+            javaClass.accept( descVisitor );
+
+            details.imports = importVisitor.getImports();
+
+            return details;
+        }
+        catch ( ClassFormatException e )
+        {
+            getLogger().warn( "Unable to process class " + classname + " in JarAnalyzer File " + jarfilename, e );
+        }
+        catch ( IOException e )
+        {
+            getLogger().warn( "Unable to process JarAnalyzer File " + jarfilename, e );
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+        return null;
+    }
+
     private boolean hasDebugSymbols( JavaClass javaClass )
     {
         boolean ret = false;
@@ -190,4 +304,22 @@ public class JarClassesAnalysis
         }
         return ret;
     }
+
+    /**
+     * The details of a single class, added to the {@link JarClasses} once all the classes are parsed.
+     */
+    private static final class ClassDetails
+    {
+        private String className;
+
+        private String packageName;
+
+        private String[] methods;
+
+        private List imports;
+
+        private double version;
+
+        private boolean debugPresent;
+    }
 }
@@ -0,0 +1,222 @@
+package org.apache.maven.shared.jar.classes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An insertion ordered set of method signatures such as <code>a.b.C.name(I)V</code>. The class names and the method
+ * names with their signatures are each stored once in a {@link StringTable}, as most classes have several methods and
+ * many methods, like constructors, share a name and signature. A method is then a single <code>long</code> packing
+ * both positions, and the full signature is only built when read through the list view.
+ */
+final class MethodTable
+{
+    private final StringTable classNames = new StringTable();
+
+    private final StringTable methodNames = new StringTable();
+
+    /**
+     * The packed methods, in insertion order.
+     */
+    private long[] methods = new long[16];
+
+    private int size;
+
+    /**
+     * The positions of the methods plus one, by hash code. <code>0</code> marks a free slot.
+     */
+    private int[] slots = new int[32];
+
+    private List list;
+
+    /**
+     * Add a method if it is not in the table yet.
+     *
+     * @param className  the name of the class declaring the method
+     * @param methodName the name of the method followed by its signature
+     */
+    public void add( String className, String methodName )
+    {
+        long method = pack( classNames.add( className ), methodNames.add( methodName ) );
+
+        int slot = findSlot( method );
+        if ( slots[slot] != 0 )
+        {
+            return;
+        }
+
+        if ( size == methods.length )
+        {
+            long[] newMethods = new long[size * 2];
+            System.arraycopy( methods, 0, newMethods, 0, size );
+            methods = newMethods;
+        }
+        methods[size] = method;
+        size++;
+
+        if ( size * 2 > slots.length )
+        {
+            rehash();
+        }
+        else
+        {
+            slots[slot] = size;
+        }
+    }
+
+    /**
+     * Add a method given by its full signature.
+     *
+     * @param name the class name, a dot, then the method name followed by its signature, may be <code>null</code>
+     */
+    public void add( String name )
+    {
+        int index = lastClassSeparator( name );
+
+        if ( index <= 0 )
+        {
+            add( "", name );
+        }
+        else
+        {
+            add( name.substring( 0, index ), name.substring( index + 1 ) );
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return a read only list view of the full method signatures, in insertion order
+     */
+    public List asList()
+    {
+        if ( list == null )
+        {
+            list = new AbstractList()
+            {
+                public Object get( int index )
+                {
+                    if ( index >= size )
+                    {
+                        throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+                    }
+
+                    String className = classNames.get( (int) ( methods[index] >>> 32 ) );
+                    String methodName = methodNames.get( (int) methods[index] );
+
+                    return className.length() == 0 ? methodName : className + "." + methodName;
+                }
+
+                public int size()
+                {
+                    return size;
+                }
+
+                public boolean contains( Object o )
+                {
+                    return indexOf( o ) >= 0;
+                }
+
+                public int indexOf( Object o )
+                {
+                    return o == null || o instanceof String ? MethodTable.this.indexOf( (String) o ) : -1;
+                }
+
+                public int lastIndexOf( Object o )
+                {
+                    return indexOf( o );
+                }
+            };
+        }
+        return list;
+    }
+
+    private int indexOf( String name )
+    {
+        int index = lastClassSeparator( name );
+
+        int classIndex = classNames.indexOf( index <= 0 ? "" : name.substring( 0, index ) );
+        int methodIndex = methodNames.indexOf( index <= 0 ? name : name.substring( index + 1 ) );
+        if ( classIndex < 0 || methodIndex < 0 )
+        {
+            return -1;
+        }
+
+        return slots[findSlot( pack( classIndex, methodIndex ) )] - 1;
+    }
+
+    /**
+     * Find the dot between the class name and the method name: the signature has no dot, but the class name has.
+     */
+    private static int lastClassSeparator( String name )
+    {
+        if ( name == null )
+        {
+            return -1;
+        }
+
+        int signature = name.indexOf( '(' );
+
+        return signature < 0 ? name.lastIndexOf( '.' ) : name.lastIndexOf( '.', signature );
+    }
+
+    private static long pack( int classIndex, int methodIndex )
+    {
+        return ( (long) classIndex << 32 ) | ( methodIndex & 0xFFFFFFFFL );
+    }
+
+    private int findSlot( long method )
+    {
+        int mask = slots.length - 1;
+        int slot = hash( method ) & mask;
+
+        while ( slots[slot] != 0 && methods[slots[slot] - 1] != method )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+
+        int mask = slots.length - 1;
+        for ( int i = 0; i < size; i++ )
+        {
+            int slot = hash( methods[i] ) & mask;
+            while ( slots[slot] != 0 )
+            {
+                slot = ( slot + 1 ) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hash( long method )
+    {
+        return StringTable.spread( (int) ( method >>> 32 ) * 31 + (int) method );
+    }
+}
@@ -0,0 +1,191 @@
+package org.apache.maven.shared.jar.classes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An insertion ordered set of strings, each string being numbered by its position. The strings are kept in an array
+ * and looked up through an open addressing table of their positions, rather than the entry objects of a
+ * {@link java.util.HashSet} plus an {@link java.util.ArrayList}. Like the set, the table accepts <code>null</code>.
+ */
+final class StringTable
+{
+    /**
+     * The strings, in insertion order.
+     */
+    private String[] strings = new String[16];
+
+    private int size;
+
+    /**
+     * The positions of the strings plus one, by hash code. <code>0</code> marks a free slot.
+     */
+    private int[] slots = new int[32];
+
+    /**
+     * The read only view of the strings, created on first use.
+     */
+    private List list;
+
+    /**
+     * Add a string if it is not in the table yet.
+     *
+     * @param string the string to add, may be <code>null</code>
+     * @return the position of the string
+     */
+    public int add( String string )
+    {
+        int slot = findSlot( string );
+        if ( slots[slot] != 0 )
+        {
+            return slots[slot] - 1;
+        }
+
+        if ( size == strings.length )
+        {
+            String[] newStrings = new String[size * 2];
+            System.arraycopy( strings, 0, newStrings, 0, size );
+            strings = newStrings;
+        }
+        strings[size] = string;
+        size++;
+
+        if ( size * 2 > slots.length )
+        {
+            rehash();
+        }
+        else
+        {
+            slots[slot] = size;
+        }
+
+        return size - 1;
+    }
+
+    /**
+     * @param string the string to find
+     * @return the position of the string, or <code>-1</code> if it is not in the table
+     */
+    public int indexOf( String string )
+    {
+        return slots[findSlot( string )] - 1;
+    }
+
+    public String get( int index )
+    {
+        if ( index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        return strings[index];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return a read only list view of the strings, in insertion order
+     */
+    public List asList()
+    {
+        if ( list == null )
+        {
+            list = new AbstractList()
+            {
+                public Object get( int index )
+                {
+                    return StringTable.this.get( index );
+                }
+
+                public int size()
+                {
+                    return size;
+                }
+
+                public boolean contains( Object o )
+                {
+                    return indexOf( o ) >= 0;
+                }
+
+                public int indexOf( Object o )
+                {
+                    return o == null || o instanceof String ? StringTable.this.indexOf( (String) o ) : -1;
+                }
+
+                public int lastIndexOf( Object o )
+                {
+                    return indexOf( o );
+                }
+            };
+        }
+        return list;
+    }
+
+    private int findSlot( String string )
+    {
+        int mask = slots.length - 1;
+        int slot = spread( hashCode( string ) ) & mask;
+
+        while ( slots[slot] != 0 && !equals( strings[slots[slot] - 1], string ) )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+
+        int mask = slots.length - 1;
+        for ( int i = 0; i < size; i++ )
+        {
+            int slot = spread( hashCode( strings[i] ) ) & mask;
+            while ( slots[slot] != 0 )
+            {
+                slot = ( slot + 1 ) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hashCode( String string )
+    {
+        return string == null ? 0 : string.hashCode();
+    }
+
+    private static boolean equals( String a, String b )
+    {
+        return a == null ? b == null : a.equals( b );
+    }
+
+    /**
+     * Mix the high bits of the hash code into the low ones used to pick a slot.
+     */
+    static int spread( int hash )
+    {
+        int h = hash * 0x9E3779B9;
+        return h ^ ( h >>> 16 );
+    }
+}
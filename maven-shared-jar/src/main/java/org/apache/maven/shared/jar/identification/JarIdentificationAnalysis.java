@@ -22,6 +22,9 @@ package org.apache.maven.shared.jar.identification;
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.codehaus.plexus.util.StringUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -80,6 +83,172 @@ public class JarIdentificationAnalysis
         return taxon;
     }
 
+    /**
+     * Analyze many JARs and find any associated Maven metadata. Each JAR is opened once, and all the exposers of all the
+     * JARs are run concurrently on up to <code>threadCount</code> threads. The failure to open a JAR, or of an exposer
+     * on a JAR, only fails the identification of that JAR.
+     * <p/>
+     * The exposers must be thread safe. As each exposer populates its own identification record, merged in the order of
+     * the exposers once they are all done, the results are the same as those of
+     * {@link #analyze(org.apache.maven.shared.jar.JarAnalyzer)}.
+     *
+     * @param files       the JAR {@link File}s to analyze
+     * @param threadCount the maximum number of threads, <code>1</code> to analyze the JARs on the calling thread
+     * @return the {@link JarIdentificationResult} of each JAR, in the order of <code>files</code>
+     */
+    public List analyze( List files, int threadCount )
+    {
+        final BatchJar[] jars = new BatchJar[files.size()];
+        for ( int i = 0; i < jars.length; i++ )
+        {
+            jars[i] = new BatchJar( (File) files.get( i ), exposers.size() );
+        }
+
+        // a task per exposer of each JAR, or a single one to open and close a JAR if there is no exposer
+        final int tasksPerJar = Math.max( 1, exposers.size() );
+        final int taskCount = jars.length * tasksPerJar;
+
+        // the index of the next task to run
+        final int[] next = { 0 };
+
+        Runnable worker = new Runnable()
+        {
+            public void run()
+            {
+                while ( true )
+                {
+                    int task;
+                    synchronized ( next )
+                    {
+                        if ( next[0] >= taskCount )
+                        {
+                            return;
+                        }
+                        task = next[0]++;
+                    }
+
+                    runTask( jars[task / tasksPerJar], task % tasksPerJar );
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[Math.max( 0, Math.min( threadCount, taskCount ) - 1 )];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread( worker, "jar-identification-" + ( i + 1 ) );
+            threads[i].setDaemon( true );
+            threads[i].start();
+        }
+
+        // the calling thread works too
+        worker.run();
+
+        boolean interrupted = false;
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            try
+            {
+                threads[i].join();
+            }
+            catch ( InterruptedException e )
+            {
+                // keep waiting, the JARs must be closed before returning
+                interrupted = true;
+                i--;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        List results = new ArrayList( jars.length );
+        for ( int i = 0; i < jars.length; i++ )
+        {
+            results.add( jars[i].getResult() );
+        }
+        return results;
+    }
+
+    /**
+     * Run an exposer over a JAR of a batch, opening the JAR for its first task and completing its identification after
+     * its last one.
+     */
+    private void runTask( BatchJar jar, int exposerIndex )
+    {
+        try
+        {
+            JarAnalyzer jarAnalyzer = jar.open();
+
+            if ( jarAnalyzer != null && exposerIndex < exposers.size() )
+            {
+                JarIdentificationExposer exposer = (JarIdentificationExposer) exposers.get( exposerIndex );
+
+                JarIdentification identification = new JarIdentification();
+                exposer.expose( identification, jarAnalyzer );
+
+                jar.setExposed( exposerIndex, identification );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            jar.fail( e );
+        }
+        finally
+        {
+            if ( jar.taskDone() )
+            {
+                jar.complete();
+            }
+        }
+    }
+
+    /**
+     * Merge the metadata exposed by a single exposer, as if it had populated <code>taxon</code> itself.
+     */
+    private static void merge( JarIdentification taxon, JarIdentification exposed )
+    {
+        addAll( exposed.getPotentialGroupIds(), taxon.getPotentialGroupIds() );
+        addAll( exposed.getPotentialArtifactIds(), taxon.getPotentialArtifactIds() );
+        addAll( exposed.getPotentialVersions(), taxon.getPotentialVersions() );
+        addAll( exposed.getPotentialNames(), taxon.getPotentialNames() );
+        addAll( exposed.getPotentialVendors(), taxon.getPotentialVendors() );
+
+        if ( exposed.getGroupId() != null )
+        {
+            taxon.setGroupId( exposed.getGroupId() );
+        }
+        if ( exposed.getArtifactId() != null )
+        {
+            taxon.setArtifactId( exposed.getArtifactId() );
+        }
+        if ( exposed.getVersion() != null )
+        {
+            taxon.setVersion( exposed.getVersion() );
+        }
+        if ( exposed.getName() != null )
+        {
+            taxon.setName( exposed.getName() );
+        }
+        if ( exposed.getVendor() != null )
+        {
+            taxon.setVendor( exposed.getVendor() );
+        }
+    }
+
+    private static void addAll( List from, List to )
+    {
+        Iterator it = from.iterator();
+        while ( it.hasNext() )
+        {
+            Object value = it.next();
+            if ( !to.contains( value ) )
+            {
+                to.add( value );
+            }
+        }
+    }
+
     private void normalize( JarIdentification taxon )
     {
         if ( StringUtils.isEmpty( taxon.getGroupId() ) )
@@ -161,4 +330,103 @@ public class JarIdentificationAnalysis
     {
         this.exposers = Collections.unmodifiableList( exposers );
     }
+
+    /**
+     * The state of a JAR during a batch analysis, shared by the tasks of its exposers.
+     */
+    private final class BatchJar
+    {
+        private final File file;
+
+        /**
+         * The metadata exposed by each exposer.
+         */
+        private final JarIdentification[] exposed;
+
+        private int remainingTasks;
+
+        private boolean opened;
+
+        private JarAnalyzer jarAnalyzer;
+
+        private Exception failure;
+
+        private JarIdentification identification;
+
+        BatchJar( File file, int exposerCount )
+        {
+            this.file = file;
+            this.exposed = new JarIdentification[exposerCount];
+            this.remainingTasks = Math.max( 1, exposerCount );
+        }
+
+        /**
+         * @return the opened JAR, or <code>null</code> if it could not be opened or an exposer failed
+         */
+        synchronized JarAnalyzer open()
+        {
+            if ( !opened )
+            {
+                opened = true;
+                try
+                {
+                    jarAnalyzer = new JarAnalyzer( file );
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                }
+            }
+            return failure == null ? jarAnalyzer : null;
+        }
+
+        synchronized void setExposed( int exposerIndex, JarIdentification identification )
+        {
+            exposed[exposerIndex] = identification;
+        }
+
+        synchronized void fail( Exception e )
+        {
+            if ( failure == null )
+            {
+                failure = e;
+            }
+        }
+
+        /**
+         * @return whether this was the last task of the JAR
+         */
+        synchronized boolean taskDone()
+        {
+            return --remainingTasks == 0;
+        }
+
+        synchronized void complete()
+        {
+            if ( failure == null )
+            {
+                JarIdentification taxon = new JarIdentification();
+                for ( int i = 0; i < exposed.length; i++ )
+                {
+                    merge( taxon, exposed[i] );
+                }
+
+                normalize( taxon );
+
+                jarAnalyzer.getJarData().setJarIdentification( taxon );
+
+                identification = taxon;
+            }
+
+            if ( jarAnalyzer != null )
+            {
+                jarAnalyzer.closeQuietly();
+            }
+        }
+
+        synchronized JarIdentificationResult getResult()
+        {
+            return new JarIdentificationResult( file, identification, failure );
+        }
+    }
 }
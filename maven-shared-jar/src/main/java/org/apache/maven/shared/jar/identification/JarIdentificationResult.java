@@ -0,0 +1,80 @@
+package org.apache.maven.shared.jar.identification;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * The outcome of the identification of a single JAR within a batch: either the Maven metadata discovered, or the
+ * failure which prevented it.
+ *
+ * @see org.apache.maven.shared.jar.identification.JarIdentificationAnalysis#analyze(java.util.List, int)
+ */
+public class JarIdentificationResult
+{
+    /**
+     * The JAR file analyzed.
+     */
+    private final File file;
+
+    /**
+     * The Maven metadata discovered, or <code>null</code> if the identification failed.
+     */
+    private final JarIdentification identification;
+
+    /**
+     * The failure to open the JAR or of an exposer, or <code>null</code> if the identification succeeded.
+     */
+    private final Exception failure;
+
+    /**
+     * Constructor.
+     *
+     * @param file           the JAR file
+     * @param identification the Maven metadata discovered, <code>null</code> on failure
+     * @param failure        the failure, <code>null</code> on success
+     */
+    public JarIdentificationResult( File file, JarIdentification identification, Exception failure )
+    {
+        this.file = file;
+        this.identification = identification;
+        this.failure = failure;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public JarIdentification getIdentification()
+    {
+        return identification;
+    }
+
+    public Exception getFailure()
+    {
+        return failure;
+    }
+
+    public boolean isSuccessful()
+    {
+        return failure == null;
+    }
+}
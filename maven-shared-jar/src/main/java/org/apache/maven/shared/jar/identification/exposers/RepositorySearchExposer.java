@@ -23,6 +23,7 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.apache.maven.shared.jar.identification.JarIdentification;
 import org.apache.maven.shared.jar.identification.JarIdentificationExposer;
+import org.apache.maven.shared.jar.identification.hash.JarCombinedHashAnalyzer;
 import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
 import org.apache.maven.shared.jar.identification.repository.RepositoryHashSearch;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
@@ -39,6 +40,9 @@ import java.util.List;
  * {@link #setBytecodeHashAnalyzer(org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer)},
  * {@link #setFileHashAnalyzer(org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer)},
  * {@link #setRepositoryHashSearch(org.apache.maven.shared.jar.identification.repository.RepositoryHashSearch)}
+ * <p/>
+ * If a combined hash analyzer is set, both hashes are computed from a single read of the JAR, and the separate hash
+ * analyzers only return them.
  *
  * @plexus.component role="org.apache.maven.shared.jar.identification.JarIdentificationExposer" role-hint="repositorySearch"
  */
@@ -50,7 +54,8 @@ public class RepositorySearchExposer
      * The repository searcher to use.
      *
      * @plexus.requirement
-     * @todo this currently only provides for the 'empty' repository search, which isn't very useful
+     * @todo this currently only provides for the 'empty' repository search by default, the 'local' one indexing a local
+     * repository must be configured
      */
     private RepositoryHashSearch repositoryHashSearch;
 
@@ -68,10 +73,22 @@ public class RepositorySearchExposer
      */
     private JarHashAnalyzer bytecodeHashAnalyzer;
 
+    /**
+     * The analyzer computing both hashes at once.
+     *
+     * @plexus.requirement
+     */
+    private JarCombinedHashAnalyzer combinedHashAnalyzer;
+
     public void expose( JarIdentification identification, JarAnalyzer jarAnalyzer )
     {
         List repohits = new ArrayList();
 
+        if ( combinedHashAnalyzer != null )
+        {
+            combinedHashAnalyzer.computeHashes( jarAnalyzer );
+        }
+
         String hash = fileHashAnalyzer.computeHash( jarAnalyzer );
         if ( hash != null )
         {
@@ -112,4 +129,9 @@ public class RepositorySearchExposer
     {
         this.bytecodeHashAnalyzer = bytecodeHashAnalyzer;
     }
+
+    public void setCombinedHashAnalyzer( JarCombinedHashAnalyzer combinedHashAnalyzer )
+    {
+        this.combinedHashAnalyzer = combinedHashAnalyzer;
+    }
 }
@@ -61,13 +61,17 @@ public class JarBytecodeHashAnalyzer
 
             try
             {
-                digester.reset();
-                while ( it.hasNext() )
+                // the digester accumulates the entries, so is only used for one JAR at a time
+                synchronized ( digester )
                 {
-                    JarEntry entry = (JarEntry) it.next();
-                    computeEntryBytecodeHash( jarAnalyzer.getEntryInputStream( entry ) );
+                    digester.reset();
+                    while ( it.hasNext() )
+                    {
+                        JarEntry entry = (JarEntry) it.next();
+                        computeEntryBytecodeHash( jarAnalyzer.getEntryInputStream( entry ) );
+                    }
+                    result = digester.calc();
                 }
-                result = digester.calc();
                 jarData.setBytecodeHash( result );
             }
             catch ( DigesterException e )
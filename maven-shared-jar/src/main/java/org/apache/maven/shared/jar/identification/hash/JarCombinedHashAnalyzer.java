@@ -0,0 +1,269 @@
+package org.apache.maven.shared.jar.identification.hash;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarData;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.IOUtil;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Analyzer that calculates both the hash code for the entire file and the hash code of its class data, the same as
+ * {@link JarFileHashAnalyzer} and {@link JarBytecodeHashAnalyzer} do, from a single sequential read of the file. The
+ * hashes are stored in the {@link JarData}, so those analyzers find them there once this one has run.
+ * <p/>
+ * The hashes can also be kept in a {@link JarHashCache}, so a JAR is only read again once it changed.
+ *
+ * @plexus.component role="org.apache.maven.shared.jar.identification.hash.JarCombinedHashAnalyzer" role-hint="default"
+ */
+public class JarCombinedHashAnalyzer
+    extends AbstractLogEnabled
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The digest algorithm of both hashes. The default is SHA-1, as for the other hash analyzers under Plexus.
+     *
+     * @plexus.configuration default-value="SHA-1"
+     */
+    private String algorithm = "SHA-1";
+
+    /**
+     * The file of the cache of the hashes, shared by all the analyses. The hashes are not cached between analyses when
+     * not set.
+     *
+     * @plexus.configuration
+     */
+    private File hashCacheFile;
+
+    private JarHashCache hashCache;
+
+    /**
+     * Compute the file and bytecode hashes of a JAR, unless they are already known, and store them in its
+     * {@link JarData}.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     */
+    public void computeHashes( JarAnalyzer jarAnalyzer )
+    {
+        JarData jarData = jarAnalyzer.getJarData();
+
+        if ( jarData.getFileHash() != null && jarData.getBytecodeHash() != null )
+        {
+            return;
+        }
+
+        File file = jarData.getFile();
+        JarHashCache cache = getHashCache();
+
+        String[] hashes = cache != null ? cache.get( file, algorithm ) : null;
+        if ( hashes == null )
+        {
+            try
+            {
+                hashes = digest( jarAnalyzer );
+            }
+            catch ( NoSuchAlgorithmException e )
+            {
+                getLogger().warn( "Unable to calculate the hashcode.", e );
+                return;
+            }
+            catch ( IOException e )
+            {
+                getLogger().warn( "Unable to calculate the hashcode.", e );
+                return;
+            }
+
+            if ( cache != null )
+            {
+                try
+                {
+                    cache.put( file, algorithm, hashes[0], hashes[1] );
+                }
+                catch ( IOException e )
+                {
+                    getLogger().warn( "Unable to cache the hashcode in " + cache.getCacheFile(), e );
+                }
+            }
+        }
+
+        jarData.setFileHash( hashes[0] );
+        jarData.setBytecodeHash( hashes[1] );
+    }
+
+    /**
+     * Rewrite the hash cache, if any, without its outdated entries. Errors are only logged, as the JARs will be read
+     * again next time.
+     */
+    public void storeHashCache()
+    {
+        JarHashCache cache = getHashCache();
+
+        if ( cache != null )
+        {
+            try
+            {
+                cache.store();
+            }
+            catch ( IOException e )
+            {
+                getLogger().warn( "Unable to store the hash cache " + cache.getCacheFile(), e );
+            }
+        }
+    }
+
+    public synchronized JarHashCache getHashCache()
+    {
+        if ( hashCache == null && hashCacheFile != null )
+        {
+            hashCache = new JarHashCache( hashCacheFile );
+        }
+        return hashCache;
+    }
+
+    public synchronized void setHashCache( JarHashCache hashCache )
+    {
+        this.hashCache = hashCache;
+    }
+
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    public void setAlgorithm( String algorithm )
+    {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Read the file once: every byte goes through the file digest, while the class entries are inflated from the same
+     * stream. The class data is then digested in the order of the class entries of the JAR analyzer, sorted by name,
+     * as {@link JarBytecodeHashAnalyzer} does. The class entries which cannot be streamed are read from the JAR file
+     * opened by the JAR analyzer.
+     *
+     * @return the file hash and the bytecode hash
+     */
+    private String[] digest( JarAnalyzer jarAnalyzer )
+        throws NoSuchAlgorithmException, IOException
+    {
+        MessageDigest fileDigest = MessageDigest.getInstance( algorithm );
+        MessageDigest bytecodeDigest = MessageDigest.getInstance( algorithm );
+
+        List classEntries = jarAnalyzer.getClassEntries();
+
+        // class entry name to its data
+        Map classes = new HashMap();
+        for ( Iterator it = classEntries.iterator(); it.hasNext(); )
+        {
+            classes.put( ( (JarEntry) it.next() ).getName(), null );
+        }
+
+        InputStream is = new DigestInputStream(
+            new BufferedInputStream( new FileInputStream( jarAnalyzer.getFile() ), BUFFER_SIZE ), fileDigest );
+        try
+        {
+            try
+            {
+                ZipInputStream zis = new ZipInputStream( is );
+
+                ZipEntry entry;
+                while ( ( entry = zis.getNextEntry() ) != null )
+                {
+                    String name = entry.getName();
+                    if ( classes.containsKey( name ) && classes.get( name ) == null )
+                    {
+                        classes.put( name, IOUtil.toByteArray( zis ) );
+                    }
+                }
+            }
+            catch ( ZipException e )
+            {
+                // an entry that cannot be streamed, like a stored entry with a data descriptor: the class entries
+                // not read yet are read from the JAR file below
+            }
+
+            // the central directory is only digested by reading the rest of the file
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while ( is.read( buffer ) >= 0 )
+            {
+                // digested while read
+            }
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+
+        for ( Iterator it = classEntries.iterator(); it.hasNext(); )
+        {
+            JarEntry entry = (JarEntry) it.next();
+            byte[] data = (byte[]) classes.get( entry.getName() );
+
+            if ( data == null )
+            {
+                // not streamed, as an entry before it could not be
+                InputStream entryStream = jarAnalyzer.getEntryInputStream( entry );
+                try
+                {
+                    data = IOUtil.toByteArray( entryStream );
+                }
+                finally
+                {
+                    IOUtil.close( entryStream );
+                }
+            }
+
+            bytecodeDigest.update( data );
+        }
+
+        return new String[]{toHex( fileDigest.digest() ), toHex( bytecodeDigest.digest() )};
+    }
+
+    private static String toHex( byte[] digest )
+    {
+        char[] hex = new char[digest.length * 2];
+        for ( int i = 0; i < digest.length; i++ )
+        {
+            hex[i * 2] = HEX_DIGITS[( digest[i] >> 4 ) & 0x0f];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+        }
+        return new String( hex );
+    }
+}
@@ -52,7 +52,11 @@ public class JarFileHashAnalyzer
         {
             try
             {
-                result = digester.calc( jarData.getFile() );
+                // digesters are not guaranteed to be thread safe
+                synchronized ( digester )
+                {
+                    result = digester.calc( jarData.getFile() );
+                }
                 jarData.setFileHash( result );
             }
             catch ( DigesterException e )
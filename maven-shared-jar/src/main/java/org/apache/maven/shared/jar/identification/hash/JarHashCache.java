@@ -0,0 +1,218 @@
+package org.apache.maven.shared.jar.identification.hash;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * An on-disk cache of the file and bytecode hashes of JAR files, so a JAR is only read again once it changed. A JAR is
+ * looked up by its absolute path, and its hashes are only used if its size and last modification date are the same
+ * as when they were computed, with the same algorithm.
+ * <p/>
+ * The cache is a properties file. New hashes are appended to it as soon as they are put, so they are kept without any
+ * further call, and {@link #store()} rewrites the file without the outdated entries.
+ * <p/>
+ * This class is thread safe.
+ */
+public class JarHashCache
+{
+    /**
+     * The file the cache is stored in.
+     */
+    private final File cacheFile;
+
+    /**
+     * The cached hashes: the JAR path to its size, last modification date, algorithm, file hash and bytecode hash,
+     * separated by commas.
+     */
+    private final Properties entries = new Properties();
+
+    private boolean loaded;
+
+    /**
+     * Whether the file contains outdated entries, or entries which could not be appended.
+     */
+    private boolean modified;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheFile the file the cache is stored in, read on first use if it exists
+     */
+    public JarHashCache( File cacheFile )
+    {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Get the cached hashes of a JAR.
+     *
+     * @param file      the JAR file
+     * @param algorithm the algorithm the hashes must have been computed with
+     * @return the file hash and the bytecode hash, or <code>null</code> if the JAR is not cached or changed since
+     */
+    public synchronized String[] get( File file, String algorithm )
+    {
+        load();
+
+        String value = entries.getProperty( file.getAbsolutePath() );
+        if ( value == null )
+        {
+            return null;
+        }
+
+        String[] fields = StringUtils.split( value, "," );
+        if ( fields.length != 5 || !fields[0].equals( String.valueOf( file.length() ) )
+            || !fields[1].equals( String.valueOf( file.lastModified() ) ) || !fields[2].equals( algorithm ) )
+        {
+            return null;
+        }
+
+        return new String[]{fields[3], fields[4]};
+    }
+
+    /**
+     * Cache the hashes of a JAR.
+     *
+     * @param file         the JAR file
+     * @param algorithm    the algorithm the hashes were computed with
+     * @param fileHash     the hash of the entire file
+     * @param bytecodeHash the hash of the classes of the file
+     * @throws IOException if the hashes cannot be appended to the cache file
+     */
+    public synchronized void put( File file, String algorithm, String fileHash, String bytecodeHash )
+        throws IOException
+    {
+        load();
+
+        String key = file.getAbsolutePath();
+        String value =
+            file.length() + "," + file.lastModified() + "," + algorithm + "," + fileHash + "," + bytecodeHash;
+
+        if ( entries.setProperty( key, value ) != null )
+        {
+            modified = true;
+        }
+
+        // the last entry of a key wins when the properties are loaded
+        Properties entry = new Properties();
+        entry.setProperty( key, value );
+
+        File parent = cacheFile.getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        OutputStream os = null;
+        try
+        {
+            os = new BufferedOutputStream( new FileOutputStream( cacheFile.getPath(), true ) );
+            entry.store( os, null );
+        }
+        catch ( IOException e )
+        {
+            modified = true;
+            throw e;
+        }
+        finally
+        {
+            IOUtil.close( os );
+        }
+    }
+
+    /**
+     * Rewrite the cache file if it contains outdated entries.
+     *
+     * @throws IOException if the cache cannot be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        if ( !modified )
+        {
+            return;
+        }
+
+        File parent = cacheFile.getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        OutputStream os = new BufferedOutputStream( new FileOutputStream( cacheFile ) );
+        try
+        {
+            entries.store( os, "JAR hashes" );
+        }
+        finally
+        {
+            IOUtil.close( os );
+        }
+
+        modified = false;
+    }
+
+    public File getCacheFile()
+    {
+        return cacheFile;
+    }
+
+    private void load()
+    {
+        if ( loaded )
+        {
+            return;
+        }
+        loaded = true;
+
+        if ( !cacheFile.isFile() )
+        {
+            return;
+        }
+
+        InputStream is = null;
+        try
+        {
+            is = new BufferedInputStream( new FileInputStream( cacheFile ) );
+            entries.load( is );
+        }
+        catch ( IOException e )
+        {
+            // a corrupted cache is an empty one
+            entries.clear();
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+    }
+}
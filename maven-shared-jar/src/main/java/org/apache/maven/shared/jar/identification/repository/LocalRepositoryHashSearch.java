@@ -0,0 +1,663 @@
+package org.apache.maven.shared.jar.identification.repository;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarData;
+import org.apache.maven.shared.jar.identification.hash.JarCombinedHashAnalyzer;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Repository hash search against a local Maven repository directory, using an index of the file and bytecode hashes
+ * of its JARs. A hit is then a hash lookup, so a JAR that was renamed or moved out of the repository is still
+ * identified without any network access.
+ * <p/>
+ * The index is built on the first search, and kept in an index file if one is set. It is then updated incrementally:
+ * the repository is walked again, but only the JARs which are new or whose size or last modification date changed
+ * since are read, and the directories which disappeared are dropped. Call {@link #update()} to pick up new artifacts
+ * in a long running process.
+ * <p/>
+ * Only the JARs following the repository layout, <code>artifactId-version[-classifier].jar</code> within the
+ * <code>groupId/artifactId/version</code> directory, are indexed. The bytecode hash of a JAR without any class is not
+ * indexed, as all of these have the same.
+ * <p/>
+ * Note: if not using Plexus, you must call {@link #setArtifactFactory(ArtifactFactory)},
+ * {@link #setHashAnalyzer(JarCombinedHashAnalyzer)} and {@link #setLocalRepository(File)} before use.
+ *
+ * @plexus.component role="org.apache.maven.shared.jar.identification.repository.RepositoryHashSearch" role-hint="local"
+ */
+public class LocalRepositoryHashSearch
+    extends AbstractLogEnabled
+    implements RepositoryHashSearch
+{
+    private static final String JAR_EXTENSION = ".jar";
+
+    /**
+     * The property of the index file holding the digest algorithm of the hashes. It can't be the path of a version
+     * directory, as the directories starting with a dot are not walked.
+     */
+    private static final String ALGORITHM_PROPERTY = ".algorithm";
+
+    /**
+     * The factory of the artifacts returned by the searches.
+     *
+     * @plexus.requirement
+     */
+    private ArtifactFactory artifactFactory;
+
+    /**
+     * The analyzer computing the hashes of the JARs of the repository.
+     *
+     * @plexus.requirement
+     */
+    private JarCombinedHashAnalyzer hashAnalyzer;
+
+    /**
+     * The base directory of the local repository. The default is <code>~/.m2/repository</code>.
+     *
+     * @plexus.configuration
+     */
+    private File localRepository = new File( System.getProperty( "user.home" ), ".m2/repository" );
+
+    /**
+     * The file the index is kept in between runs. The index is built again by each new instance when not set.
+     *
+     * @plexus.configuration
+     */
+    private File indexFile;
+
+    /**
+     * The indexed version directories: the path relative to the repository to its {@link VersionDirectory}.
+     */
+    private Map directories;
+
+    /**
+     * The file hash to the list of {@link IndexEntry} of the JARs having it.
+     */
+    private Map fileHashes;
+
+    /**
+     * The bytecode hash to the list of {@link IndexEntry} of the JARs having it.
+     */
+    private Map bytecodeHashes;
+
+    public synchronized List searchFileHash( String hash )
+    {
+        ensureIndexed();
+
+        return createArtifacts( (List) fileHashes.get( hash ) );
+    }
+
+    public synchronized List searchBytecodeHash( String hash )
+    {
+        ensureIndexed();
+
+        return createArtifacts( (List) bytecodeHashes.get( hash ) );
+    }
+
+    /**
+     * Bring the index up to date with the repository, then write it to the index file if it changed.
+     *
+     * @throws IOException if the index file cannot be written
+     */
+    public synchronized void update()
+        throws IOException
+    {
+        if ( directories == null )
+        {
+            directories = loadIndex();
+        }
+
+        Map found = new HashMap();
+        if ( localRepository.isDirectory() )
+        {
+            walk( localRepository, "", found );
+        }
+
+        boolean modified = found.size() != directories.size();
+        for ( Iterator it = found.entrySet().iterator(); it.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) it.next();
+            String path = (String) entry.getKey();
+            File dir = (File) entry.getValue();
+
+            VersionDirectory indexed = (VersionDirectory) directories.get( path );
+            if ( indexed == null || !isUnchanged( indexed, dir ) )
+            {
+                entry.setValue( indexDirectory( path, dir, indexed ) );
+                modified = true;
+            }
+            else
+            {
+                entry.setValue( indexed );
+            }
+        }
+        directories = found;
+
+        if ( modified || fileHashes == null )
+        {
+            buildHashes();
+        }
+
+        if ( modified && indexFile != null )
+        {
+            storeIndex();
+        }
+    }
+
+    public void setArtifactFactory( ArtifactFactory artifactFactory )
+    {
+        this.artifactFactory = artifactFactory;
+    }
+
+    public void setHashAnalyzer( JarCombinedHashAnalyzer hashAnalyzer )
+    {
+        this.hashAnalyzer = hashAnalyzer;
+    }
+
+    public File getLocalRepository()
+    {
+        return localRepository;
+    }
+
+    public void setLocalRepository( File localRepository )
+    {
+        this.localRepository = localRepository;
+    }
+
+    public File getIndexFile()
+    {
+        return indexFile;
+    }
+
+    public void setIndexFile( File indexFile )
+    {
+        this.indexFile = indexFile;
+    }
+
+    private void ensureIndexed()
+    {
+        if ( fileHashes == null )
+        {
+            try
+            {
+                update();
+            }
+            catch ( IOException e )
+            {
+                // the index is up to date in memory
+                getLogger().warn( "Unable to store the repository hash index " + indexFile, e );
+            }
+        }
+    }
+
+    private List createArtifacts( List entries )
+    {
+        if ( entries == null )
+        {
+            return Collections.EMPTY_LIST;
+        }
+
+        List artifacts = new ArrayList( entries.size() );
+        for ( Iterator it = entries.iterator(); it.hasNext(); )
+        {
+            IndexEntry entry = (IndexEntry) it.next();
+
+            Artifact artifact;
+            if ( entry.classifier != null )
+            {
+                artifact = artifactFactory.createArtifactWithClassifier( entry.groupId, entry.artifactId,
+                                                                         entry.version, "jar", entry.classifier );
+            }
+            else
+            {
+                artifact = artifactFactory.createArtifact( entry.groupId, entry.artifactId, entry.version, null, "jar" );
+            }
+            artifact.setFile( entry.file );
+            artifacts.add( artifact );
+        }
+        return artifacts;
+    }
+
+    /**
+     * Find the directories containing JARs, which may be version directories.
+     *
+     * @param dir   the directory to walk
+     * @param path  the path of the directory relative to the repository, with a trailing slash unless empty
+     * @param found the relative path of the directories found to the directory
+     */
+    private static void walk( File dir, String path, Map found )
+    {
+        File[] files = dir.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        boolean jars = false;
+        for ( int i = 0; i < files.length; i++ )
+        {
+            String name = files[i].getName();
+            if ( name.startsWith( "." ) )
+            {
+                continue;
+            }
+
+            if ( files[i].isDirectory() )
+            {
+                walk( files[i], path + name + "/", found );
+            }
+            else if ( name.endsWith( JAR_EXTENSION ) )
+            {
+                jars = true;
+            }
+        }
+
+        if ( jars && path.length() > 0 )
+        {
+            found.put( path.substring( 0, path.length() - 1 ), dir );
+        }
+    }
+
+    /**
+     * Check that no JAR was added to or removed from an indexed version directory, and that none of its indexed JARs
+     * was rewritten, as replacing a file in place does not always change the last modification date of its directory.
+     */
+    private static boolean isUnchanged( VersionDirectory indexed, File dir )
+    {
+        if ( indexed.lastModified != dir.lastModified() )
+        {
+            return false;
+        }
+
+        for ( Iterator it = indexed.entries.iterator(); it.hasNext(); )
+        {
+            IndexEntry entry = (IndexEntry) it.next();
+            if ( !entry.isUnchanged() )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the JARs of a new or modified version directory.
+     *
+     * @param indexed the previous index of the directory, whose JARs are only read again if they changed, or
+     *                <code>null</code>
+     */
+    private VersionDirectory indexDirectory( String path, File dir, VersionDirectory indexed )
+    {
+        VersionDirectory directory = new VersionDirectory( dir.lastModified() );
+
+        String[] names = dir.list();
+        if ( names == null )
+        {
+            return directory;
+        }
+        Arrays.sort( names );
+
+        Map previousEntries = new HashMap();
+        if ( indexed != null )
+        {
+            for ( Iterator it = indexed.entries.iterator(); it.hasNext(); )
+            {
+                IndexEntry previous = (IndexEntry) it.next();
+                previousEntries.put( previous.fileName, previous );
+            }
+        }
+
+        for ( int i = 0; i < names.length; i++ )
+        {
+            IndexEntry previous = (IndexEntry) previousEntries.get( names[i] );
+            if ( previous != null && previous.isUnchanged() )
+            {
+                directory.entries.add( previous );
+                continue;
+            }
+
+            IndexEntry entry = createEntry( path, names[i] );
+            if ( entry == null )
+            {
+                continue;
+            }
+            // taken before reading, so a JAR written meanwhile is read again next time
+            entry.length = entry.file.length();
+            entry.lastModified = entry.file.lastModified();
+
+            JarAnalyzer jarAnalyzer;
+            try
+            {
+                jarAnalyzer = new JarAnalyzer( entry.file );
+            }
+            catch ( IOException e )
+            {
+                getLogger().debug( "Unable to open " + entry.file + ": " + e.getMessage() );
+                continue;
+            }
+
+            try
+            {
+                hashAnalyzer.computeHashes( jarAnalyzer );
+
+                JarData jarData = jarAnalyzer.getJarData();
+                entry.fileHash = jarData.getFileHash();
+                if ( !jarAnalyzer.getClassEntries().isEmpty() )
+                {
+                    entry.bytecodeHash = jarData.getBytecodeHash();
+                }
+            }
+            finally
+            {
+                jarAnalyzer.closeQuietly();
+            }
+
+            if ( entry.fileHash != null )
+            {
+                directory.entries.add( entry );
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Create the index entry of a file of a version directory, with the artifact coordinates taken from its path.
+     *
+     * @param path     the path of the version directory relative to the repository
+     * @param fileName the name of the file
+     * @return the entry, without its hashes, or <code>null</code> if the file is not a JAR following the repository
+     *         layout
+     */
+    private IndexEntry createEntry( String path, String fileName )
+    {
+        String[] parts = StringUtils.split( path, "/" );
+        if ( parts.length < 3 || !fileName.endsWith( JAR_EXTENSION ) )
+        {
+            return null;
+        }
+
+        String version = parts[parts.length - 1];
+        String artifactId = parts[parts.length - 2];
+        String prefix = artifactId + "-" + version;
+
+        String rest = fileName.substring( 0, fileName.length() - JAR_EXTENSION.length() );
+        if ( !rest.startsWith( prefix ) )
+        {
+            return null;
+        }
+        rest = rest.substring( prefix.length() );
+
+        String classifier = null;
+        if ( rest.length() > 0 )
+        {
+            if ( rest.length() == 1 || rest.charAt( 0 ) != '-' )
+            {
+                return null;
+            }
+            classifier = rest.substring( 1 );
+        }
+
+        StringBuffer groupId = new StringBuffer( parts[0] );
+        for ( int i = 1; i < parts.length - 2; i++ )
+        {
+            groupId.append( '.' ).append( parts[i] );
+        }
+
+        IndexEntry entry = new IndexEntry();
+        entry.fileName = fileName;
+        entry.file = new File( new File( localRepository, path ), fileName );
+        entry.groupId = groupId.toString();
+        entry.artifactId = artifactId;
+        entry.version = version;
+        entry.classifier = classifier;
+        return entry;
+    }
+
+    private void buildHashes()
+    {
+        fileHashes = new HashMap();
+        bytecodeHashes = new HashMap();
+
+        for ( Iterator i = directories.values().iterator(); i.hasNext(); )
+        {
+            VersionDirectory directory = (VersionDirectory) i.next();
+
+            for ( Iterator j = directory.entries.iterator(); j.hasNext(); )
+            {
+                IndexEntry entry = (IndexEntry) j.next();
+
+                addHash( fileHashes, entry.fileHash, entry );
+                if ( entry.bytecodeHash != null )
+                {
+                    addHash( bytecodeHashes, entry.bytecodeHash, entry );
+                }
+            }
+        }
+    }
+
+    private static void addHash( Map hashes, String hash, IndexEntry entry )
+    {
+        List entries = (List) hashes.get( hash );
+        if ( entries == null )
+        {
+            // most hashes are unique
+            entries = new ArrayList( 1 );
+            hashes.put( hash, entries );
+        }
+        entries.add( entry );
+    }
+
+    /**
+     * Read the index file. Each version directory is a property, its value being its last modification date followed
+     * by the name, size, last modification date, file hash and bytecode hash of each of its JARs, all separated by
+     * commas. The artifact coordinates are taken from the paths again. A directory which cannot be parsed, as written
+     * by a previous version, is read again on update. The index is built again if its hashes were not computed with
+     * the digest algorithm of the hash analyzer.
+     *
+     * @return the indexed version directories, empty if the index file is not set, missing, corrupted or computed with
+     *         another digest algorithm
+     */
+    private Map loadIndex()
+    {
+        Map index = new HashMap();
+
+        if ( indexFile == null || !indexFile.isFile() )
+        {
+            return index;
+        }
+
+        Properties properties = new Properties();
+        InputStream is = null;
+        try
+        {
+            is = new BufferedInputStream( new FileInputStream( indexFile ) );
+            properties.load( is );
+        }
+        catch ( IOException e )
+        {
+            getLogger().warn( "Unable to read the repository hash index " + indexFile + ", building it again", e );
+            return index;
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+
+        String algorithm = (String) properties.remove( ALGORITHM_PROPERTY );
+        if ( !hashAnalyzer.getAlgorithm().equals( algorithm ) )
+        {
+            getLogger().info( "The repository hash index " + indexFile + " was not built with the "
+                + hashAnalyzer.getAlgorithm() + " digest algorithm, building it again" );
+            return index;
+        }
+
+        for ( Iterator it = properties.entrySet().iterator(); it.hasNext(); )
+        {
+            Map.Entry property = (Map.Entry) it.next();
+            String path = (String) property.getKey();
+            String[] fields = StringUtils.split( (String) property.getValue(), "," );
+
+            if ( fields.length % 5 != 1 )
+            {
+                // read again on update
+                continue;
+            }
+
+            VersionDirectory directory;
+            try
+            {
+                directory = new VersionDirectory( Long.parseLong( fields[0] ) );
+
+                for ( int i = 1; i < fields.length; i += 5 )
+                {
+                    IndexEntry entry = createEntry( path, fields[i] );
+                    if ( entry != null )
+                    {
+                        entry.length = Long.parseLong( fields[i + 1] );
+                        entry.lastModified = Long.parseLong( fields[i + 2] );
+                        entry.fileHash = fields[i + 3];
+                        entry.bytecodeHash = "-".equals( fields[i + 4] ) ? null : fields[i + 4];
+                        directory.entries.add( entry );
+                    }
+                }
+            }
+            catch ( NumberFormatException e )
+            {
+                continue;
+            }
+            index.put( path, directory );
+        }
+        return index;
+    }
+
+    private void storeIndex()
+        throws IOException
+    {
+        Properties properties = new Properties();
+        properties.setProperty( ALGORITHM_PROPERTY, hashAnalyzer.getAlgorithm() );
+
+        for ( Iterator i = directories.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            VersionDirectory directory = (VersionDirectory) entry.getValue();
+
+            StringBuffer value = new StringBuffer();
+            value.append( directory.lastModified );
+            for ( Iterator j = directory.entries.iterator(); j.hasNext(); )
+            {
+                IndexEntry indexEntry = (IndexEntry) j.next();
+
+                value.append( ',' ).append( indexEntry.fileName );
+                value.append( ',' ).append( indexEntry.length );
+                value.append( ',' ).append( indexEntry.lastModified );
+                value.append( ',' ).append( indexEntry.fileHash );
+                value.append( ',' ).append( indexEntry.bytecodeHash != null ? indexEntry.bytecodeHash : "-" );
+            }
+            properties.setProperty( (String) entry.getKey(), value.toString() );
+        }
+
+        File parent = indexFile.getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+
+        OutputStream os = new BufferedOutputStream( new FileOutputStream( indexFile ) );
+        try
+        {
+            properties.store( os, "Repository hash index of " + localRepository.getAbsolutePath() );
+        }
+        finally
+        {
+            IOUtil.close( os );
+        }
+    }
+
+    /**
+     * The indexed JARs of a version directory.
+     */
+    private static class VersionDirectory
+    {
+        private final long lastModified;
+
+        private final List entries = new ArrayList();
+
+        VersionDirectory( long lastModified )
+        {
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * An indexed JAR.
+     */
+    private static class IndexEntry
+    {
+        private String fileName;
+
+        private File file;
+
+        private String groupId;
+
+        private String artifactId;
+
+        private String version;
+
+        private String classifier;
+
+        private long length;
+
+        private long lastModified;
+
+        private String fileHash;
+
+        private String bytecodeHash;
+
+        /**
+         * @return <code>true</code> if the JAR still has the size and last modification date it was read with
+         */
+        boolean isUnchanged()
+        {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
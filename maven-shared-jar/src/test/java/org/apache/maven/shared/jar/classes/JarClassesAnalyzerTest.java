@@ -155,6 +155,44 @@ public class JarClassesAnalyzerTest
         assertEquals( "jdkrevision", "1.1", jclass.getJdkRevision() );
     }
 
+    public void testAnalyzeWithThreads()
+        throws Exception
+    {
+        JarClasses expected = getJarClasses( "ant.jar" );
+
+        JarClasses jclass = analyzer.analyze( new JarAnalyzer( getSampleJar( "ant.jar" ) ), 4 );
+
+        assertEquals( "classes.classNames", expected.getClassNames(), jclass.getClassNames() );
+        assertEquals( "classes.packages", expected.getPackages(), jclass.getPackages() );
+        assertEquals( "classes.methods", expected.getMethods(), jclass.getMethods() );
+        assertEquals( "classes.imports", expected.getImports(), jclass.getImports() );
+        assertEquals( "classes.debug", expected.isDebugPresent(), jclass.isDebugPresent() );
+        assertEquals( "jdkrevision", expected.getJdkRevision(), jclass.getJdkRevision() );
+    }
+
+    public void testAnalyzeWithThreadsWhenInterrupted()
+        throws Exception
+    {
+        JarClasses expected = getJarClasses( "ant.jar" );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( getSampleJar( "ant.jar" ) );
+        JarClasses jclass;
+        Thread.currentThread().interrupt();
+        try
+        {
+            jclass = analyzer.analyze( jarAnalyzer, 4 );
+        }
+        finally
+        {
+            assertTrue( "interrupted", Thread.interrupted() );
+        }
+
+        // all the classes are parsed and cached
+        assertEquals( "classes.classNames", expected.getClassNames(), jclass.getClassNames() );
+        assertEquals( "classes.methods", expected.getMethods(), jclass.getMethods() );
+        assertSame( jclass, jarAnalyzer.getJarData().getJarClasses() );
+    }
+
     private JarClasses getJarClasses( String filename )
         throws Exception
     {
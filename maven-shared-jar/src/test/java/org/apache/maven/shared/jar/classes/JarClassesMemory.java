@@ -0,0 +1,97 @@
+package org.apache.maven.shared.jar.classes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prints the heap retained by the methods of a large JAR, kept in {@link JarClasses} and in a list backed by a set of
+ * full method names, as previously stored. Not a test case, as heap measurements vary with the JVM: run its main
+ * method from the test classpath.
+ */
+public class JarClassesMemory
+{
+    private static final int CLASS_COUNT = 2000;
+
+    private static final int METHOD_COUNT = 100;
+
+    public static void main( String[] args )
+    {
+        long before = usedMemory();
+
+        JarClasses jclass = new JarClasses();
+        for ( int i = 0; i < CLASS_COUNT; i++ )
+        {
+            String className = getClassName( i );
+            for ( int j = 0; j < METHOD_COUNT; j++ )
+            {
+                jclass.addMethod( className, getMethodName( j ) );
+            }
+        }
+
+        long tableMemory = usedMemory() - before;
+
+        before = usedMemory();
+
+        List list = new ArrayList();
+        Set set = new HashSet();
+        for ( int i = 0; i < CLASS_COUNT; i++ )
+        {
+            String className = getClassName( i );
+            for ( int j = 0; j < METHOD_COUNT; j++ )
+            {
+                String name = className + "." + getMethodName( j );
+                if ( set.add( name ) )
+                {
+                    list.add( name );
+                }
+            }
+        }
+
+        long listMemory = usedMemory() - before;
+
+        System.out.println( "Memory of " + jclass.getMethods().size() + " methods: JarClasses " + tableMemory / 1024
+            + " KB, list and set " + listMemory / 1024 + " KB (" + list.size() + " methods)" );
+    }
+
+    private static String getClassName( int i )
+    {
+        return "org.apache.maven.shared.jar.example.package" + ( i % 40 ) + ".ExampleClass" + i;
+    }
+
+    private static String getMethodName( int j )
+    {
+        return "method" + j + "(Ljava/lang/String;I)V";
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        for ( int i = 0; i < 4; i++ )
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
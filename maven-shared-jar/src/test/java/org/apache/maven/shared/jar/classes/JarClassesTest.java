@@ -0,0 +1,143 @@
+package org.apache.maven.shared.jar.classes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JarClasses Test Case
+ */
+public class JarClassesTest
+    extends TestCase
+{
+    public void testUniqueInInsertionOrder()
+    {
+        JarClasses jclass = new JarClasses();
+
+        List packages = jclass.getPackages();
+
+        jclass.addPackage( "b" );
+        jclass.addPackage( "a" );
+        jclass.addPackage( "b" );
+        jclass.addImports( Arrays.asList( new String[]{"x.Y", "u.V", "x.Y"} ) );
+
+        // the lists are views of the data
+        assertEquals( Arrays.asList( new String[]{"b", "a"} ), packages );
+        assertEquals( Arrays.asList( new String[]{"x.Y", "u.V"} ), jclass.getImports() );
+        assertTrue( jclass.getImports().contains( "u.V" ) );
+        assertFalse( jclass.getImports().contains( "u.W" ) );
+        assertEquals( 1, jclass.getImports().indexOf( "u.V" ) );
+
+        try
+        {
+            packages.add( "c" );
+            fail( "packages are read only" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    public void testMethods()
+    {
+        JarClasses jclass = new JarClasses();
+
+        jclass.addMethod( "a.b.C", "<init>()V" );
+        jclass.addMethod( "a.b.C.run(Ljava/lang/String;)V" );
+        jclass.addMethod( "a.b.C", "run(Ljava/lang/String;)V" );
+        jclass.addMethod( "a.b.D.<init>()V" );
+        jclass.addMethod( "main" );
+
+        assertEquals( Arrays.asList(
+            new String[]{"a.b.C.<init>()V", "a.b.C.run(Ljava/lang/String;)V", "a.b.D.<init>()V", "main"} ),
+                      jclass.getMethods() );
+        assertTrue( jclass.getMethods().contains( "a.b.D.<init>()V" ) );
+        assertFalse( jclass.getMethods().contains( "a.b.D.run(Ljava/lang/String;)V" ) );
+        assertEquals( 3, jclass.getMethods().indexOf( "main" ) );
+    }
+
+    public void testManyEntries()
+    {
+        JarClasses jclass = new JarClasses();
+
+        Set expected = new HashSet();
+        for ( int i = 0; i < 20000; i++ )
+        {
+            String className = "org.example.p" + ( i % 50 ) + ".C" + ( i % 700 );
+            String methodName = "m" + ( i % 300 ) + "()V";
+
+            jclass.addClassName( className );
+            jclass.addMethod( className, methodName );
+            expected.add( className + "." + methodName );
+        }
+
+        assertEquals( 700, jclass.getClassNames().size() );
+        assertEquals( expected.size(), jclass.getMethods().size() );
+        assertEquals( expected, new HashSet( jclass.getMethods() ) );
+    }
+
+    public void testManyMethods()
+    {
+        int classCount = 2000;
+        int methodCount = 100;
+
+        JarClasses jclass = new JarClasses();
+        List expected = new ArrayList();
+        for ( int i = 0; i < classCount; i++ )
+        {
+            String className = "org.apache.maven.shared.jar.example.package" + ( i % 40 ) + ".ExampleClass" + i;
+            jclass.addClassName( className );
+            for ( int j = 0; j < methodCount; j++ )
+            {
+                jclass.addMethod( className, "method" + j + "(Ljava/lang/String;I)V" );
+                expected.add( className + ".method" + j + "(Ljava/lang/String;I)V" );
+            }
+        }
+
+        assertEquals( expected, jclass.getMethods() );
+        assertEquals( expected.size() - 1, jclass.getMethods().indexOf( expected.get( expected.size() - 1 ) ) );
+    }
+
+    public void testNullEntry()
+    {
+        JarClasses jclass = new JarClasses();
+
+        jclass.addPackage( "a" );
+        jclass.addPackage( null );
+        jclass.addPackage( null );
+
+        assertEquals( Arrays.asList( new String[]{"a", null} ), jclass.getPackages() );
+        assertTrue( jclass.getPackages().contains( null ) );
+        assertEquals( 1, jclass.getPackages().indexOf( null ) );
+
+        jclass.addMethod( "a.b.C.run()V" );
+        jclass.addMethod( null );
+
+        assertEquals( Arrays.asList( new String[]{"a.b.C.run()V", null} ), jclass.getMethods() );
+        assertEquals( 1, jclass.getMethods().indexOf( null ) );
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
 import org.apache.maven.shared.jar.JarAnalyzer;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 
 /**
@@ -95,4 +97,47 @@ public class JarIdentificationAnalyzerTest
 
         // TODO assert potentials too
     }
+
+    public void testBatchAnalysis()
+        throws Exception
+    {
+        JarIdentificationAnalysis analyzer =
+            (JarIdentificationAnalysis) lookup( JarIdentificationAnalysis.class.getName() );
+
+        List files = Arrays.asList( new File[]{getSampleJar( "jxr.jar" ), getSampleJar( "invalid.jar" ),
+            getSampleJar( "codec.jar" ), getSampleJar( "ant.jar" )} );
+
+        List results = analyzer.analyze( files, 4 );
+        assertEquals( 4, results.size() );
+
+        // the invalid JAR fails on its own
+        JarIdentificationResult invalid = (JarIdentificationResult) results.get( 1 );
+        assertEquals( files.get( 1 ), invalid.getFile() );
+        assertFalse( invalid.isSuccessful() );
+        assertNull( invalid.getIdentification() );
+        assertNotNull( invalid.getFailure() );
+
+        String[] filenames = {"jxr.jar", null, "codec.jar", "ant.jar"};
+        for ( int i = 0; i < filenames.length; i++ )
+        {
+            if ( filenames[i] == null )
+            {
+                continue;
+            }
+
+            JarIdentificationResult result = (JarIdentificationResult) results.get( i );
+            assertTrue( filenames[i], result.isSuccessful() );
+
+            JarIdentification expected = getJarTaxon( filenames[i] );
+            JarIdentification taxon = result.getIdentification();
+
+            assertEquals( "identification.groupId", expected.getGroupId(), taxon.getGroupId() );
+            assertEquals( "identification.artifactId", expected.getArtifactId(), taxon.getArtifactId() );
+            assertEquals( "identification.version", expected.getVersion(), taxon.getVersion() );
+            assertEquals( "identification.name", expected.getName(), taxon.getName() );
+            assertEquals( "identification.vendor", expected.getVendor(), taxon.getVendor() );
+            assertEquals( "identification.potentialVersions", expected.getPotentialVersions(),
+                          taxon.getPotentialVersions() );
+        }
+    }
 }
@@ -0,0 +1,233 @@
+package org.apache.maven.shared.jar.identification.hash;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * JarCombinedHashAnalyzer Test Case
+ */
+public class JarCombinedHashAnalyzerTest
+    extends AbstractJarAnalyzerTestCase
+{
+    public void testSameHashesAsSeparateAnalyzers()
+        throws Exception
+    {
+        JarHashAnalyzer fileHashAnalyzer = (JarHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), "file" );
+        JarHashAnalyzer bytecodeHashAnalyzer =
+            (JarHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), "bytecode" );
+        JarCombinedHashAnalyzer combinedHashAnalyzer =
+            (JarCombinedHashAnalyzer) lookup( JarCombinedHashAnalyzer.class.getName() );
+
+        String[] filenames = {"jxr.jar", "ant.jar", "helloworld-1.4.jar", "invalid-class-file.jar"};
+        for ( int i = 0; i < filenames.length; i++ )
+        {
+            File file = getSampleJar( filenames[i] );
+
+            JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+            String fileHash = fileHashAnalyzer.computeHash( jarAnalyzer );
+            String bytecodeHash = bytecodeHashAnalyzer.computeHash( jarAnalyzer );
+            jarAnalyzer.closeQuietly();
+
+            jarAnalyzer = new JarAnalyzer( file );
+            combinedHashAnalyzer.computeHashes( jarAnalyzer );
+            jarAnalyzer.closeQuietly();
+
+            assertEquals( filenames[i], fileHash, jarAnalyzer.getJarData().getFileHash() );
+            assertEquals( filenames[i], bytecodeHash, jarAnalyzer.getJarData().getBytecodeHash() );
+        }
+    }
+
+    public void testHashCache()
+        throws Exception
+    {
+        File cacheFile = File.createTempFile( "hashes", ".properties" );
+        cacheFile.delete();
+        cacheFile.deleteOnExit();
+
+        File file = File.createTempFile( "jxr", ".jar" );
+        file.deleteOnExit();
+        FileUtils.copyFile( getSampleJar( "jxr.jar" ), file );
+
+        JarCombinedHashAnalyzer combinedHashAnalyzer = new JarCombinedHashAnalyzer();
+        combinedHashAnalyzer.enableLogging( new ConsoleLogger( Logger.LEVEL_WARN, "test" ) );
+        combinedHashAnalyzer.setHashCache( new JarHashCache( cacheFile ) );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+        combinedHashAnalyzer.computeHashes( jarAnalyzer );
+        jarAnalyzer.closeQuietly();
+
+        // the hashes are appended to the cache file as computed
+        JarHashCache cache = new JarHashCache( cacheFile );
+        String[] hashes = cache.get( file, "SHA-1" );
+        assertNotNull( hashes );
+        assertEquals( jarAnalyzer.getJarData().getFileHash(), hashes[0] );
+        assertEquals( jarAnalyzer.getJarData().getBytecodeHash(), hashes[1] );
+
+        assertNull( "other algorithm", cache.get( file, "MD5" ) );
+        assertNull( "other file", cache.get( getSampleJar( "ant.jar" ), "SHA-1" ) );
+
+        // the last entry of a JAR wins, and store() drops the others
+        cache.put( file, "SHA-1", "a", "b" );
+        cache.store();
+        assertEquals( "a", new JarHashCache( cacheFile ).get( file, "SHA-1" )[0] );
+
+        // a modified JAR is read again
+        file.setLastModified( file.lastModified() - 10000 );
+        assertNull( new JarHashCache( cacheFile ).get( file, "SHA-1" ) );
+
+        jarAnalyzer = new JarAnalyzer( file );
+        combinedHashAnalyzer.computeHashes( jarAnalyzer );
+        jarAnalyzer.closeQuietly();
+
+        assertEquals( hashes[0], jarAnalyzer.getJarData().getFileHash() );
+        assertEquals( hashes[0], new JarHashCache( cacheFile ).get( file, "SHA-1" )[0] );
+    }
+
+    public void testStoredEntryWithDataDescriptor()
+        throws Exception
+    {
+        JarHashAnalyzer fileHashAnalyzer = (JarHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), "file" );
+        JarHashAnalyzer bytecodeHashAnalyzer =
+            (JarHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), "bytecode" );
+        JarCombinedHashAnalyzer combinedHashAnalyzer =
+            (JarCombinedHashAnalyzer) lookup( JarCombinedHashAnalyzer.class.getName() );
+
+        // ZipInputStream cannot read the second entry, ZipFile reads it from the central directory
+        File file = File.createTempFile( "descriptor", ".jar" );
+        file.deleteOnExit();
+        writeStoredJar( file, new String[]{"a/A.class", "b/B.class", "c/C.class"}, 1 );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+        String fileHash = fileHashAnalyzer.computeHash( jarAnalyzer );
+        String bytecodeHash = bytecodeHashAnalyzer.computeHash( jarAnalyzer );
+        jarAnalyzer.closeQuietly();
+
+        jarAnalyzer = new JarAnalyzer( file );
+        combinedHashAnalyzer.computeHashes( jarAnalyzer );
+        jarAnalyzer.closeQuietly();
+
+        assertEquals( fileHash, jarAnalyzer.getJarData().getFileHash() );
+        assertEquals( bytecodeHash, jarAnalyzer.getJarData().getBytecodeHash() );
+    }
+
+    /**
+     * Write a JAR of stored entries, each containing its name, the entry at <code>descriptorIndex</code> being
+     * followed by a data descriptor.
+     */
+    private static void writeStoredJar( File file, String[] names, int descriptorIndex )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+
+        for ( int i = 0; i < names.length; i++ )
+        {
+            byte[] name = names[i].getBytes( "UTF-8" );
+            byte[] data = name;
+            CRC32 crc = new CRC32();
+            crc.update( data );
+            boolean descriptor = i == descriptorIndex;
+            int offset = out.size();
+
+            writeInt( out, 0x04034b50 );
+            writeShort( out, 10 );
+            writeShort( out, descriptor ? 8 : 0 );
+            writeShort( out, 0 );
+            writeInt( out, 0 );
+            writeInt( out, descriptor ? 0 : (int) crc.getValue() );
+            writeInt( out, descriptor ? 0 : data.length );
+            writeInt( out, descriptor ? 0 : data.length );
+            writeShort( out, name.length );
+            writeShort( out, 0 );
+            out.write( name );
+            out.write( data );
+            if ( descriptor )
+            {
+                writeInt( out, 0x08074b50 );
+                writeInt( out, (int) crc.getValue() );
+                writeInt( out, data.length );
+                writeInt( out, data.length );
+            }
+
+            writeInt( centralDirectory, 0x02014b50 );
+            writeShort( centralDirectory, 10 );
+            writeShort( centralDirectory, 10 );
+            writeShort( centralDirectory, descriptor ? 8 : 0 );
+            writeShort( centralDirectory, 0 );
+            writeInt( centralDirectory, 0 );
+            writeInt( centralDirectory, (int) crc.getValue() );
+            writeInt( centralDirectory, data.length );
+            writeInt( centralDirectory, data.length );
+            writeShort( centralDirectory, name.length );
+            writeShort( centralDirectory, 0 );
+            writeShort( centralDirectory, 0 );
+            writeShort( centralDirectory, 0 );
+            writeShort( centralDirectory, 0 );
+            writeInt( centralDirectory, 0 );
+            writeInt( centralDirectory, offset );
+            centralDirectory.write( name );
+        }
+
+        int centralDirectoryOffset = out.size();
+        centralDirectory.writeTo( out );
+
+        writeInt( out, 0x06054b50 );
+        writeShort( out, 0 );
+        writeShort( out, 0 );
+        writeShort( out, names.length );
+        writeShort( out, names.length );
+        writeInt( out, centralDirectory.size() );
+        writeInt( out, centralDirectoryOffset );
+        writeShort( out, 0 );
+
+        FileOutputStream fos = new FileOutputStream( file );
+        try
+        {
+            out.writeTo( fos );
+        }
+        finally
+        {
+            fos.close();
+        }
+    }
+
+    private static void writeShort( ByteArrayOutputStream out, int value )
+    {
+        out.write( value & 0xff );
+        out.write( ( value >>> 8 ) & 0xff );
+    }
+
+    private static void writeInt( ByteArrayOutputStream out, int value )
+    {
+        writeShort( out, value & 0xffff );
+        writeShort( out, value >>> 16 );
+    }
+}
@@ -0,0 +1,219 @@
+package org.apache.maven.shared.jar.identification.repository;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarCombinedHashAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * LocalRepositoryHashSearch Test Case
+ */
+public class LocalRepositoryHashSearchTest
+    extends AbstractJarAnalyzerTestCase
+{
+    private File repository;
+
+    private File indexFile;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        repository = new File( getBasedir(), "target/test-repository" );
+        FileUtils.deleteDirectory( repository );
+        indexFile = new File( getBasedir(), "target/test-repository-index.properties" );
+        indexFile.delete();
+
+        copy( "jxr.jar", "org/apache/maven/jxr/1.0/jxr-1.0.jar" );
+        copy( "ant.jar", "org/apache/ant/ant/1.6.5/ant-1.6.5.jar" );
+        copy( "codec.jar", "commons-codec/commons-codec/1.3/commons-codec-1.3-sources.jar" );
+        // not following the repository layout
+        copy( "helloworld-1.4.jar", "org/example/helloworld/1.4/hello.jar" );
+    }
+
+    public void testSearch()
+        throws Exception
+    {
+        LocalRepositoryHashSearch search = lookupSearch();
+
+        List artifacts = search.searchFileHash( fileHash( "jxr.jar" ) );
+        assertEquals( 1, artifacts.size() );
+        Artifact artifact = (Artifact) artifacts.get( 0 );
+        assertEquals( "org.apache.maven", artifact.getGroupId() );
+        assertEquals( "jxr", artifact.getArtifactId() );
+        assertEquals( "1.0", artifact.getVersion() );
+
+        artifacts = search.searchBytecodeHash( bytecodeHash( "codec.jar" ) );
+        assertEquals( 1, artifacts.size() );
+        artifact = (Artifact) artifacts.get( 0 );
+        assertEquals( "commons-codec", artifact.getGroupId() );
+        assertEquals( "sources", artifact.getClassifier() );
+
+        assertTrue( search.searchFileHash( fileHash( "helloworld-1.4.jar" ) ).isEmpty() );
+        assertTrue( search.searchFileHash( "0000" ).isEmpty() );
+    }
+
+    public void testIncrementalUpdate()
+        throws Exception
+    {
+        LocalRepositoryHashSearch search = lookupSearch();
+
+        String hash = fileHash( "helloworld-1.5.jar" );
+        assertTrue( search.searchFileHash( hash ).isEmpty() );
+        assertTrue( indexFile.exists() );
+
+        copy( "helloworld-1.5.jar", "org/example/helloworld/1.5/helloworld-1.5.jar" );
+        search.update();
+        assertEquals( 1, search.searchFileHash( hash ).size() );
+
+        // a new instance reads the index file, and only the JARs of the changed directories are read again
+        FileUtils.fileDelete( new File( repository, "org/apache/maven/jxr/1.0/jxr-1.0.jar" ) );
+        FileUtils.copyFile( getSampleJar( "ant.jar" ), new File( repository, "org/apache/ant/ant/1.6.5/ant-1.6.5.jar" ) );
+        new File( repository, "org/apache/maven/jxr/1.0" ).setLastModified( 1000 );
+        new File( repository, "org/apache/ant/ant/1.6.5" ).setLastModified( 1000 );
+
+        search = lookupSearch();
+        assertEquals( 1, search.searchFileHash( hash ).size() );
+        assertEquals( 1, search.searchFileHash( fileHash( "ant.jar" ) ).size() );
+        assertTrue( search.searchFileHash( fileHash( "jxr.jar" ) ).isEmpty() );
+
+        // a removed directory is dropped
+        FileUtils.deleteDirectory( new File( repository, "org/example/helloworld/1.5" ) );
+        search.update();
+        assertTrue( search.searchFileHash( hash ).isEmpty() );
+    }
+
+    public void testRewrittenJar()
+        throws Exception
+    {
+        LocalRepositoryHashSearch search = lookupSearch();
+        assertEquals( 1, search.searchFileHash( fileHash( "ant.jar" ) ).size() );
+
+        // the JAR is replaced in place, its directory keeping its last modification date
+        File dir = new File( repository, "org/apache/ant/ant/1.6.5" );
+        long dirLastModified = dir.lastModified();
+        File jar = new File( dir, "ant-1.6.5.jar" );
+        long jarLastModified = jar.lastModified();
+        FileUtils.copyFile( getSampleJar( "helloworld-1.5.jar" ), jar );
+        jar.setLastModified( jarLastModified + 2000 );
+        dir.setLastModified( dirLastModified );
+
+        search.update();
+        assertTrue( search.searchFileHash( fileHash( "ant.jar" ) ).isEmpty() );
+        List artifacts = search.searchFileHash( fileHash( "helloworld-1.5.jar" ) );
+        assertEquals( 1, artifacts.size() );
+        assertEquals( "ant", ( (Artifact) artifacts.get( 0 ) ).getArtifactId() );
+
+        // as does a new instance reading the index file
+        search = lookupSearch();
+        assertEquals( 1, search.searchFileHash( fileHash( "helloworld-1.5.jar" ) ).size() );
+        assertEquals( 1, search.searchFileHash( fileHash( "jxr.jar" ) ).size() );
+    }
+
+    public void testChangedAlgorithm()
+        throws Exception
+    {
+        LocalRepositoryHashSearch search = lookupSearch();
+        search.update();
+        assertTrue( indexFile.exists() );
+
+        // the index of SHA-1 hashes is built again with MD5 ones
+        JarCombinedHashAnalyzer hashAnalyzer = new JarCombinedHashAnalyzer();
+        hashAnalyzer.enableLogging( new ConsoleLogger( Logger.LEVEL_WARN, "test" ) );
+        hashAnalyzer.setAlgorithm( "MD5" );
+
+        search = lookupSearch();
+        search.setHashAnalyzer( hashAnalyzer );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( getSampleJar( "jxr.jar" ) );
+        hashAnalyzer.computeHashes( jarAnalyzer );
+        jarAnalyzer.closeQuietly();
+
+        String hash = jarAnalyzer.getJarData().getFileHash();
+        assertFalse( hash.equals( fileHash( "jxr.jar" ) ) );
+        assertEquals( 1, search.searchFileHash( hash ).size() );
+        assertTrue( search.searchFileHash( fileHash( "jxr.jar" ) ).isEmpty() );
+
+        // as does a new instance reading the index file
+        search = lookupSearch();
+        search.setHashAnalyzer( hashAnalyzer );
+        assertEquals( 1, search.searchFileHash( hash ).size() );
+    }
+
+    private LocalRepositoryHashSearch lookupSearch()
+        throws Exception
+    {
+        // a new instance each time, as the component is a singleton
+        LocalRepositoryHashSearch search = new LocalRepositoryHashSearch();
+        search.enableLogging( new ConsoleLogger( Logger.LEVEL_WARN, "test" ) );
+        search.setArtifactFactory( (ArtifactFactory) lookup( ArtifactFactory.ROLE ) );
+        search.setHashAnalyzer( (JarCombinedHashAnalyzer) lookup( JarCombinedHashAnalyzer.class.getName() ) );
+        search.setLocalRepository( repository );
+        search.setIndexFile( indexFile );
+        return search;
+    }
+
+    private String fileHash( String filename )
+        throws Exception
+    {
+        return computeHash( "file", filename );
+    }
+
+    private String bytecodeHash( String filename )
+        throws Exception
+    {
+        return computeHash( "bytecode", filename );
+    }
+
+    private String computeHash( String roleHint, String filename )
+        throws Exception
+    {
+        JarHashAnalyzer analyzer = (JarHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), roleHint );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( getSampleJar( filename ) );
+        try
+        {
+            return analyzer.computeHash( jarAnalyzer );
+        }
+        finally
+        {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private void copy( String filename, String path )
+        throws Exception
+    {
+        File file = new File( repository, path );
+        file.getParentFile().mkdirs();
+        FileUtils.copyFile( getSampleJar( filename ), file );
+    }
+}